@@ -0,0 +1,82 @@
+package com.example.prmtool.config;
+
+import com.example.prmtool.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.Serial;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 認証済みユーザーのプリンシパル
+ * JWT検証後にSecurityContextへ格納される不変オブジェクト
+ * パスワードハッシュは保持しない
+ *
+ * コントローラのハンドラ引数に宣言するとCurrentUserArgumentResolverにより注入されるため、
+ * loginIdからユーザーを再検索する必要はない
+ */
+public class AuthenticatedUser implements UserDetails {
+
+  @Serial
+  private static final long serialVersionUID = 1L;
+
+  private final UUID userId; // ユーザーID
+  private final String loginId; // ログインID
+  private final String name; // ユーザー名
+  private final User.UserRole role; // ユーザーロール
+  private final List<GrantedAuthority> authorities; // 権限（ROLE_ + ロール名）
+
+  public AuthenticatedUser(UUID userId, String loginId, String name, User.UserRole role) {
+    this.userId = userId;
+    this.loginId = loginId;
+    this.name = name;
+    this.role = role;
+    this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+  }
+
+  /**
+   * Userエンティティからプリンシパルを生成
+   */
+  public static AuthenticatedUser from(User user) {
+    return new AuthenticatedUser(user.getId(), user.getLoginId(), user.getName(), user.getRole());
+  }
+
+  public UUID getUserId() {
+    return userId;
+  }
+
+  public String getLoginId() {
+    return loginId;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public User.UserRole getRole() {
+    return role;
+  }
+
+  // 管理者（ADMIN）かどうか
+  public boolean isAdmin() {
+    return role == User.UserRole.ADMIN;
+  }
+
+  @Override
+  public Collection<? extends GrantedAuthority> getAuthorities() {
+    return authorities;
+  }
+
+  @Override
+  public String getPassword() {
+    return null;
+  }
+
+  @Override
+  public String getUsername() {
+    return loginId;
+  }
+}
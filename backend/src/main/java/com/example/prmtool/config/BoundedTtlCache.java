@@ -0,0 +1,159 @@
+package com.example.prmtool.config;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * 上限件数とTTL付きのメモリキャッシュ
+ * アクセス順のLinkedHashMapで保持し、上限を超えた時点で最も長く使われていないエントリを1件追い出す（LRU）
+ *
+ * - 各エントリは登録時に指定した期限で失効し、取得時に見つかった失効済みエントリはその場で削除する
+ * - 追い出しは1件ずつのため、登録のたびに全件を走査・整列しない
+ * - 操作はすべて短い同期ブロックで行う
+ */
+public class BoundedTtlCache<K, V> {
+
+  private final int maxSize;
+  private final long ttlMillis;
+  private final LinkedHashMap<K, Entry<V>> entries;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public BoundedTtlCache(int maxSize, long ttlMillis) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("キャッシュの上限件数は1以上を指定してください: " + maxSize);
+    }
+    this.maxSize = maxSize;
+    this.ttlMillis = ttlMillis;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+        boolean overflow = size() > BoundedTtlCache.this.maxSize;
+        if (overflow) {
+          evictions.increment();
+        }
+        return overflow;
+      }
+    };
+  }
+
+  /**
+   * 値を取得（未登録または失効済みの場合はnull）
+   */
+  public V get(K key) {
+    long now = System.currentTimeMillis();
+    synchronized (entries) {
+      Entry<V> entry = entries.get(key);
+      if (entry != null && entry.expiresAt() > now) {
+        hits.increment();
+        return entry.value();
+      }
+      misses.increment();
+      if (entry != null) {
+        entries.remove(key);
+        evictions.increment();
+      }
+      return null;
+    }
+  }
+
+  /**
+   * TTL後に失効する値を登録
+   */
+  public void put(K key, V value) {
+    put(key, value, System.currentTimeMillis() + ttlMillis);
+  }
+
+  /**
+   * 指定日時（エポックミリ秒）に失効する値を登録（TTLより後の日時はTTLに切り詰める）
+   */
+  public void put(K key, V value, long expiresAt) {
+    long now = System.currentTimeMillis();
+    long effectiveExpiresAt = Math.min(expiresAt, now + ttlMillis);
+    if (effectiveExpiresAt <= now) {
+      return;
+    }
+    synchronized (entries) {
+      entries.put(key, new Entry<>(value, effectiveExpiresAt));
+    }
+  }
+
+  /**
+   * エントリを削除
+   *
+   * @return 削除した場合はtrue
+   */
+  public boolean remove(K key) {
+    synchronized (entries) {
+      return entries.remove(key) != null;
+    }
+  }
+
+  /**
+   * 条件に一致する値のエントリをすべて削除
+   *
+   * @return 削除した件数
+   */
+  public int removeIf(Predicate<V> predicate) {
+    int removed = 0;
+    synchronized (entries) {
+      Iterator<Entry<V>> it = entries.values().iterator();
+      while (it.hasNext()) {
+        if (predicate.test(it.next().value())) {
+          it.remove();
+          removed++;
+        }
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * 全エントリを破棄
+   */
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  /**
+   * 現在のエントリ数（失効済みで未削除のものを含む）
+   */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public int maxSize() {
+    return maxSize;
+  }
+
+  public long ttlMillis() {
+    return ttlMillis;
+  }
+
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  public long missCount() {
+    return misses.sum();
+  }
+
+  /**
+   * 上限超過・失効による追い出し数
+   */
+  public long evictionCount() {
+    return evictions.sum();
+  }
+
+  private record Entry<V>(V value, long expiresAt) {
+  }
+}
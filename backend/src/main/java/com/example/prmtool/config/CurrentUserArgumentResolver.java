@@ -0,0 +1,37 @@
+package com.example.prmtool.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * AuthenticatedUser型のハンドラ引数を解決するリゾルバ
+ * JwtRequestFilterがSecurityContextに格納したプリンシパルをそのまま渡すため、
+ * コントローラでのユーザー再検索（findByLoginId）が不要になる
+ */
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+  @Override
+  public boolean supportsParameter(@NonNull MethodParameter parameter) {
+    return AuthenticatedUser.class.isAssignableFrom(parameter.getParameterType());
+  }
+
+  @Override
+  public Object resolveArgument(
+      @NonNull MethodParameter parameter,
+      ModelAndViewContainer mavContainer,
+      @NonNull NativeWebRequest webRequest,
+      WebDataBinderFactory binderFactory) {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+      return user;
+    }
+    throw new AuthenticationCredentialsNotFoundException("認証情報が見つかりません");
+  }
+}
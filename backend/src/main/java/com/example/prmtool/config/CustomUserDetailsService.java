@@ -28,4 +28,11 @@ public class CustomUserDetailsService implements UserDetailsService {
         user.getPasswordHash(),
         Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name())));
   }
+
+  // JWT認証用のプリンシパルを取得（パスワードハッシュは含めない）
+  public AuthenticatedUser loadAuthenticatedUser(String loginId) throws UsernameNotFoundException {
+    User user = userRepository.findByLoginId(loginId)
+        .orElseThrow(() -> new UsernameNotFoundException("User not found with loginId: " + loginId));
+    return AuthenticatedUser.from(user);
+  }
 }
\ No newline at end of file
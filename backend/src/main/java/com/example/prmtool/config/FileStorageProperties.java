@@ -71,6 +71,49 @@ public class FileStorageProperties {
      * アップロードディレクトリのパス
      */
     private String uploadDir = "./uploads";
+
+    /**
+     * 保存レイアウト
+     * flat: アップロードディレクトリ直下に置く
+     * sharded: ファイル名の先頭4文字で2階層のディレクトリに振り分ける（例: ab/cd/abcd...）
+     */
+    private String layout = "sharded";
+
+    /**
+     * 小さなファイルをまとめて格納するセグメントの設定
+     */
+    private Segment segment = new Segment();
+  }
+
+  /**
+   * セグメント設定
+   */
+  @Data
+  public static class Segment {
+    /**
+     * 小さなファイルをセグメントにまとめるか
+     */
+    private boolean enabled = true;
+
+    /**
+     * セグメントにまとめるファイルサイズの上限（バイト）
+     */
+    private long smallFileThreshold = 64 * 1024;
+
+    /**
+     * 1つのセグメントファイルの最大サイズ（バイト）
+     */
+    private long maxSize = 64 * 1024 * 1024;
+
+    /**
+     * コンパクションの対象にする不要領域の割合（0.0〜1.0）
+     */
+    private double compactionGarbageRatio = 0.5;
+
+    /**
+     * コンパクションの実行間隔（ミリ秒）
+     */
+    private long compactionInterval = 600000;
   }
 
   // ========================================
@@ -0,0 +1,87 @@
+package com.example.prmtool.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * 検証済みJWTのプリンシパルキャッシュ
+ * トークンのSHA-256ダイジェストをキーに、解決済みのプリンシパルを保持する
+ * キャッシュヒット時は署名検証もDB検索も行わない
+ *
+ * - 上限件数を超えた場合は最も長く使われていないエントリから追い出す（BoundedTtlCache）
+ * - 各エントリはトークンの有効期限とTTLの早い方で失効する
+ * - ユーザーの更新・削除時はUserServiceから無効化される
+ */
+@Component
+public class JwtPrincipalCache {
+
+  private final BoundedTtlCache<String, AuthenticatedUser> entries;
+
+  public JwtPrincipalCache(
+      @Value("${jwt.principal-cache.max-size:10000}") int maxSize, // キャッシュ上限件数
+      @Value("${jwt.principal-cache.ttl:300000}") long ttlMillis) { // エントリの最大保持時間（ミリ秒）
+    this.entries = new BoundedTtlCache<>(maxSize, ttlMillis);
+  }
+
+  /**
+   * トークンに対応するプリンシパルを取得
+   * 未登録または失効済みの場合はnullを返す
+   */
+  public AuthenticatedUser get(String token) {
+    return entries.get(digest(token));
+  }
+
+  /**
+   * 検証済みトークンのプリンシパルを登録
+   *
+   * @param tokenExpiresAt トークン自体の有効期限（エポックミリ秒）
+   */
+  public void put(String token, AuthenticatedUser principal, long tokenExpiresAt) {
+    entries.put(digest(token), principal, tokenExpiresAt);
+  }
+
+  /**
+   * 指定ユーザーのエントリをすべて無効化
+   * トランザクション中の場合はコミット後にも再度無効化し、
+   * コミット前に古い内容で再キャッシュされるのを防ぐ
+   */
+  public void evictUser(UUID userId) {
+    removeUser(userId);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          removeUser(userId);
+        }
+      });
+    }
+  }
+
+  /**
+   * 全エントリを破棄
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  private void removeUser(UUID userId) {
+    entries.removeIf(principal -> principal.getUserId().equals(userId));
+  }
+
+  private static String digest(String token) {
+    try {
+      MessageDigest md = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256が利用できません", e);
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.example.prmtool.config;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,8 +8,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -20,11 +19,14 @@ import java.io.IOException;
 public class JwtRequestFilter extends OncePerRequestFilter {
 
   @Autowired
-  private UserDetailsService userDetailsService;
+  private CustomUserDetailsService userDetailsService;
 
   @Autowired
   private JwtUtil jwtUtil;
 
+  @Autowired
+  private JwtPrincipalCache principalCache;
+
   @Override
   protected void doFilterInternal(
       @NonNull HttpServletRequest request,
@@ -37,26 +39,28 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     try {
       authorizationHeader = request.getHeader("Authorization");
 
-      String username = null;
-      String jwt = null;
-
-      if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-        jwt = authorizationHeader.substring(7);
-        username = jwtUtil.extractUsername(jwt);
-      }
+      if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+          && SecurityContextHolder.getContext().getAuthentication() == null) {
+        String jwt = authorizationHeader.substring(7);
 
-      if (username != null &&
-          SecurityContextHolder.getContext().getAuthentication() == null) {
+        // 検証済みトークンはキャッシュから解決（署名検証・DB検索なし）
+        AuthenticatedUser principal = principalCache.get(jwt);
+        if (principal == null) {
+          // 署名と有効期限の検証は1回のパースで行う
+          Claims claims = jwtUtil.parseToken(jwt);
+          principal = userDetailsService.loadAuthenticatedUser(claims.getSubject());
+          long tokenExpiresAt = claims.getExpiration() != null
+              ? claims.getExpiration().getTime()
+              : Long.MAX_VALUE;
+          principalCache.put(jwt, principal, tokenExpiresAt);
+        }
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-        if (jwtUtil.validateToken(jwt, userDetails)) {
-          UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-              userDetails, null, userDetails.getAuthorities());
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+            principal, null, principal.getAuthorities());
 
-          auth.setDetails(
-              new WebAuthenticationDetailsSource().buildDetails(request));
-          SecurityContextHolder.getContext().setAuthentication(auth);
-        }
+        auth.setDetails(
+            new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(auth);
       }
     } catch (Exception e) {
       logger.warn("JWT invalid. AuthorizationHeader=" + authorizationHeader, e);
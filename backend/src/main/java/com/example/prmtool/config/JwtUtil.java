@@ -23,9 +23,17 @@ public class JwtUtil {
   @Value("${jwt.expiration:43200000}") // 12時間（ミリ秒）
   private Long expiration;
 
+  // 署名鍵（初回利用時に生成して使い回す）
+  private volatile SecretKey signingKey;
+
   private SecretKey getSigningKey() {
-    byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-    return Keys.hmacShaKeyFor(keyBytes);
+    SecretKey key = signingKey;
+    if (key == null) {
+      byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+      key = Keys.hmacShaKeyFor(keyBytes);
+      signingKey = key;
+    }
+    return key;
   }
 
   // トークンからユーザー名（メールアドレス）を取得
@@ -44,6 +52,11 @@ public class JwtUtil {
     return claimsResolver.apply(claims);
   }
 
+  // トークンを1回だけ検証して全てのClaimを取得（署名不正・期限切れは例外）
+  public Claims parseToken(String token) {
+    return extractAllClaims(token);
+  }
+
   // トークンから全てのClaimを取得
   private Claims extractAllClaims(String token) {
     return Jwts.parser()
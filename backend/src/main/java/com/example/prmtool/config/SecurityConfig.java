@@ -1,5 +1,6 @@
 package com.example.prmtool.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -79,9 +80,16 @@ public class SecurityConfig {
             // CORS Preflight リクエストを許可
             .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
 
+            // ストリーミング応答（CSVエクスポート等）完了時の非同期ディスパッチ
+            // 認可は最初のリクエストで済んでいるため許可する
+            .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
             // ユーザー管理（ADMIN, SYSTEM, REP がアクセス可能）
             .requestMatchers("/api/users", "/api/users/**").hasAnyRole("SYSTEM", "ADMIN", "REP")
 
+            // ファイルストレージの管理（状態の確認・保存レイアウトの移行）
+            .requestMatchers("/api/admin/storage", "/api/admin/storage/**").hasAnyRole("SYSTEM", "ADMIN")
+
             // パートナー管理（ADMIN と REP がアクセス可能、作成・編集・削除は ADMIN のみ）
             .requestMatchers(HttpMethod.GET, "/api/partners", "/api/partners/*").hasAnyRole("ADMIN", "REP")
             .requestMatchers(HttpMethod.POST, "/api/partners").hasRole("ADMIN")
@@ -92,6 +100,7 @@ public class SecurityConfig {
             .requestMatchers(HttpMethod.GET, "/api/projects", "/api/projects/**").hasAnyRole("ADMIN", "REP")
             .requestMatchers(HttpMethod.POST, "/api/projects").hasAnyRole("ADMIN", "REP")
             .requestMatchers(HttpMethod.PUT, "/api/projects/*").hasAnyRole("ADMIN", "REP")
+            .requestMatchers(HttpMethod.PATCH, "/api/projects/*/table-data").hasAnyRole("ADMIN", "REP")
             .requestMatchers(HttpMethod.DELETE, "/api/projects/*").hasRole("ADMIN")
 
             // ========================================
@@ -114,14 +123,15 @@ public class SecurityConfig {
             // ========================================
             // 請求書管理
             // - 閲覧: ADMIN, ACCOUNTING, REP
-            // - 作成・編集: ADMIN, ACCOUNTING
+            // - 作成・編集: ADMIN, ACCOUNTING（一括作成を含む）
             // - ステータス変更: ADMIN, ACCOUNTING
             // - 支払済に変更: ADMIN, ACCOUNTING（専用エンドポイント）
+            // - ステータス一括変更: ADMIN, ACCOUNTING
             // - 削除: ADMIN のみ
             // ========================================
             .requestMatchers(HttpMethod.GET, "/api/invoices", "/api/invoices/**")
             .hasAnyRole("ADMIN", "ACCOUNTING", "REP")
-            .requestMatchers(HttpMethod.POST, "/api/invoices")
+            .requestMatchers(HttpMethod.POST, "/api/invoices", "/api/invoices/batch")
             .hasAnyRole("ADMIN", "ACCOUNTING")
             .requestMatchers(HttpMethod.PUT, "/api/invoices/*")
             .hasAnyRole("ADMIN", "ACCOUNTING")
@@ -129,6 +139,8 @@ public class SecurityConfig {
             .hasAnyRole("ADMIN", "ACCOUNTING")
             .requestMatchers(HttpMethod.PATCH, "/api/invoices/*/mark-as-paid")
             .hasAnyRole("ADMIN", "ACCOUNTING")
+            .requestMatchers(HttpMethod.PATCH, "/api/invoices/bulk-status")
+            .hasAnyRole("ADMIN", "ACCOUNTING")
             .requestMatchers(HttpMethod.DELETE, "/api/invoices/*")
             .hasRole("ADMIN")
 
@@ -161,16 +173,20 @@ public class SecurityConfig {
             // ========================================
             // コンテンツ管理（ファイル倉庫）
             // - 閲覧: ADMIN, ACCOUNTING, REP（SYSTEM は制限）
-            // - フォルダ作成・編集: ADMIN, ACCOUNTING
+            // - フォルダ作成・編集・移動: ADMIN, ACCOUNTING
             // - フォルダ削除: ADMIN のみ
             // - ファイルアップロード・編集: ADMIN, ACCOUNTING
             // - ファイル削除: ADMIN のみ
+            // - チャンクアップロード: ADMIN, ACCOUNTING
             // ========================================
+            .requestMatchers("/api/contents/uploads", "/api/contents/uploads/**")
+            .hasAnyRole("ADMIN", "ACCOUNTING")
             .requestMatchers(HttpMethod.GET, "/api/contents/**")
             .hasAnyRole("ADMIN", "ACCOUNTING", "REP")
             .requestMatchers(HttpMethod.POST, "/api/contents/folders", "/api/contents/files")
             .hasAnyRole("ADMIN", "ACCOUNTING")
-            .requestMatchers(HttpMethod.PUT, "/api/contents/folders/*", "/api/contents/files/*")
+            .requestMatchers(HttpMethod.PUT, "/api/contents/folders/*", "/api/contents/folders/*/move",
+                "/api/contents/files/*")
             .hasAnyRole("ADMIN", "ACCOUNTING")
             .requestMatchers(HttpMethod.DELETE, "/api/contents/folders/*", "/api/contents/files/*")
             .hasRole("ADMIN")
@@ -198,9 +214,21 @@ public class SecurityConfig {
             // ========================================
             // パートナー別ダッシュボード
             // - GETのみ
+            // - キャッシュ統計: ADMIN のみ
             // ========================================
             .requestMatchers(HttpMethod.GET, "/api/partners/*/dashboard")
             .hasAnyRole("ADMIN", "REP")
+            .requestMatchers(HttpMethod.GET, "/api/partners/dashboard/cache-stats")
+            .hasRole("ADMIN")
+
+            // ========================================
+            // CSVインポートジョブ
+            // - 進捗確認・キャンセル: ADMIN のみ
+            // ========================================
+            .requestMatchers(HttpMethod.GET, "/api/import-jobs/*")
+            .hasRole("ADMIN")
+            .requestMatchers(HttpMethod.POST, "/api/import-jobs/*/cancel")
+            .hasRole("ADMIN")
 
             // その他全てのリクエストは認証が必要
             .anyRequest().authenticated())
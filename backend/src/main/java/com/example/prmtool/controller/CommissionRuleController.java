@@ -4,13 +4,18 @@ import com.example.prmtool.dto.CommissionRuleRequest;
 import com.example.prmtool.dto.CommissionRuleResponse;
 import com.example.prmtool.entity.CommissionRule;
 import com.example.prmtool.service.CommissionRuleService;
+import com.example.prmtool.service.CsvExportService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.UUID;
 
@@ -25,6 +30,7 @@ import java.util.UUID;
 public class CommissionRuleController {
 
   private final CommissionRuleService commissionRuleService;
+  private final CsvExportService csvExportService;
 
   /**
    * 全手数料ルールを取得
@@ -37,6 +43,22 @@ public class CommissionRuleController {
     return ResponseEntity.ok(rules);
   }
 
+  /**
+   * 手数料ルールをCSVで出力（全件をストリーミング）
+   * 権限: ADMIN, ACCOUNTING, REP
+   * bom=true でExcel向けにUTF-8 BOMを付与
+   */
+  @GetMapping("/export.csv")
+  @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING', 'REP')")
+  public ResponseEntity<StreamingResponseBody> exportCsv(
+      @RequestParam(defaultValue = "false") boolean bom) {
+    String fileName = csvExportService.fileName("commission_rules");
+    return ResponseEntity.ok()
+        .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+        .body(out -> csvExportService.writeCommissionRules(out, bom));
+  }
+
   /**
    * IDで手数料ルールを取得
    * 権限: ADMIN, ACCOUNTING, REP
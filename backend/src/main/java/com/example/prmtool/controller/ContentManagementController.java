@@ -1,23 +1,24 @@
 package com.example.prmtool.controller;
 
+import com.example.prmtool.config.AuthenticatedUser;
 import com.example.prmtool.dto.*;
-import com.example.prmtool.entity.User;
-import com.example.prmtool.repository.UserRepository;
 import com.example.prmtool.service.ContentManagementService;
 import com.example.prmtool.service.FileStorageService;
+import com.example.prmtool.service.StagedFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -32,7 +33,7 @@ public class ContentManagementController {
 
   private final ContentManagementService service;
   private final FileStorageService fileStorageService;
-  private final UserRepository userRepository;
+  private final FileDownloadResponder fileDownloadResponder;
 
   // ========================================
   // フォルダ管理
@@ -44,8 +45,8 @@ public class ContentManagementController {
    */
   @GetMapping("/folders")
   @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING', 'REP')")
-  public ResponseEntity<List<ContentFolderResponse>> getAllFolders() {
-    List<ContentFolderResponse> folders = service.getAllFolders();
+  public ResponseEntity<List<ContentFolderResponse>> getAllFolders(AuthenticatedUser currentUser) {
+    List<ContentFolderResponse> folders = service.getAllFolders(currentUser.getUserId());
     return ResponseEntity.ok(folders);
   }
 
@@ -55,8 +56,8 @@ public class ContentManagementController {
    */
   @GetMapping("/folders/root")
   @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING', 'REP')")
-  public ResponseEntity<List<ContentFolderResponse>> getRootFolders() {
-    List<ContentFolderResponse> folders = service.getRootFolders();
+  public ResponseEntity<List<ContentFolderResponse>> getRootFolders(AuthenticatedUser currentUser) {
+    List<ContentFolderResponse> folders = service.getRootFolders(currentUser.getUserId());
     return ResponseEntity.ok(folders);
   }
 
@@ -66,19 +67,34 @@ public class ContentManagementController {
    */
   @GetMapping("/folders/{parentId}/sub-folders")
   @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING', 'REP')")
-  public ResponseEntity<List<ContentFolderResponse>> getSubFolders(@PathVariable UUID parentId) {
-    List<ContentFolderResponse> folders = service.getSubFolders(parentId);
+  public ResponseEntity<List<ContentFolderResponse>> getSubFolders(
+      @PathVariable UUID parentId,
+      AuthenticatedUser currentUser) {
+    List<ContentFolderResponse> folders = service.getSubFolders(parentId, currentUser.getUserId());
     return ResponseEntity.ok(folders);
   }
 
+  /**
+   * フォルダツリー全体を取得（サイドバー表示用）
+   * 権限: ADMIN, ACCOUNTING, REP
+   */
+  @GetMapping("/folders/tree")
+  @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING', 'REP')")
+  public ResponseEntity<List<ContentFolderTreeResponse>> getFolderTree() {
+    List<ContentFolderTreeResponse> tree = service.getFolderTree();
+    return ResponseEntity.ok(tree);
+  }
+
   /**
    * フォルダをIDで取得
    * 権限: ADMIN, ACCOUNTING, REP
    */
   @GetMapping("/folders/{id}")
   @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING', 'REP')")
-  public ResponseEntity<ContentFolderResponse> getFolderById(@PathVariable UUID id) {
-    ContentFolderResponse folder = service.getFolderById(id);
+  public ResponseEntity<ContentFolderResponse> getFolderById(
+      @PathVariable UUID id,
+      AuthenticatedUser currentUser) {
+    ContentFolderResponse folder = service.getFolderById(id, currentUser.getUserId());
     return ResponseEntity.ok(folder);
   }
 
@@ -88,17 +104,15 @@ public class ContentManagementController {
    */
   @PostMapping("/folders")
   @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING')")
-  public ResponseEntity<ContentFolderResponse> createFolder(
+  public ResponseEntity<?> createFolder(
       @Valid @RequestBody ContentFolderRequest request,
-      Authentication authentication) {
-
-    // loginIdからUserエンティティを取得
-    String loginId = authentication.getName();
-    User user = userRepository.findByLoginId(loginId)
-        .orElseThrow(() -> new RuntimeException("ユーザーが見つかりません: " + loginId));
-
-    ContentFolderResponse created = service.createFolder(request, user.getId());
-    return ResponseEntity.status(HttpStatus.CREATED).body(created);
+      AuthenticatedUser currentUser) {
+    try {
+      ContentFolderResponse created = service.createFolder(request, currentUser.getUserId());
+      return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
   }
 
   /**
@@ -114,6 +128,23 @@ public class ContentManagementController {
     return ResponseEntity.ok(updated);
   }
 
+  /**
+   * フォルダを移動（parentFolderId未指定の場合はルートへ移動）
+   * 権限: ADMIN, ACCOUNTING
+   */
+  @PutMapping("/folders/{id}/move")
+  @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING')")
+  public ResponseEntity<?> moveFolder(
+      @PathVariable UUID id,
+      @RequestParam(required = false) UUID parentFolderId) {
+    try {
+      ContentFolderResponse moved = service.moveFolder(id, parentFolderId);
+      return ResponseEntity.ok(moved);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+  }
+
   /**
    * フォルダを削除
    * 権限: ADMIN のみ
@@ -174,29 +205,29 @@ public class ContentManagementController {
       @RequestParam(value = "title", required = false) String title,
       @RequestParam(value = "description", required = false) String description,
       @RequestParam(value = "tags", required = false) String tags,
-      Authentication authentication) {
-
-    // ファイルをストレージに保存
-    String fileUrl = fileStorageService.storeFile(file);
-
-    // loginIdからUserエンティティを取得
-    String loginId = authentication.getName();
-    User user = userRepository.findByLoginId(loginId)
-        .orElseThrow(() -> new RuntimeException("ユーザーが見つかりません: " + loginId));
-
-    // ファイル情報をデータベースに保存
-    ContentFileRequest request = ContentFileRequest.builder()
-        .folderId(folderId)
-        .fileName(file.getOriginalFilename())
-        .title(title != null ? title : file.getOriginalFilename())
-        .description(description)
-        .fileUrl(fileUrl)
-        .fileType(file.getContentType())
-        .fileSize(file.getSize())
-        .tags(tags)
-        .build();
-
-    ContentFileResponse created = service.uploadFile(request, user.getId());
+      AuthenticatedUser currentUser) {
+
+    // 書き込みながら内容ハッシュを計算し、同じ内容が保存済みであれば実体を共有する
+    StagedFile staged = fileStorageService.stageFile(file);
+    ContentFileResponse created;
+    try {
+      // ファイル情報をデータベースに保存
+      ContentFileRequest request = ContentFileRequest.builder()
+          .folderId(folderId)
+          .fileName(file.getOriginalFilename())
+          .title(title != null ? title : file.getOriginalFilename())
+          .description(description)
+          .fileUrl(fileStorageService.contentFileUrl(staged.sha256(), file.getOriginalFilename()))
+          .fileType(file.getContentType())
+          .fileSize(staged.size())
+          .contentHash(staged.sha256())
+          .tags(tags)
+          .build();
+
+      created = service.uploadFile(request, currentUser.getUserId(), staged);
+    } finally {
+      fileStorageService.discardStagedFile(staged);
+    }
     return ResponseEntity.status(HttpStatus.CREATED).body(created);
   }
 
@@ -220,49 +251,39 @@ public class ContentManagementController {
   @DeleteMapping("/files/{id}")
   @PreAuthorize("hasRole('ADMIN')")
   public ResponseEntity<Void> deleteFile(@PathVariable UUID id) {
-    // ファイル情報を取得
-    ContentFileResponse file = service.getFileById(id);
-
-    // ストレージからファイルを削除
-    String fileName = file.getFileUrl().substring(file.getFileUrl().lastIndexOf("/") + 1);
-    fileStorageService.deleteFile(fileName);
-
-    // データベースから削除
+    // データベースから削除（ストレージ上のファイルは参照がなくなった時点でコミット後に削除される）
     service.deleteFile(id);
     return ResponseEntity.noContent().build();
   }
 
   /**
    * ファイルダウンロード
+   * Range（部分取得）とIf-None-Match（304）に対応する
+   * ダウンロード履歴はファイルの先頭から応答した場合のみ記録する（動画のシーク等による途中からの取得は記録しない）
    * 権限: ADMIN, ACCOUNTING, REP
    */
   @GetMapping("/files/{id}/download")
   @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING', 'REP')")
-  public ResponseEntity<Resource> downloadFile(
+  public void downloadFile(
       @PathVariable UUID id,
-      Authentication authentication,
-      @RequestParam(required = false) String ipAddress) {
+      AuthenticatedUser currentUser,
+      @RequestParam(required = false) String ipAddress,
+      HttpServletRequest request,
+      HttpServletResponse response) throws IOException {
 
     // ファイル情報を取得
     ContentFileResponse file = service.getFileById(id);
+    String fileName = file.getFileUrl().substring(file.getFileUrl().lastIndexOf("/") + 1);
+    String etag = FileDownloadResponder.strongEtag(service.getOrComputeContentHash(file));
 
-    // loginIdからUserエンティティを取得
-    String loginId = authentication.getName();
-    User user = userRepository.findByLoginId(loginId)
-        .orElseThrow(() -> new RuntimeException("ユーザーが見つかりません: " + loginId));
+    // 権限確認のため毎回再検証させる（内容が変わっていなければ304で本文を送らない）
+    boolean fromStart = fileDownloadResponder.write(request, response, fileStorageService.resolveFile(fileName),
+        file.getFileType(), file.getFileName(), etag, CacheControl.noCache().cachePrivate());
 
     // ダウンロード履歴を記録
-    service.recordDownload(id, user.getId(), ipAddress);
-
-    // ストレージからファイルを読み込み
-    String fileName = file.getFileUrl().substring(file.getFileUrl().lastIndexOf("/") + 1);
-    Resource resource = fileStorageService.loadFileAsResource(fileName);
-
-    // ダウンロード用のレスポンスヘッダーを設定
-    return ResponseEntity.ok()
-        .contentType(MediaType.parseMediaType(file.getFileType()))
-        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
-        .body(resource);
+    if (fromStart) {
+      service.recordDownload(id, currentUser, ipAddress);
+    }
   }
 
   /**
@@ -273,15 +294,10 @@ public class ContentManagementController {
   @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING', 'REP')")
   public ResponseEntity<Void> recordDownload(
       @PathVariable UUID id,
-      Authentication authentication,
+      AuthenticatedUser currentUser,
       @RequestParam(required = false) String ipAddress) {
 
-    // loginIdからUserエンティティを取得
-    String loginId = authentication.getName();
-    User user = userRepository.findByLoginId(loginId)
-        .orElseThrow(() -> new RuntimeException("ユーザーが見つかりません: " + loginId));
-
-    service.recordDownload(id, user.getId(), ipAddress);
+    service.recordDownload(id, currentUser, ipAddress);
     return ResponseEntity.ok().build();
   }
 
@@ -295,13 +311,8 @@ public class ContentManagementController {
    */
   @GetMapping("/folders/favorites")
   @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING', 'REP')")
-  public ResponseEntity<List<ContentFolderResponse>> getFavoriteFolders(Authentication authentication) {
-    // ログインIDからユーザーを取得
-    String loginId = authentication.getName();
-    User user = userRepository.findByLoginId(loginId)
-        .orElseThrow(() -> new RuntimeException("ユーザーが見つかりません: " + loginId));
-
-    List<ContentFolderResponse> folders = service.getFavoriteFolders(user.getId());
+  public ResponseEntity<List<ContentFolderResponse>> getFavoriteFolders(AuthenticatedUser currentUser) {
+    List<ContentFolderResponse> folders = service.getFavoriteFolders(currentUser.getUserId());
     return ResponseEntity.ok(folders);
   }
 
@@ -313,14 +324,9 @@ public class ContentManagementController {
   @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING', 'REP')")
   public ResponseEntity<Void> addFavoriteFolder(
       @PathVariable UUID id,
-      Authentication authentication) {
-
-    // ログインIDからユーザーを取得
-    String loginId = authentication.getName();
-    User user = userRepository.findByLoginId(loginId)
-        .orElseThrow(() -> new RuntimeException("ユーザーが見つかりません: " + loginId));
+      AuthenticatedUser currentUser) {
 
-    service.addFavoriteFolder(id, user.getId());
+    service.addFavoriteFolder(id, currentUser.getUserId());
     return ResponseEntity.status(HttpStatus.CREATED).build();
   }
 
@@ -332,14 +338,9 @@ public class ContentManagementController {
   @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING', 'REP')")
   public ResponseEntity<Void> removeFavoriteFolder(
       @PathVariable UUID id,
-      Authentication authentication) {
-
-    // ログインIDからユーザーを取得
-    String loginId = authentication.getName();
-    User user = userRepository.findByLoginId(loginId)
-        .orElseThrow(() -> new RuntimeException("ユーザーが見つかりません: " + loginId));
+      AuthenticatedUser currentUser) {
 
-    service.removeFavoriteFolder(id, user.getId());
+    service.removeFavoriteFolder(id, currentUser.getUserId());
     return ResponseEntity.noContent().build();
   }
 }
\ No newline at end of file
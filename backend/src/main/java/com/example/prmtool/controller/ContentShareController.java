@@ -1,17 +1,15 @@
 package com.example.prmtool.controller;
 
+import com.example.prmtool.config.AuthenticatedUser;
 import com.example.prmtool.dto.ContentShareRequest;
 import com.example.prmtool.dto.ContentShareResponse;
 import com.example.prmtool.entity.ContentShareAccessHistory;
-import com.example.prmtool.entity.User;
-import com.example.prmtool.repository.UserRepository;
 import com.example.prmtool.service.ContentShareService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -28,7 +26,6 @@ import java.util.UUID;
 public class ContentShareController {
 
   private final ContentShareService service;
-  private final UserRepository userRepository;
 
   /**
    * 全共有を取得
@@ -93,14 +90,9 @@ public class ContentShareController {
   @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING')")
   public ResponseEntity<ContentShareResponse> createShare(
       @Valid @RequestBody ContentShareRequest request,
-      Authentication authentication) {
+      AuthenticatedUser currentUser) {
 
-    // loginIdからUserエンティティを取得
-    String loginId = authentication.getName();
-    User user = userRepository.findByLoginId(loginId)
-        .orElseThrow(() -> new RuntimeException("ユーザーが見つかりません: " + loginId));
-
-    ContentShareResponse created = service.createShare(request, user.getId());
+    ContentShareResponse created = service.createShare(request, currentUser);
     return ResponseEntity.status(HttpStatus.CREATED).body(created);
   }
 
@@ -137,15 +129,10 @@ public class ContentShareController {
   public ResponseEntity<Void> recordAccess(
       @PathVariable UUID id,
       @RequestParam ContentShareAccessHistory.AccessType accessType,
-      Authentication authentication,
+      AuthenticatedUser currentUser,
       @RequestParam(required = false) String ipAddress) {
 
-    // loginIdからUserエンティティを取得
-    String loginId = authentication.getName();
-    User user = userRepository.findByLoginId(loginId)
-        .orElseThrow(() -> new RuntimeException("ユーザーが見つかりません: " + loginId));
-
-    service.recordAccess(id, user.getId(), accessType, ipAddress);
+    service.recordAccess(id, currentUser, accessType, ipAddress);
     return ResponseEntity.ok().build();
   }
 
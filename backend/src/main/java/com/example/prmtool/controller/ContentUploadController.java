@@ -0,0 +1,131 @@
+package com.example.prmtool.controller;
+
+import com.example.prmtool.config.AuthenticatedUser;
+import com.example.prmtool.dto.ContentFileResponse;
+import com.example.prmtool.dto.ContentUploadRequest;
+import com.example.prmtool.dto.ContentUploadResponse;
+import com.example.prmtool.exception.FileStorageException;
+import com.example.prmtool.service.ContentUploadService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 再開可能なチャンクアップロードコントローラ
+ * 1. POST /api/contents/uploads でアップロードを開始（アップロードIDとチャンクサイズを取得）
+ * 2. PUT /api/contents/uploads/{id}/chunks?offset=N でチャンクを送信（本体はapplication/octet-stream、
+ * X-Chunk-Sha256 ヘッダーにチャンクのSHA-256）
+ * 3. POST /api/contents/uploads/{id}/complete で完了（コンテンツファイルとして登録）。完了処理中のチャンク送信は409
+ * 切断した場合は GET /api/contents/uploads/{id} で受信済みチャンクを確認し、残りだけを送信する
+ */
+@RestController
+@RequestMapping("/api/contents/uploads")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class ContentUploadController {
+
+  private final ContentUploadService uploadService;
+
+  /**
+   * アップロードを開始
+   * 権限: ADMIN, ACCOUNTING
+   */
+  @PostMapping
+  @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING')")
+  public ResponseEntity<?> initiate(
+      @Valid @RequestBody ContentUploadRequest request,
+      AuthenticatedUser currentUser) {
+    try {
+      ContentUploadResponse upload = uploadService.initiate(request, currentUser.getUserId());
+      return ResponseEntity.status(HttpStatus.CREATED).body(upload);
+    } catch (IllegalArgumentException | FileStorageException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    } catch (RuntimeException e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  /**
+   * アップロードの状態（受信済みチャンク）を取得
+   * 権限: ADMIN, ACCOUNTING
+   */
+  @GetMapping("/{id}")
+  @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING')")
+  public ResponseEntity<?> getStatus(@PathVariable UUID id, AuthenticatedUser currentUser) {
+    try {
+      return ResponseEntity.ok(uploadService.getStatus(id, currentUser.getUserId()));
+    } catch (RuntimeException e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  /**
+   * チャンクを送信
+   * 権限: ADMIN, ACCOUNTING
+   */
+  @PutMapping(value = "/{id}/chunks", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+  @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING')")
+  public ResponseEntity<?> writeChunk(
+      @PathVariable UUID id,
+      @RequestParam long offset,
+      @RequestHeader(value = "X-Chunk-Sha256", required = false) String checksum,
+      InputStream body,
+      AuthenticatedUser currentUser) {
+    try {
+      ContentUploadResponse upload = uploadService.writeChunk(id, offset, checksum, body, currentUser.getUserId());
+      return ResponseEntity.ok(upload);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    } catch (FileStorageException e) {
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+    } catch (RuntimeException e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  /**
+   * アップロードを完了してコンテンツファイルとして登録
+   * 権限: ADMIN, ACCOUNTING
+   */
+  @PostMapping("/{id}/complete")
+  @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING')")
+  public ResponseEntity<?> complete(@PathVariable UUID id, AuthenticatedUser currentUser) {
+    try {
+      ContentFileResponse file = uploadService.complete(id, currentUser.getUserId());
+      return ResponseEntity.status(HttpStatus.CREATED).body(file);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    } catch (FileStorageException e) {
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+    } catch (RuntimeException e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  /**
+   * アップロードを中止
+   * 権限: ADMIN, ACCOUNTING
+   */
+  @DeleteMapping("/{id}")
+  @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING')")
+  public ResponseEntity<?> abort(@PathVariable UUID id, AuthenticatedUser currentUser) {
+    try {
+      uploadService.abort(id, currentUser.getUserId());
+      return ResponseEntity.noContent().build();
+    } catch (RuntimeException e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+    }
+  }
+}
@@ -1,16 +1,22 @@
 package com.example.prmtool.controller;
 
+import com.example.prmtool.dto.ContentFileResponse;
+import com.example.prmtool.exception.FileStorageException;
+import com.example.prmtool.service.ContentManagementService;
 import com.example.prmtool.service.FileStorageService;
+import com.example.prmtool.service.StoredFileRegion;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
 
 /**
  * ファイルコントローラ
@@ -20,39 +26,47 @@ import java.io.IOException;
 @RequestMapping("/api/files")
 @CrossOrigin(origins = "*")
 @RequiredArgsConstructor
-@Slf4j
 public class FileController {
 
+  // 保存ファイルはUUID名で上書きされないため、ブラウザに長期間キャッシュさせる
+  private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365))
+      .cachePrivate()
+      .immutable();
+
   private final FileStorageService fileStorageService;
+  private final ContentManagementService contentManagementService;
+  private final FileDownloadResponder fileDownloadResponder;
 
   /**
    * ファイルをダウンロード
-   * 認証不要（共有リンクでも使用するため）
+   * 認証必須（ログインユーザーのみ）
+   * ブラウザにのみキャッシュさせる（Cache-Control: private）
+   * Range（部分取得）とIf-None-Match（304）に対応する
+   * 保存ファイルが見つからない・読み込めない場合は404を返す
    */
   @GetMapping("/{fileName:.+}")
-  public ResponseEntity<Resource> downloadFile(
+  public void downloadFile(
       @PathVariable String fileName,
-      HttpServletRequest request) {
-
-    // ファイルを読み込み
-    Resource resource = fileStorageService.loadFileAsResource(fileName);
+      HttpServletRequest request,
+      HttpServletResponse response) throws IOException {
 
-    // ファイルのContent-Typeを判定
-    String contentType = null;
+    StoredFileRegion region;
     try {
-      contentType = request.getServletContext().getMimeType(resource.getFile().getAbsolutePath());
-    } catch (IOException ex) {
-      log.info("ファイルのタイプを判定できませんでした。");
+      region = fileStorageService.resolveFile(fileName);
+    } catch (FileStorageException e) {
+      response.sendError(HttpStatus.NOT_FOUND.value(), e.getMessage());
+      return;
     }
 
-    // Content-Typeが判定できない場合はデフォルト値を設定
-    if (contentType == null) {
-      contentType = "application/octet-stream";
-    }
+    // コンテンツファイルとして登録済みならContent-Typeと内容ハッシュ（ETag）を使う
+    Optional<ContentFileResponse> contentFile = contentManagementService.findFileByStoredName(fileName);
+    String contentType = contentFile.map(ContentFileResponse::getFileType)
+        .or(() -> MediaTypeFactory.getMediaType(fileName).map(MediaType::toString))
+        .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+    String etag = contentFile
+        .map(file -> FileDownloadResponder.strongEtag(contentManagementService.getOrComputeContentHash(file)))
+        .orElse(null);
 
-    return ResponseEntity.ok()
-        .contentType(MediaType.parseMediaType(contentType))
-        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + resource.getFilename() + "\"")
-        .body(resource);
+    fileDownloadResponder.write(request, response, region, contentType, fileName, etag, IMMUTABLE);
   }
-}
\ No newline at end of file
+}
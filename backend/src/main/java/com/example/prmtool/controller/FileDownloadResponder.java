@@ -0,0 +1,207 @@
+package com.example.prmtool.controller;
+
+import com.example.prmtool.service.StoredFileRegion;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * ファイルのダウンロード応答を書き出す
+ * - ETag / Last-Modified による条件付きGET（一致すれば304を返す）
+ * - Range / If-Range による部分取得（206、単一範囲のみ。動画のシーク等に使用）
+ * - 本文はTomcatのsendfile（使えない場合はFileChannel.transferTo）で送り、ファイルをヒープに読み込まない
+ *   セグメントに格納した小さなファイルも、セグメントファイル内の範囲を指定して同じ方法で送る
+ */
+@Component
+public class FileDownloadResponder {
+
+  // Tomcatのsendfile連携用のリクエスト属性
+  private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+  private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+  private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+  private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+  /**
+   * ファイルの内容ハッシュから強いETagを生成
+   */
+  public static String strongEtag(String contentHash) {
+    return "\"" + contentHash + "\"";
+  }
+
+  /**
+   * ダウンロード応答を書き出す
+   *
+   * @param region 送信するファイルの実体の位置
+   * @param contentType Content-Type
+   * @param downloadFileName Content-Dispositionに設定するファイル名
+   * @param etag ETag（nullの場合はサイズと更新日時から弱いETagを生成する）
+   * @param cacheControl Cache-Control
+   * @return ファイルの先頭から応答した場合（304を含む）はtrue、途中からの部分取得やHEADの場合はfalse
+   *         （ダウンロード履歴を記録するかの判定に使用）
+   */
+  public boolean write(HttpServletRequest request, HttpServletResponse response, StoredFileRegion region,
+      String contentType, String downloadFileName, String etag, CacheControl cacheControl) throws IOException {
+
+    long length = region.length();
+    // HTTPの日付は秒単位のため切り捨てて比較する
+    long lastModified = region.lastModified() / 1000 * 1000;
+    if (etag == null) {
+      etag = "W/\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    response.setHeader(HttpHeaders.ETAG, etag);
+    response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+    response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+    response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+    if (isNotModified(request, etag, lastModified)) {
+      response.setStatus(HttpStatus.NOT_MODIFIED.value());
+      return true;
+    }
+
+    // 部分取得の範囲を決定（複数範囲の指定は全体を返す）
+    long start = 0;
+    long end = length - 1;
+    boolean partial = false;
+    String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+    if (rangeHeader != null && isIfRangeSatisfied(request, etag, lastModified)) {
+      List<HttpRange> ranges;
+      try {
+        ranges = HttpRange.parseRanges(rangeHeader);
+      } catch (IllegalArgumentException ex) {
+        // 解析できないRangeヘッダーは無視する
+        ranges = List.of();
+      }
+      if (ranges.size() == 1) {
+        HttpRange range = ranges.get(0);
+        try {
+          start = range.getRangeStart(length);
+          end = range.getRangeEnd(length);
+        } catch (IllegalArgumentException ex) {
+          start = length;
+        }
+        if (start >= length || start > end) {
+          response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+          response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+          return false;
+        }
+        partial = true;
+      }
+    }
+
+    long count = end - start + 1;
+    if (partial) {
+      response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+      response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+    } else {
+      response.setStatus(HttpStatus.OK.value());
+    }
+    response.setContentType(contentType);
+    response.setContentLengthLong(count);
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+        .filename(downloadFileName, StandardCharsets.UTF_8)
+        .build()
+        .toString());
+
+    if ("HEAD".equals(request.getMethod())) {
+      return false;
+    }
+    if (count > 0) {
+      transfer(request, response, region, start, count);
+    }
+    return start == 0;
+  }
+
+  /**
+   * ファイルの指定範囲を送信（startは実体の先頭からの位置）
+   * Tomcatがsendfileに対応していれば応答後にカーネル内でコピーさせ、そうでなければFileChannel.transferToで書き出す
+   */
+  private void transfer(HttpServletRequest request, HttpServletResponse response, StoredFileRegion region,
+      long start, long count) throws IOException {
+
+    long offset = region.offset() + start;
+    if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+      request.setAttribute(SENDFILE_FILENAME, region.file().toAbsolutePath().normalize().toString());
+      request.setAttribute(SENDFILE_START, offset);
+      request.setAttribute(SENDFILE_END, offset + count);
+      return;
+    }
+
+    try (FileChannel channel = FileChannel.open(region.file(), StandardOpenOption.READ)) {
+      WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+      long position = offset;
+      long remaining = count;
+      while (remaining > 0) {
+        long transferred = channel.transferTo(position, remaining, out);
+        if (transferred <= 0) {
+          // 送信中にファイルが短くなった場合
+          throw new IOException("ファイルの読み込みが途中で終了しました: " + region.file().getFileName());
+        }
+        position += transferred;
+        remaining -= transferred;
+      }
+    }
+  }
+
+  /**
+   * 条件付きGETの判定（If-None-Matchがあればそちらを優先し、弱い比較で判定する）
+   */
+  private boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+    String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+    if (ifNoneMatch != null) {
+      String opaqueTag = stripWeakPrefix(etag);
+      for (String candidate : ifNoneMatch.split(",")) {
+        String tag = candidate.trim();
+        if ("*".equals(tag) || stripWeakPrefix(tag).equals(opaqueTag)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+    return ifModifiedSince != -1 && lastModified <= ifModifiedSince;
+  }
+
+  /**
+   * If-Rangeの判定（ETagは強い比較、日付は完全一致の場合のみ部分取得を許可する）
+   */
+  private boolean isIfRangeSatisfied(HttpServletRequest request, String etag, long lastModified) {
+    String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+    if (ifRange == null) {
+      return true;
+    }
+    ifRange = ifRange.trim();
+    if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+      return !etag.startsWith("W/") && ifRange.equals(etag);
+    }
+    long date = dateHeader(request, HttpHeaders.IF_RANGE);
+    return date != -1 && date == lastModified;
+  }
+
+  private long dateHeader(HttpServletRequest request, String name) {
+    try {
+      return request.getDateHeader(name);
+    } catch (IllegalArgumentException ex) {
+      // 日付として解析できない場合は指定なしとして扱う
+      return -1;
+    }
+  }
+
+  private String stripWeakPrefix(String etag) {
+    return etag.startsWith("W/") ? etag.substring(2) : etag;
+  }
+}
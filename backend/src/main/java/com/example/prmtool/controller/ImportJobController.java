@@ -0,0 +1,49 @@
+package com.example.prmtool.controller;
+
+import com.example.prmtool.dto.ImportJobResponse;
+import com.example.prmtool.service.ImportJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * CSVインポートジョブコントローラー
+ * ジョブはパートナー・案件の /import-csv で登録され、ここで進捗の確認とキャンセルを行う
+ */
+@RestController
+@RequestMapping("/api/import-jobs")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class ImportJobController {
+
+  private final ImportJobService importJobService;
+
+  // ジョブの進捗を取得
+  @GetMapping("/{id}")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<?> getJob(@PathVariable UUID id) {
+    try {
+      ImportJobResponse job = importJobService.getJob(id);
+      return ResponseEntity.ok(job);
+    } catch (RuntimeException e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  // ジョブのキャンセルを要求
+  @PostMapping("/{id}/cancel")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<?> cancel(@PathVariable UUID id) {
+    try {
+      ImportJobResponse job = importJobService.cancel(id);
+      return ResponseEntity.ok(job);
+    } catch (RuntimeException e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+    }
+  }
+}
@@ -1,22 +1,35 @@
 package com.example.prmtool.controller;
 
+import com.example.prmtool.dto.CursorPageResponse;
+import com.example.prmtool.dto.InvoiceBatchRequest;
+import com.example.prmtool.dto.InvoiceBatchResponse;
+import com.example.prmtool.dto.InvoiceBulkStatusRequest;
+import com.example.prmtool.dto.InvoiceBulkStatusResponse;
+import com.example.prmtool.dto.InvoiceNumberGapReport;
 import com.example.prmtool.dto.InvoiceRequest;
 import com.example.prmtool.dto.InvoiceResponse;
+import com.example.prmtool.dto.InvoiceSummaryResponse;
 import com.example.prmtool.entity.Invoice;
 import com.example.prmtool.entity.InvoiceTemplate;
 import com.example.prmtool.repository.InvoiceRepository;
 import com.example.prmtool.repository.InvoiceTemplateRepository;
+import com.example.prmtool.service.CsvExportService;
+import com.example.prmtool.service.InvoiceNumberAllocator;
 import com.example.prmtool.service.InvoiceService;
 import com.example.prmtool.service.PdfGeneratorService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -34,6 +47,8 @@ public class InvoiceController {
   private final PdfGeneratorService pdfGeneratorService;
   private final InvoiceRepository invoiceRepository;
   private final InvoiceTemplateRepository templateRepository;
+  private final InvoiceNumberAllocator invoiceNumberAllocator;
+  private final CsvExportService csvExportService;
 
   /**
    * 全請求書を取得
@@ -46,6 +61,58 @@ public class InvoiceController {
     return ResponseEntity.ok(invoices);
   }
 
+  /**
+   * 請求書をCSVで出力（全件をストリーミング、パートナー・ステータスで絞り込み可能）
+   * 権限: ADMIN, ACCOUNTING, REP
+   * bom=true でExcel向けにUTF-8 BOMを付与
+   */
+  @GetMapping("/export.csv")
+  @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING', 'REP')")
+  public ResponseEntity<StreamingResponseBody> exportCsv(
+      @RequestParam(required = false) UUID partnerId,
+      @RequestParam(required = false) Invoice.InvoiceStatus status,
+      @RequestParam(defaultValue = "false") boolean bom) {
+    String fileName = csvExportService.fileName("invoices");
+    return ResponseEntity.ok()
+        .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+        .body(out -> csvExportService.writeInvoices(out, bom, partnerId, status));
+  }
+
+  /**
+   * 請求書一覧をカーソル方式で取得（明細を含まない軽量版）
+   * 次ページはレスポンスのnextCursorをcursorに指定して取得する
+   * limitの既定値は50件、最大200件
+   * 権限: ADMIN, ACCOUNTING, REP
+   */
+  @GetMapping("/page")
+  @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING', 'REP')")
+  public ResponseEntity<CursorPageResponse<InvoiceSummaryResponse>> getInvoicePage(
+      @RequestParam(required = false) UUID partnerId,
+      @RequestParam(required = false) Invoice.InvoiceStatus status,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate issueDateFrom,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate issueDateTo,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueDateFrom,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueDateTo,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit) {
+    return ResponseEntity.ok(invoiceService.getInvoicePage(
+        partnerId, status, issueDateFrom, issueDateTo, dueDateFrom, dueDateTo, cursor, limit));
+  }
+
+  /**
+   * 請求書番号の欠番監査
+   * 年を省略した場合は当年を対象とする
+   * 権限: ADMIN, ACCOUNTING
+   */
+  @GetMapping("/number-gaps")
+  @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING')")
+  public ResponseEntity<InvoiceNumberGapReport> auditInvoiceNumberGaps(
+      @RequestParam(required = false) Integer year) {
+    int targetYear = year != null ? year : LocalDate.now().getYear();
+    return ResponseEntity.ok(invoiceNumberAllocator.auditGaps(targetYear));
+  }
+
   /**
    * IDで請求書を取得
    * 権限: ADMIN, ACCOUNTING, REP
@@ -136,6 +203,18 @@ public class InvoiceController {
     return ResponseEntity.status(HttpStatus.CREATED).body(created);
   }
 
+  /**
+   * 請求書を一括作成
+   * 各請求書の成否を1件ずつ返す（失敗分はスキップし、成功分のみ保存）
+   * 権限: ADMIN, ACCOUNTING
+   */
+  @PostMapping("/batch")
+  @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING')")
+  public ResponseEntity<InvoiceBatchResponse> createInvoices(@Valid @RequestBody InvoiceBatchRequest request) {
+    InvoiceBatchResponse result = invoiceService.createInvoices(request.getInvoices());
+    return ResponseEntity.ok(result);
+  }
+
   /**
    * 請求書を更新
    * 注意: 発行済・支払済の請求書は更新できない（Service層でガード）
@@ -163,6 +242,20 @@ public class InvoiceController {
     return ResponseEntity.ok(updated);
   }
 
+  /**
+   * 請求書のステータスを一括変更
+   * ISSUE: 下書き→発行済、MARK_PAID: 発行済→支払済、REVERT_TO_DRAFT: 発行済→下書き
+   * 遷移元ステータスでない請求書はスキップし、1件ずつ成否を返す
+   * 権限: ADMIN, ACCOUNTING
+   */
+  @PatchMapping("/bulk-status")
+  @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING')")
+  public ResponseEntity<InvoiceBulkStatusResponse> bulkUpdateStatus(
+      @Valid @RequestBody InvoiceBulkStatusRequest request) {
+    InvoiceBulkStatusResponse result = invoiceService.bulkTransition(request.getAction(), request.getInvoiceIds());
+    return ResponseEntity.ok(result);
+  }
+
   /**
    * 請求書を「支払済」に変更する専用エンドポイント
    * 発行済(ISSUED)状態の請求書のみ支払済(PAID)に変更可能
@@ -1,17 +1,15 @@
 package com.example.prmtool.controller;
 
+import com.example.prmtool.config.AuthenticatedUser;
 import com.example.prmtool.dto.InvoiceDeliveryRequest;
 import com.example.prmtool.dto.InvoiceDeliveryResponse;
 import com.example.prmtool.entity.InvoiceDelivery;
-import com.example.prmtool.entity.User;
-import com.example.prmtool.repository.UserRepository;
 import com.example.prmtool.service.InvoiceDeliveryService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -29,7 +27,6 @@ import java.util.UUID;
 public class InvoiceDeliveryController {
 
   private final InvoiceDeliveryService service;
-  private final UserRepository userRepository;  // UserRepositoryを追加
 
   /**
    * 請求書をメール送付
@@ -39,14 +36,9 @@ public class InvoiceDeliveryController {
   @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTING')")
   public ResponseEntity<InvoiceDeliveryResponse> sendInvoice(
       @Valid @RequestBody InvoiceDeliveryRequest request,
-      Authentication authentication) {
+      AuthenticatedUser currentUser) {
 
-    // ログインIDからユーザーを取得
-    String loginId = authentication.getName();
-    User user = userRepository.findByLoginId(loginId)
-        .orElseThrow(() -> new RuntimeException("ユーザーが見つかりません: " + loginId));
-
-    InvoiceDeliveryResponse response = service.sendInvoice(request, user.getId());
+    InvoiceDeliveryResponse response = service.sendInvoice(request, currentUser.getUserId());
 
     // 送信失敗の場合は400を返す
     if (response.getStatus() == InvoiceDelivery.DeliveryStatus.FAILED) {
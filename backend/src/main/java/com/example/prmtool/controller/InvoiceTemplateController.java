@@ -1,5 +1,6 @@
 package com.example.prmtool.controller;
 
+import com.example.prmtool.config.AuthenticatedUser;
 import com.example.prmtool.dto.InvoiceTemplateRequest;
 import com.example.prmtool.dto.InvoiceTemplateResponse;
 import com.example.prmtool.entity.InvoiceTemplate;
@@ -13,7 +14,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -73,9 +73,8 @@ public class InvoiceTemplateController {
   @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
   public ResponseEntity<InvoiceTemplateResponse> createTemplate(
       @Valid @RequestBody InvoiceTemplateRequest request,
-      Authentication authentication) {
-    String loginId = authentication.getName();
-    InvoiceTemplateResponse created = templateService.createTemplate(request, loginId);
+      AuthenticatedUser currentUser) {
+    InvoiceTemplateResponse created = templateService.createTemplate(request, currentUser);
     return ResponseEntity.status(HttpStatus.CREATED).body(created);
   }
 
@@ -87,10 +86,8 @@ public class InvoiceTemplateController {
   @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
   public ResponseEntity<InvoiceTemplateResponse> updateTemplate(
       @PathVariable UUID id,
-      @Valid @RequestBody InvoiceTemplateRequest request,
-      Authentication authentication) {
-    String loginId = authentication.getName();
-    InvoiceTemplateResponse updated = templateService.updateTemplate(id, request, loginId);
+      @Valid @RequestBody InvoiceTemplateRequest request) {
+    InvoiceTemplateResponse updated = templateService.updateTemplate(id, request);
     return ResponseEntity.ok(updated);
   }
 
@@ -1,17 +1,25 @@
 package com.example.prmtool.controller;
 
+import com.example.prmtool.config.AuthenticatedUser;
+import com.example.prmtool.dto.ImportJobResponse;
 import com.example.prmtool.dto.PartnerRequest;
 import com.example.prmtool.dto.PartnerResponse;
+import com.example.prmtool.entity.ImportJob;
+import com.example.prmtool.service.CsvExportService;
+import com.example.prmtool.service.ImportJobService;
 import com.example.prmtool.service.PartnerService;
-import com.example.prmtool.service.PartnerCsvService;
 
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -22,12 +30,15 @@ import java.util.UUID;
 public class PartnerController {
 
   private final PartnerService partnerService;
-  private final PartnerCsvService partnerCsvService;
+  private final ImportJobService importJobService;
+  private final CsvExportService csvExportService;
 
   public PartnerController(PartnerService partnerService,
-      PartnerCsvService partnerCsvService) {
+      ImportJobService importJobService,
+      CsvExportService csvExportService) {
     this.partnerService = partnerService;
-    this.partnerCsvService = partnerCsvService;
+    this.importJobService = importJobService;
+    this.csvExportService = csvExportService;
   }
 
   @GetMapping
@@ -36,6 +47,21 @@ public class PartnerController {
     return ResponseEntity.ok(partners);
   }
 
+  /**
+   * CSVエクスポート（インポートと同じ列構成）
+   * bom=true でExcel向けにUTF-8 BOMを付与
+   */
+  @GetMapping("/export.csv")
+  @PreAuthorize("hasAnyRole('ADMIN', 'REP')")
+  public ResponseEntity<StreamingResponseBody> exportCsv(
+      @RequestParam(defaultValue = "false") boolean bom) {
+    String fileName = csvExportService.fileName("partners");
+    return ResponseEntity.ok()
+        .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+        .body(out -> csvExportService.writePartners(out, bom));
+  }
+
   @GetMapping("/{id}")
   public ResponseEntity<PartnerResponse> getPartnerById(@PathVariable UUID id) {
     PartnerResponse partner = partnerService.getPartnerById(id);
@@ -65,19 +91,24 @@ public class PartnerController {
     return ResponseEntity.noContent().build();
   }
 
-  // CSVインポートエンドポイント
+  // CSVインポートエンドポイント（ジョブを登録して即座に返す。進捗は /api/import-jobs/{id} で確認）
   @PostMapping("/import-csv")
   @PreAuthorize("hasRole('ADMIN')")
-  public ResponseEntity<Map<String, Object>> importCsv(@RequestParam("file") MultipartFile file) {
+  public ResponseEntity<?> importCsv(
+      @RequestParam("file") MultipartFile file,
+      AuthenticatedUser currentUser) {
     try {
       if (file.isEmpty()) {
         return ResponseEntity.badRequest()
             .body(Map.of("error", "ファイルが空です"));
       }
 
-      Map<String, Object> result = partnerCsvService.importPartnersFromCsv(file);
-      return ResponseEntity.ok(result);
+      ImportJobResponse job = importJobService.submit(ImportJob.JobType.PARTNER_CSV, file, currentUser);
+      return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
 
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+          .body(Map.of("error", e.getMessage()));
     } catch (Exception e) {
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
           .body(Map.of("error", "インポート中にエラーが発生しました: " + e.getMessage()));
@@ -1,5 +1,6 @@
 package com.example.prmtool.controller;
 
+import com.example.prmtool.dto.CacheStatsResponse;
 import com.example.prmtool.dto.PartnerDashboardResponse;
 import com.example.prmtool.service.PartnerDashboardService;
 import lombok.RequiredArgsConstructor;
@@ -24,4 +25,11 @@ public class PartnerDashboardController {
     PartnerDashboardResponse dashboard = partnerDashboardService.getPartnerDashboard(partnerId);
     return ResponseEntity.ok(dashboard);
   }
+
+  // ダッシュボードキャッシュの統計を取得
+  @GetMapping("/dashboard/cache-stats")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<CacheStatsResponse> getDashboardCacheStats() {
+    return ResponseEntity.ok(partnerDashboardService.getCacheStats());
+  }
 }
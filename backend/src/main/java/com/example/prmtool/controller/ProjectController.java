@@ -1,23 +1,35 @@
 package com.example.prmtool.controller;
 
+import com.example.prmtool.config.AuthenticatedUser;
+import com.example.prmtool.dto.ImportJobResponse;
+import com.example.prmtool.dto.PageResponse;
 import com.example.prmtool.dto.ProjectRequest;
 import com.example.prmtool.dto.ProjectResponse;
-import com.example.prmtool.entity.User;
-import com.example.prmtool.repository.UserRepository;
+import com.example.prmtool.dto.ProjectSummaryResponse;
+import com.example.prmtool.dto.TableDataHeaderResponse;
+import com.example.prmtool.dto.TableDataPatchRequest;
+import com.example.prmtool.dto.TableDataRowsResponse;
+import com.example.prmtool.entity.ImportJob;
+import com.example.prmtool.entity.Project;
+import com.example.prmtool.service.CsvExportService;
+import com.example.prmtool.service.ImportJobService;
 import com.example.prmtool.service.ProjectService;
-import com.example.prmtool.service.ProjectCsvService;
+import com.example.prmtool.service.ProjectTableDataService;
 
 import jakarta.validation.Valid;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -28,15 +40,18 @@ import java.util.UUID;
 public class ProjectController {
 
   private final ProjectService projectService;
-  private final UserRepository userRepository;
-  private final ProjectCsvService projectCsvService;
+  private final ImportJobService importJobService;
+  private final ProjectTableDataService projectTableDataService;
+  private final CsvExportService csvExportService;
 
   public ProjectController(ProjectService projectService,
-      UserRepository userRepository,
-      ProjectCsvService projectCsvService) {
+      ImportJobService importJobService,
+      ProjectTableDataService projectTableDataService,
+      CsvExportService csvExportService) {
     this.projectService = projectService;
-    this.userRepository = userRepository;
-    this.projectCsvService = projectCsvService;
+    this.importJobService = importJobService;
+    this.projectTableDataService = projectTableDataService;
+    this.csvExportService = csvExportService;
   }
 
   /**
@@ -50,22 +65,18 @@ public class ProjectController {
 
   /**
    * 案件一覧取得（ロール別の表示制御）
+   * 担当者はpage・size（既定50件、最大200件）で指定した1ページ分のみ返す
+   * 一覧画面は軽量版の /summary を使用する
    */
   @GetMapping
   public ResponseEntity<List<ProjectResponse>> getAllProjects(
       @RequestParam(required = false) UUID ownerId,
-      Authentication authentication) {
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(required = false) Integer size,
+      AuthenticatedUser me) {
 
     try {
-      // ログインIDを使用してユーザーを検索
-      String loginId = authentication.getName().trim();
-      System.out.println("🔍 Auth loginId: [" + loginId + "]");
-
-      User me = userRepository.findByLoginId(loginId)
-          .orElseThrow(() -> new RuntimeException("ユーザーが見つかりません: " + loginId));
-      System.out.println("✅ User found: " + me.getId());
-
-      boolean isAdmin = me.getRole() == User.UserRole.ADMIN;
+      boolean isAdmin = me.isAdmin();
       System.out.println("✅ isAdmin: " + isAdmin);
 
       List<ProjectResponse> projects;
@@ -77,8 +88,8 @@ public class ProjectController {
             : projectService.getAllProjects();
       } else {
         System.out.println("📋 Fetching visible projects for partner");
-        // 担当者: NEW または 自分が担当している案件のみ
-        projects = projectService.getVisibleProjectsForPartner(me.getId());
+        // 担当者: NEW または 自分がオーナー・担当の案件のみ
+        projects = projectService.getVisibleProjectsForPartner(me.getUserId(), page, size);
       }
 
       System.out.println("✅ Projects count: " + projects.size());
@@ -91,15 +102,30 @@ public class ProjectController {
     }
   }
 
+  /**
+   * 案件一覧取得（軽量版・ページング、ロール別の表示制御）
+   * 担当者数のみを返し、担当者リスト・テーブルデータは含まない
+   */
+  @GetMapping("/summary")
+  public ResponseEntity<PageResponse<ProjectSummaryResponse>> getProjectSummaries(
+      @RequestParam(required = false) UUID ownerId,
+      @RequestParam(required = false) Project.ProjectStatus status,
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(required = false) Integer size,
+      @RequestParam(required = false) String sort,
+      @RequestParam(required = false) String direction,
+      AuthenticatedUser me) {
+    return ResponseEntity.ok(projectService.getProjectSummaries(me, ownerId, status, page, size, sort, direction));
+  }
+
   /**
    * 案件詳細取得（アクセス制御付き）
    */
   @GetMapping("/{id}")
   public ResponseEntity<ProjectResponse> getProjectById(
       @PathVariable UUID id,
-      Authentication authentication) {
-    String loginId = authentication.getName().trim();
-    ProjectResponse response = projectService.getProjectByIdWithAccessControl(id, loginId);
+      AuthenticatedUser currentUser) {
+    ProjectResponse response = projectService.getProjectByIdWithAccessControl(id, currentUser);
     return ResponseEntity.ok(response);
   }
 
@@ -113,9 +139,8 @@ public class ProjectController {
   public ResponseEntity<ProjectResponse> updateProject(
       @PathVariable UUID id,
       @Valid @RequestBody ProjectRequest request,
-      Authentication authentication) {
-    String loginId = authentication.getName().trim();
-    ProjectResponse response = projectService.updateProject(id, request, loginId);
+      AuthenticatedUser currentUser) {
+    ProjectResponse response = projectService.updateProject(id, request, currentUser);
     return ResponseEntity.ok(response);
   }
 
@@ -129,28 +154,43 @@ public class ProjectController {
     return ResponseEntity.noContent().build();
   }
 
+  /**
+   * CSVエクスポート（インポートと同じ列構成、管理者以外は閲覧可能な案件のみ）
+   * bom=true でExcel向けにUTF-8 BOMを付与
+   */
+  @GetMapping("/export.csv")
+  @PreAuthorize("hasAnyRole('ADMIN', 'REP')")
+  public ResponseEntity<StreamingResponseBody> exportCsv(
+      AuthenticatedUser currentUser,
+      @RequestParam(defaultValue = "false") boolean bom) {
+    String fileName = csvExportService.fileName("projects");
+    return ResponseEntity.ok()
+        .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+        .body(out -> csvExportService.writeProjects(out, bom, currentUser));
+  }
+
   /**
    * CSVインポート（管理者のみ）
    */
   @PostMapping("/import-csv")
   @PreAuthorize("hasRole('ADMIN')")
-  public ResponseEntity<Map<String, Object>> importCsv(
+  public ResponseEntity<?> importCsv(
       @RequestParam("file") MultipartFile file,
-      @AuthenticationPrincipal UserDetails userDetails) {
+      AuthenticatedUser currentUser) {
     try {
       if (file.isEmpty()) {
         return ResponseEntity.badRequest()
             .body(Map.of("error", "ファイルが空です"));
       }
 
-      // 現在のユーザーを取得
-      String loginId = userDetails.getUsername().trim();
-      User currentUser = userRepository.findByLoginId(loginId)
-          .orElseThrow(() -> new RuntimeException("ユーザーが見つかりません: " + loginId));
-
-      Map<String, Object> result = projectCsvService.importProjectsFromCsv(file, currentUser);
-      return ResponseEntity.ok(result);
+      // ジョブを登録して即座に返す（進捗は /api/import-jobs/{id} で確認）
+      ImportJobResponse job = importJobService.submit(ImportJob.JobType.PROJECT_CSV, file, currentUser);
+      return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
 
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+          .body(Map.of("error", e.getMessage()));
     } catch (Exception e) {
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
           .body(Map.of("error", "インポート中にエラーが発生しました: " + e.getMessage()));
@@ -158,41 +198,75 @@ public class ProjectController {
   }
 
   /**
-   * テーブルデータ取得
+   * テーブルデータ取得（版数を含む）
    */
   @GetMapping("/{id}/table-data")
-  public ResponseEntity<Map<String, String>> getTableData(
+  public ResponseEntity<Map<String, Object>> getTableData(
       @PathVariable UUID id,
-      Authentication authentication) {
+      AuthenticatedUser currentUser) {
     try {
-      String loginId = authentication.getName().trim();
-
-      // アクセス権限チェック（案件詳細取得と同じロジック）
-      projectService.getProjectByIdWithAccessControl(id, loginId);
+      // アクセス権限チェック（テーブルデータはロードしない）
+      projectService.checkProjectAccess(id, currentUser);
 
       // テーブルデータ取得
-      String tableDataJson = projectService.getProjectTableData(id);
-
-      return ResponseEntity.ok(Map.of("tableDataJson", tableDataJson));
+      return ResponseEntity.ok(projectTableDataService.getTableData(id));
     } catch (Exception e) {
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
           .body(Map.of("error", e.getMessage()));
     }
   }
 
+  /**
+   * テーブルデータのヘッダー（列名・行数）取得
+   */
+  @GetMapping("/{id}/table-data/header")
+  public ResponseEntity<?> getTableDataHeader(
+      @PathVariable UUID id,
+      AuthenticatedUser currentUser) {
+    // アクセス権限チェック
+    projectService.checkProjectAccess(id, currentUser);
+    try {
+      TableDataHeaderResponse header = projectTableDataService.getHeader(id);
+      return ResponseEntity.ok(header);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest()
+          .body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  /**
+   * テーブルデータの行範囲取得
+   * offset行目からlimit行（既定200行、最大1000行）を返す。columnsで列を絞り込める
+   */
+  @GetMapping("/{id}/table-data/rows")
+  public ResponseEntity<?> getTableDataRows(
+      @PathVariable UUID id,
+      @RequestParam(defaultValue = "0") int offset,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) List<Integer> columns,
+      AuthenticatedUser currentUser) {
+    // アクセス権限チェック
+    projectService.checkProjectAccess(id, currentUser);
+    try {
+      TableDataRowsResponse rows = projectTableDataService.getRows(id, offset, limit, columns);
+      return ResponseEntity.ok(rows);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest()
+          .body(Map.of("error", e.getMessage()));
+    }
+  }
+
   /**
    * テーブルデータ保存
    */
   @PutMapping("/{id}/table-data")
-  public ResponseEntity<Map<String, String>> saveTableData(
+  public ResponseEntity<Map<String, Object>> saveTableData(
       @PathVariable UUID id,
       @RequestBody Map<String, String> request,
-      Authentication authentication) {
+      AuthenticatedUser currentUser) {
     try {
-      String loginId = authentication.getName().trim();
-
       // アクセス権限チェック
-      projectService.getProjectByIdWithAccessControl(id, loginId);
+      projectService.checkProjectAccess(id, currentUser);
 
       // テーブルデータ保存
       String tableDataJson = request.get("tableDataJson");
@@ -201,9 +275,37 @@ public class ProjectController {
             .body(Map.of("error", "テーブルデータが空です"));
       }
 
-      projectService.saveProjectTableData(id, tableDataJson);
+      long version = projectTableDataService.saveTableData(id, tableDataJson);
+
+      return ResponseEntity.ok(Map.of("message", "保存しました", "version", version));
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  /**
+   * テーブルデータ差分更新
+   * セル・行・列単位の操作を適用し、新しい版数のみを返す
+   * 編集元の版数がサーバーと異なる場合は409（競合）を返す
+   */
+  @PatchMapping("/{id}/table-data")
+  public ResponseEntity<Map<String, Object>> patchTableData(
+      @PathVariable UUID id,
+      @Valid @RequestBody TableDataPatchRequest request,
+      AuthenticatedUser currentUser) {
+    try {
+      // アクセス権限チェック
+      projectService.checkProjectAccess(id, currentUser);
 
-      return ResponseEntity.ok(Map.of("message", "保存しました"));
+      long version = projectTableDataService.patchTableData(id, request);
+      return ResponseEntity.ok(Map.of("version", version));
+    } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT)
+          .body(Map.of("error", "テーブルデータが他のユーザーによって更新されています。再読み込みしてください"));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest()
+          .body(Map.of("error", e.getMessage()));
     } catch (Exception e) {
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
           .body(Map.of("error", e.getMessage()));
@@ -0,0 +1,43 @@
+package com.example.prmtool.controller;
+
+import com.example.prmtool.dto.StorageStatusResponse;
+import com.example.prmtool.service.FileStorageService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * ファイルストレージ管理コントローラー
+ * セグメントの使用状況の確認と、既存ファイルの保存レイアウトの移行を行う
+ */
+@RestController
+@RequestMapping("/api/admin/storage")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class StorageAdminController {
+
+  private final FileStorageService fileStorageService;
+
+  // ストレージの状態（移行ジョブの進捗を含む）を取得
+  @GetMapping
+  @PreAuthorize("hasAnyRole('SYSTEM', 'ADMIN')")
+  public ResponseEntity<StorageStatusResponse> getStatus() {
+    return ResponseEntity.ok(fileStorageService.getStorageStatus());
+  }
+
+  // 既存ファイルを現在の保存レイアウトへ移行するジョブを開始
+  @PostMapping("/migrate")
+  @PreAuthorize("hasAnyRole('SYSTEM', 'ADMIN')")
+  public ResponseEntity<?> startMigration() {
+    try {
+      StorageStatusResponse status = fileStorageService.startLayoutMigration();
+      return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package com.example.prmtool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * キャッシュ統計レスポンス
+ * 件数はアプリケーション起動時からの累計
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheStatsResponse {
+
+  private int size; // 現在のエントリ数
+  private int maxSize; // 上限件数
+  private long ttlMillis; // エントリの最大保持時間（ミリ秒）
+  private long hitCount; // ヒット数
+  private long missCount; // ミス数（失効済みを含む）
+  private double hitRate; // ヒット率（0.0〜1.0）
+  private long evictionCount; // 上限超過・失効による追い出し数
+  private long invalidationCount; // 変更イベントによる無効化数
+}
@@ -60,6 +60,11 @@ public class ContentFileRequest {
   @NotNull(message = "ファイルサイズは必須です")
   private Long fileSize;
 
+  /**
+   * ファイル内容のSHA-256（ストレージへの保存時に計算した値、アップロード時のみ使用）
+   */
+  private String contentHash;
+
   /**
    * タグ（カンマ区切り）
    */
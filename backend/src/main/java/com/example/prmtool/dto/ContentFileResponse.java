@@ -59,6 +59,11 @@ public class ContentFileResponse {
    */
   private Long fileSize;
 
+  /**
+   * ファイル内容のSHA-256（未計算の既存ファイルはnull）
+   */
+  private String contentHash;
+
   /**
    * タグ
    */
@@ -0,0 +1,31 @@
+package com.example.prmtool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * フォルダツリーのノード（サイドバー表示用）
+ * 子フォルダは作成日時の昇順で並ぶ
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContentFolderTreeResponse {
+
+  private UUID id;
+  private String folderName;
+  private String description;
+  private UUID parentFolderId;
+  private Integer depth; // 階層の深さ（ルートは0）
+  private long fileCount; // このフォルダ直下のファイル数
+
+  @Builder.Default
+  private List<ContentFolderTreeResponse> children = new ArrayList<>();
+}
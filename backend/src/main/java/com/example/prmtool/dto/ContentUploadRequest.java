@@ -0,0 +1,45 @@
+package com.example.prmtool.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * チャンクアップロード開始リクエストDTO
+ * ファイル本体はチャンクごとに別リクエストで送信する
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContentUploadRequest {
+
+  @NotNull(message = "フォルダIDは必須です")
+  private UUID folderId;
+
+  @NotBlank(message = "ファイル名は必須です")
+  private String fileName;
+
+  private String title;
+
+  private String description;
+
+  private String tags;
+
+  private String fileType; // MIMEタイプ（未指定の場合はapplication/octet-stream）
+
+  @NotNull(message = "ファイルサイズは必須です")
+  @Min(value = 1, message = "ファイルサイズは1バイト以上である必要があります")
+  private Long fileSize;
+
+  // ファイル全体のSHA-256（任意、指定した場合は完了時に照合する）
+  @Pattern(regexp = "^$|^[0-9a-fA-F]{64}$", message = "SHA-256は64桁の16進数で指定してください")
+  private String sha256;
+}
@@ -0,0 +1,30 @@
+package com.example.prmtool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * チャンクアップロードの状態レスポンス
+ * クライアントは receivedChunks に含まれないチャンクだけを送信すれば再開できる
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContentUploadResponse {
+
+  private UUID uploadId; // アップロードID
+  private String fileName; // 元のファイル名
+  private long fileSize; // ファイル全体のサイズ（バイト）
+  private int chunkSize; // チャンクサイズ（チャンクNのオフセットは N * chunkSize）
+  private int totalChunks; // チャンク数
+  private List<Integer> receivedChunks; // 受信済みのチャンク番号
+  private long receivedBytes; // 受信済みのバイト数
+  private LocalDateTime expiresAt; // 有効期限
+}
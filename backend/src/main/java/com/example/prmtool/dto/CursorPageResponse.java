@@ -0,0 +1,23 @@
+package com.example.prmtool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * カーソル（キーセット）方式のページングレスポンス
+ * 次ページはnextCursorをそのままcursorパラメータに渡して取得する
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageResponse<T> {
+
+  private List<T> items; // このページの要素
+  private String nextCursor; // 次ページ取得用のカーソル（最終ページの場合はnull）
+  private boolean hasNext; // 次ページが存在するか
+}
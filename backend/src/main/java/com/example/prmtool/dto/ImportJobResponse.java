@@ -0,0 +1,37 @@
+package com.example.prmtool.dto;
+
+import com.example.prmtool.entity.ImportJob;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * CSVインポートジョブのレスポンス
+ * 件数・メッセージは最後にコミットされたチャンクの時点の値
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportJobResponse {
+
+  private UUID id; // ジョブID
+  private ImportJob.JobType jobType; // インポート種別
+  private ImportJob.JobStatus status; // 状態
+  private boolean finished; // 終了状態かどうか（ポーリングの終了判定用）
+  private String fileName; // アップロードされたファイル名
+  private int processedRows; // 処理済みのデータ行数
+  private int successCount; // 登録に成功した行数
+  private int errorCount; // エラーになった行数
+  private List<String> errors; // エラー・警告メッセージ（上限件数まで）
+  private String failureReason; // ジョブ全体が失敗した場合の理由
+  private boolean cancelRequested; // キャンセル要求の有無
+  private LocalDateTime createdAt; // 登録日時
+  private LocalDateTime startedAt; // 実行開始日時
+  private LocalDateTime finishedAt; // 終了日時
+}
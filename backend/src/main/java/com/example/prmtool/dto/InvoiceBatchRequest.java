@@ -0,0 +1,28 @@
+package com.example.prmtool.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 請求書一括作成リクエスト
+ * 各請求書の入力チェックはサービス層で個別に行い、結果を1件ずつ返す
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceBatchRequest {
+
+  /**
+   * 作成する請求書（1回あたり最大1000件）
+   */
+  @NotEmpty(message = "請求書は最低1件必要です")
+  @Size(max = 1000, message = "一度に作成できる請求書は1000件までです")
+  private List<InvoiceRequest> invoices;
+}
@@ -0,0 +1,60 @@
+package com.example.prmtool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 請求書一括作成レスポンス
+ * リクエストの並び順どおりに1件ずつ成否を返す
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceBatchResponse {
+
+  private int successCount; // 作成に成功した件数
+  private int errorCount; // 失敗した件数
+  private List<Result> results; // 1件ごとの結果
+
+  /**
+   * 1件ごとの作成結果
+   */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @Builder
+  public static class Result {
+
+    private int index; // リクエスト内の位置（0始まり）
+    private boolean success; // 作成に成功したか
+    private UUID invoiceId; // 作成された請求書ID
+    private String invoiceNumber; // 採番された請求書番号
+    private BigDecimal totalAmount; // 合計金額（税込）
+    private String error; // 失敗理由
+
+    public static Result success(int index, UUID invoiceId, String invoiceNumber, BigDecimal totalAmount) {
+      return Result.builder()
+          .index(index)
+          .success(true)
+          .invoiceId(invoiceId)
+          .invoiceNumber(invoiceNumber)
+          .totalAmount(totalAmount)
+          .build();
+    }
+
+    public static Result failure(int index, String error) {
+      return Result.builder()
+          .index(index)
+          .success(false)
+          .error(error)
+          .build();
+    }
+  }
+}
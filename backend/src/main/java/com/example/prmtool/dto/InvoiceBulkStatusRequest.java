@@ -0,0 +1,61 @@
+package com.example.prmtool.dto;
+
+import com.example.prmtool.entity.Invoice;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 請求書ステータス一括変更リクエスト
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceBulkStatusRequest {
+
+  /**
+   * 実行する遷移
+   */
+  @NotNull(message = "操作は必須です")
+  private Action action;
+
+  /**
+   * 対象の請求書ID（1回あたり最大1000件）
+   */
+  @NotEmpty(message = "請求書IDは最低1件必要です")
+  @Size(max = 1000, message = "一度に変更できる請求書は1000件までです")
+  private List<UUID> invoiceIds;
+
+  /**
+   * 一括変更で許可する遷移（遷移元ステータス → 遷移先ステータス）
+   */
+  public enum Action {
+    ISSUE(Invoice.InvoiceStatus.DRAFT, Invoice.InvoiceStatus.ISSUED), // 発行
+    MARK_PAID(Invoice.InvoiceStatus.ISSUED, Invoice.InvoiceStatus.PAID), // 支払済に変更
+    REVERT_TO_DRAFT(Invoice.InvoiceStatus.ISSUED, Invoice.InvoiceStatus.DRAFT); // 下書きに戻す
+
+    private final Invoice.InvoiceStatus from;
+    private final Invoice.InvoiceStatus to;
+
+    Action(Invoice.InvoiceStatus from, Invoice.InvoiceStatus to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    public Invoice.InvoiceStatus getFrom() {
+      return from;
+    }
+
+    public Invoice.InvoiceStatus getTo() {
+      return to;
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.example.prmtool.dto;
+
+import com.example.prmtool.entity.Invoice;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 請求書ステータス一括変更レスポンス
+ * リクエストの並び順どおりに1件ずつ成否を返す
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceBulkStatusResponse {
+
+  private InvoiceBulkStatusRequest.Action action; // 実行した遷移
+  private int successCount; // 変更に成功した件数
+  private int errorCount; // 失敗した件数
+  private List<Result> results; // 1件ごとの結果
+
+  /**
+   * 1件ごとの変更結果
+   */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @Builder
+  public static class Result {
+
+    private UUID invoiceId; // 請求書ID
+    private boolean success; // 変更に成功したか
+    private Invoice.InvoiceStatus status; // 処理後のステータス（存在しない場合はnull）
+    private String error; // 失敗理由
+
+    public static Result success(UUID invoiceId, Invoice.InvoiceStatus status) {
+      return Result.builder()
+          .invoiceId(invoiceId)
+          .success(true)
+          .status(status)
+          .build();
+    }
+
+    public static Result failure(UUID invoiceId, Invoice.InvoiceStatus status, String error) {
+      return Result.builder()
+          .invoiceId(invoiceId)
+          .success(false)
+          .status(status)
+          .error(error)
+          .build();
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package com.example.prmtool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 請求書番号の欠番監査レポート
+ * ブロック予約方式の採番では、再起動やロールバックで使われなかった番号が欠番になる
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceNumberGapReport {
+
+  private int year; // 対象年
+  private int issuedCount; // 発行済みの請求書番号の件数
+  private String firstNumber; // 最小の請求書番号
+  private String lastNumber; // 最大の請求書番号
+  private String reservedUpTo; // カウンターで予約済みの最大番号
+  private long unusedReservedCount; // 予約済みだが未使用の件数（最大番号より後ろ）
+  private long missingCount; // 欠番の総数
+  private List<Gap> gaps; // 欠番の範囲
+
+  /**
+   * 欠番の範囲（from〜toを含む）
+   */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @Builder
+  public static class Gap {
+
+    private String from; // 欠番の開始番号
+    private String to; // 欠番の終了番号
+    private long count; // 欠番の件数
+  }
+}
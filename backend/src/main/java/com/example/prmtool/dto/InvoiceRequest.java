@@ -82,6 +82,12 @@ public class InvoiceRequest {
   @Builder
   public static class InvoiceItemRequest {
 
+    /**
+     * 明細ID（任意）
+     * 更新時に既存明細を指定する。未指定の明細は新規追加として扱う
+     */
+    private UUID id;
+
     /**
      * 手数料ルールID（任意）
      */
@@ -0,0 +1,37 @@
+package com.example.prmtool.dto;
+
+import com.example.prmtool.entity.Invoice;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 請求書一覧用の軽量レスポンス
+ * JPQLのコンストラクタ式で直接生成し、明細や関連エンティティはロードしない
+ * （フィールドの並び順はInvoiceRepositoryのクエリと一致させること）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceSummaryResponse {
+
+  private UUID id;
+  private String invoiceNumber;
+  private UUID partnerId;
+  private String partnerName;
+  private UUID templateId;
+  private LocalDate issueDate;
+  private LocalDate dueDate;
+  private Invoice.TaxCategory taxCategory;
+  private BigDecimal totalAmount;
+  private Invoice.InvoiceStatus status;
+  private LocalDateTime createdAt;
+  private LocalDateTime updatedAt;
+}
@@ -0,0 +1,37 @@
+package com.example.prmtool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * ページ番号方式のページングレスポンス
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PageResponse<T> {
+
+  private List<T> items; // このページの要素
+  private int page; // ページ番号（0始まり）
+  private int size; // 1ページあたりの件数
+  private long totalElements; // 全件数
+  private int totalPages; // 全ページ数
+  private boolean hasNext; // 次ページが存在するか
+
+  public static <T> PageResponse<T> from(Page<T> page) {
+    return PageResponse.<T>builder()
+        .items(page.getContent())
+        .page(page.getNumber())
+        .size(page.getSize())
+        .totalElements(page.getTotalElements())
+        .totalPages(page.getTotalPages())
+        .hasNext(page.hasNext())
+        .build();
+  }
+}
@@ -1,6 +1,7 @@
 package com.example.prmtool.dto;
 
 import com.example.prmtool.entity.Project;
+import com.example.prmtool.entity.ProjectTableData;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -38,7 +39,18 @@ public class ProjectResponse {
     private LocalDateTime createdAt; // 作成日時
     private LocalDateTime updatedAt; // 更新日時
 
-    public static ProjectResponse from(Project project) {
+    public static ProjectResponse from(Project project, ProjectTableData tableData) {
+        return from(project, tableData, true);
+    }
+
+    /**
+     * 一覧用: テーブルデータを含めずに変換（テーブルデータは /{id}/table-data で取得する）
+     */
+    public static ProjectResponse withoutTableData(Project project) {
+        return from(project, null, false);
+    }
+
+    private static ProjectResponse from(Project project, ProjectTableData tableData, boolean includeTableData) {
         if (project == null)
             return null;
 
@@ -53,7 +65,7 @@ public class ProjectResponse {
                 .assignments(project.getAssignments().stream()
                         .map(ProjectAssignmentDTO::from)
                         .collect(Collectors.toList()))
-                .tableData(ProjectTableDataDTO.from(project.getTableData()))
+                .tableData(includeTableData ? ProjectTableDataDTO.from(tableData) : null)
                 .createdAt(project.getCreatedAt())
                 .updatedAt(project.getUpdatedAt())
                 .build();
@@ -0,0 +1,34 @@
+package com.example.prmtool.dto;
+
+import com.example.prmtool.entity.Project;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 案件一覧用の軽量レスポンス
+ * JPQLのコンストラクタ式で直接生成し、担当者・テーブルデータはロードしない
+ * （フィールドの並び順はProjectRepositoryのクエリと一致させること）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProjectSummaryResponse {
+
+  private UUID id; // プロジェクトID
+  private String name; // プロジェクト名
+  private Project.ProjectStatus status; // プロジェクトステータス
+  private UUID partnerId; // 企業ID
+  private String partnerName; // 企業名
+  private UUID ownerId; // オーナーID
+  private String ownerName; // オーナー名
+  private long assigneeCount; // 担当者数
+  private boolean assignedToMe; // ログインユーザーが担当者に含まれるか
+  private LocalDateTime createdAt; // 作成日時
+  private LocalDateTime updatedAt; // 更新日時
+}
@@ -0,0 +1,45 @@
+package com.example.prmtool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * ファイルストレージの状態レスポンス
+ * セグメントの使用状況と、保存レイアウトの移行ジョブの進捗
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StorageStatusResponse {
+
+  private String layout; // 保存レイアウト（flat / sharded）
+  private boolean segmentEnabled; // 小さなファイルをセグメントにまとめるか
+  private int segmentCount; // セグメントファイル数
+  private int segmentEntryCount; // セグメントに格納しているファイル数
+  private long segmentLiveBytes; // セグメント内の有効なレコードのバイト数
+  private long segmentTotalBytes; // セグメントファイルの合計バイト数
+
+  private MigrationStatus migrationStatus; // 移行ジョブの状態
+  private int migrationScanned; // 確認したファイル数
+  private int migrationMoved; // 新しいレイアウトの位置へ移動したファイル数
+  private int migrationPacked; // セグメントへまとめたファイル数
+  private int migrationFailed; // 移行に失敗したファイル数
+  private String migrationFailureReason; // ジョブ全体が失敗した場合の理由
+  private LocalDateTime migrationStartedAt; // 移行開始日時
+  private LocalDateTime migrationFinishedAt; // 移行終了日時
+
+  /**
+   * 移行ジョブの状態
+   */
+  public enum MigrationStatus {
+    IDLE, // 未実行
+    RUNNING, // 実行中
+    COMPLETED, // 完了
+    FAILED // 失敗
+  }
+}
@@ -0,0 +1,23 @@
+package com.example.prmtool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * テーブルデータのヘッダー情報レスポンス
+ * 行データは含まず、列名と行数のみを返す（仮想スクロールの初期表示用）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TableDataHeaderResponse {
+
+  private long version; // 版数
+  private List<String> headers; // 列名
+  private int rowCount; // 行数（ヘッダーを含まない）
+}
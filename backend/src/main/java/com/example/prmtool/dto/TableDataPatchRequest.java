@@ -0,0 +1,68 @@
+package com.example.prmtool.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * テーブルデータ差分更新リクエスト
+ * baseVersionの版に対して、operationsを先頭から順に適用する
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TableDataPatchRequest {
+
+  /**
+   * 編集元の版数（サーバーの版数と異なる場合は競合として拒否）
+   */
+  @NotNull(message = "版数は必須です")
+  private Long baseVersion;
+
+  /**
+   * 操作（1回あたり最大5000件）
+   */
+  @NotEmpty(message = "操作は最低1件必要です")
+  @Size(max = 5000, message = "一度に適用できる操作は5000件までです")
+  @Valid
+  private List<Operation> operations;
+
+  /**
+   * 1件の操作
+   * 行・列の位置は0始まり（行はヘッダーを含まない）
+   */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @Builder
+  public static class Operation {
+
+    @NotNull(message = "操作の種類は必須です")
+    private OperationType type;
+
+    private Integer row; // 行位置（SET_CELL, INSERT_ROW, DELETE_ROW）
+    private Integer column; // 列位置（SET_CELL, SET_HEADER, INSERT_COLUMN, DELETE_COLUMN）
+    private String value; // セル値・列名（SET_CELL, SET_HEADER, INSERT_COLUMN）
+    private List<String> values; // 挿入する行の値（INSERT_ROW、省略時は空行）
+  }
+
+  /**
+   * 操作の種類
+   */
+  public enum OperationType {
+    SET_CELL, // セルの値を変更
+    SET_HEADER, // 列名を変更
+    INSERT_ROW, // 行を挿入（rowを省略した場合は末尾に追加）
+    DELETE_ROW, // 行を削除
+    INSERT_COLUMN, // 列を挿入（columnを省略した場合は末尾に追加）
+    DELETE_COLUMN // 列を削除
+  }
+}
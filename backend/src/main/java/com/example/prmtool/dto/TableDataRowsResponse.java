@@ -0,0 +1,24 @@
+package com.example.prmtool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * テーブルデータの行範囲レスポンス
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TableDataRowsResponse {
+
+  private long version; // 版数
+  private int offset; // 先頭行の位置（0始まり、ヘッダーを含まない）
+  private List<Integer> columns; // 返却した列の位置（全列の場合はnull）
+  private List<List<String>> rows; // 行データ
+  private boolean hasMore; // 後続の行が存在するか
+}
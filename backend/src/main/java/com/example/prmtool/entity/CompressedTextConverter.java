@@ -0,0 +1,134 @@
+package com.example.prmtool.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 文字列を圧縮してbytea列に保存するコンバーター
+ * 先頭3バイトのヘッダー（マジック "PZ" + コーデック）に続けて本体を格納する
+ *
+ * - コーデック 0: 無圧縮のUTF-8（短い文字列や圧縮が効かない場合）
+ * - コーデック 1: Deflate（zlib形式）
+ * - ヘッダーがない値はUTF-8テキストとして読む（SQLで移し替えた旧データ向け）
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+  private static final byte MAGIC_1 = 'P';
+  private static final byte MAGIC_2 = 'Z';
+  private static final int HEADER_LENGTH = 3;
+
+  private static final byte CODEC_RAW = 0;
+  private static final byte CODEC_DEFLATE = 1;
+
+  // これより短い文字列は圧縮しない（ヘッダー分でかえって大きくなるため）
+  private static final int MIN_COMPRESS_BYTES = 256;
+
+  @Override
+  public byte[] convertToDatabaseColumn(String attribute) {
+    return encode(attribute);
+  }
+
+  @Override
+  public String convertToEntityAttribute(byte[] dbData) {
+    return decode(dbData);
+  }
+
+  /**
+   * 文字列をヘッダー付きのバイト列に変換
+   * マイグレーションからも同じ形式で書き込むため公開している
+   */
+  public static byte[] encode(String text) {
+    if (text == null) {
+      return null;
+    }
+    byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+    if (raw.length >= MIN_COMPRESS_BYTES) {
+      byte[] compressed = deflate(raw);
+      if (compressed.length < raw.length) {
+        return withHeader(CODEC_DEFLATE, compressed);
+      }
+    }
+    return withHeader(CODEC_RAW, raw);
+  }
+
+  /**
+   * ヘッダー付きのバイト列を文字列に戻す
+   */
+  public static String decode(byte[] data) {
+    if (data == null) {
+      return null;
+    }
+    if (data.length < HEADER_LENGTH || data[0] != MAGIC_1 || data[1] != MAGIC_2) {
+      return new String(data, StandardCharsets.UTF_8);
+    }
+    byte[] body = Arrays.copyOfRange(data, HEADER_LENGTH, data.length);
+    switch (data[2]) {
+      case CODEC_RAW:
+        return new String(body, StandardCharsets.UTF_8);
+      case CODEC_DEFLATE:
+        return new String(inflate(body), StandardCharsets.UTF_8);
+      default:
+        throw new IllegalStateException("未対応の圧縮形式です: " + data[2]);
+    }
+  }
+
+  /**
+   * ヘッダー付きのバイト列を、展開しながら読むUTF-8のストリームとして開く
+   * 文字列全体を展開せずにストリーミングパーサーで読むために使用
+   */
+  public static InputStream openStream(byte[] data) {
+    if (data.length < HEADER_LENGTH || data[0] != MAGIC_1 || data[1] != MAGIC_2) {
+      return new ByteArrayInputStream(data);
+    }
+    InputStream body = new ByteArrayInputStream(data, HEADER_LENGTH, data.length - HEADER_LENGTH);
+    switch (data[2]) {
+      case CODEC_RAW:
+        return body;
+      case CODEC_DEFLATE:
+        return new InflaterInputStream(body);
+      default:
+        throw new IllegalStateException("未対応の圧縮形式です: " + data[2]);
+    }
+  }
+
+  private static byte[] withHeader(byte codec, byte[] body) {
+    byte[] result = new byte[HEADER_LENGTH + body.length];
+    result[0] = MAGIC_1;
+    result[1] = MAGIC_2;
+    result[2] = codec;
+    System.arraycopy(body, 0, result, HEADER_LENGTH, body.length);
+    return result;
+  }
+
+  private static byte[] deflate(byte[] raw) {
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+    try (DeflaterOutputStream deflaterOut = new DeflaterOutputStream(out, deflater)) {
+      deflaterOut.write(raw);
+    } catch (IOException e) {
+      throw new IllegalStateException("データの圧縮に失敗しました", e);
+    } finally {
+      deflater.end();
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] inflate(byte[] compressed) {
+    try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(compressed))) {
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new IllegalStateException("圧縮データの展開に失敗しました", e);
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package com.example.prmtool.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * コンテンツファイルの実体エンティティ
+ * 同じ内容のファイルはSHA-256のハッシュ名で1つだけ保存し、参照しているコンテンツファイルの件数を管理する
+ */
+@Entity
+@Table(name = "content_blobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContentBlob {
+
+  @Id
+  @Column(length = 64)
+  private String contentHash; // ファイル内容のSHA-256（16進数）
+
+  @Column(nullable = false)
+  private Long fileSize;
+
+  @Column(nullable = false)
+  @Builder.Default
+  private Integer refCount = 0; // 参照しているコンテンツファイルの件数
+
+  @CreationTimestamp
+  @Column(nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  @UpdateTimestamp
+  @Column(nullable = false)
+  private LocalDateTime updatedAt;
+}
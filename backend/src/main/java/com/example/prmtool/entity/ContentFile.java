@@ -77,6 +77,13 @@ public class ContentFile {
   @Column(nullable = false)
   private Long fileSize;
 
+  /**
+   * ファイル内容のSHA-256（16進数）
+   * ダウンロード応答のETagに使用する
+   */
+  @Column(length = 64)
+  private String contentHash;
+
   /**
    * タグ（カンマ区切り）
    * 検索やフィルタリングに使用
@@ -126,8 +133,9 @@ public class ContentFile {
 
   /**
    * ダウンロード回数
+   * ContentAccessRecorderが「download_count + ?」で加算するため、エンティティの保存では更新しない
    */
-  @Column(nullable = false)
+  @Column(nullable = false, updatable = false)
   @Builder.Default
   private Integer downloadCount = 0;
 
@@ -161,14 +169,4 @@ public class ContentFile {
     PARTNER_BASED, // パートナーベース
     PRIVATE // プライベート（アップロード者のみ）
   }
-
-  /**
-   * ダウンロード回数を増やす
-   */
-  public void incrementDownloadCount() {
-    if (this.downloadCount == null) {
-      this.downloadCount = 0;
-    }
-    this.downloadCount++;
-  }
 }
\ No newline at end of file
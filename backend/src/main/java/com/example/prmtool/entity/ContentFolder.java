@@ -26,6 +26,17 @@ import java.util.UUID;
 @Builder
 public class ContentFolder {
 
+  /**
+   * ルートフォルダのパス
+   */
+  public static final String ROOT_PATH = "/";
+
+  // パス列の長さ（V18: VARCHAR(2000)）
+  public static final int PATH_MAX_LENGTH = 2000;
+
+  // パス列に収まる最大の深さ（ルートの "/" に続けて、祖先1階層ごとに「UUID + "/"」の37文字を連ねる）
+  public static final int MAX_DEPTH = (PATH_MAX_LENGTH - ROOT_PATH.length()) / 37;
+
   /**
    * フォルダの一意識別子
    */
@@ -54,6 +65,21 @@ public class ContentFolder {
   @JoinColumn(name = "parent_folder_id")
   private ContentFolder parentFolder;
 
+  /**
+   * 祖先フォルダIDを "/" 区切りで連ねたパス（自身は含まない、ルートは "/"）
+   * ツリー・パンくずリストの構築と配下フォルダの前方一致検索に使用
+   */
+  @Column(nullable = false, length = PATH_MAX_LENGTH)
+  @Builder.Default
+  private String path = ROOT_PATH;
+
+  /**
+   * 階層の深さ（ルートは0）
+   */
+  @Column(nullable = false)
+  @Builder.Default
+  private Integer depth = 0;
+
   /**
    * 子フォルダのリスト
    */
@@ -89,13 +115,53 @@ public class ContentFolder {
   @Column(nullable = false)
   private LocalDateTime updatedAt;
 
+  /**
+   * 子フォルダが持つべきパス（自身のパス + 自身のID）
+   */
+  public String childPath() {
+    return path + id + "/";
+  }
+
+  /**
+   * 親フォルダを設定し、パスと深さを親に合わせる
+   * 配下のフォルダのパスは呼び出し側で一括更新する
+   */
+  public void placeUnder(ContentFolder parent) {
+    this.parentFolder = parent;
+    this.path = parent != null ? parent.childPath() : ROOT_PATH;
+    this.depth = parent != null ? parent.getDepth() + 1 : 0;
+  }
+
+  /**
+   * パスから祖先フォルダIDをルート側から順に取得（パンくずリスト用）
+   */
+  public List<UUID> ancestorIds() {
+    return parseAncestorIds(path);
+  }
+
+  /**
+   * パス文字列から祖先フォルダIDを取得
+   */
+  public static List<UUID> parseAncestorIds(String path) {
+    List<UUID> ids = new ArrayList<>();
+    if (path == null) {
+      return ids;
+    }
+    for (String segment : path.split("/")) {
+      if (!segment.isEmpty()) {
+        ids.add(UUID.fromString(segment));
+      }
+    }
+    return ids;
+  }
+
   /**
    * 子フォルダを追加するヘルパーメソッド
    * 双方向関連を正しく設定
    */
   public void addSubFolder(ContentFolder subFolder) {
     subFolders.add(subFolder);
-    subFolder.setParentFolder(this);
+    subFolder.placeUnder(this);
   }
 
   /**
@@ -104,7 +170,7 @@ public class ContentFolder {
    */
   public void removeSubFolder(ContentFolder subFolder) {
     subFolders.remove(subFolder);
-    subFolder.setParentFolder(null);
+    subFolder.placeUnder(null);
   }
 
   /**
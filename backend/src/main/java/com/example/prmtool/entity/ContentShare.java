@@ -76,8 +76,9 @@ public class ContentShare {
 
   /**
    * 現在のダウンロード数
+   * ContentAccessRecorder・incrementLimitedDownloadCountが加算するため、エンティティの保存では更新しない
    */
-  @Column(nullable = false)
+  @Column(nullable = false, updatable = false)
   @Builder.Default
   private Integer currentDownloadCount = 0;
 
@@ -121,8 +122,9 @@ public class ContentShare {
   private LocalDateTime sharedAt;
 
   /**
-   * 最終アクセス日時
+   * 最終アクセス日時（ダウンロード回数と同じUPDATEで更新するため、エンティティの保存では更新しない）
    */
+  @Column(updatable = false)
   private LocalDateTime lastAccessedAt;
 
   /**
@@ -152,19 +154,6 @@ public class ContentShare {
     EXHAUSTED // 回数制限到達
   }
 
-  /**
-   * ダウンロード回数を増やす
-   */
-  public void incrementDownloadCount() {
-    this.currentDownloadCount++;
-    this.lastAccessedAt = LocalDateTime.now();
-
-    // ダウンロード制限に達したらステータスを更新
-    if (downloadLimit != null && currentDownloadCount >= downloadLimit) {
-      this.status = ShareStatus.EXHAUSTED;
-    }
-  }
-
   /**
    * 有効期限をチェック
    */
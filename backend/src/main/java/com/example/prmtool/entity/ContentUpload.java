@@ -0,0 +1,166 @@
+package com.example.prmtool.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.UUID;
+
+/**
+ * 進行中のチャンクアップロードエンティティ
+ * ファイルを固定サイズのチャンクに分けて受信し、受信済みのチャンクをビットマップで管理する
+ */
+@Entity
+@Table(name = "content_uploads")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContentUpload {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.AUTO)
+  private UUID id;
+
+  @Column(name = "folder_id", nullable = false)
+  private UUID folderId; // 登録先のフォルダID
+
+  @Column(nullable = false, length = 200)
+  private String fileName; // 元のファイル名
+
+  @Column(length = 200)
+  private String title;
+
+  @Column(columnDefinition = "TEXT")
+  private String description;
+
+  @Column(length = 500)
+  private String tags;
+
+  @Column(nullable = false, length = 50)
+  private String fileType; // MIMEタイプ
+
+  @Column(nullable = false)
+  private Long fileSize; // ファイル全体のサイズ（バイト）
+
+  @Column(nullable = false)
+  private Integer chunkSize; // チャンクサイズ（最後のチャンクのみ短くなる）
+
+  @Column(length = 64)
+  private String sha256; // クライアントが申告したファイル全体のSHA-256（任意）
+
+  @Column(columnDefinition = "bytea")
+  private byte[] receivedChunks; // 受信済みチャンクのビットマップ
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  @Builder.Default
+  private UploadStatus status = UploadStatus.UPLOADING; // 状態（完了処理中はチャンクを受け付けない）
+
+  @Column(name = "created_by", nullable = false)
+  private UUID createdBy; // アップロードを開始したユーザーID
+
+  @Column(nullable = false)
+  private LocalDateTime expiresAt; // 有効期限（チャンク受信ごとに延長）
+
+  @CreationTimestamp
+  @Column(nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  @UpdateTimestamp
+  @Column(nullable = false)
+  private LocalDateTime updatedAt;
+
+  /**
+   * チャンク数
+   */
+  public int totalChunks() {
+    return (int) ((fileSize + chunkSize - 1) / chunkSize);
+  }
+
+  /**
+   * 指定したチャンクの期待サイズ（最後のチャンクのみ残りのバイト数）
+   */
+  public int chunkLength(int chunkIndex) {
+    return (int) Math.min(chunkSize, fileSize - (long) chunkIndex * chunkSize);
+  }
+
+  /**
+   * 受信済みのチャンク
+   */
+  public BitSet receivedChunkSet() {
+    return receivedChunks != null ? BitSet.valueOf(receivedChunks) : new BitSet();
+  }
+
+  /**
+   * チャンクを受信済みにする
+   */
+  public void markChunkReceived(int chunkIndex) {
+    requireUploading();
+    BitSet received = receivedChunkSet();
+    received.set(chunkIndex);
+    this.receivedChunks = received.toByteArray();
+  }
+
+  /**
+   * チャンクを未受信に戻す（受信済みのチャンクを上書きする間）
+   */
+  public void clearChunkReceived(int chunkIndex) {
+    requireUploading();
+    BitSet received = receivedChunkSet();
+    received.clear(chunkIndex);
+    this.receivedChunks = received.toByteArray();
+  }
+
+  /**
+   * 全チャンクを受信済みか
+   */
+  public boolean isAllChunksReceived() {
+    return receivedChunkSet().cardinality() == totalChunks();
+  }
+
+  /**
+   * 完了処理を開始する
+   * 全チャンクを受信済みの場合のみ完了処理中にし、以降のチャンクの書き込みを拒否する
+   */
+  public void beginCompletion() {
+    requireUploading();
+    if (!isAllChunksReceived()) {
+      int missing = totalChunks() - receivedChunkSet().cardinality();
+      throw new IllegalStateException("未受信のチャンクが" + missing + "件あります");
+    }
+    this.status = UploadStatus.COMPLETING;
+  }
+
+  /**
+   * 完了処理を取り消して受信中に戻す（完了に失敗した場合）
+   */
+  public void cancelCompletion() {
+    this.status = UploadStatus.UPLOADING;
+  }
+
+  /**
+   * 完了処理中か
+   */
+  public boolean isCompleting() {
+    return status == UploadStatus.COMPLETING;
+  }
+
+  // 完了処理中のアップロードは組み立て済みのファイルを読み込んでいるため、チャンクの書き込みや二重の完了を受け付けない
+  private void requireUploading() {
+    if (status == UploadStatus.COMPLETING) {
+      throw new IllegalStateException("アップロードは完了処理中です");
+    }
+  }
+
+  public enum UploadStatus {
+    UPLOADING, // チャンク受信中
+    COMPLETING // 完了処理中
+  }
+}
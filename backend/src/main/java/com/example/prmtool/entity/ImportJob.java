@@ -0,0 +1,99 @@
+package com.example.prmtool.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * CSVインポートジョブエンティティ
+ * アップロードされたCSVのインポートをワーカーで実行し、その進捗と結果を保持する
+ */
+@Entity
+@Table(name = "import_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportJob {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.AUTO)
+  private UUID id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  private JobType jobType; // インポート種別
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  private JobStatus status; // 状態
+
+  private String fileName; // アップロードされたファイル名
+
+  @Column(name = "created_by", nullable = false)
+  private UUID createdBy; // ジョブを登録したユーザーID
+
+  @Column(nullable = false)
+  @Builder.Default
+  private Integer processedRows = 0; // 処理済みのデータ行数
+
+  @Column(nullable = false)
+  @Builder.Default
+  private Integer successCount = 0; // 登録に成功した行数
+
+  @Column(nullable = false)
+  @Builder.Default
+  private Integer errorCount = 0; // エラーになった行数
+
+  @Column(columnDefinition = "TEXT")
+  private String errorsJson; // エラー・警告メッセージ（JSON配列、上限件数まで）
+
+  @Column(columnDefinition = "TEXT")
+  private String failureReason; // ジョブ全体が失敗した場合の理由
+
+  @Column(nullable = false)
+  @Builder.Default
+  private Boolean cancelRequested = false; // キャンセル要求の有無
+
+  @Column(length = 100)
+  private String ownerInstance; // ジョブを実行するインスタンスのID
+
+  private LocalDateTime heartbeatAt; // 実行インスタンスの最終生存確認日時
+
+  private LocalDateTime startedAt; // 実行開始日時
+
+  private LocalDateTime finishedAt; // 終了日時
+
+  @CreationTimestamp
+  @Column(nullable = false, updatable = false)
+  private LocalDateTime createdAt; // 登録日時
+
+  @UpdateTimestamp
+  @Column(nullable = false)
+  private LocalDateTime updatedAt; // 更新日時
+
+  public enum JobType {
+    PARTNER_CSV, // パートナーCSV
+    PROJECT_CSV // 案件CSV
+  }
+
+  public enum JobStatus {
+    QUEUED, // 実行待ち
+    RUNNING, // 実行中
+    COMPLETED, // 完了
+    FAILED, // 失敗
+    CANCELLED; // キャンセル済み
+
+    // 終了状態かどうか
+    public boolean isFinished() {
+      return this == COMPLETED || this == FAILED || this == CANCELLED;
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package com.example.prmtool.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 請求書番号カウンターエンティティ
+ * 年ごとに次に予約される連番を保持する
+ * アプリケーションはこの行をブロック単位で進め、ブロック内の番号はメモリ上で払い出す
+ */
+@Entity
+@Table(name = "invoice_number_counters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceNumberCounter {
+
+  /**
+   * 採番対象の年（例: 2026）
+   */
+  @Id
+  @Column(name = "invoice_year")
+  private Integer invoiceYear;
+
+  /**
+   * 次に予約される連番
+   */
+  @Column(nullable = false)
+  private Long nextValue;
+
+  /**
+   * 更新日時
+   */
+  @UpdateTimestamp
+  @Column(nullable = false)
+  private LocalDateTime updatedAt;
+}
@@ -1,10 +1,13 @@
 package com.example.prmtool.entity;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -82,8 +85,15 @@ public class InvoiceTemplate {
   private String paymentTerms; // 支払期日や支払条件
 
   // キャンバスレイアウト - エディタで作成したレイアウト情報を保存
-  @Column(columnDefinition = "TEXT")
-  private String canvasLayout; // JSON形式で要素の座標・サイズ・スタイル情報を保存
+  @Convert(converter = CompressedTextConverter.class)
+  @Column(name = "canvas_layout_compressed", columnDefinition = "bytea")
+  private String canvasLayout; // JSON形式で要素の座標・サイズ・スタイル情報を保存（圧縮して保存）
+
+  // 圧縮前のTEXT列（移行期間中の読み取り用、書き込み時にnullへ戻す）
+  @Column(name = "canvas_layout", columnDefinition = "TEXT")
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private String legacyCanvasLayout;
 
   // デフォルトテンプレート設定
   @Column(nullable = false)
@@ -102,4 +112,15 @@ public class InvoiceTemplate {
   @UpdateTimestamp
   @Column(nullable = false)
   private LocalDateTime updatedAt; // テンプレート最終更新日時
-}
\ No newline at end of file
+
+  // 旧TEXT列に値が残っていればそちらを優先する（未移行行、または旧バージョンのアプリが書き込んだ行）
+  public String getCanvasLayout() {
+    return legacyCanvasLayout != null ? legacyCanvasLayout : canvasLayout;
+  }
+
+  // 圧縮列に書き込み、旧TEXT列は空にする
+  public void setCanvasLayout(String canvasLayout) {
+    this.canvasLayout = canvasLayout;
+    this.legacyCanvasLayout = null;
+  }
+}
@@ -8,6 +8,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import com.example.prmtool.util.PartnerNames;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -43,6 +44,12 @@ public class Partner {
   @NotBlank(message = "企業名は必須です")
   private String name;
 
+  /**
+   * 重複判定用に正規化した企業名（登録・更新時に企業名から設定）
+   */
+  @Column(name = "normalized_name")
+  private String normalizedName;
+
   /**
    * 業界（任意）
    */
@@ -102,6 +109,15 @@ public class Partner {
   @Column(nullable = false)
   private LocalDateTime updatedAt;
 
+  /**
+   * 登録・更新時に正規化した企業名を設定
+   */
+  @PrePersist
+  @PreUpdate
+  void updateNormalizedName() {
+    normalizedName = PartnerNames.normalize(name);
+  }
+
   /**
    * 担当者を追加するヘルパーメソッド
    * 双方向関連を正しく設定
@@ -44,8 +44,9 @@ public class Project {
   @Builder.Default
   private List<ProjectAssignment> assignments = new ArrayList<>();// 複数の担当者
 
-  @OneToOne(mappedBy = "project", cascade = CascadeType.ALL, orphanRemoval = true)
-  private ProjectTableData tableData;// テーブルデータ
+  // テーブルデータ（ProjectTableData）は関連として持たない（ProjectTableDataRepositoryで取得する）
+  // 被参照側の@OneToOneは遅延ロードできず、一覧取得のたびにテーブルデータの読み込み・展開が走るため
+  // 案件の削除時はDBの外部キー（ON DELETE CASCADE）で削除される
 
   @CreationTimestamp
   @Column(nullable = false, updatable = false)
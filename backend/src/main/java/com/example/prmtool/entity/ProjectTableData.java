@@ -1,11 +1,16 @@
 package com.example.prmtool.entity;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -25,10 +30,23 @@ public class ProjectTableData {
 
   @OneToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "project_id", nullable = false, unique = true)
+  @OnDelete(action = OnDeleteAction.CASCADE)
   private Project project; // 関連するプロジェクト
 
-  @Column(columnDefinition = "TEXT")
-  private String tableDataJson; // JSON形式でテーブルデータを保存
+  @Convert(converter = CompressedTextConverter.class)
+  @Column(name = "table_data_compressed", columnDefinition = "bytea")
+  private String tableDataJson; // JSON形式のテーブルデータ（圧縮して保存）
+
+  // 圧縮前のTEXT列（移行期間中の読み取り用、書き込み時にnullへ戻す）
+  @Column(name = "table_data_json", columnDefinition = "TEXT")
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private String legacyTableDataJson;
+
+  @Version
+  @Column(nullable = false)
+  @Builder.Default
+  private Long version = 0L; // 版数（更新ごとに増加、差分更新の競合検出に使用）
 
   @CreationTimestamp
   @Column(nullable = false, updatable = false)
@@ -37,4 +55,15 @@ public class ProjectTableData {
   @UpdateTimestamp
   @Column(nullable = false)
   private LocalDateTime updatedAt; // 更新日時
-}
\ No newline at end of file
+
+  // 旧TEXT列に値が残っていればそちらを優先する（未移行行、または旧バージョンのアプリが書き込んだ行）
+  public String getTableDataJson() {
+    return legacyTableDataJson != null ? legacyTableDataJson : tableDataJson;
+  }
+
+  // 圧縮列に書き込み、旧TEXT列は空にする
+  public void setTableDataJson(String tableDataJson) {
+    this.tableDataJson = tableDataJson;
+    this.legacyTableDataJson = null;
+  }
+}
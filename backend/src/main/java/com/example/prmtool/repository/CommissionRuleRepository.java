@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -55,4 +56,24 @@ public interface CommissionRuleRepository extends JpaRepository<CommissionRule,
    * @return 該当する手数料ルールのリスト
    */
   List<CommissionRule> findByProjectIdAndStatus(UUID projectId, CommissionRule.CommissionStatus status);
+
+  /**
+   * IDの集合で手数料ルールを一括取得（案件・パートナーをフェッチ結合）
+   * 請求書作成時のパートナー整合性チェックで遅延ロードを発生させないために使用
+   *
+   * @param ids 手数料ルールIDの集合
+   * @return 該当する手数料ルールのリスト
+   */
+  @Query("SELECT cr FROM CommissionRule cr JOIN FETCH cr.project p JOIN FETCH p.partner WHERE cr.id IN :ids")
+  List<CommissionRule> findAllWithProjectAndPartnerByIdIn(@Param("ids") Collection<UUID> ids);
+
+  /**
+   * パートナーの手数料ルール数をステータス別に集計
+   *
+   * @param partnerId パートナーID
+   * @return [status, count] のリスト
+   */
+  @Query("SELECT cr.status, COUNT(cr) FROM CommissionRule cr " +
+      "WHERE cr.project.partner.id = :partnerId GROUP BY cr.status")
+  List<Object[]> countByPartnerIdGroupByStatus(@Param("partnerId") UUID partnerId);
 }
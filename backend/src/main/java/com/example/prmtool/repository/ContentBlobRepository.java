@@ -0,0 +1,45 @@
+package com.example.prmtool.repository;
+
+import com.example.prmtool.entity.ContentBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * コンテンツファイル実体リポジトリ
+ */
+@Repository
+public interface ContentBlobRepository extends JpaRepository<ContentBlob, String> {
+
+  /**
+   * 行ロックを取得して実体を取得
+   * 参照数の増減と、参照数0の実体の削除が同時に行われないようにする
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT b FROM ContentBlob b WHERE b.contentHash = :contentHash")
+  Optional<ContentBlob> findByIdForUpdate(@Param("contentHash") String contentHash);
+
+  /**
+   * 実体の行を作成
+   * 既存の行を上書きしないようINSERTのみを行う（同じハッシュの行があれば一意制約違反になる）
+   */
+  @Modifying
+  @Query(value = "INSERT INTO content_blobs (content_hash, file_size, ref_count, created_at, updated_at) "
+      + "VALUES (:contentHash, :fileSize, :refCount, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", nativeQuery = true)
+  void insertBlob(@Param("contentHash") String contentHash, @Param("fileSize") long fileSize,
+      @Param("refCount") int refCount);
+
+  /**
+   * 指定日時より前から参照されていない実体のハッシュを取得（定期掃除用）
+   */
+  @Query("SELECT b.contentHash FROM ContentBlob b WHERE b.refCount = 0 AND b.updatedAt < :before")
+  List<String> findUnreferencedHashes(@Param("before") LocalDateTime before);
+}
@@ -2,9 +2,15 @@ package com.example.prmtool.repository;
 
 import com.example.prmtool.entity.ContentFile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -38,4 +44,34 @@ public interface ContentFileRepository extends JpaRepository<ContentFile, UUID>
    * アップロード者で検索
    */
   List<ContentFile> findByUploadedByIdOrderByUploadedAtDesc(UUID uploadedById);
-}
\ No newline at end of file
+
+  /**
+   * 指定したフォルダ内にファイルが存在するか確認（削除可否のチェック用）
+   */
+  boolean existsByFolderId(UUID folderId);
+
+  /**
+   * フォルダごとのファイル数を [フォルダID, 件数] で取得
+   */
+  @Query("SELECT f.folder.id, COUNT(f) FROM ContentFile f GROUP BY f.folder.id")
+  List<Object[]> countGroupByFolder();
+
+  /**
+   * 指定したフォルダのファイル数を [フォルダID, 件数] で取得
+   */
+  @Query("SELECT f.folder.id, COUNT(f) FROM ContentFile f WHERE f.folder.id IN :folderIds GROUP BY f.folder.id")
+  List<Object[]> countGroupByFolderIdIn(@Param("folderIds") Collection<UUID> folderIds);
+
+  /**
+   * ファイルURLでファイルを取得（保存ファイル名からの逆引き用）
+   */
+  Optional<ContentFile> findFirstByFileUrl(String fileUrl);
+
+  /**
+   * 内容ハッシュを設定（未計算の既存ファイルのみ、エンティティを読み込まずに更新）
+   */
+  @Transactional
+  @Modifying
+  @Query("UPDATE ContentFile f SET f.contentHash = :contentHash WHERE f.id = :id AND f.contentHash IS NULL")
+  int updateContentHashIfAbsent(@Param("id") UUID id, @Param("contentHash") String contentHash);
+}
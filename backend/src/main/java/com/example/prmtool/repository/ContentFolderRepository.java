@@ -1,10 +1,19 @@
 package com.example.prmtool.repository;
 
 import com.example.prmtool.entity.ContentFolder;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -17,16 +26,74 @@ public interface ContentFolderRepository extends JpaRepository<ContentFolder, UU
    * ルートフォルダ（親フォルダがnull）を取得
    * 作成日時の昇順で返却
    */
+  @EntityGraph(attributePaths = "createdBy")
   List<ContentFolder> findByParentFolderIsNullOrderByCreatedAtAsc();
 
   /**
    * 指定した親フォルダの子フォルダを取得
    * 作成日時の昇順で返却
    */
+  @EntityGraph(attributePaths = "createdBy")
   List<ContentFolder> findByParentFolderIdOrderByCreatedAtAsc(UUID parentFolderId);
 
   /**
    * 全フォルダを作成日時の昇順で取得
    */
+  @EntityGraph(attributePaths = "createdBy")
   List<ContentFolder> findAllByOrderByCreatedAtAsc();
+
+  /**
+   * 子フォルダが存在するか確認（削除可否のチェック用）
+   */
+  boolean existsByParentFolderId(UUID parentFolderId);
+
+  /**
+   * ツリー構築用に全フォルダの [id, フォルダ名, 説明, 親フォルダID, 深さ] を取得
+   * 作成日時の昇順で返却
+   */
+  @Query("SELECT f.id, f.folderName, f.description, f.parentFolder.id, f.depth "
+      + "FROM ContentFolder f ORDER BY f.createdAt ASC")
+  List<Object[]> findTreeRows();
+
+  /**
+   * パンくずリスト用に指定IDのフォルダの [id, フォルダ名] を取得
+   */
+  @Query("SELECT f.id, f.folderName FROM ContentFolder f WHERE f.id IN :ids")
+  List<Object[]> findNamesByIdIn(@Param("ids") Collection<UUID> ids);
+
+  /**
+   * フォルダのパス（祖先のID）のみを取得
+   * フォルダ移動時に、行ロックを取る祖先を決めるために使用
+   */
+  @Query("SELECT f.path FROM ContentFolder f WHERE f.id = :id")
+  Optional<String> findPathById(@Param("id") UUID id);
+
+  /**
+   * 配下のフォルダ（パスが prefix で始まるもの）の最大の深さを取得（配下がない場合はnull）
+   * フォルダ移動時に、移動後の深さがパス列に収まるかの確認に使用
+   */
+  @Query("SELECT MAX(f.depth) FROM ContentFolder f WHERE f.path LIKE CONCAT(:prefix, '%')")
+  Integer findMaxDepthUnder(@Param("prefix") String prefix);
+
+  /**
+   * 行ロックを取得して指定IDのフォルダを取得
+   * 並行したフォルダ移動でデッドロックしないよう、常にIDの順にロックする
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT f FROM ContentFolder f WHERE f.id IN :ids ORDER BY f.id")
+  List<ContentFolder> findAllByIdInForUpdate(@Param("ids") Collection<UUID> ids);
+
+  /**
+   * 配下のフォルダ（パスが oldPrefix で始まるもの）のパスと深さを一括で付け替える
+   * フォルダ移動時に使用
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE ContentFolder f SET f.path = CONCAT(:newPrefix, SUBSTRING(f.path, :oldPrefixLength + 1)), "
+      + "f.depth = f.depth + :depthDelta, f.updatedAt = :now "
+      + "WHERE f.path LIKE CONCAT(:oldPrefix, '%')")
+  int moveDescendants(@Param("oldPrefix") String oldPrefix,
+      @Param("oldPrefixLength") int oldPrefixLength,
+      @Param("newPrefix") String newPrefix,
+      @Param("depthDelta") int depthDelta,
+      @Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -2,8 +2,12 @@ package com.example.prmtool.repository;
 
 import com.example.prmtool.entity.ContentShare;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -43,4 +47,17 @@ public interface ContentShareRepository extends JpaRepository<ContentShare, UUID
    */
   List<ContentShare> findByStatusAndPartnerIdOrderBySharedAtDesc(
       ContentShare.ShareStatus status, UUID partnerId);
-}
\ No newline at end of file
+
+  /**
+   * ダウンロード回数に上限のある共有のダウンロード回数を1増やす
+   * 上限に達した時点でEXHAUSTEDにし、有効でない共有・上限に達した共有は更新しない
+   *
+   * @return 更新した件数（0の場合はダウンロードできない）
+   */
+  @Modifying
+  @Query(value = "UPDATE content_shares SET current_download_count = current_download_count + 1, "
+      + "last_accessed_at = :accessedAt, "
+      + "status = CASE WHEN current_download_count + 1 >= download_limit THEN 'EXHAUSTED' ELSE status END "
+      + "WHERE id = :id AND status = 'ACTIVE' AND current_download_count < download_limit", nativeQuery = true)
+  int incrementLimitedDownloadCount(@Param("id") UUID id, @Param("accessedAt") LocalDateTime accessedAt);
+}
@@ -0,0 +1,34 @@
+package com.example.prmtool.repository;
+
+import com.example.prmtool.entity.ContentUpload;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * チャンクアップロードリポジトリ
+ */
+@Repository
+public interface ContentUploadRepository extends JpaRepository<ContentUpload, UUID> {
+
+  /**
+   * 行ロックを取得してアップロードを取得
+   * 同じアップロードへの並行したチャンク受信でビットマップの更新が失われないようにする
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT u FROM ContentUpload u WHERE u.id = :id")
+  Optional<ContentUpload> findByIdForUpdate(@Param("id") UUID id);
+
+  /**
+   * 有効期限を過ぎたアップロードを取得
+   */
+  List<ContentUpload> findByExpiresAtBefore(LocalDateTime now);
+}
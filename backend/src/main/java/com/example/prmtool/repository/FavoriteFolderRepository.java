@@ -24,6 +24,13 @@ public interface FavoriteFolderRepository extends JpaRepository<FavoriteFolder,
   @Query("SELECT ff FROM FavoriteFolder ff WHERE ff.user.id = :userId ORDER BY ff.createdAt DESC")
   List<FavoriteFolder> findByUserIdOrderByCreatedAtDesc(@Param("userId") UUID userId);
 
+  /**
+   * 指定したユーザーのお気に入りフォルダーIDを取得
+   * 一覧表示時のお気に入りフラグ設定に使用
+   */
+  @Query("SELECT ff.folder.id FROM FavoriteFolder ff WHERE ff.user.id = :userId")
+  List<UUID> findFolderIdsByUserId(@Param("userId") UUID userId);
+
   /**
    * 指定したユーザーのお気に入りフォルダー数を取得
    * 最大10個制限のチェックに使用
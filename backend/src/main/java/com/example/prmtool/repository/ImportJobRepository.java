@@ -0,0 +1,111 @@
+package com.example.prmtool.repository;
+
+import com.example.prmtool.entity.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * CSVインポートジョブリポジトリ
+ * 進捗の更新はワーカーから頻繁に行われるため、エンティティを読み込まずに更新する
+ */
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, UUID> {
+
+  /**
+   * 実行待ちのジョブを実行中にする
+   * キャンセル済みなど実行待ちでない場合は0件
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE ImportJob j SET j.status = com.example.prmtool.entity.ImportJob.JobStatus.RUNNING, "
+      + "j.startedAt = :now, j.updatedAt = :now "
+      + "WHERE j.id = :id AND j.status = com.example.prmtool.entity.ImportJob.JobStatus.QUEUED")
+  int markRunning(@Param("id") UUID id, @Param("now") LocalDateTime now);
+
+  /**
+   * チャンク処理後の進捗を記録
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE ImportJob j SET j.processedRows = :processedRows, j.successCount = :successCount, "
+      + "j.errorCount = :errorCount, j.errorsJson = :errorsJson, j.updatedAt = :now WHERE j.id = :id")
+  int updateProgress(@Param("id") UUID id,
+      @Param("processedRows") int processedRows,
+      @Param("successCount") int successCount,
+      @Param("errorCount") int errorCount,
+      @Param("errorsJson") String errorsJson,
+      @Param("now") LocalDateTime now);
+
+  /**
+   * ジョブを終了状態にする
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE ImportJob j SET j.status = :status, j.failureReason = :failureReason, "
+      + "j.finishedAt = :now, j.updatedAt = :now WHERE j.id = :id")
+  int finish(@Param("id") UUID id,
+      @Param("status") ImportJob.JobStatus status,
+      @Param("failureReason") String failureReason,
+      @Param("now") LocalDateTime now);
+
+  /**
+   * キャンセルを要求
+   * 実行待ちのジョブはその場でキャンセル済みにし、実行中のジョブは次のチャンクの区切りで中断される
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE ImportJob j SET j.cancelRequested = true, "
+      + "j.status = CASE WHEN j.status = com.example.prmtool.entity.ImportJob.JobStatus.QUEUED "
+      + "THEN com.example.prmtool.entity.ImportJob.JobStatus.CANCELLED ELSE j.status END, "
+      + "j.finishedAt = CASE WHEN j.status = com.example.prmtool.entity.ImportJob.JobStatus.QUEUED "
+      + "THEN :now ELSE j.finishedAt END, "
+      + "j.updatedAt = :now "
+      + "WHERE j.id = :id AND j.status IN :activeStatuses")
+  int requestCancel(@Param("id") UUID id,
+      @Param("activeStatuses") Collection<ImportJob.JobStatus> activeStatuses,
+      @Param("now") LocalDateTime now);
+
+  /**
+   * キャンセル要求の有無を取得
+   */
+  @Query("SELECT j.cancelRequested FROM ImportJob j WHERE j.id = :id")
+  Boolean findCancelRequestedById(@Param("id") UUID id);
+
+  /**
+   * 指定インスタンスの未終了ジョブの生存確認日時を更新
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE ImportJob j SET j.heartbeatAt = :now "
+      + "WHERE j.ownerInstance = :ownerInstance AND j.status IN :activeStatuses")
+  int touchHeartbeats(@Param("ownerInstance") String ownerInstance,
+      @Param("activeStatuses") Collection<ImportJob.JobStatus> activeStatuses,
+      @Param("now") LocalDateTime now);
+
+  /**
+   * 指定インスタンスの未終了ジョブをまとめて失敗扱いにする（起動時の後始末用）
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE ImportJob j SET j.status = com.example.prmtool.entity.ImportJob.JobStatus.FAILED, "
+      + "j.failureReason = :failureReason, j.finishedAt = :now, j.updatedAt = :now "
+      + "WHERE j.ownerInstance = :ownerInstance AND j.status IN :activeStatuses")
+  int failActiveJobsOwnedBy(@Param("ownerInstance") String ownerInstance,
+      @Param("activeStatuses") Collection<ImportJob.JobStatus> activeStatuses,
+      @Param("failureReason") String failureReason,
+      @Param("now") LocalDateTime now);
+
+  /**
+   * 生存確認が期限切れの未終了ジョブをまとめて失敗扱いにする（実行インスタンスが停止したジョブの後始末用）
+   * 生存確認日時のないジョブは更新日時で判定する
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE ImportJob j SET j.status = com.example.prmtool.entity.ImportJob.JobStatus.FAILED, "
+      + "j.failureReason = :failureReason, j.finishedAt = :now, j.updatedAt = :now "
+      + "WHERE j.status IN :activeStatuses AND COALESCE(j.heartbeatAt, j.updatedAt) < :expiredBefore")
+  int failExpiredJobs(@Param("activeStatuses") Collection<ImportJob.JobStatus> activeStatuses,
+      @Param("expiredBefore") LocalDateTime expiredBefore,
+      @Param("failureReason") String failureReason,
+      @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,26 @@
+package com.example.prmtool.repository;
+
+import com.example.prmtool.entity.InvoiceNumberCounter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * 請求書番号カウンターリポジトリ
+ */
+@Repository
+public interface InvoiceNumberCounterRepository extends JpaRepository<InvoiceNumberCounter, Integer> {
+
+  /**
+   * 指定年のカウンターを排他ロック付きで取得
+   * ブロック予約時のみ使用し、ロックは予約用の短いトランザクション内で解放される
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT c FROM InvoiceNumberCounter c WHERE c.invoiceYear = :year")
+  Optional<InvoiceNumberCounter> findByYearForUpdate(@Param("year") Integer year);
+}
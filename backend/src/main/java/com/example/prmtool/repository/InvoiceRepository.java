@@ -2,11 +2,14 @@ package com.example.prmtool.repository;
 
 import com.example.prmtool.entity.Invoice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,7 +18,7 @@ import java.util.UUID;
  * 請求書リポジトリ
  */
 @Repository
-public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
+public interface InvoiceRepository extends JpaRepository<Invoice, UUID>, InvoiceRepositoryCustom {
 
   /**
    * 全請求書を作成日時の昇順で取得
@@ -38,9 +41,28 @@ public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
    */
   List<Invoice> findByPartnerIdAndStatus(UUID partnerId, Invoice.InvoiceStatus status);
 
-  // 最新の請求書番号を取得（番号生成用）
-  @Query("SELECT i.invoiceNumber FROM Invoice i ORDER BY i.createdAt DESC LIMIT 1")
-  Optional<String> findLatestInvoiceNumber();
+  // 指定した接頭辞の請求書番号の連番部分（数値のもののみ）
+  String INVOICE_SEQUENCES_SQL = "SELECT DISTINCT CAST(SUBSTRING(invoice_number FROM CHAR_LENGTH(:prefix) + 1) AS BIGINT) AS seq"
+      + " FROM invoices WHERE invoice_number LIKE CONCAT(:prefix, '%')"
+      + " AND SUBSTRING(invoice_number FROM CHAR_LENGTH(:prefix) + 1) ~ '^[0-9]{1,18}$'";
+
+  /**
+   * 指定した接頭辞の請求書番号の件数・最小連番・最大連番を集計（採番の初期化・欠番監査用）
+   * 1行のみ返す（[件数, 最小連番, 最大連番]、該当なしの場合は連番がnull）
+   */
+  @Query(value = "SELECT COUNT(*), MIN(seq), MAX(seq) FROM (" + INVOICE_SEQUENCES_SQL + ") s", nativeQuery = true)
+  List<Object[]> summarizeInvoiceSequences(@Param("prefix") String prefix);
+
+  /**
+   * 指定した接頭辞の請求書番号の欠番範囲を連番の昇順で取得（欠番監査用）
+   * 各行は[欠番の開始連番, 欠番の終了連番]。1より前の抜けも含む
+   * 番号をアプリケーションに読み込まず、ウィンドウ関数で直前の連番との差から求める
+   */
+  @Query(value = "SELECT prev_seq + 1, seq - 1 FROM ("
+      + "SELECT seq, LAG(seq, 1, CAST(0 AS BIGINT)) OVER (ORDER BY seq) AS prev_seq"
+      + " FROM (" + INVOICE_SEQUENCES_SQL + ") s) t"
+      + " WHERE seq > prev_seq + 1 ORDER BY seq", nativeQuery = true)
+  List<Object[]> findInvoiceSequenceGaps(@Param("prefix") String prefix);
 
   // パートナーIDで請求書の合計金額を計算
   @Query("SELECT COALESCE(SUM(i.totalAmount), 0) FROM Invoice i WHERE i.partner.id = :partnerId")
@@ -51,4 +73,45 @@ public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
   BigDecimal sumTotalAmountByPartnerIdAndStatus(
       @Param("partnerId") UUID partnerId,
       @Param("status") Invoice.InvoiceStatus status);
-}
\ No newline at end of file
+
+  /**
+   * 請求書詳細を1回のクエリで取得
+   * パートナー・テンプレート・明細・適用手数料ルールをフェッチ結合する
+   */
+  @Query("SELECT DISTINCT i FROM Invoice i " +
+      "JOIN FETCH i.partner " +
+      "LEFT JOIN FETCH i.template " +
+      "LEFT JOIN FETCH i.items item " +
+      "LEFT JOIN FETCH item.appliedCommissionRule " +
+      "WHERE i.id = :id")
+  Optional<Invoice> findByIdWithDetails(@Param("id") UUID id);
+
+  /**
+   * 指定IDの請求書のID・ステータス・パートナーIDのみを取得（[id, status, partnerId]）
+   * 一括ステータス変更の事前判定用。明細・関連エンティティはロードしない
+   */
+  @Query("SELECT i.id, i.status, i.partner.id FROM Invoice i WHERE i.id IN :ids")
+  List<Object[]> findStatusesByIdIn(@Param("ids") Collection<UUID> ids);
+
+  /**
+   * 遷移元ステータスの請求書のみを遷移先ステータスへ一括更新
+   * 条件付きUPDATE 1文で実行し、更新件数を返す
+   * （一括更新では@UpdateTimestampが働かないため更新日時も明示的に設定する）
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE Invoice i SET i.status = :to, i.updatedAt = :updatedAt " +
+      "WHERE i.id IN :ids AND i.status = :from")
+  int updateStatusByIdInAndStatus(
+      @Param("ids") Collection<UUID> ids,
+      @Param("from") Invoice.InvoiceStatus from,
+      @Param("to") Invoice.InvoiceStatus to,
+      @Param("updatedAt") LocalDateTime updatedAt);
+
+  /**
+   * パートナーの請求書をステータス別に集計（[status, count, 合計金額, 手数料小計]）
+   * 手数料は明細を結合せず、請求書に確定済みの手数料小計を合算する
+   */
+  @Query("SELECT i.status, COUNT(i), COALESCE(SUM(i.totalAmount), 0), COALESCE(SUM(i.commissionSubtotal), 0) " +
+      "FROM Invoice i WHERE i.partner.id = :partnerId GROUP BY i.status")
+  List<Object[]> summarizeByPartnerIdGroupByStatus(@Param("partnerId") UUID partnerId);
+}
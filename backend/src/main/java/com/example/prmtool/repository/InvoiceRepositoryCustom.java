@@ -0,0 +1,35 @@
+package com.example.prmtool.repository;
+
+import com.example.prmtool.dto.InvoiceSummaryResponse;
+import com.example.prmtool.entity.Invoice;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 請求書リポジトリ（条件に応じてクエリを組み立てる検索）
+ */
+public interface InvoiceRepositoryCustom {
+
+  /**
+   * 請求書一覧をキーセット方式で取得（作成日時・IDの昇順）
+   * 明細はロードせず、一覧表示に必要な列のみをコンストラクタ式で取得する
+   * nullの絞り込み条件はクエリに含めない
+   *
+   * @param cursorCreatedAt 前ページ末尾の作成日時（先頭ページの場合はnull）
+   * @param cursorId 前ページ末尾のID（先頭ページの場合はnull）
+   * @param limit 取得件数
+   */
+  List<InvoiceSummaryResponse> findSummaries(
+      UUID partnerId,
+      Invoice.InvoiceStatus status,
+      LocalDate issueDateFrom,
+      LocalDate issueDateTo,
+      LocalDate dueDateFrom,
+      LocalDate dueDateTo,
+      LocalDateTime cursorCreatedAt,
+      UUID cursorId,
+      int limit);
+}
@@ -0,0 +1,80 @@
+package com.example.prmtool.repository;
+
+import com.example.prmtool.dto.InvoiceSummaryResponse;
+import com.example.prmtool.entity.Invoice;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 請求書リポジトリの検索実装
+ * 「:p IS NULL OR ...」形式の条件は実行計画が汎用になりインデックスを使えないため、
+ * 指定された条件だけをWHERE句に追加する
+ * カーソル条件は行値比較「(created_at, id) > (?, ?)」とし、(created_at, id) のインデックスで範囲検索させる
+ */
+public class InvoiceRepositoryImpl implements InvoiceRepositoryCustom {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public List<InvoiceSummaryResponse> findSummaries(
+      UUID partnerId,
+      Invoice.InvoiceStatus status,
+      LocalDate issueDateFrom,
+      LocalDate issueDateTo,
+      LocalDate dueDateFrom,
+      LocalDate dueDateTo,
+      LocalDateTime cursorCreatedAt,
+      UUID cursorId,
+      int limit) {
+    StringBuilder jpql = new StringBuilder(
+        "SELECT new com.example.prmtool.dto.InvoiceSummaryResponse("
+            + "i.id, i.invoiceNumber, p.id, p.name, i.template.id, i.issueDate, i.dueDate, "
+            + "i.taxCategory, i.totalAmount, i.status, i.createdAt, i.updatedAt) "
+            + "FROM Invoice i JOIN i.partner p WHERE 1 = 1");
+    Map<String, Object> params = new LinkedHashMap<>();
+
+    if (partnerId != null) {
+      jpql.append(" AND p.id = :partnerId");
+      params.put("partnerId", partnerId);
+    }
+    if (status != null) {
+      jpql.append(" AND i.status = :status");
+      params.put("status", status);
+    }
+    if (issueDateFrom != null) {
+      jpql.append(" AND i.issueDate >= :issueDateFrom");
+      params.put("issueDateFrom", issueDateFrom);
+    }
+    if (issueDateTo != null) {
+      jpql.append(" AND i.issueDate <= :issueDateTo");
+      params.put("issueDateTo", issueDateTo);
+    }
+    if (dueDateFrom != null) {
+      jpql.append(" AND i.dueDate >= :dueDateFrom");
+      params.put("dueDateFrom", dueDateFrom);
+    }
+    if (dueDateTo != null) {
+      jpql.append(" AND i.dueDate <= :dueDateTo");
+      params.put("dueDateTo", dueDateTo);
+    }
+    if (cursorCreatedAt != null && cursorId != null) {
+      jpql.append(" AND (i.createdAt, i.id) > (:cursorCreatedAt, :cursorId)");
+      params.put("cursorCreatedAt", cursorCreatedAt);
+      params.put("cursorId", cursorId);
+    }
+    jpql.append(" ORDER BY i.createdAt ASC, i.id ASC");
+
+    TypedQuery<InvoiceSummaryResponse> query = entityManager.createQuery(jpql.toString(), InvoiceSummaryResponse.class);
+    params.forEach(query::setParameter);
+    return query.setMaxResults(limit).getResultList();
+  }
+}
@@ -2,8 +2,11 @@ package com.example.prmtool.repository;
 
 import com.example.prmtool.entity.Partner;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -30,4 +33,34 @@ public interface PartnerRepository extends JpaRepository<Partner, UUID> {
    * @return 作成日時順のパートナー一覧
    */
   List<Partner> findAllByOrderByCreatedAtAsc();
-}
\ No newline at end of file
+
+  /**
+   * 小文字化した企業名の一覧からIDを一括取得
+   * CSVインポートでチャンク内のパートナー名をまとめて解決するために使用
+   *
+   * @param lowerNames 小文字化した企業名
+   * @return [id, 小文字化した企業名] の配列
+   */
+  @Query("SELECT p.id, LOWER(p.name) FROM Partner p WHERE LOWER(p.name) IN :lowerNames")
+  List<Object[]> findIdsByLowerNameIn(@Param("lowerNames") Collection<String> lowerNames);
+
+  /**
+   * 正規化した企業名の一覧のうち登録済みのものを取得
+   * CSVインポートでチャンク内の企業名の重複をまとめて検証するために使用
+   *
+   * @param normalizedNames 正規化した企業名
+   * @return 登録済みの企業名（正規化済み）
+   */
+  @Query("SELECT p.normalizedName FROM Partner p WHERE p.normalizedName IN :normalizedNames")
+  List<String> findNormalizedNamesIn(@Param("normalizedNames") Collection<String> normalizedNames);
+
+  /**
+   * 正規化した企業名が一致するパートナーのIDを取得
+   * 企業名の重複チェックに使用
+   *
+   * @param normalizedName 正規化した企業名
+   * @return 該当するパートナーのID
+   */
+  @Query("SELECT p.id FROM Partner p WHERE p.normalizedName = :normalizedName")
+  List<UUID> findIdsByNormalizedName(@Param("normalizedName") String normalizedName);
+}
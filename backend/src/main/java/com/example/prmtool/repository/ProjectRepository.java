@@ -1,21 +1,26 @@
 package com.example.prmtool.repository;
 
 import com.example.prmtool.entity.Project;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface ProjectRepository extends JpaRepository<Project, UUID> {
+public interface ProjectRepository extends JpaRepository<Project, UUID>, ProjectRepositoryCustom {
 
   /**
    * 全案件を作成日時の昇順で取得
    * 登録順を維持するため、createdAtの昇順でソート
+   * パートナー・オーナー・担当者はフェッチ結合する（一覧の変換で1件ごとに読み込まないため）
    */
+  @EntityGraph(attributePaths = { "partner", "owner", "assignments", "assignments.user" })
   List<Project> findAllByOrderByCreatedAtAsc();
 
   /**
@@ -30,7 +35,9 @@ public interface ProjectRepository extends JpaRepository<Project, UUID> {
 
   /**
    * オーナーIDで案件を検索（作成日時の昇順）
+   * パートナー・オーナー・担当者はフェッチ結合する
    */
+  @EntityGraph(attributePaths = { "partner", "owner", "assignments", "assignments.user" })
   List<Project> findByOwnerId(UUID ownerId);
 
   // 案件に割り当てられているユーザーを検索
@@ -40,4 +47,30 @@ public interface ProjectRepository extends JpaRepository<Project, UUID> {
   // ステータス別の案件数を取得
   @Query("SELECT COUNT(p) FROM Project p WHERE p.status = :status")
   Long countByStatus(@Param("status") Project.ProjectStatus status);
-}
\ No newline at end of file
+
+  // パートナーの案件数をステータス別に集計（[status, count]）
+  @Query("SELECT p.status, COUNT(p) FROM Project p WHERE p.partner.id = :partnerId GROUP BY p.status")
+  List<Object[]> countByPartnerIdGroupByStatus(@Param("partnerId") UUID partnerId);
+
+  // 担当者から見える案件（NEW・自分がオーナー・自分が担当者のいずれか）のIDをページ単位で取得（作成日時・IDの昇順）
+  // 担当者のコレクションをフェッチ結合したままページングするとメモリ上での切り出しになるため、IDだけを先に絞り込む
+  @Query("SELECT p.id FROM Project p " +
+      "WHERE p.status = com.example.prmtool.entity.Project.ProjectStatus.NEW " +
+      "OR p.owner.id = :userId " +
+      "OR EXISTS (SELECT a.id FROM ProjectAssignment a WHERE a.project = p AND a.user.id = :userId) " +
+      "ORDER BY p.createdAt ASC, p.id ASC")
+  List<UUID> findVisibleProjectIds(@Param("userId") UUID userId, Pageable pageable);
+
+  // 指定IDの案件を取得（パートナー・オーナー・担当者はフェッチ結合する）
+  @EntityGraph(attributePaths = { "partner", "owner", "assignments", "assignments.user" })
+  List<Project> findByIdIn(Collection<UUID> ids);
+
+  // 担当者から案件が見えるか（NEW・自分がオーナー・自分が担当者のいずれか）
+  // テーブルデータ・担当者はロードしない
+  @Query("SELECT CASE WHEN COUNT(p) > 0 THEN true ELSE false END FROM Project p " +
+      "WHERE p.id = :id " +
+      "AND (p.status = com.example.prmtool.entity.Project.ProjectStatus.NEW " +
+      "  OR p.owner.id = :userId " +
+      "  OR EXISTS (SELECT a.id FROM ProjectAssignment a WHERE a.project = p AND a.user.id = :userId))")
+  boolean existsVisible(@Param("id") UUID id, @Param("userId") UUID userId);
+}
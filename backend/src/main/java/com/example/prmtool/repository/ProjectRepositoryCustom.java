@@ -0,0 +1,40 @@
+package com.example.prmtool.repository;
+
+import com.example.prmtool.dto.ProjectSummaryResponse;
+import com.example.prmtool.entity.Project;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.UUID;
+
+/**
+ * 案件リポジトリ（条件に応じてクエリを組み立てる検索）
+ */
+public interface ProjectRepositoryCustom {
+
+  /**
+   * 案件一覧（軽量版）をページ単位で取得
+   * 担当者・テーブルデータはロードせず、担当者数はサブクエリで集計する
+   * nullの絞り込み条件はクエリに含めない
+   * 並び替えはPageableのSortで指定する（別名 p: 案件、pa: パートナー、o: オーナー）
+   *
+   * @param userId 「自分が担当」の判定に使うユーザーID（絞り込みには使わない）
+   */
+  Page<ProjectSummaryResponse> findSummaries(
+      UUID userId,
+      UUID ownerId,
+      Project.ProjectStatus status,
+      Pageable pageable);
+
+  /**
+   * 担当者から見える案件（NEW・自分がオーナー・自分が担当者のいずれか）の一覧（軽量版）をページ単位で取得
+   * nullの絞り込み条件はクエリに含めない
+   *
+   * @param userId 表示可能な案件と「自分が担当」の判定に使うユーザーID
+   */
+  Page<ProjectSummaryResponse> findVisibleSummaries(
+      UUID userId,
+      UUID ownerId,
+      Project.ProjectStatus status,
+      Pageable pageable);
+}
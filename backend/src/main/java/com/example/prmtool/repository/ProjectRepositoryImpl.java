@@ -0,0 +1,107 @@
+package com.example.prmtool.repository;
+
+import com.example.prmtool.dto.ProjectSummaryResponse;
+import com.example.prmtool.entity.Project;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 案件リポジトリの検索実装
+ * 「:p IS NULL OR ...」形式の条件は実行計画が汎用になりインデックスを使えないため、
+ * 指定された条件だけをWHERE句に追加する
+ */
+public class ProjectRepositoryImpl implements ProjectRepositoryCustom {
+
+  private static final String SUMMARY_SELECT = "SELECT new com.example.prmtool.dto.ProjectSummaryResponse("
+      + "p.id, p.name, p.status, pa.id, pa.name, o.id, o.name, "
+      + "(SELECT COUNT(a) FROM ProjectAssignment a WHERE a.project = p), "
+      + "CASE WHEN EXISTS (SELECT ma.id FROM ProjectAssignment ma WHERE ma.project = p AND ma.user.id = :userId) "
+      + "THEN true ELSE false END, p.createdAt, p.updatedAt) "
+      + "FROM Project p JOIN p.partner pa JOIN p.owner o WHERE 1 = 1";
+
+  private static final String COUNT_SELECT = "SELECT COUNT(p) FROM Project p JOIN p.owner o WHERE 1 = 1";
+
+  // 担当者から見える案件（NEW・自分がオーナー・自分が担当者のいずれか）
+  private static final String VISIBILITY_CONDITION = " AND (p.status = com.example.prmtool.entity.Project.ProjectStatus.NEW"
+      + " OR o.id = :userId"
+      + " OR EXISTS (SELECT va.id FROM ProjectAssignment va WHERE va.project = p AND va.user.id = :userId))";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public Page<ProjectSummaryResponse> findSummaries(
+      UUID userId,
+      UUID ownerId,
+      Project.ProjectStatus status,
+      Pageable pageable) {
+    return findSummaries(userId, false, ownerId, status, pageable);
+  }
+
+  @Override
+  public Page<ProjectSummaryResponse> findVisibleSummaries(
+      UUID userId,
+      UUID ownerId,
+      Project.ProjectStatus status,
+      Pageable pageable) {
+    return findSummaries(userId, true, ownerId, status, pageable);
+  }
+
+  private Page<ProjectSummaryResponse> findSummaries(
+      UUID userId,
+      boolean visibleOnly,
+      UUID ownerId,
+      Project.ProjectStatus status,
+      Pageable pageable) {
+    StringBuilder where = new StringBuilder();
+    Map<String, Object> params = new LinkedHashMap<>();
+
+    if (visibleOnly) {
+      where.append(VISIBILITY_CONDITION);
+      params.put("userId", userId);
+    }
+    if (ownerId != null) {
+      where.append(" AND o.id = :ownerId");
+      params.put("ownerId", ownerId);
+    }
+    if (status != null) {
+      where.append(" AND p.status = :status");
+      params.put("status", status);
+    }
+
+    StringBuilder jpql = new StringBuilder(SUMMARY_SELECT).append(where);
+    appendOrderBy(jpql, pageable.getSort());
+    TypedQuery<ProjectSummaryResponse> query = entityManager.createQuery(jpql.toString(), ProjectSummaryResponse.class);
+    params.forEach(query::setParameter);
+    query.setParameter("userId", userId);
+    List<ProjectSummaryResponse> content = query
+        .setFirstResult((int) pageable.getOffset())
+        .setMaxResults(pageable.getPageSize())
+        .getResultList();
+
+    return PageableExecutionUtils.getPage(content, pageable, () -> {
+      TypedQuery<Long> countQuery = entityManager.createQuery(COUNT_SELECT + where, Long.class);
+      params.forEach(countQuery::setParameter);
+      return countQuery.getSingleResult();
+    });
+  }
+
+  // 並び替えの列は呼び出し元（ProjectService）で許可した項目のJPQL式のみ
+  private static void appendOrderBy(StringBuilder jpql, Sort sort) {
+    String separator = " ORDER BY ";
+    for (Sort.Order order : sort) {
+      jpql.append(separator).append(order.getProperty()).append(order.isAscending() ? " ASC" : " DESC");
+      separator = ", ";
+    }
+  }
+}
@@ -2,6 +2,8 @@ package com.example.prmtool.repository;
 
 import com.example.prmtool.entity.ProjectTableData;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -15,4 +17,22 @@ public interface ProjectTableDataRepository extends JpaRepository<ProjectTableDa
 
   // プロジェクトIDでテーブルデータを削除
   void deleteByProjectId(UUID projectId);
+
+  // プロジェクトIDから保存済みのテーブルデータを圧縮されたまま取得（展開はストリーミングで行う）
+  @Query(value = "SELECT table_data_compressed AS \"compressed\", table_data_json AS \"legacyJson\", "
+      + "version AS \"version\" "
+      + "FROM project_table_data WHERE project_id = :projectId", nativeQuery = true)
+  Optional<StoredDocument> findStoredDocumentByProjectId(@Param("projectId") UUID projectId);
+
+  /**
+   * 保存済みのテーブルデータ（圧縮列のバイト列、旧TEXT列、版数）
+   */
+  interface StoredDocument {
+
+    byte[] getCompressed(); // 圧縮列（CompressedTextConverterの形式）
+
+    String getLegacyJson(); // 圧縮前のTEXT列（未移行行のみ）
+
+    Long getVersion();
+  }
 }
\ No newline at end of file
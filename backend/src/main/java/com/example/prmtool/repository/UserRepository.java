@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import jakarta.persistence.LockModeType;
 import java.util.Optional;
@@ -40,4 +41,8 @@ public interface UserRepository extends JpaRepository<User, UUID> {
    * @return 作成日時順のユーザー一覧
    */
   List<User> findAllByOrderByCreatedAtAsc();
-}
\ No newline at end of file
+
+  // 小文字化したログインIDの一覧からIDを一括取得（[id, 小文字化したloginId]、CSVインポート用）
+  @Query("select u.id, lower(u.loginId) from User u where lower(u.loginId) in :lowerLoginIds")
+  List<Object[]> findIdsByLowerLoginIdIn(@Param("lowerLoginIds") Collection<String> lowerLoginIds);
+}
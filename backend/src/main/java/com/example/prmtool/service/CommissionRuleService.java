@@ -7,6 +7,7 @@ import com.example.prmtool.entity.Project;
 import com.example.prmtool.repository.CommissionRuleRepository;
 import com.example.prmtool.repository.ProjectRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +25,7 @@ public class CommissionRuleService {
 
   private final CommissionRuleRepository commissionRuleRepository;
   private final ProjectRepository projectRepository;
+  private final ApplicationEventPublisher eventPublisher;
 
   /**
    * 全手数料ルールを取得
@@ -86,6 +88,7 @@ public class CommissionRuleService {
         .build();
 
     CommissionRule saved = commissionRuleRepository.save(rule);
+    eventPublisher.publishEvent(PartnerDataChangedEvent.of(project.getPartner().getId()));
     return convertToResponse(saved);
   }
 
@@ -101,6 +104,10 @@ public class CommissionRuleService {
     Project project = projectRepository.findById(request.getProjectId())
         .orElseThrow(() -> new RuntimeException("案件が見つかりません: " + request.getProjectId()));
 
+    // 変更前後のパートナーのダッシュボードを無効化
+    eventPublisher.publishEvent(PartnerDataChangedEvent.of(
+        rule.getProject().getPartner().getId(), project.getPartner().getId()));
+
     // 更新
     rule.setProject(project);
     rule.setRuleName(request.getRuleName());
@@ -124,6 +131,7 @@ public class CommissionRuleService {
 
     rule.setStatus(status);
     CommissionRule updated = commissionRuleRepository.save(rule);
+    eventPublisher.publishEvent(PartnerDataChangedEvent.of(rule.getProject().getPartner().getId()));
     return convertToResponse(updated);
   }
 
@@ -132,10 +140,10 @@ public class CommissionRuleService {
    */
   @Transactional
   public void deleteRule(UUID id) {
-    if (!commissionRuleRepository.existsById(id)) {
-      throw new RuntimeException("手数料ルールが見つかりません: " + id);
-    }
-    commissionRuleRepository.deleteById(id);
+    CommissionRule rule = commissionRuleRepository.findById(id)
+        .orElseThrow(() -> new RuntimeException("手数料ルールが見つかりません: " + id));
+    commissionRuleRepository.delete(rule);
+    eventPublisher.publishEvent(PartnerDataChangedEvent.of(rule.getProject().getPartner().getId()));
   }
 
   /**
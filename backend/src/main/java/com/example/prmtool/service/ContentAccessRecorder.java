@@ -0,0 +1,336 @@
+package com.example.prmtool.service;
+
+import com.example.prmtool.entity.ContentShareAccessHistory;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * ダウンロード回数・アクセス履歴の記録サービス（ライトビハインド）
+ * ダウンロードのたびにファイル・共有の行を読み込んで更新すると、よくダウンロードされるファイルでは
+ * 同じ行のロック待ちで直列化するため、DBへの書き込みをまとめて行う
+ *
+ * - ダウンロード回数はID別のLongAdderに加算し、定期的に差分を「download_count + ?」のUPDATEで反映する
+ * - 履歴は上限付きのキューに溜め、JDBCのバッチINSERTで登録する
+ * - 反映は flush-interval ごとと停止時に行うため、画面の回数・履歴はその分遅れて反映される
+ * - キューが一杯の場合は記録したスレッドで1回だけ書き込みを行い、それでも入らない履歴は件数を数えて捨てる
+ * - 反映に失敗した履歴はキューに戻し、retry-backoffの間は反映を止める（その間に一杯になった分は捨てる）
+ * - 前回の反映以降に加算のなかったファイル・共有の回数のエントリは反映時に削除する
+ * - ダウンロード回数に上限のある共有は上限の判定が必要なため、ここでは加算せずContentShareServiceで即時更新する
+ */
+@Service
+public class ContentAccessRecorder {
+
+  private static final Logger log = LoggerFactory.getLogger(ContentAccessRecorder.class);
+
+  private static final String UPDATE_FILE_DOWNLOAD_COUNT_SQL = "UPDATE content_files"
+      + " SET download_count = download_count + ? WHERE id = ?";
+  private static final String UPDATE_SHARE_DOWNLOAD_COUNT_SQL = "UPDATE content_shares"
+      + " SET current_download_count = current_download_count + ?,"
+      + " last_accessed_at = CASE WHEN last_accessed_at IS NULL OR last_accessed_at < ? THEN ? ELSE last_accessed_at END"
+      + " WHERE id = ?";
+  private static final String INSERT_DOWNLOAD_HISTORY_SQL = "INSERT INTO content_download_history"
+      + " (id, file_id, user_id, downloaded_at, ip_address) VALUES (?, ?, ?, ?, ?)";
+  private static final String INSERT_SHARE_ACCESS_HISTORY_SQL = "INSERT INTO content_share_access_history"
+      + " (id, share_id, user_id, access_type, accessed_at, ip_address) VALUES (?, ?, ?, ?, ?, ?)";
+
+  /**
+   * 反映待ちのファイルダウンロード履歴
+   */
+  private record DownloadHistoryRow(UUID fileId, UUID userId, LocalDateTime downloadedAt, String ipAddress) {
+  }
+
+  /**
+   * 反映待ちの共有アクセス履歴
+   */
+  private record ShareAccessRow(UUID shareId, UUID userId, ContentShareAccessHistory.AccessType accessType,
+      LocalDateTime accessedAt, String ipAddress) {
+  }
+
+  /**
+   * 共有のダウンロード回数の加算分
+   */
+  private static final class ShareCounter {
+    private final LongAdder count = new LongAdder();
+    private volatile LocalDateTime lastAccessedAt; // 最後のダウンロード日時（厳密な最大値でなくてよい）
+  }
+
+  private final Map<UUID, LongAdder> fileDownloadCounts = new ConcurrentHashMap<>();
+  private final Map<UUID, ShareCounter> shareDownloadCounts = new ConcurrentHashMap<>();
+  private final BlockingQueue<DownloadHistoryRow> downloadHistoryQueue;
+  private final BlockingQueue<ShareAccessRow> shareAccessQueue;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate flushTransaction; // 反映ごとのコミット用
+  private final int batchSize;
+  private final long retryBackoffMillis;
+
+  private volatile long retryAfter; // 反映に失敗した場合、この時刻（エポックミリ秒）までは反映しない
+  private final LongAdder droppedRows = new LongAdder(); // キューに入らず捨てた履歴の累計
+  private long reportedDroppedRows; // ログに出力済みの捨てた件数（reportDroppedRowsでのみ更新）
+
+  public ContentAccessRecorder(JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      @Value("${content.access-log.queue-capacity:10000}") int queueCapacity,
+      @Value("${content.access-log.batch-size:500}") int batchSize,
+      @Value("${content.access-log.retry-backoff:30000}") long retryBackoffMillis) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.flushTransaction = new TransactionTemplate(transactionManager);
+    this.downloadHistoryQueue = new ArrayBlockingQueue<>(queueCapacity);
+    this.shareAccessQueue = new ArrayBlockingQueue<>(queueCapacity);
+    this.batchSize = batchSize;
+    this.retryBackoffMillis = retryBackoffMillis;
+  }
+
+  /**
+   * ファイルのダウンロードを記録（回数の加算と履歴）
+   *
+   * @param fileId ファイルID
+   * @param userId ダウンロードしたユーザー（外部ユーザーの場合はnull）
+   * @param ipAddress IPアドレス
+   */
+  public void recordFileDownload(UUID fileId, UUID userId, String ipAddress) {
+    fileDownloadCounts.computeIfAbsent(fileId, id -> new LongAdder()).increment();
+    enqueue(downloadHistoryQueue, new DownloadHistoryRow(fileId, userId, LocalDateTime.now(), ipAddress),
+        this::flushDownloadHistory);
+  }
+
+  /**
+   * 共有のダウンロード回数を加算（ダウンロード回数に上限のない共有のみ）
+   *
+   * @param shareId 共有ID
+   */
+  public void countShareDownload(UUID shareId) {
+    ShareCounter counter = shareDownloadCounts.computeIfAbsent(shareId, id -> new ShareCounter());
+    counter.count.increment();
+    counter.lastAccessedAt = LocalDateTime.now();
+  }
+
+  /**
+   * 共有へのアクセス履歴を記録
+   *
+   * @param shareId 共有ID
+   * @param userId アクセスしたユーザー（外部ユーザーの場合はnull）
+   * @param accessType アクセスタイプ
+   * @param ipAddress IPアドレス
+   */
+  public void recordShareAccess(UUID shareId, UUID userId, ContentShareAccessHistory.AccessType accessType,
+      String ipAddress) {
+    enqueue(shareAccessQueue, new ShareAccessRow(shareId, userId, accessType, LocalDateTime.now(), ipAddress),
+        this::flushShareAccessHistory);
+  }
+
+  /**
+   * 溜まっている回数・履歴をDBに反映（前回の反映に失敗してからretry-backoffの間は何もしない）
+   */
+  @Scheduled(fixedDelayString = "${content.access-log.flush-interval:5000}")
+  public void flush() {
+    if (isBackingOff()) {
+      reportDroppedRows();
+      return;
+    }
+    flushAll();
+  }
+
+  /**
+   * 停止時に残りを反映
+   */
+  @PreDestroy
+  public void shutdown() {
+    // 再実行を待っている間でも最後に1回は反映を試す
+    retryAfter = 0;
+    flushAll();
+    int remaining = downloadHistoryQueue.size() + shareAccessQueue.size();
+    if (remaining > 0) {
+      log.error("停止時に履歴{}件をDBに反映できませんでした", remaining);
+    }
+  }
+
+  private void flushAll() {
+    try {
+      flushDownloadCounts();
+    } catch (RuntimeException ex) {
+      backOff();
+      log.error("ダウンロード回数をDBに反映できませんでした", ex);
+    }
+    flushDownloadHistory();
+    flushShareAccessHistory();
+    reportDroppedRows();
+  }
+
+  // ダウンロード回数の加算分を反映（失敗した場合は加算分を戻して次回に再実行する）
+  // 前回の反映から加算のなかったエントリはここで削除する
+  private void flushDownloadCounts() {
+    List<Object[]> fileArgs = new ArrayList<>();
+    List<UUID> idleFileIds = new ArrayList<>();
+    fileDownloadCounts.forEach((fileId, count) -> {
+      long delta = count.sumThenReset();
+      if (delta > 0) {
+        fileArgs.add(new Object[] { delta, fileId });
+      } else {
+        idleFileIds.add(fileId);
+      }
+    });
+    List<Object[]> shareArgs = new ArrayList<>();
+    List<UUID> idleShareIds = new ArrayList<>();
+    shareDownloadCounts.forEach((shareId, counter) -> {
+      long delta = counter.count.sumThenReset();
+      if (delta > 0) {
+        LocalDateTime lastAccessedAt = counter.lastAccessedAt;
+        shareArgs.add(new Object[] { delta, lastAccessedAt, lastAccessedAt, shareId });
+      } else {
+        idleShareIds.add(shareId);
+      }
+    });
+    pruneIdleCounts(idleFileIds, idleShareIds);
+    if (fileArgs.isEmpty() && shareArgs.isEmpty()) {
+      return;
+    }
+
+    // 同時に反映した場合にデッドロックしないようID順に更新する
+    fileArgs.sort(Comparator.comparing(args -> (UUID) args[1]));
+    shareArgs.sort(Comparator.comparing(args -> (UUID) args[3]));
+    try {
+      flushTransaction.executeWithoutResult(status -> {
+        jdbcTemplate.batchUpdate(UPDATE_FILE_DOWNLOAD_COUNT_SQL, fileArgs);
+        jdbcTemplate.batchUpdate(UPDATE_SHARE_DOWNLOAD_COUNT_SQL, shareArgs);
+      });
+    } catch (RuntimeException ex) {
+      for (Object[] args : fileArgs) {
+        fileDownloadCounts.computeIfAbsent((UUID) args[1], id -> new LongAdder()).add((Long) args[0]);
+      }
+      for (Object[] args : shareArgs) {
+        shareDownloadCounts.computeIfAbsent((UUID) args[3], id -> new ShareCounter()).count.add((Long) args[0]);
+      }
+      throw ex;
+    }
+  }
+
+  // 加算のなかったエントリを削除
+  // 削除の直前に加算されることがあるため、同じエントリの場合だけ削除し、削除後に残っていた加算分は新しいエントリへ移す
+  private void pruneIdleCounts(List<UUID> idleFileIds, List<UUID> idleShareIds) {
+    for (UUID fileId : idleFileIds) {
+      LongAdder count = fileDownloadCounts.get(fileId);
+      if (count != null && count.sum() == 0 && fileDownloadCounts.remove(fileId, count)) {
+        long late = count.sumThenReset();
+        if (late > 0) {
+          fileDownloadCounts.computeIfAbsent(fileId, id -> new LongAdder()).add(late);
+        }
+      }
+    }
+    for (UUID shareId : idleShareIds) {
+      ShareCounter counter = shareDownloadCounts.get(shareId);
+      if (counter != null && counter.count.sum() == 0 && shareDownloadCounts.remove(shareId, counter)) {
+        long late = counter.count.sumThenReset();
+        if (late > 0) {
+          ShareCounter current = shareDownloadCounts.computeIfAbsent(shareId, id -> new ShareCounter());
+          current.count.add(late);
+          current.lastAccessedAt = counter.lastAccessedAt;
+        }
+      }
+    }
+  }
+
+  private void flushDownloadHistory() {
+    drainAndInsert(downloadHistoryQueue, INSERT_DOWNLOAD_HISTORY_SQL, row -> new Object[] {
+        UUID.randomUUID(), row.fileId(), row.userId(), row.downloadedAt(), row.ipAddress() });
+  }
+
+  private void flushShareAccessHistory() {
+    drainAndInsert(shareAccessQueue, INSERT_SHARE_ACCESS_HISTORY_SQL, row -> new Object[] {
+        UUID.randomUUID(), row.shareId(), row.userId(), row.accessType().name(), row.accessedAt(),
+        row.ipAddress() });
+  }
+
+  // キューを空になるまでbatchSize件ずつ取り出して登録
+  // 失敗した場合は取り出した履歴をキューに戻し、retry-backoffの間は反映を止める
+  private <T> void drainAndInsert(BlockingQueue<T> queue, String sql, Function<T, Object[]> toArgs) {
+    List<T> rows = new ArrayList<>(batchSize);
+    while (!isBackingOff() && queue.drainTo(rows, batchSize) > 0) {
+      List<Object[]> batch = rows.stream().map(toArgs).toList();
+      try {
+        flushTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, batch));
+      } catch (DataIntegrityViolationException ex) {
+        // 反映までの間に参照先のファイル・共有が削除されるとバッチ全体が失敗するため、1件ずつ登録し直す
+        int skipped = 0;
+        for (int i = 0; i < batch.size(); i++) {
+          try {
+            jdbcTemplate.update(sql, batch.get(i));
+          } catch (DataIntegrityViolationException rowEx) {
+            skipped++;
+          } catch (RuntimeException rowEx) {
+            retryLater(queue, rows.subList(i, rows.size()), rowEx);
+            return;
+          }
+        }
+        log.warn("削除済みのファイル・共有の履歴{}件を登録しませんでした", skipped);
+      } catch (RuntimeException ex) {
+        retryLater(queue, rows, ex);
+        return;
+      }
+      rows.clear();
+    }
+  }
+
+  // 登録に失敗した履歴をキューに戻し（入りきらない分は捨てる）、retry-backoffの間は反映を止める
+  private <T> void retryLater(BlockingQueue<T> queue, List<T> rows, RuntimeException cause) {
+    backOff();
+    for (T row : rows) {
+      if (!queue.offer(row)) {
+        droppedRows.increment();
+      }
+    }
+    log.error("履歴{}件を登録できませんでした（{}ミリ秒後に再実行します）", rows.size(), retryBackoffMillis, cause);
+  }
+
+  // キューに追加（一杯の場合は呼び出し元のスレッドで1回だけ書き込んで空け、それでも入らなければ捨てる）
+  // 反映に失敗している間は書き込みを試さずに捨て、リクエストを待たせない
+  private <T> void enqueue(BlockingQueue<T> queue, T row, Runnable flush) {
+    if (queue.offer(row)) {
+      return;
+    }
+    if (!isBackingOff()) {
+      flush.run();
+    }
+    if (!queue.offer(row)) {
+      droppedRows.increment();
+    }
+  }
+
+  private boolean isBackingOff() {
+    return System.currentTimeMillis() < retryAfter;
+  }
+
+  private void backOff() {
+    retryAfter = System.currentTimeMillis() + retryBackoffMillis;
+  }
+
+  // 前回の出力以降に捨てた履歴の件数をログに出力
+  private synchronized void reportDroppedRows() {
+    long dropped = droppedRows.sum();
+    if (dropped > reportedDroppedRows) {
+      log.warn("反映待ちの履歴が上限を超えたため{}件を記録できませんでした（累計{}件）",
+          dropped - reportedDroppedRows, dropped);
+      reportedDroppedRows = dropped;
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package com.example.prmtool.service;
+
+import com.example.prmtool.entity.ContentBlob;
+import com.example.prmtool.repository.ContentBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * コンテンツファイル実体の参照数管理サービス
+ * 同じ内容のファイルはハッシュ名の実体を1つだけ保存し、参照しているコンテンツファイルの件数を数える
+ *
+ * - 参照の追加・解除はコンテンツファイルの登録・削除と同じトランザクションで行う
+ * - 実体の確定（一時ファイルの移動）と削除はどちらもContentBlobの行ロックを取って行うため、
+ *   同じ内容の再アップロードと最後の参照の削除が重なっても実体が失われない
+ * - 参照数が0になった実体はコミット後に削除する。削除に失敗したものや登録が巻き戻ったものは定期掃除で削除する
+ */
+@Service
+public class ContentBlobService {
+
+  private static final Logger log = LoggerFactory.getLogger(ContentBlobService.class);
+  private static final int MAX_LOCK_ATTEMPTS = 3;
+
+  private final ContentBlobRepository blobRepository;
+  private final FileStorageService fileStorageService;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TransactionTemplate newTransaction; // 呼び出し元とは別のトランザクション（コミット後の処理でも使用）
+  private final long gcGraceMillis;
+
+  public ContentBlobService(ContentBlobRepository blobRepository,
+      FileStorageService fileStorageService,
+      ApplicationEventPublisher eventPublisher,
+      PlatformTransactionManager transactionManager,
+      @Value("${content.blob.gc-grace:3600000}") long gcGraceMillis) {
+    this.blobRepository = blobRepository;
+    this.fileStorageService = fileStorageService;
+    this.eventPublisher = eventPublisher;
+    this.newTransaction = new TransactionTemplate(transactionManager);
+    this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.gcGraceMillis = gcGraceMillis;
+  }
+
+  /**
+   * 実体への参照を追加し、一時ファイルを確定する
+   * 同じ内容が保存済みであれば一時ファイルは破棄され、書き込みは発生しない
+   *
+   * @return 新しく実体を保存した場合はtrue、既存の実体を再利用した場合はfalse
+   */
+  @Transactional
+  public boolean acquire(StagedFile staged) {
+    ContentBlob blob = lockOrCreate(staged);
+    blob.setRefCount(blob.getRefCount() + 1);
+    return fileStorageService.promoteStagedFile(staged);
+  }
+
+  /**
+   * コンテンツファイルの削除に伴ってストレージ上のファイルへの参照を解除する
+   * 内容ハッシュで保存した実体は参照数が0になった時点で、以前のUUID名のファイルは常に、コミット後に削除する
+   *
+   * @param fileUrl コンテンツファイルのURL
+   * @param contentHash コンテンツファイルの内容ハッシュ
+   */
+  @Transactional
+  public void release(String fileUrl, String contentHash) {
+    String storedFileName = fileUrl.substring(fileUrl.lastIndexOf("/") + 1);
+    if (!isContentAddressed(storedFileName, contentHash)) {
+      eventPublisher.publishEvent(new StoredFileReleasedEvent(storedFileName, null));
+      return;
+    }
+
+    ContentBlob blob = blobRepository.findByIdForUpdate(contentHash).orElse(null);
+    if (blob == null) {
+      log.warn("参照数が登録されていないファイルです: {}", contentHash);
+      return;
+    }
+    blob.setRefCount(Math.max(blob.getRefCount() - 1, 0));
+    if (blob.getRefCount() == 0) {
+      eventPublisher.publishEvent(new StoredFileReleasedEvent(storedFileName, contentHash));
+    }
+  }
+
+  /**
+   * 参照が解除されたファイルをコミット後に削除
+   * 失敗しても削除処理自体は成功として扱う（実体は定期掃除で削除される）
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onStoredFileReleased(StoredFileReleasedEvent event) {
+    try {
+      if (event.contentHash() == null) {
+        fileStorageService.deleteFile(event.storedFileName());
+      } else {
+        collect(event.contentHash());
+      }
+    } catch (RuntimeException ex) {
+      log.warn("不要になったファイルを削除できませんでした: {}", event.storedFileName(), ex);
+    }
+  }
+
+  /**
+   * 参照されていない実体を削除
+   * 削除に失敗したものや、参照の追加が巻き戻って残ったものを拾う
+   */
+  @Scheduled(fixedDelayString = "${content.blob.gc-interval:3600000}",
+      initialDelayString = "${content.blob.gc-interval:3600000}")
+  public void collectUnreferenced() {
+    LocalDateTime before = LocalDateTime.now().minus(Duration.ofMillis(gcGraceMillis));
+    List<String> hashes = blobRepository.findUnreferencedHashes(before);
+    int collected = 0;
+    for (String contentHash : hashes) {
+      try {
+        if (collect(contentHash)) {
+          collected++;
+        }
+      } catch (RuntimeException ex) {
+        log.warn("参照されていないファイルを削除できませんでした: {}", contentHash, ex);
+      }
+    }
+    if (collected > 0) {
+      log.info("参照されていないファイルを削除しました: {}件", collected);
+    }
+  }
+
+  // 行ロックを取り、参照数が0のままであれば実体と行を削除する
+  private boolean collect(String contentHash) {
+    return Boolean.TRUE.equals(newTransaction.execute(status ->
+        blobRepository.findByIdForUpdate(contentHash)
+            .filter(blob -> blob.getRefCount() == 0)
+            .map(blob -> {
+              fileStorageService.deleteContent(contentHash);
+              blobRepository.delete(blob);
+              return true;
+            })
+            .orElse(false)));
+  }
+
+  // 実体の行を作成してから行ロックを取る
+  // 行は必ず別トランザクションで参照数0のまま作成するため、呼び出し元が巻き戻っても行が残り、確定済みの実体は定期掃除で削除される
+  private ContentBlob lockOrCreate(StagedFile staged) {
+    for (int attempt = 0; attempt < MAX_LOCK_ATTEMPTS; attempt++) {
+      createIfAbsent(staged);
+      Optional<ContentBlob> blob = blobRepository.findByIdForUpdate(staged.sha256());
+      if (blob.isPresent()) {
+        return blob.get();
+      }
+      // 作成直後に定期掃除で消された場合は作り直す
+    }
+    throw new IllegalStateException("ファイルの実体を登録できませんでした: " + staged.sha256());
+  }
+
+  // 行ロックの対象にするため、実体の行を参照数0で先に作成しておく（同時に作成された場合は既存の行を使う）
+  private void createIfAbsent(StagedFile staged) {
+    if (blobRepository.existsById(staged.sha256())) {
+      return;
+    }
+    try {
+      newTransaction.executeWithoutResult(status ->
+          blobRepository.insertBlob(staged.sha256(), staged.size(), 0));
+    } catch (DataIntegrityViolationException ex) {
+      log.debug("同じ内容のファイルが同時に登録されました: {}", staged.sha256());
+    }
+  }
+
+  // URL上のファイル名が「内容ハッシュ（+ 拡張子）」であれば参照数で管理している実体
+  private boolean isContentAddressed(String storedFileName, String contentHash) {
+    return contentHash != null
+        && (storedFileName.equals(contentHash) || storedFileName.startsWith(contentHash + "."));
+  }
+}
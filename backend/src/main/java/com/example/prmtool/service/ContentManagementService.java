@@ -1,14 +1,23 @@
 package com.example.prmtool.service;
 
+import com.example.prmtool.config.AuthenticatedUser;
 import com.example.prmtool.dto.*;
 import com.example.prmtool.entity.*;
 import com.example.prmtool.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -22,9 +31,13 @@ public class ContentManagementService {
 
   private final ContentFolderRepository folderRepository;
   private final ContentFileRepository fileRepository;
-  private final ContentDownloadHistoryRepository downloadHistoryRepository;
+  private final FileStorageService fileStorageService;
+  private final ContentBlobService contentBlobService; // ファイル実体の参照数
+  private final ContentAccessRecorder contentAccessRecorder; // ダウンロード回数・履歴の書き込み
   private final UserRepository userRepository;
   private final FavoriteFolderRepository favoriteFolderRepository;
+  private final FavoriteFolderCache favoriteFolderCache; // ユーザーごとのお気に入りフォルダーID
+  private final ApplicationEventPublisher eventPublisher; // お気に入りキャッシュ無効化イベント
 
   // ========================================
   // フォルダ管理
@@ -32,42 +45,80 @@ public class ContentManagementService {
 
   /**
    * 全フォルダを取得
+   *
+   * @param userId ログイン中のユーザーID（お気に入りフラグの判定に使用）
    */
   @Transactional(readOnly = true)
-  public List<ContentFolderResponse> getAllFolders() {
-    return folderRepository.findAllByOrderByCreatedAtAsc().stream()
-        .map(this::convertFolderToResponse)
-        .collect(Collectors.toList());
+  public List<ContentFolderResponse> getAllFolders(UUID userId) {
+    return convertFoldersToResponses(folderRepository.findAllByOrderByCreatedAtAsc(), userId);
   }
 
   /**
    * ルートフォルダを取得
+   *
+   * @param userId ログイン中のユーザーID（お気に入りフラグの判定に使用）
    */
   @Transactional(readOnly = true)
-  public List<ContentFolderResponse> getRootFolders() {
-    return folderRepository.findByParentFolderIsNullOrderByCreatedAtAsc().stream()
-        .map(this::convertFolderToResponse)
-        .collect(Collectors.toList());
+  public List<ContentFolderResponse> getRootFolders(UUID userId) {
+    return convertFoldersToResponses(folderRepository.findByParentFolderIsNullOrderByCreatedAtAsc(), userId);
   }
 
   /**
    * 指定したフォルダの子フォルダを取得
+   *
+   * @param userId ログイン中のユーザーID（お気に入りフラグの判定に使用）
    */
   @Transactional(readOnly = true)
-  public List<ContentFolderResponse> getSubFolders(UUID parentFolderId) {
-    return folderRepository.findByParentFolderIdOrderByCreatedAtAsc(parentFolderId).stream()
-        .map(this::convertFolderToResponse)
-        .collect(Collectors.toList());
+  public List<ContentFolderResponse> getSubFolders(UUID parentFolderId, UUID userId) {
+    return convertFoldersToResponses(
+        folderRepository.findByParentFolderIdOrderByCreatedAtAsc(parentFolderId), userId);
+  }
+
+  /**
+   * フォルダツリー全体を取得
+   * フォルダ一覧とフォルダごとのファイル数を2回のクエリで取得し、メモリ上で親子を組み立てる
+   */
+  @Transactional(readOnly = true)
+  public List<ContentFolderTreeResponse> getFolderTree() {
+    Map<UUID, Long> fileCounts = toCountMap(fileRepository.countGroupByFolder());
+    List<Object[]> rows = folderRepository.findTreeRows();
+
+    // 作成日時順に並んでいるため、挿入順を保てば子フォルダも作成日時順になる
+    Map<UUID, ContentFolderTreeResponse> nodes = new LinkedHashMap<>();
+    for (Object[] row : rows) {
+      UUID id = (UUID) row[0];
+      nodes.put(id, ContentFolderTreeResponse.builder()
+          .id(id)
+          .folderName((String) row[1])
+          .description((String) row[2])
+          .parentFolderId((UUID) row[3])
+          .depth((Integer) row[4])
+          .fileCount(fileCounts.getOrDefault(id, 0L))
+          .build());
+    }
+
+    List<ContentFolderTreeResponse> roots = new ArrayList<>();
+    for (ContentFolderTreeResponse node : nodes.values()) {
+      ContentFolderTreeResponse parent = node.getParentFolderId() != null ? nodes.get(node.getParentFolderId()) : null;
+      if (parent != null) {
+        parent.getChildren().add(node);
+      } else {
+        roots.add(node);
+      }
+    }
+    return roots;
   }
 
   /**
    * フォルダをIDで取得
+   *
+   * @param userId ログイン中のユーザーID（お気に入りフラグの判定に使用）
    */
   @Transactional(readOnly = true)
-  public ContentFolderResponse getFolderById(UUID id) {
+  public ContentFolderResponse getFolderById(UUID id, UUID userId) {
     ContentFolder folder = folderRepository.findById(id)
         .orElseThrow(() -> new RuntimeException("フォルダが見つかりません: " + id));
-    return convertFolderToResponse(folder);
+    return convertFoldersToResponses(List.of(folder), userId).get(0);
   }
 
   /**
@@ -88,7 +139,8 @@ public class ContentManagementService {
     if (request.getParentFolderId() != null) {
       ContentFolder parentFolder = folderRepository.findById(request.getParentFolderId())
           .orElseThrow(() -> new RuntimeException("親フォルダが見つかりません: " + request.getParentFolderId()));
-      folder.setParentFolder(parentFolder);
+      requireDepthWithinLimit(parentFolder.getDepth() + 1);
+      folder.placeUnder(parentFolder);
     }
 
     ContentFolder saved = folderRepository.save(folder);
@@ -110,8 +162,79 @@ public class ContentManagementService {
     return convertFolderToResponse(updated);
   }
 
+  /**
+   * フォルダを移動
+   * 移動したフォルダ配下のパスと深さは1回の更新でまとめて付け替える
+   * 移動するフォルダ・移動先・移動先の祖先の行ロックをIDの順に取ってから循環を確認する
+   * （「AをBの下へ」と「BをAの下へ」のような同時の移動が、どちらも循環の確認を通って循環を作らないようにする）
+   *
+   * @param id 移動するフォルダID
+   * @param newParentFolderId 移動先の親フォルダID（nullの場合はルートへ移動）
+   */
+  @Transactional
+  public ContentFolderResponse moveFolder(UUID id, UUID newParentFolderId) {
+    Set<UUID> lockIds = new HashSet<>();
+    lockIds.add(id);
+    if (newParentFolderId != null) {
+      String parentPath = folderRepository.findPathById(newParentFolderId)
+          .orElseThrow(() -> new RuntimeException("移動先のフォルダが見つかりません: " + newParentFolderId));
+      lockIds.add(newParentFolderId);
+      lockIds.addAll(ContentFolder.parseAncestorIds(parentPath));
+    }
+    Map<UUID, ContentFolder> locked = folderRepository.findAllByIdInForUpdate(lockIds).stream()
+        .collect(Collectors.toMap(ContentFolder::getId, f -> f));
+
+    ContentFolder folder = Optional.ofNullable(locked.get(id))
+        .orElseThrow(() -> new RuntimeException("フォルダが見つかりません: " + id));
+
+    ContentFolder newParent = null;
+    if (newParentFolderId != null) {
+      newParent = Optional.ofNullable(locked.get(newParentFolderId))
+          .orElseThrow(() -> new RuntimeException("移動先のフォルダが見つかりません: " + newParentFolderId));
+
+      // ロック取得後のパスで判定する。ロックする前に移動先の祖先が変わっていた場合はやり直してもらう
+      List<UUID> ancestorIds = newParent.ancestorIds();
+      if (!locked.keySet().containsAll(ancestorIds)) {
+        throw new RuntimeException("移動先のフォルダが同時に移動されました。もう一度お試しください");
+      }
+
+      // 自分自身や配下のフォルダへは移動できない（循環するため）
+      if (newParent.getId().equals(id) || ancestorIds.contains(id)) {
+        throw new RuntimeException("フォルダを自身または配下のフォルダへ移動することはできません");
+      }
+    }
+
+    String oldChildPath = folder.childPath();
+    int oldDepth = folder.getDepth();
+    // 配下で最も深いフォルダも移動後にパス列へ収まること
+    int newDepth = newParent != null ? newParent.getDepth() + 1 : 0;
+    Integer deepestUnder = folderRepository.findMaxDepthUnder(oldChildPath);
+    requireDepthWithinLimit(newDepth + (deepestUnder != null ? deepestUnder - oldDepth : 0));
+    folder.placeUnder(newParent);
+    folderRepository.save(folder);
+
+    String newChildPath = folder.childPath();
+    if (!newChildPath.equals(oldChildPath)) {
+      folderRepository.moveDescendants(oldChildPath, oldChildPath.length(), newChildPath,
+          folder.getDepth() - oldDepth, LocalDateTime.now());
+    }
+
+    // 一括更新で永続化コンテキストがクリアされるため読み直す
+    ContentFolder moved = folderRepository.findById(id)
+        .orElseThrow(() -> new RuntimeException("フォルダが見つかりません: " + id));
+    return convertFolderToResponse(moved);
+  }
+
+  // フォルダの深さがパス列に収まる上限以内かチェック
+  private void requireDepthWithinLimit(int depth) {
+    if (depth > ContentFolder.MAX_DEPTH) {
+      throw new IllegalArgumentException("フォルダの階層は" + ContentFolder.MAX_DEPTH + "階層までです");
+    }
+  }
+
   /**
    * フォルダを削除
+   * 空のフォルダのみ削除できるため、配下のパスの付け替えは不要
    */
   @Transactional
   public void deleteFolder(UUID id) {
@@ -119,12 +242,12 @@ public class ContentManagementService {
         .orElseThrow(() -> new RuntimeException("フォルダが見つかりません: " + id));
 
     // フォルダ内にファイルがある場合は削除不可
-    if (!folder.getFiles().isEmpty()) {
+    if (fileRepository.existsByFolderId(id)) {
       throw new RuntimeException("フォルダ内にファイルが存在するため削除できません");
     }
 
     // 子フォルダがある場合は削除不可
-    if (!folder.getSubFolders().isEmpty()) {
+    if (folderRepository.existsByParentFolderId(id)) {
       throw new RuntimeException("サブフォルダが存在するため削除できません");
     }
 
@@ -165,12 +288,47 @@ public class ContentManagementService {
     return convertFileToResponse(file);
   }
 
+  /**
+   * 保存ファイル名（/api/files/{ファイル名}）からファイル情報を取得
+   * コンテンツファイルとして登録されていない場合は空を返す
+   */
+  @Transactional(readOnly = true)
+  public Optional<ContentFileResponse> findFileByStoredName(String storedFileName) {
+    return fileRepository.findFirstByFileUrl("/api/files/" + storedFileName)
+        .map(this::convertFileToResponse);
+  }
+
+  /**
+   * ダウンロード応答のETagに使う内容ハッシュを取得
+   * ハッシュ導入前にアップロードされたファイルはここで計算して保存する（ファイルの読み込みはトランザクション外で行う）
+   */
+  public String getOrComputeContentHash(ContentFileResponse file) {
+    if (file.getContentHash() != null) {
+      return file.getContentHash();
+    }
+    String storedFileName = file.getFileUrl().substring(file.getFileUrl().lastIndexOf("/") + 1);
+    String contentHash = fileStorageService.computeContentHash(storedFileName);
+    fileRepository.updateContentHashIfAbsent(file.getId(), contentHash);
+    return contentHash;
+  }
+
   /**
    * ファイルをアップロード
    * 注: 実際のファイルストレージ（S3など）へのアップロードは別途実装が必要
    */
   @Transactional
   public ContentFileResponse uploadFile(ContentFileRequest request, UUID userId) {
+    return uploadFile(request, userId, null);
+  }
+
+  /**
+   * ハッシュ計算済みの一時ファイルを実体として確定し、ファイルを登録
+   * 同じ内容の実体が保存済みであれば参照数を増やすだけで、ファイルの書き込みは発生しない
+   *
+   * @param staged ハッシュ計算済みの一時ファイル（nullの場合はURLのみ登録する）
+   */
+  @Transactional
+  public ContentFileResponse uploadFile(ContentFileRequest request, UUID userId, StagedFile staged) {
     User user = userRepository.findById(userId)
         .orElseThrow(() -> new RuntimeException("ユーザーが見つかりません: " + userId));
 
@@ -185,6 +343,7 @@ public class ContentManagementService {
         .fileUrl(request.getFileUrl())
         .fileType(request.getFileType())
         .fileSize(request.getFileSize())
+        .contentHash(request.getContentHash())
         .tags(request.getTags())
         .version(request.getVersion() != null ? request.getVersion() : "v1.0")
         .accessLevel(request.getAccessLevel() != null ? request.getAccessLevel() : ContentFile.AccessLevel.PRIVATE)
@@ -195,6 +354,9 @@ public class ContentManagementService {
         .build();
 
     ContentFile saved = fileRepository.save(file);
+    if (staged != null) {
+      contentBlobService.acquire(staged);
+    }
     return convertFileToResponse(saved);
   }
 
@@ -226,36 +388,23 @@ public class ContentManagementService {
     ContentFile file = fileRepository.findById(id)
         .orElseThrow(() -> new RuntimeException("ファイルが見つかりません: " + id));
 
-    // 実際のストレージ（S3など）からも削除
     fileRepository.delete(file);
+
+    // ストレージ上のファイルはコミット後に削除（同じ内容の他のファイルから参照されている間は残す）
+    contentBlobService.release(file.getFileUrl(), file.getContentHash());
   }
 
   /**
    * ファイルダウンロード記録
+   * ダウンロード回数と履歴はContentAccessRecorderがまとめてDBに反映する（ファイルの行は更新しない）
    */
-  @Transactional
-  public void recordDownload(UUID fileId, UUID userId, String ipAddress) {
-    ContentFile file = fileRepository.findById(fileId)
-        .orElseThrow(() -> new RuntimeException("ファイルが見つかりません: " + fileId));
-
-    User user = null;
-    if (userId != null) {
-      user = userRepository.findById(userId).orElse(null);
+  public void recordDownload(UUID fileId, AuthenticatedUser currentUser, String ipAddress) {
+    if (!fileRepository.existsById(fileId)) {
+      throw new RuntimeException("ファイルが見つかりません: " + fileId);
     }
 
-    // ダウンロード回数を増やす
-    file.incrementDownloadCount();
-    fileRepository.save(file);
-
-    // ダウンロード履歴を記録
-    ContentDownloadHistory history = ContentDownloadHistory.builder()
-        .file(file)
-        .user(user)
-        .downloadedAt(LocalDateTime.now())
-        .ipAddress(ipAddress)
-        .build();
-
-    downloadHistoryRepository.save(history);
+    UUID userId = currentUser != null ? currentUser.getUserId() : null;
+    contentAccessRecorder.recordFileDownload(fileId, userId, ipAddress);
   }
 
   // ========================================
@@ -270,9 +419,9 @@ public class ContentManagementService {
   public List<ContentFolderResponse> getFavoriteFolders(UUID userId) {
     List<FavoriteFolder> favorites = favoriteFolderRepository.findByUserIdOrderByCreatedAtDesc(userId);
 
-    return favorites.stream()
-        .map(fav -> convertFolderToResponse(fav.getFolder()))
-        .collect(Collectors.toList());
+    return convertFoldersToResponses(favorites.stream()
+        .map(FavoriteFolder::getFolder)
+        .collect(Collectors.toList()), userId);
   }
 
   /**
@@ -296,9 +445,8 @@ public class ContentManagementService {
       throw new RuntimeException("お気に入りフォルダーは最大10個までです");
     }
 
-    // ユーザーとフォルダーの存在チェック
-    User user = userRepository.findById(userId)
-        .orElseThrow(() -> new RuntimeException("ユーザーが見つかりません: " + userId));
+    // 認証済みユーザーは外部キー参照のみ、フォルダーは存在チェック
+    User user = userRepository.getReferenceById(userId);
 
     ContentFolder folder = folderRepository.findById(folderId)
         .orElseThrow(() -> new RuntimeException("フォルダーが見つかりません: " + folderId));
@@ -310,6 +458,7 @@ public class ContentManagementService {
         .build();
 
     favoriteFolderRepository.save(favorite);
+    eventPublisher.publishEvent(new FavoriteFoldersChangedEvent(userId));
   }
 
   /**
@@ -325,6 +474,7 @@ public class ContentManagementService {
         .orElseThrow(() -> new RuntimeException("お気に入りが見つかりません"));
 
     favoriteFolderRepository.delete(favorite);
+    eventPublisher.publishEvent(new FavoriteFoldersChangedEvent(userId));
   }
 
   /**
@@ -336,7 +486,16 @@ public class ContentManagementService {
    */
   @Transactional(readOnly = true)
   public boolean isFavoriteFolder(UUID folderId, UUID userId) {
-    return favoriteFolderRepository.existsByUserIdAndFolderId(userId, folderId);
+    return getFavoriteFolderIds(userId).contains(folderId);
+  }
+
+  /**
+   * ユーザーのお気に入りフォルダーIDを取得
+   * 1回のクエリで集合として読み込み、追加・削除されるまでキャッシュする
+   */
+  private Set<UUID> getFavoriteFolderIds(UUID userId) {
+    return favoriteFolderCache.getOrLoad(userId,
+        () -> new HashSet<>(favoriteFolderRepository.findFolderIdsByUserId(userId)));
   }
 
   // ========================================
@@ -348,67 +507,86 @@ public class ContentManagementService {
    * オーバーロード: お気に入りフラグを含めない場合
    */
   private ContentFolderResponse convertFolderToResponse(ContentFolder folder) {
-    return convertFolderToResponse(folder, null);
+    return convertFoldersToResponses(List.of(folder), null).get(0);
   }
 
   /**
-   * フォルダーエンティティをレスポンスDTOに変換
-   * オーバーロード: お気に入りフラグを含める場合
+   * フォルダーエンティティの一覧をレスポンスDTOに変換
+   * ファイル数とパンくずリスト用の祖先フォルダー名は、対象フォルダー分をそれぞれ1回のクエリでまとめて取得する
+   * お気に入りフラグはユーザーのお気に入りフォルダーIDの集合（キャッシュ）で判定する
    * 
-   * @param folder フォルダーエンティティ
+   * @param folders フォルダーエンティティ
    * @param userId ログイン中のユーザーID（nullの場合はisFavoriteをfalseに設定）
    * @return フォルダーレスポンスDTO
    */
-  private ContentFolderResponse convertFolderToResponse(ContentFolder folder, UUID userId) {
-    Boolean isFavorite = false;
-
-    // userIdが指定されている場合、お気に入りチェック
-    if (userId != null) {
-      isFavorite = favoriteFolderRepository.existsByUserIdAndFolderId(userId, folder.getId());
+  private List<ContentFolderResponse> convertFoldersToResponses(List<ContentFolder> folders, UUID userId) {
+    if (folders.isEmpty()) {
+      return new ArrayList<>();
     }
 
-    // 親フォルダー情報を再帰的に構築
-    ContentFolderResponse.ParentFolderSummary parentFolderSummary = null;
-    if (folder.getParentFolder() != null) {
-      parentFolderSummary = buildParentFolderSummary(folder.getParentFolder());
+    Set<UUID> folderIds = new HashSet<>();
+    Set<UUID> ancestorIds = new HashSet<>();
+    for (ContentFolder folder : folders) {
+      folderIds.add(folder.getId());
+      ancestorIds.addAll(folder.ancestorIds());
+    }
+    Map<UUID, Long> fileCounts = toCountMap(fileRepository.countGroupByFolderIdIn(folderIds));
+    Map<UUID, String> folderNames = new HashMap<>();
+    if (!ancestorIds.isEmpty()) {
+      for (Object[] row : folderRepository.findNamesByIdIn(ancestorIds)) {
+        folderNames.put((UUID) row[0], (String) row[1]);
+      }
     }
 
-    return ContentFolderResponse.builder()
-        .id(folder.getId())
-        .folderName(folder.getFolderName())
-        .description(folder.getDescription())
-        .parentFolderId(folder.getParentFolder() != null ? folder.getParentFolder().getId() : null)
-        .fileCount(folder.getFiles().size())
-        .createdBy(folder.getCreatedBy().getName())
-        .createdAt(folder.getCreatedAt())
-        .updatedAt(folder.getUpdatedAt())
-        .isFavorite(isFavorite)
-        .parentFolder(parentFolderSummary)
-        .build();
+    // userIdが指定されている場合、お気に入りフォルダーIDをまとめて取得
+    Set<UUID> favoriteFolderIds = userId != null ? getFavoriteFolderIds(userId) : Set.of();
+
+    List<ContentFolderResponse> responses = new ArrayList<>(folders.size());
+    for (ContentFolder folder : folders) {
+      responses.add(ContentFolderResponse.builder()
+          .id(folder.getId())
+          .folderName(folder.getFolderName())
+          .description(folder.getDescription())
+          .parentFolderId(folder.getParentFolder() != null ? folder.getParentFolder().getId() : null)
+          .fileCount(fileCounts.getOrDefault(folder.getId(), 0L).intValue())
+          .createdBy(folder.getCreatedBy().getName())
+          .createdAt(folder.getCreatedAt())
+          .updatedAt(folder.getUpdatedAt())
+          .isFavorite(favoriteFolderIds.contains(folder.getId()))
+          .parentFolder(buildParentFolderSummary(folder, folderNames))
+          .build());
+    }
+    return responses;
   }
 
   /**
-   * 親フォルダー情報を再帰的に構築
-   * パンくずリスト用
+   * 親フォルダー情報をパスから構築
+   * パンくずリスト用（ルート側から順に入れ子にする）
    * 
-   * @param folder 親フォルダー
-   * @return 親フォルダーの要約情報
+   * @param folder 対象フォルダー
+   * @param folderNames 祖先フォルダーID → フォルダー名
+   * @return 親フォルダーの要約情報（ルートフォルダーの場合はnull）
    */
-  private ContentFolderResponse.ParentFolderSummary buildParentFolderSummary(ContentFolder folder) {
-    if (folder == null) {
-      return null;
+  private ContentFolderResponse.ParentFolderSummary buildParentFolderSummary(ContentFolder folder,
+      Map<UUID, String> folderNames) {
+    ContentFolderResponse.ParentFolderSummary summary = null;
+    for (UUID ancestorId : folder.ancestorIds()) {
+      summary = ContentFolderResponse.ParentFolderSummary.builder()
+          .id(ancestorId)
+          .folderName(folderNames.get(ancestorId))
+          .parentFolder(summary)
+          .build();
     }
+    return summary;
+  }
 
-    ContentFolderResponse.ParentFolderSummary parentOfParent = null;
-    if (folder.getParentFolder() != null) {
-      parentOfParent = buildParentFolderSummary(folder.getParentFolder());
+  // [フォルダID, 件数] の配列をフォルダID→件数のマップに変換
+  private Map<UUID, Long> toCountMap(List<Object[]> rows) {
+    Map<UUID, Long> counts = new HashMap<>();
+    for (Object[] row : rows) {
+      counts.put((UUID) row[0], (Long) row[1]);
     }
-
-    return ContentFolderResponse.ParentFolderSummary.builder()
-        .id(folder.getId())
-        .folderName(folder.getFolderName())
-        .parentFolder(parentOfParent)
-        .build();
+    return counts;
   }
 
   private ContentFileResponse convertFileToResponse(ContentFile file) {
@@ -421,6 +599,7 @@ public class ContentManagementService {
         .fileUrl(file.getFileUrl())
         .fileType(file.getFileType())
         .fileSize(file.getFileSize())
+        .contentHash(file.getContentHash())
         .tags(file.getTags())
         .version(file.getVersion())
         .accessLevel(file.getAccessLevel())
@@ -1,5 +1,6 @@
 package com.example.prmtool.service;
 
+import com.example.prmtool.config.AuthenticatedUser;
 import com.example.prmtool.dto.ContentShareRequest;
 import com.example.prmtool.dto.ContentShareResponse;
 import com.example.prmtool.entity.*;
@@ -23,6 +24,7 @@ public class ContentShareService {
 
   private final ContentShareRepository shareRepository;
   private final ContentShareAccessHistoryRepository accessHistoryRepository;
+  private final ContentAccessRecorder contentAccessRecorder; // ダウンロード回数・履歴の書き込み
   private final ContentFileRepository fileRepository;
   private final PartnerRepository partnerRepository;
   private final UserRepository userRepository;
@@ -81,9 +83,9 @@ public class ContentShareService {
    * 共有を作成
    */
   @Transactional
-  public ContentShareResponse createShare(ContentShareRequest request, UUID userId) {
-    User user = userRepository.findById(userId)
-        .orElseThrow(() -> new RuntimeException("ユーザーが見つかりません: " + userId));
+  public ContentShareResponse createShare(ContentShareRequest request, AuthenticatedUser currentUser) {
+    // 認証済みユーザーは外部キー参照のみ（SELECTしない）
+    User user = userRepository.getReferenceById(currentUser.getUserId());
 
     ContentFile file = fileRepository.findById(request.getFileId())
         .orElseThrow(() -> new RuntimeException("ファイルが見つかりません: " + request.getFileId()));
@@ -154,7 +156,7 @@ public class ContentShareService {
    * 共有ファイルへのアクセスを記録
    */
   @Transactional
-  public void recordAccess(UUID shareId, UUID userId,
+  public void recordAccess(UUID shareId, AuthenticatedUser currentUser,
       ContentShareAccessHistory.AccessType accessType,
       String ipAddress) {
     ContentShare share = shareRepository.findById(shareId)
@@ -172,27 +174,21 @@ public class ContentShareService {
       throw new RuntimeException("この共有は期限切れです");
     }
 
-    User user = null;
-    if (userId != null) {
-      user = userRepository.findById(userId).orElse(null);
-    }
-
     // ダウンロードの場合はカウントを増やす
     if (accessType == ContentShareAccessHistory.AccessType.DOWNLOAD) {
-      share.incrementDownloadCount();
-      shareRepository.save(share);
+      if (share.getDownloadLimit() != null) {
+        // 上限の判定が必要なため、行を条件付きで直接更新する（同時ダウンロードでも上限を超えない）
+        if (shareRepository.incrementLimitedDownloadCount(shareId, LocalDateTime.now()) == 0) {
+          throw new RuntimeException("この共有は無効です");
+        }
+      } else {
+        contentAccessRecorder.countShareDownload(shareId);
+      }
     }
 
-    // アクセス履歴を記録
-    ContentShareAccessHistory history = ContentShareAccessHistory.builder()
-        .share(share)
-        .user(user)
-        .accessType(accessType)
-        .accessedAt(LocalDateTime.now())
-        .ipAddress(ipAddress)
-        .build();
-
-    accessHistoryRepository.save(history);
+    // アクセス履歴を記録（まとめてDBに反映する）
+    UUID userId = currentUser != null ? currentUser.getUserId() : null;
+    contentAccessRecorder.recordShareAccess(shareId, userId, accessType, ipAddress);
   }
 
   /**
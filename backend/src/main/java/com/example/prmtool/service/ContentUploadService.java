@@ -0,0 +1,460 @@
+package com.example.prmtool.service;
+
+import com.example.prmtool.dto.ContentFileRequest;
+import com.example.prmtool.dto.ContentFileResponse;
+import com.example.prmtool.dto.ContentUploadRequest;
+import com.example.prmtool.dto.ContentUploadResponse;
+import com.example.prmtool.entity.ContentUpload;
+import com.example.prmtool.exception.FileStorageException;
+import com.example.prmtool.repository.ContentFolderRepository;
+import com.example.prmtool.repository.ContentUploadRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * 再開可能なチャンクアップロードサービス
+ * 開始時にアップロードIDとチャンクサイズを返し、クライアントはチャンクをオフセット指定で送信する
+ *
+ * - チャンクはチャンク単位の一時ファイルに受けてSHA-256を照合し、一致した場合のみ組み立て中のファイルの該当位置へ書き込む
+ *   （照合前に書き込むと、再送に失敗したときに受信済みの正しい内容を壊してしまうため）
+ * - 受信済みチャンクはビットマップで記録するため、切断後は未受信のチャンクだけを送り直せばよい
+ * - 完了時はまず行ロックを取って完了処理中にし（以降のチャンクは409で拒否）、ファイル全体のSHA-256を計算して
+ *   ストレージへ確定し、コンテンツファイルとして登録する。失敗した場合は受信中に戻す
+ * - 最後のチャンク受信から一定時間が過ぎた未完了のアップロードは一時ファイルごと削除する
+ */
+@Service
+public class ContentUploadService {
+
+  private static final Logger log = LoggerFactory.getLogger(ContentUploadService.class);
+
+  private static final Pattern SHA256_HEX = Pattern.compile("^[0-9a-fA-F]{64}$");
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+  private static final String PART_SUFFIX = ".part";
+  private static final String CHUNK_SUFFIX = ".chunk";
+
+  private final ContentUploadRepository uploadRepository;
+  private final ContentFolderRepository folderRepository;
+  private final ContentManagementService contentManagementService;
+  private final FileStorageService fileStorageService;
+  private final TransactionTemplate transactionTemplate; // ファイル書き込みの後に短いトランザクションで記録する
+  private final Path tempDir; // 組み立て中のファイルの置き場所
+  private final int chunkSize;
+  private final long maxFileSize;
+  private final long ttlMillis;
+
+  public ContentUploadService(ContentUploadRepository uploadRepository,
+      ContentFolderRepository folderRepository,
+      ContentManagementService contentManagementService,
+      FileStorageService fileStorageService,
+      PlatformTransactionManager transactionManager,
+      @Value("${content.upload.temp-dir:./uploads/.partial}") String tempDir,
+      @Value("${content.upload.chunk-size:5242880}") int chunkSize,
+      @Value("${content.upload.max-file-size:2147483648}") long maxFileSize,
+      @Value("${content.upload.ttl:86400000}") long ttlMillis) {
+    this.uploadRepository = uploadRepository;
+    this.folderRepository = folderRepository;
+    this.contentManagementService = contentManagementService;
+    this.fileStorageService = fileStorageService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.tempDir = Paths.get(tempDir).toAbsolutePath().normalize();
+    this.chunkSize = chunkSize;
+    this.maxFileSize = maxFileSize;
+    this.ttlMillis = ttlMillis;
+
+    try {
+      Files.createDirectories(this.tempDir);
+    } catch (IOException ex) {
+      throw new FileStorageException("アップロード用の一時ディレクトリを作成できませんでした。", ex);
+    }
+  }
+
+  /**
+   * アップロードを開始
+   * 受信先の一時ファイルを作成し、アップロードIDとチャンクサイズを返す
+   */
+  public ContentUploadResponse initiate(ContentUploadRequest request, UUID userId) {
+    if (request.getFileSize() > maxFileSize) {
+      throw new IllegalArgumentException("ファイルサイズが上限（" + maxFileSize + "バイト）を超えています");
+    }
+    String fileName = StringUtils.cleanPath(request.getFileName());
+    fileStorageService.validateFileName(fileName);
+    if (!folderRepository.existsById(request.getFolderId())) {
+      throw new RuntimeException("フォルダが見つかりません: " + request.getFolderId());
+    }
+
+    ContentUpload upload = ContentUpload.builder()
+        .folderId(request.getFolderId())
+        .fileName(fileName)
+        .title(request.getTitle() != null ? request.getTitle() : fileName)
+        .description(request.getDescription())
+        .tags(request.getTags())
+        .fileType(StringUtils.hasText(request.getFileType()) ? request.getFileType() : "application/octet-stream")
+        .fileSize(request.getFileSize())
+        .chunkSize(chunkSize)
+        .sha256(StringUtils.hasText(request.getSha256()) ? request.getSha256().toLowerCase() : null)
+        .createdBy(userId)
+        .expiresAt(nextExpiry())
+        .build();
+    ContentUpload saved = uploadRepository.save(upload);
+
+    try {
+      Files.createFile(partPath(saved.getId()));
+    } catch (IOException ex) {
+      uploadRepository.delete(saved);
+      throw new FileStorageException("アップロード用の一時ファイルを作成できませんでした。", ex);
+    }
+    return toResponse(saved);
+  }
+
+  /**
+   * アップロードの状態を取得（再開時に受信済みチャンクを確認する）
+   */
+  public ContentUploadResponse getStatus(UUID uploadId, UUID userId) {
+    return toResponse(findOwnUpload(uploadId, userId));
+  }
+
+  /**
+   * チャンクを受信
+   * チャンク単位の一時ファイルに受けてSHA-256を照合し、一致した場合のみ組み立て中のファイルの該当オフセットへ書き込んで受信済みにする
+   * 同じチャンクを再送した場合は上書きされる（上書き中は未受信に戻し、書き込み途中で失敗しても受信済みのまま残らない）
+   *
+   * @param offset チャンクの先頭位置（チャンクサイズの倍数）
+   * @param checksum チャンクのSHA-256（16進数）
+   * @param body チャンクの本体
+   */
+  public ContentUploadResponse writeChunk(UUID uploadId, long offset, String checksum, InputStream body,
+      UUID userId) {
+    ContentUpload upload = findOwnUpload(uploadId, userId);
+    if (upload.isCompleting()) {
+      // 本体を受信する前に拒否する（確定的な判定はビットマップ更新時に行ロックを取って行う）
+      throw new IllegalStateException("アップロードは完了処理中です");
+    }
+
+    if (offset < 0 || offset >= upload.getFileSize() || offset % upload.getChunkSize() != 0) {
+      throw new IllegalArgumentException("チャンクのオフセットが不正です: " + offset);
+    }
+    if (checksum == null || !SHA256_HEX.matcher(checksum).matches()) {
+      throw new IllegalArgumentException("チャンクのSHA-256を64桁の16進数で指定してください");
+    }
+
+    int chunkIndex = (int) (offset / upload.getChunkSize());
+    int length = upload.chunkLength(chunkIndex);
+    Path staged = stageChunk(uploadId, chunkIndex, length, checksum, body);
+    try {
+      updateChunkBitmap(uploadId, chunkIndex, false);
+      copyAt(staged, partPath(uploadId), offset, length);
+    } finally {
+      deleteQuietly(staged);
+    }
+    return updateChunkBitmap(uploadId, chunkIndex, true);
+  }
+
+  /**
+   * アップロードを完了
+   * 行ロックを取って全チャンクの受信を確認し、完了処理中にしてからファイル全体のSHA-256を計算する
+   * （完了処理中はチャンクの書き込みを拒否するため、計算中や確定後に組み立てたファイルが書き換わることはない）
+   * 内容ハッシュ名の実体として確定してコンテンツファイルとして登録し、失敗した場合は受信中に戻す
+   */
+  public ContentFileResponse complete(UUID uploadId, UUID userId) {
+    findOwnUpload(uploadId, userId);
+    ContentUpload upload = beginCompletion(uploadId);
+
+    ContentFileResponse response;
+    try {
+      Path part = partPath(uploadId);
+      String sha256 = sha256Of(part);
+      if (upload.getSha256() != null && !upload.getSha256().equals(sha256)) {
+        throw new IllegalArgumentException("ファイル全体のSHA-256が一致しません: " + sha256);
+      }
+
+      // 同じ内容が保存済みであれば一時ファイルを破棄して既存の実体を参照する
+      // 確定するのは組み立てたファイルの複製のため、登録に失敗しても組み立てたファイルは残り、
+      // 再度完了を要求できる。組み立てたファイルは登録のコミット後に削除する
+      StagedFile staged = fileStorageService.stageFile(part, sha256);
+      try {
+        response = registerUploadedFile(uploadId, userId, sha256, staged);
+      } catch (RuntimeException ex) {
+        fileStorageService.discardStagedFile(staged);
+        throw ex;
+      }
+    } catch (RuntimeException ex) {
+      cancelCompletion(uploadId);
+      throw ex;
+    }
+    deletePartQuietly(uploadId);
+    return response;
+  }
+
+  // 行ロックを取って全チャンクの受信を確認し、完了処理中にする
+  private ContentUpload beginCompletion(UUID uploadId) {
+    return transactionTemplate.execute(status -> {
+      ContentUpload locked = uploadRepository.findByIdForUpdate(uploadId)
+          .orElseThrow(() -> new RuntimeException("アップロードが見つかりません: " + uploadId));
+      locked.beginCompletion();
+      // 完了処理中に停止した場合も期限切れの掃除で削除されるよう、期限を延長しておく
+      locked.setExpiresAt(nextExpiry());
+      return locked;
+    });
+  }
+
+  // 完了に失敗したアップロードを受信中に戻す（チャンクの再送と完了の再要求を受け付ける）
+  private void cancelCompletion(UUID uploadId) {
+    try {
+      transactionTemplate.executeWithoutResult(status -> uploadRepository.findByIdForUpdate(uploadId)
+          .ifPresent(ContentUpload::cancelCompletion));
+    } catch (RuntimeException ex) {
+      log.warn("アップロードを受信中に戻せませんでした: {}", uploadId, ex);
+    }
+  }
+
+  // アップロードの行を削除してコンテンツファイルとして登録（1トランザクション）
+  private ContentFileResponse registerUploadedFile(UUID uploadId, UUID userId, String sha256, StagedFile staged) {
+    return transactionTemplate.execute(status -> {
+      // 同時に完了要求が来た場合に二重登録しないよう、行ロックを取ってから削除する
+      ContentUpload locked = uploadRepository.findByIdForUpdate(uploadId)
+          .orElseThrow(() -> new RuntimeException("アップロードが見つかりません: " + uploadId));
+      // ハッシュ計算の間に完了処理中が解除されていないこと（＝組み立てたファイルが書き換わっていないこと）を確認する
+      if (!locked.isCompleting() || !locked.isAllChunksReceived()) {
+        throw new IllegalStateException("アップロードの完了処理が中断されました。再度完了を要求してください");
+      }
+      uploadRepository.delete(locked);
+
+      ContentFileRequest fileRequest = ContentFileRequest.builder()
+          .folderId(locked.getFolderId())
+          .fileName(locked.getFileName())
+          .title(locked.getTitle())
+          .description(locked.getDescription())
+          .fileUrl(fileStorageService.contentFileUrl(sha256, locked.getFileName()))
+          .fileType(locked.getFileType())
+          .fileSize(locked.getFileSize())
+          .contentHash(sha256)
+          .tags(locked.getTags())
+          .build();
+      return contentManagementService.uploadFile(fileRequest, userId, staged);
+    });
+  }
+
+  /**
+   * アップロードを中止（一時ファイルを削除）
+   */
+  public void abort(UUID uploadId, UUID userId) {
+    ContentUpload upload = findOwnUpload(uploadId, userId);
+    uploadRepository.delete(upload);
+    deletePartQuietly(uploadId);
+  }
+
+  /**
+   * 期限切れのアップロードを削除
+   * 対応する行がない一時ファイル（フォルダ削除などで行だけ消えたもの）も期限を過ぎたら削除する
+   */
+  @Scheduled(fixedDelayString = "${content.upload.cleanup-interval:3600000}",
+      initialDelayString = "${content.upload.cleanup-interval:3600000}")
+  public void expireUploads() {
+    List<ContentUpload> expired = uploadRepository.findByExpiresAtBefore(LocalDateTime.now());
+    for (ContentUpload upload : expired) {
+      uploadRepository.delete(upload);
+      deletePartQuietly(upload.getId());
+    }
+    if (!expired.isEmpty()) {
+      log.info("期限切れのアップロードを削除しました: {}件", expired.size());
+    }
+
+    Instant threshold = Instant.now().minusMillis(ttlMillis);
+    // 処理中に停止して残ったチャンクの一時ファイル
+    try (DirectoryStream<Path> chunks = Files.newDirectoryStream(tempDir, "*" + CHUNK_SUFFIX)) {
+      for (Path chunk : chunks) {
+        if (Files.getLastModifiedTime(chunk).toInstant().isBefore(threshold)) {
+          Files.deleteIfExists(chunk);
+        }
+      }
+    } catch (IOException ex) {
+      log.warn("チャンクの一時ファイルの掃除に失敗しました", ex);
+    }
+    try (DirectoryStream<Path> parts = Files.newDirectoryStream(tempDir, "*" + PART_SUFFIX)) {
+      for (Path part : parts) {
+        if (Files.getLastModifiedTime(part).toInstant().isBefore(threshold)) {
+          String name = part.getFileName().toString();
+          UUID uploadId = UUID.fromString(name.substring(0, name.length() - PART_SUFFIX.length()));
+          if (!uploadRepository.existsById(uploadId)) {
+            Files.deleteIfExists(part);
+          }
+        }
+      }
+    } catch (IOException | IllegalArgumentException ex) {
+      log.warn("アップロード用の一時ファイルの掃除に失敗しました", ex);
+    }
+  }
+
+  // 自分が開始したアップロードを取得（他人のアップロードは存在しないものとして扱う）
+  private ContentUpload findOwnUpload(UUID uploadId, UUID userId) {
+    return uploadRepository.findById(uploadId)
+        .filter(upload -> upload.getCreatedBy().equals(userId))
+        .orElseThrow(() -> new RuntimeException("アップロードが見つかりません: " + uploadId));
+  }
+
+  // チャンクを一時ファイルに受けてサイズとSHA-256を照合し、一致した一時ファイルを返す（不一致の場合は削除して例外）
+  private Path stageChunk(UUID uploadId, int chunkIndex, int length, String checksum, InputStream body) {
+    Path staged;
+    try {
+      staged = Files.createTempFile(tempDir, uploadId + "-" + chunkIndex + "-", CHUNK_SUFFIX);
+    } catch (IOException ex) {
+      throw new FileStorageException("チャンクを書き込めませんでした。再送してください", ex);
+    }
+
+    boolean verified = false;
+    try {
+      MessageDigest digest = newSha256();
+      byte[] buffer = new byte[COPY_BUFFER_SIZE];
+      long written = 0;
+      try (OutputStream out = Files.newOutputStream(staged)) {
+        int read;
+        while ((read = body.read(buffer)) != -1) {
+          if (written + read > length) {
+            throw new IllegalArgumentException("チャンクのサイズが不正です（期待値: " + length + "バイト）");
+          }
+          digest.update(buffer, 0, read);
+          out.write(buffer, 0, read);
+          written += read;
+        }
+      } catch (IOException ex) {
+        throw new FileStorageException("チャンクを書き込めませんでした。再送してください", ex);
+      }
+      if (written != length) {
+        throw new IllegalArgumentException("チャンクのサイズが不正です（期待値: " + length + "バイト、受信: " + written + "バイト）");
+      }
+      if (!HexFormat.of().formatHex(digest.digest()).equalsIgnoreCase(checksum)) {
+        throw new IllegalArgumentException("チャンク" + chunkIndex + "のSHA-256が一致しません。再送してください");
+      }
+      verified = true;
+      return staged;
+    } finally {
+      if (!verified) {
+        deleteQuietly(staged);
+      }
+    }
+  }
+
+  // 照合済みのチャンクを組み立て中のファイルの指定位置へ書き込む
+  private void copyAt(Path staged, Path part, long offset, int length) {
+    try (FileChannel source = FileChannel.open(staged, StandardOpenOption.READ);
+        FileChannel target = FileChannel.open(part, StandardOpenOption.WRITE)) {
+      // 後ろのチャンクが先に届いた場合もファイル末尾より先の位置へ書き込めるよう、位置を指定して転送する
+      target.position(offset);
+      long copied = 0;
+      while (copied < length) {
+        copied += source.transferTo(copied, length - copied, target);
+      }
+    } catch (NoSuchFileException ex) {
+      throw new RuntimeException("アップロードが見つかりません（期限切れの可能性があります）", ex);
+    } catch (IOException ex) {
+      throw new FileStorageException("チャンクを書き込めませんでした。再送してください", ex);
+    }
+  }
+
+  // 並行して届いたチャンクの記録が失われないよう、行ロックを取ってビットマップを更新
+  private ContentUploadResponse updateChunkBitmap(UUID uploadId, int chunkIndex, boolean received) {
+    return transactionTemplate.execute(status -> {
+      ContentUpload locked = uploadRepository.findByIdForUpdate(uploadId)
+          .orElseThrow(() -> new RuntimeException("アップロードが見つかりません: " + uploadId));
+      if (received) {
+        locked.markChunkReceived(chunkIndex);
+      } else {
+        locked.clearChunkReceived(chunkIndex);
+      }
+      locked.setExpiresAt(nextExpiry());
+      return toResponse(locked);
+    });
+  }
+
+  private String sha256Of(Path file) {
+    MessageDigest digest = newSha256();
+    try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+      in.transferTo(OutputStream.nullOutputStream());
+    } catch (IOException ex) {
+      throw new FileStorageException("アップロードしたファイルを読み込めませんでした。", ex);
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static MessageDigest newSha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException("SHA-256が利用できません", ex);
+    }
+  }
+
+  // 有効期限（最後の操作からTTL後）
+  private LocalDateTime nextExpiry() {
+    return LocalDateTime.now().plus(Duration.ofMillis(ttlMillis));
+  }
+
+  private Path partPath(UUID uploadId) {
+    return tempDir.resolve(uploadId + PART_SUFFIX);
+  }
+
+  private void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException ex) {
+      log.warn("一時ファイルを削除できませんでした: {}", file, ex);
+    }
+  }
+
+  private void deletePartQuietly(UUID uploadId) {
+    try {
+      Files.deleteIfExists(partPath(uploadId));
+    } catch (IOException ex) {
+      log.warn("アップロード用の一時ファイルを削除できませんでした: {}", uploadId, ex);
+    }
+  }
+
+  private ContentUploadResponse toResponse(ContentUpload upload) {
+    BitSet received = upload.receivedChunkSet();
+    List<Integer> receivedChunks = new ArrayList<>(received.cardinality());
+    long receivedBytes = 0;
+    for (int i = received.nextSetBit(0); i >= 0; i = received.nextSetBit(i + 1)) {
+      receivedChunks.add(i);
+      receivedBytes += upload.chunkLength(i);
+    }
+    return ContentUploadResponse.builder()
+        .uploadId(upload.getId())
+        .fileName(upload.getFileName())
+        .fileSize(upload.getFileSize())
+        .chunkSize(upload.getChunkSize())
+        .totalChunks(upload.totalChunks())
+        .receivedChunks(receivedChunks)
+        .receivedBytes(receivedBytes)
+        .expiresAt(upload.getExpiresAt())
+        .build();
+  }
+}
@@ -0,0 +1,255 @@
+package com.example.prmtool.service;
+
+import com.example.prmtool.config.AuthenticatedUser;
+import com.example.prmtool.entity.Invoice;
+import com.example.prmtool.entity.Project;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * CSVエクスポートサービス
+ * 読み取り専用トランザクション内でフェッチサイズを指定した前方向カーソルから1行ずつ読み、
+ * そのままCSVとして出力ストリームへ書き出す（件数に関わらずメモリ使用量は一定）
+ *
+ * パートナー・案件の列はインポートのヘッダーと同じ名前・形式にしているため、出力したファイルをそのまま取り込める
+ */
+@Service
+public class CsvExportService {
+
+  private static final DateTimeFormatter FILE_NAME_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+  private static final String[] PARTNER_HEADERS = {
+      "パートナー名", "業種", "代表電話", "郵便番号", "住所", "メールアドレス", "担当者名", "担当者連絡先" };
+
+  private static final String[] PROJECT_HEADERS = {
+      "案件名", "ステータス", "パートナー名", "オーナーログインID" };
+
+  private static final String[] INVOICE_HEADERS = {
+      "請求書番号", "パートナー名", "発行日", "支払期日", "税区分", "税率", "小計", "手数料小計",
+      "課税対象額", "消費税額", "合計金額", "ステータス", "備考" };
+
+  private static final String[] COMMISSION_RULE_HEADERS = {
+      "ルール名", "案件名", "パートナー名", "手数料種別", "料率(%)", "固定金額", "ステータス", "備考" };
+
+  // 担当者は1パートナー複数行になるため、パートナー単位で連続するよう並べる
+  private static final String PARTNER_SQL = "SELECT p.id, p.name, p.industry, p.phone, p.postal_code,"
+      + " p.address, p.email, c.contact_name, c.phone, c.email"
+      + " FROM partners p LEFT JOIN partner_contacts c ON c.partner_id = p.id"
+      + " ORDER BY p.created_at, p.id, c.created_at, c.id";
+
+  private static final String PROJECT_SQL = "SELECT pr.name, pr.status, pa.name, u.login_id"
+      + " FROM projects pr"
+      + " JOIN partners pa ON pa.id = pr.partner_id"
+      + " JOIN users u ON u.id = pr.owner_id";
+
+  // 管理者以外は閲覧可能な案件（新規、自分がオーナー、自分が担当）のみ
+  private static final String PROJECT_VISIBILITY_CONDITION = " WHERE pr.status = 'NEW' OR pr.owner_id = ?"
+      + " OR EXISTS (SELECT 1 FROM project_assignments a WHERE a.project_id = pr.id AND a.user_id = ?)";
+
+  private static final String PROJECT_ORDER = " ORDER BY pr.created_at, pr.id";
+
+  private static final String INVOICE_SQL = "SELECT i.invoice_number, pa.name, i.issue_date, i.due_date,"
+      + " i.tax_category, i.tax_rate, i.subtotal, i.commission_subtotal, i.taxable_amount, i.tax_amount,"
+      + " i.total_amount, i.status, i.notes"
+      + " FROM invoices i JOIN partners pa ON pa.id = i.partner_id"
+      + " WHERE 1 = 1";
+  private static final String INVOICE_ORDER = " ORDER BY i.created_at, i.id";
+
+  private static final String COMMISSION_RULE_SQL = "SELECT r.rule_name, pr.name, pa.name, r.commission_type,"
+      + " r.rate_percent, r.fixed_amount, r.status, r.notes"
+      + " FROM commission_rules r"
+      + " JOIN projects pr ON pr.id = r.project_id"
+      + " JOIN partners pa ON pa.id = pr.partner_id"
+      + " ORDER BY r.created_at, r.id";
+
+  private final JdbcTemplate exportJdbcTemplate; // フェッチサイズを指定したエクスポート専用
+  private final TransactionTemplate readOnlyTransaction; // カーソルを使うための読み取り専用トランザクション
+
+  public CsvExportService(DataSource dataSource,
+      PlatformTransactionManager transactionManager,
+      @Value("${csv.export.fetch-size:500}") int fetchSize) {
+    this.exportJdbcTemplate = new JdbcTemplate(dataSource);
+    this.exportJdbcTemplate.setFetchSize(fetchSize);
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+  }
+
+  /**
+   * ダウンロード用のファイル名（例: partners_20260101_120000.csv）
+   */
+  public String fileName(String prefix) {
+    return prefix + "_" + LocalDateTime.now().format(FILE_NAME_TIMESTAMP) + ".csv";
+  }
+
+  /**
+   * パートナーを出力（担当者はインポートと同じく1セルにカンマ区切りで並べる）
+   */
+  public void writePartners(OutputStream out, boolean bom) throws IOException {
+    write(out, bom, PARTNER_HEADERS, printer -> new CsvRowHandler() {
+      private UUID currentId;
+      private String[] current;
+      private final List<String> contactNames = new ArrayList<>();
+      private final List<String> contactInfos = new ArrayList<>();
+
+      @Override
+      public void processRow(ResultSet rs) throws SQLException {
+        UUID id = rs.getObject(1, UUID.class);
+        if (!id.equals(currentId)) {
+          finish();
+          currentId = id;
+          current = new String[] { rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+              rs.getString(6), rs.getString(7) };
+        }
+        String contactName = rs.getString(8);
+        if (contactName != null) {
+          // インポートは「@」を含む値をメールアドレス、それ以外を電話番号として取り込む
+          String email = rs.getString(10);
+          contactNames.add(contactName);
+          contactInfos.add(email != null && !email.isEmpty() ? email : rs.getString(9));
+        }
+      }
+
+      // 直前のパートナーを1行として出力
+      @Override
+      public void finish() {
+        if (current == null) {
+          return;
+        }
+        print(printer, current[0], current[1], current[2], current[3], current[4], current[5],
+            String.join(",", contactNames), String.join(",", contactInfos));
+        contactNames.clear();
+        contactInfos.clear();
+        current = null;
+      }
+    }, PARTNER_SQL);
+  }
+
+  /**
+   * 案件を出力（管理者以外は閲覧可能な案件のみ）
+   */
+  public void writeProjects(OutputStream out, boolean bom, AuthenticatedUser user) throws IOException {
+    String sql;
+    Object[] args;
+    if (user.isAdmin()) {
+      sql = PROJECT_SQL + PROJECT_ORDER;
+      args = new Object[0];
+    } else {
+      sql = PROJECT_SQL + PROJECT_VISIBILITY_CONDITION + PROJECT_ORDER;
+      args = new Object[] { user.getUserId(), user.getUserId() };
+    }
+    write(out, bom, PROJECT_HEADERS, printer -> rs -> print(printer,
+        rs.getString(1),
+        statusLabel(rs.getString(2)),
+        rs.getString(3),
+        rs.getString(4)), sql, args);
+  }
+
+  /**
+   * 請求書を出力（パートナー・ステータスで絞り込み可能）
+   */
+  public void writeInvoices(OutputStream out, boolean bom, UUID partnerId, Invoice.InvoiceStatus status)
+      throws IOException {
+    // 「? IS NULL OR ...」形式の条件はインデックスを使えないため、指定された条件だけを追加する
+    StringBuilder sql = new StringBuilder(INVOICE_SQL);
+    List<Object> args = new ArrayList<>();
+    if (partnerId != null) {
+      sql.append(" AND i.partner_id = ?");
+      args.add(partnerId);
+    }
+    if (status != null) {
+      sql.append(" AND i.status = ?");
+      args.add(status.name());
+    }
+    sql.append(INVOICE_ORDER);
+    write(out, bom, INVOICE_HEADERS, printer -> rs -> print(printer,
+        rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+        rs.getString(6), rs.getString(7), rs.getString(8), rs.getString(9), rs.getString(10),
+        rs.getString(11), rs.getString(12), rs.getString(13)),
+        sql.toString(), args.toArray());
+  }
+
+  /**
+   * 手数料ルールを出力
+   */
+  public void writeCommissionRules(OutputStream out, boolean bom) throws IOException {
+    write(out, bom, COMMISSION_RULE_HEADERS, printer -> rs -> print(printer,
+        rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4),
+        rs.getString(5), rs.getString(6), rs.getString(7), rs.getString(8)),
+        COMMISSION_RULE_SQL);
+  }
+
+  /**
+   * 共通の出力処理
+   */
+  private void write(OutputStream out, boolean bom, String[] headers, HandlerFactory handlerFactory,
+      String sql, Object... args) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    if (bom) {
+      // Excelで文字化けしないようUTF-8 BOMを付与
+      writer.write('\uFEFF');
+    }
+    CSVPrinter printer = CSVFormat.DEFAULT.builder().setHeader(headers).build().print(writer);
+    try {
+      readOnlyTransaction.executeWithoutResult(status -> {
+        CsvRowHandler handler = handlerFactory.create(printer);
+        exportJdbcTemplate.query(sql, handler, args);
+        handler.finish();
+      });
+    } catch (UncheckedIOException e) {
+      // クライアントの切断など書き込みエラーはそのまま通知
+      throw e.getCause();
+    }
+    printer.flush();
+  }
+
+  private static void print(CSVPrinter printer, Object... values) {
+    try {
+      printer.printRecord(values);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // 案件ステータスをインポートで使える日本語表記に変換
+  private static String statusLabel(String status) {
+    return switch (Project.ProjectStatus.valueOf(status)) {
+      case NEW -> "新規";
+      case IN_PROGRESS -> "進行中";
+      case DONE -> "完了";
+    };
+  }
+
+  // 1行ずつCSVへ出力するハンドラー（複数行をまとめて1行にする場合は最後にfinish()で残りを出力する）
+  @FunctionalInterface
+  private interface CsvRowHandler extends RowCallbackHandler {
+    default void finish() {
+    }
+  }
+
+  @FunctionalInterface
+  private interface HandlerFactory {
+    CsvRowHandler create(CSVPrinter printer);
+  }
+}
@@ -0,0 +1,14 @@
+package com.example.prmtool.service;
+
+/**
+ * CSVインポートの進捗通知先
+ * チャンクのコミットごとに呼ばれ、falseを返すと以降のチャンクを処理せずに中断する
+ */
+@FunctionalInterface
+public interface CsvImportProgress {
+
+  // 進捗を通知しない（常に継続）
+  CsvImportProgress NONE = result -> true;
+
+  boolean onChunkCompleted(CsvImportResult result);
+}
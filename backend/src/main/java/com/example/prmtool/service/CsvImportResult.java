@@ -0,0 +1,100 @@
+package com.example.prmtool.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CSVインポート結果の集計
+ * 大きなファイルでもメモリを使い切らないよう、メッセージは上限件数まで保持し超過分は件数のみ数える
+ */
+public class CsvImportResult {
+
+  // 保持するメッセージの上限
+  static final int MAX_MESSAGES = 1000;
+
+  private int processedRows; // 処理済みのデータ行数
+  private int successCount; // 登録に成功した行数
+  private int errorCount; // エラーになった行数
+  private final List<String> messages = new ArrayList<>(); // エラー・警告メッセージ
+  private int omittedMessages; // 上限超過で保持しなかったメッセージ数
+  private boolean cancelled; // 途中で中断したか
+
+  // 行エラーを記録
+  public void addError(String message) {
+    errorCount++;
+    addMessage(message);
+  }
+
+  // 登録は行うが利用者に知らせる警告を記録
+  public void addWarning(String message) {
+    addMessage(message);
+  }
+
+  // 複数行にまたがる失敗を記録（件数は失敗した行数分）
+  public void addErrors(int rows, String message) {
+    errorCount += rows;
+    addMessage(message);
+  }
+
+  public void addSuccess(int rows) {
+    successCount += rows;
+  }
+
+  public void addProcessedRows(int rows) {
+    processedRows += rows;
+  }
+
+  public void markCancelled() {
+    cancelled = true;
+  }
+
+  public int getProcessedRows() {
+    return processedRows;
+  }
+
+  public int getSuccessCount() {
+    return successCount;
+  }
+
+  public int getErrorCount() {
+    return errorCount;
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * メッセージ一覧（上限を超えた場合は省略件数の注記を末尾に付ける）
+   */
+  public List<String> getMessages() {
+    if (omittedMessages == 0) {
+      return Collections.unmodifiableList(messages);
+    }
+    List<String> result = new ArrayList<>(messages);
+    result.add("他" + omittedMessages + "件のメッセージは省略しました");
+    return result;
+  }
+
+  /**
+   * 同期APIの戻り値形式（successCount / errorCount / errors）に変換
+   */
+  public Map<String, Object> toMap() {
+    Map<String, Object> result = new HashMap<>();
+    result.put("successCount", successCount);
+    result.put("errorCount", errorCount);
+    result.put("errors", getMessages());
+    return result;
+  }
+
+  private void addMessage(String message) {
+    if (messages.size() < MAX_MESSAGES) {
+      messages.add(message);
+    } else {
+      omittedMessages++;
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package com.example.prmtool.service;
+
+import com.example.prmtool.config.BoundedTtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * お気に入りフォルダーIDのキャッシュ
+ * ユーザーIDごとにお気に入り登録されたフォルダーIDの集合を保持し、
+ * FavoriteFoldersChangedEventでコミット後に無効化する
+ *
+ * - 各エントリはTTLで失効する（フォルダー削除による連鎖削除など、イベントを経由しない変更への保険）
+ * - 上限件数を超えた場合は最も長く参照されていないエントリを追い出す（BoundedTtlCache）
+ * - 読み込み中に無効化が発生した場合、その結果はキャッシュしない
+ */
+@Component
+public class FavoriteFolderCache {
+
+  private final BoundedTtlCache<UUID, Set<UUID>> entries;
+
+  // 無効化のたびに進める世代番号（読み込み中の無効化を検知する）
+  private final AtomicLong generation = new AtomicLong();
+
+  public FavoriteFolderCache(
+      @Value("${content.favorite-cache.max-size:1000}") int maxSize,
+      @Value("${content.favorite-cache.ttl:300000}") long ttlMillis) {
+    this.entries = new BoundedTtlCache<>(maxSize, ttlMillis);
+  }
+
+  /**
+   * キャッシュから取得し、未登録または失効済みの場合はloaderで読み込んで登録する
+   */
+  public Set<UUID> getOrLoad(UUID userId, Supplier<Set<UUID>> loader) {
+    Set<UUID> cached = entries.get(userId);
+    if (cached != null) {
+      return cached;
+    }
+
+    long loadGeneration = generation.get();
+    Set<UUID> folderIds = Set.copyOf(loader.get());
+    if (generation.get() == loadGeneration) {
+      entries.put(userId, folderIds);
+    }
+    return folderIds;
+  }
+
+  /**
+   * 変更イベントを受けて該当ユーザーのエントリを無効化
+   * トランザクション中に発行された場合はコミット後に処理される
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onFavoriteFoldersChanged(FavoriteFoldersChangedEvent event) {
+    generation.incrementAndGet();
+    entries.remove(event.userId());
+  }
+}
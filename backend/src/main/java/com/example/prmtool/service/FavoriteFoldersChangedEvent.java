@@ -0,0 +1,10 @@
+package com.example.prmtool.service;
+
+import java.util.UUID;
+
+/**
+ * ユーザーのお気に入りフォルダーの変更イベント
+ * 追加・削除時に発行し、FavoriteFolderCacheがコミット後に該当ユーザーを無効化する
+ */
+public record FavoriteFoldersChangedEvent(UUID userId) {
+}
@@ -1,5 +1,6 @@
 package com.example.prmtool.service;
 
+import com.example.prmtool.dto.StorageStatusResponse;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -12,12 +13,67 @@ import java.nio.file.Path;
 public interface FileStorageService {
 
   /**
-   * ファイルを保存
-   * 
+   * アップロードされたファイルを一時領域に書き込み、書き込みながらSHA-256を計算
+   * 続けてpromoteStagedFileで確定するか、discardStagedFileで破棄する
+   *
    * @param file アップロードされたファイル
-   * @return 保存されたファイルのURL
+   * @return ハッシュ計算済みの一時ファイル
+   */
+  StagedFile stageFile(MultipartFile file);
+
+  /**
+   * ハッシュ計算済みのファイル（チャンクアップロードで組み立て済みのもの）から一時ファイルを作成
+   * 元のファイルは移動もリンクもせずに複製するため、確定した実体が元のファイルへの書き込みの影響を受けず、
+   * 登録に失敗しても元のファイルから再度やり直せる
+   * （元のファイルは呼び出し元が登録のコミット後に削除する）
+   *
+   * @param source 組み立て済みのファイル
+   * @param sha256 ファイル内容のSHA-256
+   * @return 一時ファイル
+   */
+  StagedFile stageFile(Path source, String sha256);
+
+  /**
+   * 一時ファイルを内容ハッシュ名の実体として確定
+   * 同じ内容の実体が既にあれば一時ファイルを削除するだけで済ませる
+   * 実体の参照数と整合させるため、ContentBlobの行ロックを取った状態で呼ぶ
+   *
+   * @param staged 一時ファイル
+   * @return 新しく実体を保存した場合はtrue、既存の実体を再利用した場合はfalse
+   */
+  boolean promoteStagedFile(StagedFile staged);
+
+  /**
+   * 一時ファイルを破棄（確定済みの場合は何もしない）
+   *
+   * @param staged 一時ファイル
+   */
+  void discardStagedFile(StagedFile staged);
+
+  /**
+   * 内容ハッシュで保存したファイルのURLを取得
+   * ファイル名は「ハッシュ + 元の拡張子」となり、同じ内容であれば拡張子が違っても同じ実体を参照する
+   *
+   * @param sha256 ファイル内容のSHA-256
+   * @param originalFileName 元のファイル名（拡張子の判定に使用）
+   * @return ファイルURL
+   */
+  String contentFileUrl(String sha256, String originalFileName);
+
+  /**
+   * 内容ハッシュで保存した実体を削除
+   *
+   * @param sha256 ファイル内容のSHA-256
+   */
+  void deleteContent(String sha256);
+
+  /**
+   * ファイル名（不正な文字・拡張子）を検証
+   * 問題がある場合はFileStorageExceptionを送出する
+   *
+   * @param originalFileName 元のファイル名
    */
-  String storeFile(MultipartFile file);
+  void validateFileName(String originalFileName);
 
   /**
    * ファイルを読み込み
@@ -27,6 +83,15 @@ public interface FileStorageService {
    */
   Resource loadFileAsResource(String fileName);
 
+  /**
+   * 保存済みファイルの内容ハッシュ（SHA-256、16進数）を計算
+   * ダウンロード応答のETagに使用する
+   *
+   * @param fileName ファイル名
+   * @return SHA-256の16進数文字列
+   */
+  String computeContentHash(String fileName);
+
   /**
    * ファイルを削除
    * 
@@ -35,10 +100,26 @@ public interface FileStorageService {
   void deleteFile(String fileName);
 
   /**
-   * ファイルパスを取得
-   * 
+   * 保存済みファイルの実体の位置を取得
+   * セグメントにまとめて格納したファイルはセグメントファイル内の範囲を返す
+   *
    * @param fileName ファイル名
-   * @return ファイルパス
+   * @return 実体の位置
+   */
+  StoredFileRegion resolveFile(String fileName);
+
+  /**
+   * ストレージの状態（セグメントの使用状況・移行ジョブの進捗）を取得
+   *
+   * @return ストレージの状態
+   */
+  StorageStatusResponse getStorageStatus();
+
+  /**
+   * 保存済みファイルを現在の保存レイアウトへ移行するジョブを開始
+   * 稼働中に実行でき、移行中のファイルも読み込める
+   *
+   * @return 開始時点のストレージの状態
    */
-  Path getFilePath(String fileName);
-}
\ No newline at end of file
+  StorageStatusResponse startLayoutMigration();
+}
@@ -0,0 +1,291 @@
+package com.example.prmtool.service;
+
+import com.example.prmtool.config.AuthenticatedUser;
+import com.example.prmtool.dto.ImportJobResponse;
+import com.example.prmtool.entity.ImportJob;
+import com.example.prmtool.repository.ImportJobRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CSVインポートジョブサービス
+ * アップロードされたCSVを一時ファイルに退避してジョブを登録し、上限付きのワーカープールで実行する
+ * リクエストスレッドはジョブIDを返すだけなので、クライアントが切断してもインポートは継続する
+ *
+ * - 進捗（処理行数・成功/失敗件数・メッセージ）はチャンクのコミットごとにジョブテーブルへ記録する
+ * - キャンセルはジョブテーブルのフラグで要求し、ワーカーがチャンクの区切りで確認して中断する
+ * - ジョブには実行インスタンスのIDを記録し、実行中は定期的に生存確認日時を更新する
+ * - 起動時は自インスタンスの未終了ジョブを、前回のプロセス停止で中断されたものとして失敗扱いにする
+ * - 生存確認が lease-timeout 以上途絶えたジョブは、どのインスタンスからでも失敗扱いにする
+ *   （他インスタンスで実行中のジョブは失敗扱いにしない）
+ */
+@Service
+public class ImportJobService {
+
+  private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+
+  private static final List<ImportJob.JobStatus> ACTIVE_STATUSES = List.of(
+      ImportJob.JobStatus.QUEUED, ImportJob.JobStatus.RUNNING);
+
+  private final ImportJobRepository importJobRepository;
+  private final PartnerCsvService partnerCsvService;
+  private final ProjectCsvService projectCsvService;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate jobTransaction; // ジョブ状態の更新用
+  private final ThreadPoolExecutor workers; // インポート実行用のワーカープール
+  private final String instanceId; // このインスタンスのID（ジョブの実行インスタンスとして記録）
+  private final long leaseTimeoutMillis; // 生存確認が途絶えたとみなすまでの時間
+
+  public ImportJobService(ImportJobRepository importJobRepository,
+      PartnerCsvService partnerCsvService,
+      ProjectCsvService projectCsvService,
+      ObjectMapper objectMapper,
+      PlatformTransactionManager transactionManager,
+      @Value("${csv.import.worker-threads:2}") int workerThreads,
+      @Value("${csv.import.queue-capacity:20}") int queueCapacity,
+      @Value("${csv.import.instance-id:}") String instanceId,
+      @Value("${csv.import.lease-timeout:300000}") long leaseTimeoutMillis) {
+    this.importJobRepository = importJobRepository;
+    this.partnerCsvService = partnerCsvService;
+    this.projectCsvService = projectCsvService;
+    this.objectMapper = objectMapper;
+    this.jobTransaction = new TransactionTemplate(transactionManager);
+    this.instanceId = instanceId.isBlank() ? defaultInstanceId() : instanceId;
+    this.leaseTimeoutMillis = leaseTimeoutMillis;
+
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        runnable -> {
+          Thread thread = new Thread(runnable, "import-job-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  /**
+   * インポートジョブを登録してワーカーに投入
+   * 実行待ちが上限に達している場合はジョブを失敗扱いにしてIllegalStateExceptionを投げる
+   */
+  public ImportJobResponse submit(ImportJob.JobType jobType, MultipartFile file, AuthenticatedUser user)
+      throws IOException {
+    // リクエスト終了後も読めるよう一時ファイルに退避
+    Path tempFile = Files.createTempFile("import-job-", ".csv");
+    try {
+      file.transferTo(tempFile);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(tempFile);
+      throw e;
+    }
+
+    ImportJob job = importJobRepository.save(ImportJob.builder()
+        .jobType(jobType)
+        .status(ImportJob.JobStatus.QUEUED)
+        .fileName(file.getOriginalFilename())
+        .createdBy(user.getUserId())
+        .ownerInstance(instanceId)
+        .heartbeatAt(LocalDateTime.now())
+        .build());
+
+    try {
+      workers.execute(() -> run(job.getId(), jobType, tempFile, user.getUserId()));
+    } catch (RejectedExecutionException e) {
+      deleteQuietly(tempFile);
+      String reason = "実行待ちのインポートが上限に達しています。しばらくしてから再実行してください";
+      finish(job.getId(), ImportJob.JobStatus.FAILED, reason);
+      throw new IllegalStateException(reason);
+    }
+
+    return toResponse(job);
+  }
+
+  /**
+   * ジョブの進捗を取得
+   */
+  public ImportJobResponse getJob(UUID id) {
+    ImportJob job = importJobRepository.findById(id)
+        .orElseThrow(() -> new RuntimeException("インポートジョブが見つかりません: " + id));
+    return toResponse(job);
+  }
+
+  /**
+   * ジョブのキャンセルを要求
+   * 実行待ちのジョブは即座にキャンセル済みになり、実行中のジョブは次のチャンクの区切りで中断される
+   * （コミット済みのチャンクは取り消さない）
+   */
+  public ImportJobResponse cancel(UUID id) {
+    jobTransaction.executeWithoutResult(status -> importJobRepository.requestCancel(id, ACTIVE_STATUSES,
+        LocalDateTime.now()));
+    return getJob(id);
+  }
+
+  /**
+   * 起動時に自インスタンスの未終了ジョブを失敗扱いにする
+   * ワーカーはプロセス内にしか存在しないため、前回停止時に実行中・実行待ちだったジョブは再開できない
+   * 他インスタンスのジョブは実行中の可能性があるため対象にしない（生存確認の期限切れで判定する）
+   * インスタンスIDを指定していない場合は起動ごとに変わるため、前回のジョブは生存確認の期限切れで失敗扱いになる
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void failInterruptedJobs() {
+    Integer count = jobTransaction.execute(status -> importJobRepository.failActiveJobsOwnedBy(instanceId,
+        ACTIVE_STATUSES, "サーバーの再起動により中断されました", LocalDateTime.now()));
+    if (count != null && count > 0) {
+      log.warn("中断されたインポートジョブを失敗扱いにしました: {}件 (instance={})", count, instanceId);
+    }
+  }
+
+  /**
+   * 自インスタンスの未終了ジョブの生存確認を記録し、生存確認が途絶えたジョブを失敗扱いにする
+   */
+  @Scheduled(fixedDelayString = "${csv.import.heartbeat-interval:30000}")
+  public void heartbeat() {
+    LocalDateTime now = LocalDateTime.now();
+    jobTransaction.executeWithoutResult(status -> importJobRepository.touchHeartbeats(instanceId,
+        ACTIVE_STATUSES, now));
+    Integer expired = jobTransaction.execute(status -> importJobRepository.failExpiredJobs(ACTIVE_STATUSES,
+        now.minus(Duration.ofMillis(leaseTimeoutMillis)), "実行中のサーバーが応答しなくなったため中断されました", now));
+    if (expired != null && expired > 0) {
+      log.warn("生存確認が途絶えたインポートジョブを失敗扱いにしました: {}件", expired);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    workers.shutdownNow();
+  }
+
+  // ワーカーでインポートを実行
+  private void run(UUID jobId, ImportJob.JobType jobType, Path file, UUID userId) {
+    try {
+      Integer started = jobTransaction.execute(status -> importJobRepository.markRunning(jobId, LocalDateTime.now()));
+      if (started == null || started == 0) {
+        // 実行前にキャンセルされた
+        return;
+      }
+
+      CsvImportProgress progress = result -> {
+        saveProgress(jobId, result);
+        return !Boolean.TRUE.equals(importJobRepository.findCancelRequestedById(jobId));
+      };
+
+      CsvImportResult result;
+      try (InputStream in = Files.newInputStream(file)) {
+        result = switch (jobType) {
+          case PARTNER_CSV -> partnerCsvService.importPartnersFromCsv(in, progress);
+          case PROJECT_CSV -> projectCsvService.importProjectsFromCsv(in, userId, progress);
+        };
+      }
+
+      saveProgress(jobId, result);
+      finish(jobId, result.isCancelled() ? ImportJob.JobStatus.CANCELLED : ImportJob.JobStatus.COMPLETED, null);
+
+    } catch (Exception e) {
+      log.error("インポートジョブが失敗しました: {}", jobId, e);
+      finish(jobId, ImportJob.JobStatus.FAILED, "インポート中にエラーが発生しました: " + e.getMessage());
+    } finally {
+      deleteQuietly(file);
+    }
+  }
+
+  private void saveProgress(UUID jobId, CsvImportResult result) {
+    String errorsJson = writeMessages(result.getMessages());
+    jobTransaction.executeWithoutResult(status -> importJobRepository.updateProgress(jobId,
+        result.getProcessedRows(), result.getSuccessCount(), result.getErrorCount(), errorsJson,
+        LocalDateTime.now()));
+  }
+
+  private void finish(UUID jobId, ImportJob.JobStatus jobStatus, String failureReason) {
+    jobTransaction.executeWithoutResult(status -> importJobRepository.finish(jobId, jobStatus, failureReason,
+        LocalDateTime.now()));
+  }
+
+  private ImportJobResponse toResponse(ImportJob job) {
+    return ImportJobResponse.builder()
+        .id(job.getId())
+        .jobType(job.getJobType())
+        .status(job.getStatus())
+        .finished(job.getStatus().isFinished())
+        .fileName(job.getFileName())
+        .processedRows(job.getProcessedRows())
+        .successCount(job.getSuccessCount())
+        .errorCount(job.getErrorCount())
+        .errors(readMessages(job.getErrorsJson()))
+        .failureReason(job.getFailureReason())
+        .cancelRequested(job.getCancelRequested())
+        .createdAt(job.getCreatedAt())
+        .startedAt(job.getStartedAt())
+        .finishedAt(job.getFinishedAt())
+        .build();
+  }
+
+  private String writeMessages(List<String> messages) {
+    if (messages.isEmpty()) {
+      return null;
+    }
+    try {
+      return objectMapper.writeValueAsString(messages);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("メッセージの変換に失敗しました", e);
+    }
+  }
+
+  private List<String> readMessages(String json) {
+    if (json == null || json.isEmpty()) {
+      return List.of();
+    }
+    try {
+      return objectMapper.readValue(json, new TypeReference<List<String>>() {
+      });
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("メッセージの読み込みに失敗しました", e);
+    }
+  }
+
+  // ホスト名にプロセスごとのランダムな値を付けてインスタンスIDとする
+  // 同一ホストで複数起動しても、起動時の失敗扱いで互いの実行中ジョブを巻き込まないようにする
+  private static String defaultInstanceId() {
+    String host;
+    try {
+      host = InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      host = "instance";
+    }
+    return host + "-" + UUID.randomUUID();
+  }
+
+  private void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.warn("一時ファイルを削除できませんでした: {}", file, e);
+    }
+  }
+}
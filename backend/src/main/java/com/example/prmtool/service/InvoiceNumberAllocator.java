@@ -0,0 +1,236 @@
+package com.example.prmtool.service;
+
+import com.example.prmtool.dto.InvoiceNumberGapReport;
+import com.example.prmtool.entity.InvoiceNumberCounter;
+import com.example.prmtool.repository.InvoiceNumberCounterRepository;
+import com.example.prmtool.repository.InvoiceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 請求書番号の採番サービス
+ * 年ごとのカウンター行（invoice_number_counters）をブロック単位で進め、
+ * 予約したブロック内の番号はメモリ上で払い出す（hi/lo方式）
+ *
+ * - カウンター行のロックはブロック予約時の短いトランザクション内でのみ取得する
+ * - 払い出しは業務トランザクションの開始前に行う（業務トランザクションの接続を保持したまま
+ *   予約用の接続を取得すると、同時作成数の2倍の接続が必要になりデッドロックの原因にもなるため）
+ * - 払い出しはブロックごとのCASで行い、予約のDBアクセス中も他スレッドの払い出しを止めない
+ * - 複数インスタンスでも番号は重複しない（インスタンス間で番号の順序は作成順と一致しない）
+ * - 保存しなかった番号は返却して再利用する。再起動で使われなかった番号は欠番になるため、欠番監査で確認できる
+ */
+@Service
+public class InvoiceNumberAllocator {
+
+  private static final Logger log = LoggerFactory.getLogger(InvoiceNumberAllocator.class);
+
+  private final InvoiceNumberCounterRepository counterRepository;
+  private final InvoiceRepository invoiceRepository;
+  private final TransactionTemplate reserveTransaction;
+  private final int blockSize;
+
+  // 年ごとの予約済みブロック（返却された番号は先頭に戻して優先的に再利用する）
+  private final Map<Integer, Deque<Block>> pools = new ConcurrentHashMap<>();
+
+  public InvoiceNumberAllocator(InvoiceNumberCounterRepository counterRepository,
+      InvoiceRepository invoiceRepository,
+      PlatformTransactionManager transactionManager,
+      @Value("${invoice.number.block-size:20}") int blockSize) {
+    this.counterRepository = counterRepository;
+    this.invoiceRepository = invoiceRepository;
+    this.reserveTransaction = new TransactionTemplate(transactionManager);
+    this.blockSize = Math.max(1, blockSize);
+  }
+
+  /**
+   * 請求書番号を1件払い出す
+   */
+  public String nextInvoiceNumber() {
+    return nextInvoiceNumbers(1).get(0);
+  }
+
+  /**
+   * 請求書番号をまとめて払い出す
+   * 手元のブロックで足りない場合は不足分以上のブロックを予約する
+   * 業務トランザクションの外で呼び出すこと（トランザクション内で呼び出した場合は例外）
+   */
+  public List<String> nextInvoiceNumbers(int count) {
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      throw new IllegalStateException("請求書番号はトランザクションの開始前に払い出してください");
+    }
+    int year = LocalDate.now().getYear();
+    // 年が変わったら前年のブロックは破棄
+    pools.keySet().removeIf(y -> y < year);
+    Deque<Block> pool = pools.computeIfAbsent(year, y -> new ConcurrentLinkedDeque<>());
+
+    List<String> numbers = new ArrayList<>(count);
+    Block block;
+    while (numbers.size() < count && (block = pool.peekFirst()) != null) {
+      if (!block.takeInto(year, count - numbers.size(), numbers)) {
+        pool.remove(block);
+      }
+    }
+    if (numbers.size() < count) {
+      // 予約中はどのロックも保持しない（同時に不足したスレッドはそれぞれ予約し、余りはすべて使う）
+      Block reserved = reserveBlock(year, Math.max(blockSize, count - numbers.size()));
+      if (reserved.takeInto(year, count - numbers.size(), numbers)) {
+        pool.addLast(reserved);
+      }
+    }
+    return numbers;
+  }
+
+  /**
+   * 保存しなかった請求書番号を返却（業務トランザクションのロールバック時など）
+   * 当年の番号のみ次回以降の払い出しで再利用する
+   */
+  public void releaseInvoiceNumbers(List<String> invoiceNumbers) {
+    int year = LocalDate.now().getYear();
+    Deque<Block> pool = pools.get(year);
+    if (pool == null) {
+      return;
+    }
+    String prefix = numberPrefix(year);
+    for (String invoiceNumber : invoiceNumbers) {
+      if (invoiceNumber == null || !invoiceNumber.startsWith(prefix)) {
+        continue;
+      }
+      Long sequence = parseSequence(invoiceNumber, prefix);
+      if (sequence != null) {
+        pool.addFirst(new Block(sequence, sequence + 1));
+      }
+    }
+  }
+
+  /**
+   * 指定年の欠番を監査
+   * 発行済みの請求書番号から連番の抜けを範囲で返す（抜けの検出はDB側で行う）
+   */
+  @Transactional(readOnly = true)
+  public InvoiceNumberGapReport auditGaps(int year) {
+    String prefix = numberPrefix(year);
+    Object[] stats = invoiceRepository.summarizeInvoiceSequences(prefix).get(0);
+    long issuedCount = ((Number) stats[0]).longValue();
+    Long first = stats[1] != null ? ((Number) stats[1]).longValue() : null;
+    Long last = stats[2] != null ? ((Number) stats[2]).longValue() : null;
+
+    Long reservedUpTo = counterRepository.findById(year)
+        .map(counter -> counter.getNextValue() - 1)
+        .orElse(null);
+
+    List<InvoiceNumberGapReport.Gap> gaps = new ArrayList<>();
+    long missingCount = 0;
+    for (Object[] row : invoiceRepository.findInvoiceSequenceGaps(prefix)) {
+      long from = ((Number) row[0]).longValue();
+      long to = ((Number) row[1]).longValue();
+      gaps.add(new InvoiceNumberGapReport.Gap(
+          formatInvoiceNumber(year, from),
+          formatInvoiceNumber(year, to),
+          to - from + 1));
+      missingCount += to - from + 1;
+    }
+
+    long lastSequence = last != null ? last : 0;
+    return InvoiceNumberGapReport.builder()
+        .year(year)
+        .issuedCount((int) issuedCount)
+        .firstNumber(first != null ? formatInvoiceNumber(year, first) : null)
+        .lastNumber(last != null ? formatInvoiceNumber(year, last) : null)
+        .reservedUpTo(reservedUpTo != null && reservedUpTo > 0 ? formatInvoiceNumber(year, reservedUpTo) : null)
+        .unusedReservedCount(reservedUpTo != null ? Math.max(0, reservedUpTo - lastSequence) : 0)
+        .missingCount(missingCount)
+        .gaps(gaps)
+        .build();
+  }
+
+  // カウンター行を進めてブロックを予約（初回行の同時作成で競合した場合は1回だけ再試行）
+  private Block reserveBlock(int year, int size) {
+    try {
+      return reserveTransaction.execute(status -> doReserveBlock(year, size));
+    } catch (DataIntegrityViolationException e) {
+      log.info("請求書番号カウンターの作成が競合したため再試行します: year={}", year);
+      return reserveTransaction.execute(status -> doReserveBlock(year, size));
+    }
+  }
+
+  private Block doReserveBlock(int year, int size) {
+    InvoiceNumberCounter counter = counterRepository.findByYearForUpdate(year)
+        .orElseGet(() -> InvoiceNumberCounter.builder()
+            .invoiceYear(year)
+            .nextValue(maxIssuedSequence(year) + 1)
+            .build());
+
+    long start = counter.getNextValue();
+    counter.setNextValue(start + size);
+    counterRepository.saveAndFlush(counter);
+
+    log.debug("請求書番号ブロックを予約しました: year={}, range={}-{}", year, start, start + size - 1);
+    return new Block(start, start + size);
+  }
+
+  // カウンター行が未作成の年について、既存の請求書番号から最大の連番を求める
+  private long maxIssuedSequence(int year) {
+    Object[] stats = invoiceRepository.summarizeInvoiceSequences(numberPrefix(year)).get(0);
+    return stats[2] != null ? ((Number) stats[2]).longValue() : 0L;
+  }
+
+  private static String numberPrefix(int year) {
+    return "INV-" + year + "-";
+  }
+
+  private static String formatInvoiceNumber(int year, long sequence) {
+    return String.format("INV-%d-%04d", year, sequence);
+  }
+
+  private static Long parseSequence(String invoiceNumber, String prefix) {
+    try {
+      return Long.parseLong(invoiceNumber.substring(prefix.length()));
+    } catch (NumberFormatException | IndexOutOfBoundsException e) {
+      return null;
+    }
+  }
+
+  // 予約済みの連番範囲 [next, end)（複数スレッドからCASで払い出す）
+  private static final class Block {
+    private final AtomicLong next;
+    private final long end;
+
+    private Block(long start, long end) {
+      this.next = new AtomicLong(start);
+      this.end = end;
+    }
+
+    // 最大count件を払い出してnumbersに追加（ブロックを使い切った場合はfalse）
+    private boolean takeInto(int year, int count, List<String> numbers) {
+      while (true) {
+        long start = next.get();
+        if (start >= end) {
+          return false;
+        }
+        long stop = Math.min(end, start + count);
+        if (next.compareAndSet(start, stop)) {
+          for (long sequence = start; sequence < stop; sequence++) {
+            numbers.add(formatInvoiceNumber(year, sequence));
+          }
+          return stop < end;
+        }
+      }
+    }
+  }
+}
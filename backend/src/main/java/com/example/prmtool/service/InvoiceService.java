@@ -1,19 +1,40 @@
 package com.example.prmtool.service;
 
+import com.example.prmtool.dto.CursorPageResponse;
+import com.example.prmtool.dto.InvoiceBatchResponse;
+import com.example.prmtool.dto.InvoiceBulkStatusRequest;
+import com.example.prmtool.dto.InvoiceBulkStatusResponse;
 import com.example.prmtool.dto.InvoiceRequest;
 import com.example.prmtool.dto.InvoiceResponse;
+import com.example.prmtool.dto.InvoiceSummaryResponse;
 import com.example.prmtool.entity.*;
 import com.example.prmtool.repository.*;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -31,10 +52,18 @@ public class InvoiceService {
   private final CommissionRuleRepository commissionRuleRepository;
   private final CommissionCalculationService commissionCalculationService;
   private final InvoiceTemplateRepository templateRepository;
+  private final InvoiceNumberAllocator invoiceNumberAllocator;
+  private final Validator validator;
+  private final ApplicationEventPublisher eventPublisher;
+  private final PlatformTransactionManager transactionManager; // 採番後に開始する書き込みトランザクション用
 
   // 現在の消費税率
   private static final BigDecimal DEFAULT_TAX_RATE = new BigDecimal("0.10");
 
+  // 一覧取得の既定件数・最大件数
+  private static final int DEFAULT_PAGE_LIMIT = 50;
+  private static final int MAX_PAGE_LIMIT = 200;
+
   /**
    * 全請求書を取得
    */
@@ -50,11 +79,52 @@ public class InvoiceService {
    */
   @Transactional(readOnly = true)
   public InvoiceResponse getInvoiceById(UUID id) {
-    Invoice invoice = invoiceRepository.findById(id)
+    Invoice invoice = invoiceRepository.findByIdWithDetails(id)
         .orElseThrow(() -> new RuntimeException("請求書が見つかりません: " + id));
     return convertToResponse(invoice);
   }
 
+  /**
+   * 請求書一覧をカーソル方式で取得
+   * 作成日時・IDの昇順で、前ページ末尾（cursor）より後の請求書をlimit件返す
+   * 明細は含まない（詳細はgetInvoiceByIdで取得する）
+   */
+  @Transactional(readOnly = true)
+  public CursorPageResponse<InvoiceSummaryResponse> getInvoicePage(
+      UUID partnerId, Invoice.InvoiceStatus status,
+      LocalDate issueDateFrom, LocalDate issueDateTo,
+      LocalDate dueDateFrom, LocalDate dueDateTo,
+      String cursor, Integer limit) {
+    int pageSize = limit == null ? DEFAULT_PAGE_LIMIT : Math.min(Math.max(limit, 1), MAX_PAGE_LIMIT);
+
+    LocalDateTime cursorCreatedAt = null;
+    UUID cursorId = null;
+    if (cursor != null && !cursor.isBlank()) {
+      PageCursor decoded = decodeCursor(cursor);
+      cursorCreatedAt = decoded.createdAt();
+      cursorId = decoded.id();
+    }
+
+    // 1件多く取得して次ページの有無を判定
+    List<InvoiceSummaryResponse> rows = invoiceRepository.findSummaries(
+        partnerId, status, issueDateFrom, issueDateTo, dueDateFrom, dueDateTo,
+        cursorCreatedAt, cursorId, pageSize + 1);
+
+    boolean hasNext = rows.size() > pageSize;
+    List<InvoiceSummaryResponse> items = hasNext ? rows.subList(0, pageSize) : rows;
+    String nextCursor = null;
+    if (hasNext) {
+      InvoiceSummaryResponse last = items.get(items.size() - 1);
+      nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+    }
+
+    return CursorPageResponse.<InvoiceSummaryResponse>builder()
+        .items(new ArrayList<>(items))
+        .nextCursor(nextCursor)
+        .hasNext(hasNext)
+        .build();
+  }
+
   /**
    * パートナーIDで請求書を取得
    */
@@ -70,14 +140,26 @@ public class InvoiceService {
    * 手数料ルールの内容をコピーして確定結果を保存
    * 
    * 更新: テンプレート設定処理追加
+   * 請求書番号は書き込みトランザクションの開始前に採番し、保存できなかった場合は返却する
    */
-  @Transactional
   public InvoiceResponse createInvoice(InvoiceRequest request) {
     // バリデーション処理
     if (request.getItems() == null || request.getItems().isEmpty()) {
       throw new IllegalArgumentException("請求書には最低1件の明細が必要です");
     }
 
+    // 請求書番号を採番
+    String invoiceNumber = invoiceNumberAllocator.nextInvoiceNumber();
+    try {
+      return new TransactionTemplate(transactionManager)
+          .execute(status -> doCreateInvoice(request, invoiceNumber));
+    } catch (RuntimeException e) {
+      invoiceNumberAllocator.releaseInvoiceNumbers(List.of(invoiceNumber));
+      throw e;
+    }
+  }
+
+  private InvoiceResponse doCreateInvoice(InvoiceRequest request, String invoiceNumber) {
     // パートナーを取得
     Partner partner = partnerRepository.findById(request.getPartnerId())
         .orElseThrow(() -> new RuntimeException("パートナーが見つかりません: " + request.getPartnerId()));
@@ -89,89 +171,120 @@ public class InvoiceService {
           .orElseThrow(() -> new RuntimeException("テンプレートが見つかりません: " + request.getTemplateId()));
     }
 
-    // パートナー整合性チェック
-    validatePartnerConsistency(request.getPartnerId(), request.getItems());
+    // 手数料ルールを一括取得（案件・パートナーもフェッチ結合）
+    Map<UUID, CommissionRule> rules = loadCommissionRules(List.of(request));
 
-    // 請求書番号を生成
-    String invoiceNumber = generateInvoiceNumber();
+    // 請求書を組み立て（パートナー整合性チェック・金額計算を含む）
+    Invoice invoice = buildInvoice(request, partner, template, rules);
 
-    // 請求書エンティティを作成
-    Invoice invoice = Invoice.builder()
-        .invoiceNumber(invoiceNumber)
-        .partner(partner)
-        .template(template)
-        .issueDate(request.getIssueDate())
-        .dueDate(request.getDueDate())
-        .taxCategory(request.getTaxCategory())
-        .taxRate(DEFAULT_TAX_RATE)
-        .status(request.getStatus())
-        .notes(request.getNotes())
-        .build();
+    invoice.setInvoiceNumber(invoiceNumber);
 
-    // 明細を追加し、金額を計算
-    BigDecimal subtotal = BigDecimal.ZERO;
-    BigDecimal commissionSubtotal = BigDecimal.ZERO;
+    // 保存
+    Invoice saved = invoiceRepository.save(invoice);
+    eventPublisher.publishEvent(PartnerDataChangedEvent.of(partner.getId()));
+    return convertToResponse(saved);
+  }
 
-    for (InvoiceRequest.InvoiceItemRequest itemRequest : request.getItems()) {
-      // 手数料ルールを取得（任意）
-      CommissionRule rule = null;
-      if (itemRequest.getCommissionRuleId() != null) {
-        rule = commissionRuleRepository.findById(itemRequest.getCommissionRuleId())
-            .orElseThrow(() -> new RuntimeException(
-                "手数料ルールが見つかりません: " + itemRequest.getCommissionRuleId()));
-
-        // 手数料ルールが「確定」状態かチェック
-        if (!rule.isUsableForInvoice()) {
-          throw new IllegalStateException(
-              "手数料ルール「" + rule.getRuleName() + "」は確定状態ではありません。ステータス: " + rule.getStatus());
+  /**
+   * 請求書を一括作成
+   * パートナー・テンプレート・手数料ルールは種類ごとに1回のクエリでまとめて取得し、
+   * 金額はメモリ上で計算してからまとめて保存する（JDBCバッチ挿入）
+   * 入力不備のある請求書はスキップし、1件ごとの成否を返す
+   * 請求書番号は入力チェックを通過した請求書の分だけ書き込みトランザクションの開始前にまとめて採番し、
+   * 保存しなかった分は返却する
+   */
+  public InvoiceBatchResponse createInvoices(List<InvoiceRequest> requests) {
+    int candidateCount = (int) requests.stream().filter(this::passesValidation).count();
+    List<String> invoiceNumbers = invoiceNumberAllocator.nextInvoiceNumbers(candidateCount);
+    try {
+      InvoiceBatchResponse response = new TransactionTemplate(transactionManager)
+          .execute(status -> doCreateInvoices(requests, invoiceNumbers));
+      // 参照先が見つからずに保存しなかった請求書の分を返却
+      invoiceNumberAllocator.releaseInvoiceNumbers(
+          invoiceNumbers.subList(response.getSuccessCount(), invoiceNumbers.size()));
+      return response;
+    } catch (RuntimeException e) {
+      invoiceNumberAllocator.releaseInvoiceNumbers(invoiceNumbers);
+      throw e;
+    }
+  }
+
+  private InvoiceBatchResponse doCreateInvoices(List<InvoiceRequest> requests, List<String> invoiceNumbers) {
+    // 参照先を種類ごとに一括取得
+    Set<UUID> partnerIds = requests.stream()
+        .filter(Objects::nonNull) // 空の要素は個別の入力チェックでエラーにする
+        .map(InvoiceRequest::getPartnerId)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toSet());
+    Map<UUID, Partner> partners = partnerRepository.findAllById(partnerIds).stream()
+        .collect(Collectors.toMap(Partner::getId, Function.identity()));
+
+    Set<UUID> templateIds = requests.stream()
+        .filter(Objects::nonNull) // 空の要素は個別の入力チェックでエラーにする
+        .map(InvoiceRequest::getTemplateId)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toSet());
+    Map<UUID, InvoiceTemplate> templates = templateRepository.findAllById(templateIds).stream()
+        .collect(Collectors.toMap(InvoiceTemplate::getId, Function.identity()));
+
+    Map<UUID, CommissionRule> rules = loadCommissionRules(requests);
+
+    List<InvoiceBatchResponse.Result> results = new ArrayList<>();
+    List<Invoice> invoices = new ArrayList<>();
+    List<Integer> invoiceIndexes = new ArrayList<>();
+
+    for (int index = 0; index < requests.size(); index++) {
+      InvoiceRequest request = requests.get(index);
+      try {
+        validateRequest(request);
+
+        Partner partner = partners.get(request.getPartnerId());
+        if (partner == null) {
+          throw new RuntimeException("パートナーが見つかりません: " + request.getPartnerId());
         }
-      }
 
-      // 商品金額を計算
-      BigDecimal productAmount = itemRequest.getUnitPrice()
-          .multiply(BigDecimal.valueOf(itemRequest.getQuantity()))
-          .setScale(2, RoundingMode.HALF_UP);
-
-      // 手数料を計算
-      BigDecimal commissionAmount = BigDecimal.ZERO;
-      if (rule != null) {
-        commissionAmount = commissionCalculationService.calculateCommission(
-            rule,
-            productAmount,
-            itemRequest.getQuantity());
-      }
+        InvoiceTemplate template = null;
+        if (request.getTemplateId() != null) {
+          template = templates.get(request.getTemplateId());
+          if (template == null) {
+            throw new RuntimeException("テンプレートが見つかりません: " + request.getTemplateId());
+          }
+        }
 
-      // 明細合計
-      BigDecimal itemTotal = productAmount.add(commissionAmount);
-
-      // 明細を作成（手数料ルールの内容をコピー）
-      InvoiceItem item = InvoiceItem.builder()
-          .appliedCommissionRule(rule)
-          .description(itemRequest.getDescription())
-          .quantity(itemRequest.getQuantity())
-          .unitPrice(itemRequest.getUnitPrice())
-          .productAmount(productAmount)
-          // 手数料ルールをコピーして保持
-          .appliedCommissionType(rule != null ? rule.getCommissionType() : null)
-          .appliedRatePercent(rule != null ? rule.getRatePercent() : null)
-          .appliedFixedAmount(rule != null ? rule.getFixedAmount() : null)
-          .commissionAmount(commissionAmount)
-          .itemTotal(itemTotal)
-          .build();
+        Invoice invoice = buildInvoice(request, partner, template, rules);
 
-      invoice.addItem(item);
+        invoices.add(invoice);
+        invoiceIndexes.add(index);
+        results.add(null); // 保存後に結果を設定
+      } catch (RuntimeException e) {
+        results.add(InvoiceBatchResponse.Result.failure(index, e.getMessage()));
+      }
+    }
 
-      // 小計に加算
-      subtotal = subtotal.add(productAmount);
-      commissionSubtotal = commissionSubtotal.add(commissionAmount);
+    // 採番済みの番号を保存する請求書に順に割り当てる
+    for (int i = 0; i < invoices.size(); i++) {
+      invoices.get(i).setInvoiceNumber(invoiceNumbers.get(i));
     }
 
-    // 消費税と合計を計算
-    calculateTaxAndTotal(invoice, subtotal, commissionSubtotal);
+    // まとめて保存（hibernate.jdbc.batch_sizeによりバッチ挿入される）
+    List<Invoice> saved = invoiceRepository.saveAll(invoices);
+    for (int i = 0; i < saved.size(); i++) {
+      Invoice invoice = saved.get(i);
+      int index = invoiceIndexes.get(i);
+      results.set(index, InvoiceBatchResponse.Result.success(
+          index, invoice.getId(), invoice.getInvoiceNumber(), invoice.getTotalAmount()));
+    }
+    if (!saved.isEmpty()) {
+      eventPublisher.publishEvent(PartnerDataChangedEvent.of(saved.stream()
+          .map(invoice -> invoice.getPartner().getId())
+          .collect(Collectors.toSet())));
+    }
 
-    // 保存
-    Invoice saved = invoiceRepository.save(invoice);
-    return convertToResponse(saved);
+    return InvoiceBatchResponse.builder()
+        .successCount(saved.size())
+        .errorCount(requests.size() - saved.size())
+        .results(results)
+        .build();
   }
 
   /**
@@ -182,7 +295,7 @@ public class InvoiceService {
    */
   @Transactional
   public InvoiceResponse updateInvoice(UUID id, InvoiceRequest request) {
-    Invoice invoice = invoiceRepository.findById(id)
+    Invoice invoice = invoiceRepository.findByIdWithDetails(id)
         .orElseThrow(() -> new RuntimeException("請求書が見つかりません: " + id));
 
     // 編集可能かチェック（下書きのみ編集可能）
@@ -202,8 +315,12 @@ public class InvoiceService {
           .orElseThrow(() -> new RuntimeException("テンプレートが見つかりません: " + request.getTemplateId()));
     }
 
-    // パートナー整合性チェック
-    validatePartnerConsistency(request.getPartnerId(), request.getItems());
+    // 手数料ルールを一括取得し、パートナー整合性チェック
+    Map<UUID, CommissionRule> rules = loadCommissionRules(List.of(request));
+    validatePartnerConsistency(request.getPartnerId(), request.getItems(), rules);
+
+    // 変更前後のパートナーのダッシュボードを無効化
+    eventPublisher.publishEvent(PartnerDataChangedEvent.of(invoice.getPartner().getId(), partner.getId()));
 
     // 基本情報を更新
     invoice.setPartner(partner);
@@ -214,64 +331,242 @@ public class InvoiceService {
     invoice.setStatus(request.getStatus());
     invoice.setNotes(request.getNotes());
 
-    // 既存の明細をクリア
-    invoice.getItems().clear();
+    // 明細の差分を反映し、小計を既存値から増減で再計算
+    BigDecimal[] totals = applyItemChanges(invoice, request.getItems(), rules);
 
-    // 明細を再追加し、金額を再計算
+    // 消費税と合計を再計算
+    calculateTaxAndTotal(invoice, totals[0], totals[1]);
+
+    Invoice updated = invoiceRepository.save(invoice);
+    return convertToResponse(updated);
+  }
+
+  /**
+   * 請求書エンティティを組み立てる
+   * パートナー整合性チェック、明細の作成、金額計算を行う（採番・保存はしない）
+   */
+  private Invoice buildInvoice(
+      InvoiceRequest request,
+      Partner partner,
+      InvoiceTemplate template,
+      Map<UUID, CommissionRule> rules) {
+
+    // パートナー整合性チェック
+    validatePartnerConsistency(request.getPartnerId(), request.getItems(), rules);
+
+    // 請求書エンティティを作成（請求書番号は呼び出し側で採番）
+    Invoice invoice = Invoice.builder()
+        .partner(partner)
+        .template(template)
+        .issueDate(request.getIssueDate())
+        .dueDate(request.getDueDate())
+        .taxCategory(request.getTaxCategory())
+        .taxRate(DEFAULT_TAX_RATE)
+        .status(request.getStatus())
+        .notes(request.getNotes())
+        .build();
+
+    // 明細を追加し、金額を計算
     BigDecimal subtotal = BigDecimal.ZERO;
     BigDecimal commissionSubtotal = BigDecimal.ZERO;
 
     for (InvoiceRequest.InvoiceItemRequest itemRequest : request.getItems()) {
-      CommissionRule rule = null;
-      if (itemRequest.getCommissionRuleId() != null) {
-        rule = commissionRuleRepository.findById(itemRequest.getCommissionRuleId())
-            .orElseThrow(() -> new RuntimeException(
-                "手数料ルールが見つかりません: " + itemRequest.getCommissionRuleId()));
-
-        if (!rule.isUsableForInvoice()) {
-          throw new IllegalStateException(
-              "手数料ルール「" + rule.getRuleName() + "」は確定状態ではありません");
-        }
-      }
+      InvoiceItem item = buildItem(itemRequest, resolveRule(itemRequest, rules));
+      invoice.addItem(item);
 
-      BigDecimal productAmount = itemRequest.getUnitPrice()
-          .multiply(BigDecimal.valueOf(itemRequest.getQuantity()))
-          .setScale(2, RoundingMode.HALF_UP);
+      // 小計に加算
+      subtotal = subtotal.add(item.getProductAmount());
+      commissionSubtotal = commissionSubtotal.add(item.getCommissionAmount());
+    }
 
-      BigDecimal commissionAmount = BigDecimal.ZERO;
-      if (rule != null) {
-        commissionAmount = commissionCalculationService.calculateCommission(
-            rule,
-            productAmount,
-            itemRequest.getQuantity());
+    // 消費税と合計を計算
+    calculateTaxAndTotal(invoice, subtotal, commissionSubtotal);
+    return invoice;
+  }
+
+  /**
+   * 明細エンティティを作成
+   */
+  private InvoiceItem buildItem(InvoiceRequest.InvoiceItemRequest itemRequest, CommissionRule rule) {
+    InvoiceItem item = new InvoiceItem();
+    applyItemValues(item, itemRequest, rule);
+    return item;
+  }
+
+  /**
+   * 明細にリクエスト内容を反映
+   * 商品金額と手数料を計算し、手数料ルールの内容をコピーして保持
+   */
+  private void applyItemValues(InvoiceItem item, InvoiceRequest.InvoiceItemRequest itemRequest, CommissionRule rule) {
+    // 商品金額を計算
+    BigDecimal productAmount = itemRequest.getUnitPrice()
+        .multiply(BigDecimal.valueOf(itemRequest.getQuantity()))
+        .setScale(2, RoundingMode.HALF_UP);
+
+    // 手数料を計算
+    BigDecimal commissionAmount = BigDecimal.ZERO;
+    if (rule != null) {
+      commissionAmount = commissionCalculationService.calculateCommission(
+          rule,
+          productAmount,
+          itemRequest.getQuantity());
+    }
+
+    // 明細合計
+    BigDecimal itemTotal = productAmount.add(commissionAmount);
+
+    item.setAppliedCommissionRule(rule);
+    item.setDescription(itemRequest.getDescription());
+    item.setQuantity(itemRequest.getQuantity());
+    item.setUnitPrice(itemRequest.getUnitPrice());
+    item.setProductAmount(productAmount);
+    // 手数料ルールをコピーして保持
+    item.setAppliedCommissionType(rule != null ? rule.getCommissionType() : null);
+    item.setAppliedRatePercent(rule != null ? rule.getRatePercent() : null);
+    item.setAppliedFixedAmount(rule != null ? rule.getFixedAmount() : null);
+    item.setCommissionAmount(commissionAmount);
+    item.setItemTotal(itemTotal);
+  }
+
+  /**
+   * 明細の差分を請求書に反映
+   * - IDが一致する既存明細は、内容が変わった場合のみ更新
+   * - IDなしの明細は新規追加
+   * - リクエストに含まれない既存明細は削除
+   * 商品小計・手数料小計は既存の値から変更分だけ増減させる
+   *
+   * @return [商品小計, 手数料小計]
+   */
+  private BigDecimal[] applyItemChanges(
+      Invoice invoice,
+      List<InvoiceRequest.InvoiceItemRequest> itemRequests,
+      Map<UUID, CommissionRule> rules) {
+    BigDecimal subtotal = invoice.getSubtotal();
+    BigDecimal commissionSubtotal = invoice.getCommissionSubtotal();
+
+    Map<UUID, InvoiceItem> remaining = new LinkedHashMap<>();
+    for (InvoiceItem item : invoice.getItems()) {
+      remaining.put(item.getId(), item);
+    }
+
+    List<InvoiceItem> added = new ArrayList<>();
+    for (InvoiceRequest.InvoiceItemRequest itemRequest : itemRequests) {
+      if (itemRequest.getId() == null) {
+        // 新規明細
+        InvoiceItem item = buildItem(itemRequest, resolveRule(itemRequest, rules));
+        added.add(item);
+        subtotal = subtotal.add(item.getProductAmount());
+        commissionSubtotal = commissionSubtotal.add(item.getCommissionAmount());
+        continue;
       }
 
-      BigDecimal itemTotal = productAmount.add(commissionAmount);
-
-      InvoiceItem item = InvoiceItem.builder()
-          .appliedCommissionRule(rule)
-          .description(itemRequest.getDescription())
-          .quantity(itemRequest.getQuantity())
-          .unitPrice(itemRequest.getUnitPrice())
-          .productAmount(productAmount)
-          .appliedCommissionType(rule != null ? rule.getCommissionType() : null)
-          .appliedRatePercent(rule != null ? rule.getRatePercent() : null)
-          .appliedFixedAmount(rule != null ? rule.getFixedAmount() : null)
-          .commissionAmount(commissionAmount)
-          .itemTotal(itemTotal)
-          .build();
+      InvoiceItem item = remaining.remove(itemRequest.getId());
+      if (item == null) {
+        throw new RuntimeException("明細が見つからないか重複しています: " + itemRequest.getId());
+      }
+      if (isUnchanged(item, itemRequest)) {
+        continue;
+      }
 
-      invoice.addItem(item);
+      // 変更された明細は差額のみ小計に反映
+      subtotal = subtotal.subtract(item.getProductAmount());
+      commissionSubtotal = commissionSubtotal.subtract(item.getCommissionAmount());
+      applyItemValues(item, itemRequest, resolveRule(itemRequest, rules));
+      subtotal = subtotal.add(item.getProductAmount());
+      commissionSubtotal = commissionSubtotal.add(item.getCommissionAmount());
+    }
 
-      subtotal = subtotal.add(productAmount);
-      commissionSubtotal = commissionSubtotal.add(commissionAmount);
+    // リクエストに含まれない明細を削除
+    for (InvoiceItem item : remaining.values()) {
+      subtotal = subtotal.subtract(item.getProductAmount());
+      commissionSubtotal = commissionSubtotal.subtract(item.getCommissionAmount());
+      invoice.removeItem(item);
     }
+    added.forEach(invoice::addItem);
 
-    // 消費税と合計を再計算
-    calculateTaxAndTotal(invoice, subtotal, commissionSubtotal);
+    return new BigDecimal[] { subtotal, commissionSubtotal };
+  }
 
-    Invoice updated = invoiceRepository.save(invoice);
-    return convertToResponse(updated);
+  /**
+   * 既存明細とリクエストの内容が同一か判定
+   * 同一の場合は確定済みの金額・手数料ルールのコピーをそのまま保持する
+   */
+  private boolean isUnchanged(InvoiceItem item, InvoiceRequest.InvoiceItemRequest itemRequest) {
+    UUID currentRuleId = item.getAppliedCommissionRule() != null
+        ? item.getAppliedCommissionRule().getId()
+        : null;
+    return Objects.equals(currentRuleId, itemRequest.getCommissionRuleId())
+        && Objects.equals(item.getDescription(), itemRequest.getDescription())
+        && Objects.equals(item.getQuantity(), itemRequest.getQuantity())
+        && item.getUnitPrice().compareTo(itemRequest.getUnitPrice()) == 0;
+  }
+
+  /**
+   * 明細に指定された手数料ルールを取得（任意）
+   * 手数料ルールが「確定」状態でない場合はエラー
+   */
+  private CommissionRule resolveRule(
+      InvoiceRequest.InvoiceItemRequest itemRequest,
+      Map<UUID, CommissionRule> rules) {
+    if (itemRequest.getCommissionRuleId() == null) {
+      return null;
+    }
+    CommissionRule rule = rules.get(itemRequest.getCommissionRuleId());
+    if (rule == null) {
+      throw new RuntimeException("手数料ルールが見つかりません: " + itemRequest.getCommissionRuleId());
+    }
+
+    // 手数料ルールが「確定」状態かチェック
+    if (!rule.isUsableForInvoice()) {
+      throw new IllegalStateException(
+          "手数料ルール「" + rule.getRuleName() + "」は確定状態ではありません。ステータス: " + rule.getStatus());
+    }
+    return rule;
+  }
+
+  /**
+   * リクエストに含まれる手数料ルールを一括取得
+   * 案件・パートナーをフェッチ結合し、ルールIDをキーにしたマップで返す
+   */
+  private Map<UUID, CommissionRule> loadCommissionRules(List<InvoiceRequest> requests) {
+    Set<UUID> ruleIds = requests.stream()
+        .filter(request -> request != null && request.getItems() != null)
+        .flatMap(request -> request.getItems().stream())
+        .filter(Objects::nonNull)
+        .map(InvoiceRequest.InvoiceItemRequest::getCommissionRuleId)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toSet());
+    if (ruleIds.isEmpty()) {
+      return Map.of();
+    }
+    return commissionRuleRepository.findAllWithProjectAndPartnerByIdIn(ruleIds).stream()
+        .collect(Collectors.toMap(CommissionRule::getId, Function.identity()));
+  }
+
+  /**
+   * 一括作成用の入力チェック
+   * Bean Validationの違反内容をまとめて1件のエラーとして扱う
+   */
+  private boolean passesValidation(InvoiceRequest request) {
+    try {
+      validateRequest(request);
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  private void validateRequest(InvoiceRequest request) {
+    if (request == null) {
+      throw new IllegalArgumentException("請求書の内容が空です");
+    }
+    Set<ConstraintViolation<InvoiceRequest>> violations = validator.validate(request);
+    if (!violations.isEmpty()) {
+      throw new IllegalArgumentException(violations.stream()
+          .map(ConstraintViolation::getMessage)
+          .sorted()
+          .collect(Collectors.joining(", ")));
+    }
   }
 
   /**
@@ -289,6 +584,7 @@ public class InvoiceService {
     }
 
     invoiceRepository.deleteById(id);
+    eventPublisher.publishEvent(PartnerDataChangedEvent.of(invoice.getPartner().getId()));
   }
 
   /**
@@ -301,6 +597,7 @@ public class InvoiceService {
 
     invoice.setStatus(newStatus);
     Invoice updated = invoiceRepository.save(invoice);
+    eventPublisher.publishEvent(PartnerDataChangedEvent.of(invoice.getPartner().getId()));
     return convertToResponse(updated);
   }
 
@@ -356,24 +653,25 @@ public class InvoiceService {
     invoice.setTotalAmount(totalAmount);
   }
 
-  /**
-   * 請求書番号を生成
-   */
-  private String generateInvoiceNumber() {
-    String year = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy"));
-    String latestNumber = invoiceRepository.findLatestInvoiceNumber().orElse(null);
+  // カーソルを生成（作成日時とIDをBase64URLでエンコード）
+  private String encodeCursor(LocalDateTime createdAt, UUID id) {
+    String raw = createdAt + "|" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
 
-    int nextNumber = 1;
-    if (latestNumber != null && latestNumber.startsWith("INV-" + year)) {
-      String numberPart = latestNumber.substring(latestNumber.lastIndexOf('-') + 1);
-      try {
-        nextNumber = Integer.parseInt(numberPart) + 1;
-      } catch (NumberFormatException e) {
-        nextNumber = 1;
-      }
+  // カーソルを復元
+  private PageCursor decodeCursor(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] parts = raw.split("\\|", 2);
+      return new PageCursor(LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]));
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("カーソルが不正です: " + cursor, e);
     }
+  }
 
-    return String.format("INV-%s-%04d", year, nextNumber);
+  // 一覧カーソルの内容（前ページ末尾の作成日時とID）
+  private record PageCursor(LocalDateTime createdAt, UUID id) {
   }
 
   /**
@@ -425,6 +723,72 @@ public class InvoiceService {
         .build();
   }
 
+  /**
+   * 請求書のステータスを一括変更
+   * 遷移元ステータスの請求書のみを条件付きUPDATE 1文で遷移先へ変更する
+   * 明細はロードせず、請求書ごとの成否をリクエストの並び順で返す
+   */
+  @Transactional
+  public InvoiceBulkStatusResponse bulkTransition(InvoiceBulkStatusRequest.Action action, List<UUID> invoiceIds) {
+    Invoice.InvoiceStatus from = action.getFrom();
+    Invoice.InvoiceStatus to = action.getTo();
+    Set<UUID> ids = new LinkedHashSet<>(invoiceIds);
+
+    // 現在のステータスを取得し、遷移可能な請求書を判定
+    Map<UUID, Invoice.InvoiceStatus> currentStatuses = new HashMap<>();
+    Map<UUID, UUID> partnerIds = new HashMap<>();
+    for (Object[] row : invoiceRepository.findStatusesByIdIn(ids)) {
+      currentStatuses.put((UUID) row[0], (Invoice.InvoiceStatus) row[1]);
+      partnerIds.put((UUID) row[0], (UUID) row[2]);
+    }
+    List<UUID> eligibleIds = ids.stream()
+        .filter(id -> currentStatuses.get(id) == from)
+        .collect(Collectors.toList());
+
+    // 条件付きで一括更新
+    Map<UUID, Invoice.InvoiceStatus> finalStatuses = new HashMap<>(currentStatuses);
+    if (!eligibleIds.isEmpty()) {
+      int updated = invoiceRepository.updateStatusByIdInAndStatus(eligibleIds, from, to, LocalDateTime.now());
+      if (updated > 0) {
+        eventPublisher.publishEvent(PartnerDataChangedEvent.of(eligibleIds.stream()
+            .map(partnerIds::get)
+            .collect(Collectors.toSet())));
+      }
+      if (updated == eligibleIds.size()) {
+        eligibleIds.forEach(id -> finalStatuses.put(id, to));
+      } else {
+        // 判定後に他の操作でステータスが変わった請求書がある場合は、更新後の状態を取り直す
+        for (Object[] row : invoiceRepository.findStatusesByIdIn(eligibleIds)) {
+          finalStatuses.put((UUID) row[0], (Invoice.InvoiceStatus) row[1]);
+        }
+      }
+    }
+
+    // 1件ごとの結果を作成
+    Set<UUID> eligible = new HashSet<>(eligibleIds);
+    List<InvoiceBulkStatusResponse.Result> results = new ArrayList<>();
+    int successCount = 0;
+    for (UUID id : ids) {
+      Invoice.InvoiceStatus status = finalStatuses.get(id);
+      if (status == null) {
+        results.add(InvoiceBulkStatusResponse.Result.failure(id, null, "請求書が見つかりません: " + id));
+      } else if (eligible.contains(id) && status == to) {
+        results.add(InvoiceBulkStatusResponse.Result.success(id, status));
+        successCount++;
+      } else {
+        results.add(InvoiceBulkStatusResponse.Result.failure(id, status,
+            from + "状態の請求書のみ" + to + "に変更できます。現在のステータス: " + status));
+      }
+    }
+
+    return InvoiceBulkStatusResponse.builder()
+        .action(action)
+        .successCount(successCount)
+        .errorCount(results.size() - successCount)
+        .results(results)
+        .build();
+  }
+
   /**
    * 請求書を「支払済」に変更する専用メソッド
    * 発行済(ISSUED)状態の請求書のみ支払済(PAID)に変更可能
@@ -442,19 +806,25 @@ public class InvoiceService {
 
     invoice.setStatus(Invoice.InvoiceStatus.PAID);
     Invoice updated = invoiceRepository.save(invoice);
+    eventPublisher.publishEvent(PartnerDataChangedEvent.of(invoice.getPartner().getId()));
     return convertToResponse(updated);
   }
 
   /**
    * パートナー整合性チェック
    * 請求書のパートナーと手数料ルールの案件のパートナーが一致するか検証
+   * 手数料ルールは案件・パートナーをフェッチ結合済みのものを使用する
    */
-  private void validatePartnerConsistency(UUID partnerId, List<InvoiceRequest.InvoiceItemRequest> items) {
+  private void validatePartnerConsistency(
+      UUID partnerId,
+      List<InvoiceRequest.InvoiceItemRequest> items,
+      Map<UUID, CommissionRule> rules) {
     for (InvoiceRequest.InvoiceItemRequest item : items) {
       if (item.getCommissionRuleId() != null) {
-        CommissionRule rule = commissionRuleRepository.findById(item.getCommissionRuleId())
-            .orElseThrow(() -> new RuntimeException(
-                "手数料ルールが見つかりません: " + item.getCommissionRuleId()));
+        CommissionRule rule = rules.get(item.getCommissionRuleId());
+        if (rule == null) {
+          throw new RuntimeException("手数料ルールが見つかりません: " + item.getCommissionRuleId());
+        }
 
         UUID rulePartnerId = rule.getProject().getPartner().getId();
         if (!rulePartnerId.equals(partnerId)) {
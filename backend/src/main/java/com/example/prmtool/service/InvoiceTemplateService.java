@@ -1,5 +1,6 @@
 package com.example.prmtool.service;
 
+import com.example.prmtool.config.AuthenticatedUser;
 import com.example.prmtool.dto.InvoiceTemplateRequest;
 import com.example.prmtool.dto.InvoiceTemplateResponse;
 import com.example.prmtool.entity.InvoiceTemplate;
@@ -64,10 +65,9 @@ public class InvoiceTemplateService {
    * テンプレートを作成
    * 新しいテンプレートを保存し、デフォルト設定を管理
    */
-  public InvoiceTemplateResponse createTemplate(InvoiceTemplateRequest request, String loginId) {
-    // 作成者ユーザーを取得
-    User creator = userRepository.findByLoginId(loginId)
-        .orElseThrow(() -> new RuntimeException("ユーザーが見つかりません: " + loginId));
+  public InvoiceTemplateResponse createTemplate(InvoiceTemplateRequest request, AuthenticatedUser currentUser) {
+    // 作成者ユーザー（認証済みのため外部キー参照のみ）
+    User creator = userRepository.getReferenceById(currentUser.getUserId());
 
     // テンプレート名の重複チェック
     if (templateRepository.findByTemplateName(request.getTemplateName()).isPresent()) {
@@ -115,7 +115,7 @@ public class InvoiceTemplateService {
    * テンプレートを更新
    * 既存テンプレートの内容を変更
    */
-  public InvoiceTemplateResponse updateTemplate(UUID id, InvoiceTemplateRequest request, String loginId) {
+  public InvoiceTemplateResponse updateTemplate(UUID id, InvoiceTemplateRequest request) {
     // テンプレートを取得
     InvoiceTemplate template = templateRepository.findById(id)
         .orElseThrow(() -> new RuntimeException("テンプレートが見つかりません: " + id));
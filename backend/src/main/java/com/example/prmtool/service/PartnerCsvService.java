@@ -2,19 +2,28 @@ package com.example.prmtool.service;
 
 import com.example.prmtool.entity.Partner;
 import com.example.prmtool.entity.PartnerContact;
-import com.example.prmtool.repository.PartnerRepository;
+import com.example.prmtool.util.PartnerNames;
 import com.example.prmtool.validator.ContactInfoValidator;
 import com.example.prmtool.validator.DuplicatePartnerNameValidator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.BufferedReader;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.*;
 
 /**
@@ -24,9 +33,22 @@ import java.util.*;
 @Service
 public class PartnerCsvService {
 
-  private final PartnerRepository partnerRepository;
   private final DuplicatePartnerNameValidator nameValidator;
   private final ContactInfoValidator contactValidator;
+  private final Validator validator; // エンティティの入力形式チェック
+  private final JdbcTemplate jdbcTemplate; // 一括登録用
+  private final TransactionTemplate chunkTransaction; // チャンクごとのコミット用
+
+  private static final String INSERT_PARTNER_SQL = "INSERT INTO partners"
+      + " (id, name, normalized_name, industry, phone, postal_code, address, email, created_at, updated_at)"
+      + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private static final String INSERT_CONTACT_SQL = "INSERT INTO partner_contacts"
+      + " (id, partner_id, contact_name, phone, email, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+  // 1回に検証・登録する行数
+  @Value("${csv.import.chunk-size:500}")
+  private int chunkSize;
 
   /**
    * ヘッダーマッピング定義
@@ -78,26 +100,35 @@ public class PartnerCsvService {
   }
 
   public PartnerCsvService(
-      PartnerRepository partnerRepository,
       DuplicatePartnerNameValidator nameValidator,
-      ContactInfoValidator contactValidator) {
-    this.partnerRepository = partnerRepository;
+      ContactInfoValidator contactValidator,
+      Validator validator,
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager) {
     this.nameValidator = nameValidator;
     this.contactValidator = contactValidator;
+    this.validator = validator;
+    this.jdbcTemplate = jdbcTemplate;
+    this.chunkTransaction = new TransactionTemplate(transactionManager);
   }
 
   /**
-   * CSVファイルからパートナーをインポート
+   * CSVからパートナーをインポート
    * 新スキーマ対応（郵便番号、メールアドレス、phone/email分離）
+   * チャンクごとに検証・一括登録・コミットするため、途中で失敗・中断しても登録済みの行は残る
+   *
+   * - 登録済みの企業名はチャンクごとに1回のIN検索でまとめて確認する
+   * - ファイル内の重複は正規化した企業名（前後空白・全角半角・大文字小文字を無視）で検出する
+   *
+   * @param in CSVの入力ストリーム
+   * @param progress チャンクごとの進捗通知先（falseを返すと中断）
    */
-  @Transactional
-  public Map<String, Object> importPartnersFromCsv(MultipartFile file) throws Exception {
-    List<String> errors = new ArrayList<>();
-    int successCount = 0;
-    int errorCount = 0;
+  public CsvImportResult importPartnersFromCsv(InputStream in, CsvImportProgress progress) throws Exception {
+    CsvImportResult result = new CsvImportResult();
+    // 登録を受け付けた企業名（正規化済み）→ 行番号（ファイル内の重複検出用）
+    Map<String, Integer> acceptedNames = new HashMap<>();
 
-    try (BufferedReader reader = new BufferedReader(
-        new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
 
       // UTF-8 BOMをスキップ
       reader.mark(1);
@@ -116,63 +147,152 @@ public class PartnerCsvService {
         Map<String, Integer> headerMap = csvParser.getHeaderMap();
         Map<String, Integer> normalizedHeaders = normalizeHeaders(headerMap);
 
+        List<PartnerRow> chunk = new ArrayList<>(chunkSize);
+        int chunkRows = 0;
+        int firstRowNumber = 2;
         int rowNumber = 1;
         for (CSVRecord record : csvParser) {
           rowNumber++;
+          chunkRows++;
           try {
-            Partner partner = parsePartnerFromRecord(record, normalizedHeaders, rowNumber);
-
-            // 企業名の必須チェック
-            if (partner.getName() == null || partner.getName().trim().isEmpty()) {
-              errors.add("行" + rowNumber + ": パートナー名は必須です");
-              errorCount++;
-              continue;
+            chunk.add(new PartnerRow(rowNumber, parsePartnerFromRecord(record, normalizedHeaders, rowNumber)));
+          } catch (Exception e) {
+            result.addError("行" + rowNumber + ": " + e.getMessage());
+          }
+          if (chunkRows >= chunkSize) {
+            importChunk(chunk, chunkRows, firstRowNumber, rowNumber, acceptedNames, result);
+            chunk.clear();
+            chunkRows = 0;
+            firstRowNumber = rowNumber + 1;
+            if (!progress.onChunkCompleted(result)) {
+              result.markCancelled();
+              break;
             }
+          }
+        }
+        if (chunkRows > 0 && !result.isCancelled()) {
+          importChunk(chunk, chunkRows, firstRowNumber, rowNumber, acceptedNames, result);
+          progress.onChunkCompleted(result);
+        }
+      }
+    }
 
-            // 企業名の重複チェック
-            try {
-              nameValidator.validate(partner.getName());
-            } catch (IllegalArgumentException e) {
-              errors.add("行" + rowNumber + ": " + e.getMessage());
-              errorCount++;
-              continue;
-            }
+    return result;
+  }
 
-            // 担当者の必須チェック
-            if (partner.getContacts() == null || partner.getContacts().isEmpty()) {
-              errors.add("行" + rowNumber + ": 最低1人の担当者が必要です");
-              errorCount++;
-              continue;
-            }
+  /**
+   * 1チャンク分を検証し、有効なパートナーと担当者をJDBCバッチで登録してコミット
+   */
+  private void importChunk(List<PartnerRow> chunk, int chunkRows, int firstRowNumber, int lastRowNumber,
+      Map<String, Integer> acceptedNames, CsvImportResult result) {
+    result.addProcessedRows(chunkRows);
+
+    // 行単位の検証（必須項目・入力形式）
+    List<PartnerRow> candidates = new ArrayList<>(chunk.size());
+    for (PartnerRow row : chunk) {
+      String error = validateRow(row.partner());
+      if (error != null) {
+        result.addError("行" + row.rowNumber() + ": " + error);
+      } else {
+        candidates.add(row);
+      }
+    }
 
-            // 担当者の連絡先バリデーション
-            for (PartnerContact contact : partner.getContacts()) {
-              try {
-                contactValidator.validate(contact);
-              } catch (IllegalArgumentException e) {
-                errors.add("行" + rowNumber + ": " + e.getMessage());
-                errorCount++;
-                continue;
-              }
-            }
+    // 登録済みの企業名をまとめて検索し、ファイル内の重複と合わせて判定
+    Set<String> registeredNames = nameValidator.findRegisteredNormalizedNames(
+        candidates.stream().map(row -> row.partner().getName()).toList());
+    List<PartnerRow> accepted = new ArrayList<>(candidates.size());
+    for (PartnerRow row : candidates) {
+      String name = row.partner().getName();
+      String key = PartnerNames.normalize(name);
+      if (registeredNames.contains(key)) {
+        result.addError("行" + row.rowNumber() + ": 企業名「" + name + "」は既に登録されています");
+        continue;
+      }
+      Integer duplicateOf = acceptedNames.putIfAbsent(key, row.rowNumber());
+      if (duplicateOf != null) {
+        result.addError("行" + row.rowNumber() + ": 企業名「" + name + "」はファイル内の行" + duplicateOf + "と重複しています");
+        continue;
+      }
+      accepted.add(row);
+    }
+
+    if (accepted.isEmpty()) {
+      return;
+    }
 
-            // 保存
-            partnerRepository.save(partner);
-            successCount++;
+    try {
+      chunkTransaction.executeWithoutResult(status -> insertPartners(accepted));
+      result.addSuccess(accepted.size());
+    } catch (DataAccessException | TransactionException e) {
+      // 登録できなかった企業名は後続チャンクで再び受け付けられるようにする
+      for (PartnerRow row : accepted) {
+        acceptedNames.remove(PartnerNames.normalize(row.partner().getName()));
+      }
+      result.addErrors(accepted.size(), "行" + firstRowNumber + "〜" + lastRowNumber
+          + ": 保存に失敗しました: " + e.getMostSpecificCause().getMessage());
+    }
+  }
 
-          } catch (Exception e) {
-            errors.add("行" + rowNumber + ": " + e.getMessage());
-            errorCount++;
-          }
-        }
+  /**
+   * 1行分の必須項目と入力形式を検証
+   *
+   * @return エラーメッセージ（問題がなければnull）
+   */
+  private String validateRow(Partner partner) {
+    // 企業名の必須チェック
+    if (partner.getName() == null || partner.getName().trim().isEmpty()) {
+      return "パートナー名は必須です";
+    }
+
+    // 担当者の必須チェック
+    if (partner.getContacts() == null || partner.getContacts().isEmpty()) {
+      return "最低1人の担当者が必要です";
+    }
+
+    // 担当者の連絡先バリデーション
+    for (PartnerContact contact : partner.getContacts()) {
+      try {
+        contactValidator.validate(contact);
+      } catch (IllegalArgumentException e) {
+        return e.getMessage();
       }
     }
 
-    Map<String, Object> result = new HashMap<>();
-    result.put("successCount", successCount);
-    result.put("errorCount", errorCount);
-    result.put("errors", errors);
-    return result;
+    // エンティティの入力形式（メールアドレス・電話番号・郵便番号など）
+    // JDBCで直接登録するため、保存時の検証に頼らずここで確認する
+    Set<String> messages = new TreeSet<>();
+    for (ConstraintViolation<Partner> violation : validator.validate(partner)) {
+      messages.add(violation.getMessage());
+    }
+    for (PartnerContact contact : partner.getContacts()) {
+      for (ConstraintViolation<PartnerContact> violation : validator.validate(contact)) {
+        messages.add(violation.getMessage());
+      }
+    }
+    return messages.isEmpty() ? null : String.join(", ", messages);
+  }
+
+  /**
+   * パートナーと担当者をJDBCバッチで登録
+   */
+  private void insertPartners(List<PartnerRow> rows) {
+    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+    List<Object[]> partnerArgs = new ArrayList<>(rows.size());
+    List<Object[]> contactArgs = new ArrayList<>();
+    for (PartnerRow row : rows) {
+      Partner partner = row.partner();
+      UUID partnerId = UUID.randomUUID();
+      partnerArgs.add(new Object[] { partnerId, partner.getName(),
+          PartnerNames.normalize(partner.getName()), partner.getIndustry(), partner.getPhone(),
+          partner.getPostalCode(), partner.getAddress(), partner.getEmail(), now, now });
+      for (PartnerContact contact : partner.getContacts()) {
+        contactArgs.add(new Object[] { UUID.randomUUID(), partnerId, contact.getContactName(),
+            contact.getPhone(), contact.getEmail(), now, now });
+      }
+    }
+    jdbcTemplate.batchUpdate(INSERT_PARTNER_SQL, partnerArgs);
+    jdbcTemplate.batchUpdate(INSERT_CONTACT_SQL, contactArgs);
   }
 
   /**
@@ -291,4 +411,8 @@ public class PartnerCsvService {
     }
     return null;
   }
-}
\ No newline at end of file
+
+  // パース済みの1行分（行番号付き）
+  private record PartnerRow(int rowNumber, Partner partner) {
+  }
+}
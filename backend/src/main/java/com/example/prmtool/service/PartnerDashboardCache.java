@@ -0,0 +1,96 @@
+package com.example.prmtool.service;
+
+import com.example.prmtool.config.BoundedTtlCache;
+import com.example.prmtool.dto.CacheStatsResponse;
+import com.example.prmtool.dto.PartnerDashboardResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * パートナーダッシュボードのキャッシュ
+ * パートナーIDごとに集計結果を保持し、PartnerDataChangedEventでコミット後に無効化する
+ *
+ * - 各エントリはTTLで失効する（イベントを経由しない変更への保険）
+ * - 上限件数を超えた場合は最も長く参照されていないエントリを追い出す（BoundedTtlCache）
+ * - 集計中に無効化が発生した場合、その結果はキャッシュしない
+ */
+@Component
+public class PartnerDashboardCache {
+
+  private final BoundedTtlCache<UUID, PartnerDashboardResponse> entries;
+
+  // 無効化のたびに進める世代番号（集計中の無効化を検知する）
+  private final AtomicLong generation = new AtomicLong();
+
+  private final LongAdder invalidations = new LongAdder();
+
+  public PartnerDashboardCache(
+      @Value("${dashboard.cache.max-size:1000}") int maxSize,
+      @Value("${dashboard.cache.ttl:300000}") long ttlMillis) {
+    this.entries = new BoundedTtlCache<>(maxSize, ttlMillis);
+  }
+
+  /**
+   * キャッシュから取得し、未登録または失効済みの場合はloaderで集計して登録する
+   */
+  public PartnerDashboardResponse getOrLoad(UUID partnerId, Supplier<PartnerDashboardResponse> loader) {
+    PartnerDashboardResponse cached = entries.get(partnerId);
+    if (cached != null) {
+      return cached;
+    }
+
+    long loadGeneration = generation.get();
+    PartnerDashboardResponse value = loader.get();
+    if (generation.get() == loadGeneration) {
+      entries.put(partnerId, value);
+    }
+    return value;
+  }
+
+  /**
+   * 変更イベントを受けて該当パートナーのエントリを無効化
+   * トランザクション中に発行された場合はコミット後に処理される
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPartnerDataChanged(PartnerDataChangedEvent event) {
+    generation.incrementAndGet();
+    for (UUID partnerId : event.partnerIds()) {
+      if (entries.remove(partnerId)) {
+        invalidations.increment();
+      }
+    }
+  }
+
+  /**
+   * 全エントリを破棄
+   */
+  public void clear() {
+    generation.incrementAndGet();
+    entries.clear();
+  }
+
+  /**
+   * ヒット・ミスなどの統計を取得
+   */
+  public CacheStatsResponse stats() {
+    long hitCount = entries.hitCount();
+    long missCount = entries.missCount();
+    long requests = hitCount + missCount;
+    return CacheStatsResponse.builder()
+        .size(entries.size())
+        .maxSize(entries.maxSize())
+        .ttlMillis(entries.ttlMillis())
+        .hitCount(hitCount)
+        .missCount(missCount)
+        .hitRate(requests == 0 ? 0.0 : (double) hitCount / requests)
+        .evictionCount(entries.evictionCount())
+        .invalidationCount(invalidations.sum())
+        .build();
+  }
+}
@@ -1,66 +1,117 @@
 package com.example.prmtool.service;
 
+import com.example.prmtool.dto.CacheStatsResponse;
 import com.example.prmtool.dto.PartnerDashboardResponse;
 import com.example.prmtool.entity.CommissionRule;
 import com.example.prmtool.entity.Invoice;
 import com.example.prmtool.entity.Partner;
 import com.example.prmtool.entity.Project;
 import com.example.prmtool.repository.CommissionRuleRepository;
-import com.example.prmtool.repository.InvoiceItemRepository;
 import com.example.prmtool.repository.InvoiceRepository;
 import com.example.prmtool.repository.PartnerRepository;
 import com.example.prmtool.repository.ProjectRepository;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 /**
  * パートナーダッシュボードサービス
  * 新設計に対応（実績ベース統計）
+ *
+ * 各統計はステータス別のGROUP BY集計で取得し、データ量に関わらず
+ * パートナー取得を含めて4クエリで構築する
+ * 集計結果はPartnerDashboardCacheに保持し、関連データの変更イベントで無効化される
  */
 @Service
-@RequiredArgsConstructor
 public class PartnerDashboardService {
 
   private final PartnerRepository partnerRepository;
   private final ProjectRepository projectRepository;
   private final CommissionRuleRepository commissionRuleRepository; // 新: ルール
-  private final InvoiceRepository invoiceRepository;
-  private final InvoiceItemRepository invoiceItemRepository; // 新: 実績
+  private final InvoiceRepository invoiceRepository; // 新: 実績（請求書の確定済み金額）
+  private final PartnerDashboardCache dashboardCache;
+  private final TransactionTemplate readOnlyTransaction; // キャッシュミス時の集計用
+
+  public PartnerDashboardService(PartnerRepository partnerRepository,
+      ProjectRepository projectRepository,
+      CommissionRuleRepository commissionRuleRepository,
+      InvoiceRepository invoiceRepository,
+      PartnerDashboardCache dashboardCache,
+      PlatformTransactionManager transactionManager) {
+    this.partnerRepository = partnerRepository;
+    this.projectRepository = projectRepository;
+    this.commissionRuleRepository = commissionRuleRepository;
+    this.invoiceRepository = invoiceRepository;
+    this.dashboardCache = dashboardCache;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+  }
 
   /**
    * パートナー別ダッシュボードデータを取得
+   * キャッシュヒット時はトランザクションを開始せずに返す
    */
-  @Transactional(readOnly = true)
   public PartnerDashboardResponse getPartnerDashboard(UUID partnerId) {
+    return dashboardCache.getOrLoad(partnerId,
+        () -> readOnlyTransaction.execute(status -> loadPartnerDashboard(partnerId)));
+  }
+
+  /**
+   * キャッシュの統計を取得
+   */
+  public CacheStatsResponse getCacheStats() {
+    return dashboardCache.stats();
+  }
+
+  // ダッシュボードを集計
+  private PartnerDashboardResponse loadPartnerDashboard(UUID partnerId) {
     // パートナーを取得
     Partner partner = partnerRepository.findById(partnerId)
         .orElseThrow(() -> new RuntimeException("パートナーが見つかりません"));
 
-    // 案件統計を計算
-    List<Project> projects = projectRepository.findByPartnerId(partnerId);
-    long totalProjects = projects.size();
-    long activeProjects = projects.stream()
-        .filter(p -> p.getStatus() == Project.ProjectStatus.IN_PROGRESS)
-        .count();
-    long completedProjects = projects.stream()
-        .filter(p -> p.getStatus() == Project.ProjectStatus.DONE)
-        .count();
+    // 案件統計（ステータス別件数）
+    Map<Project.ProjectStatus, Long> projectCounts = new EnumMap<>(Project.ProjectStatus.class);
+    for (Object[] row : projectRepository.countByPartnerIdGroupByStatus(partnerId)) {
+      projectCounts.put((Project.ProjectStatus) row[0], (Long) row[1]);
+    }
+    long totalProjects = sum(projectCounts);
+    long activeProjects = projectCounts.getOrDefault(Project.ProjectStatus.IN_PROGRESS, 0L);
+    long completedProjects = projectCounts.getOrDefault(Project.ProjectStatus.DONE, 0L);
 
-    // --- 手数料統計（実績ベース：実際に請求した金額）---
-    BigDecimal totalCommission = invoiceItemRepository.sumCommissionByPartnerId(partnerId);
-    BigDecimal draftCommission = invoiceItemRepository.sumCommissionByPartnerIdAndInvoiceStatus(
-        partnerId, Invoice.InvoiceStatus.DRAFT);
-    BigDecimal issuedCommission = invoiceItemRepository.sumCommissionByPartnerIdAndInvoiceStatus(
-        partnerId, Invoice.InvoiceStatus.ISSUED);
-    BigDecimal paidCommission = invoiceItemRepository.sumCommissionByPartnerIdAndInvoiceStatus(
-        partnerId, Invoice.InvoiceStatus.PAID);
+    // --- 手数料ルール統計（契約ベース：任意）---
+    Map<CommissionRule.CommissionStatus, Long> ruleCounts = new EnumMap<>(CommissionRule.CommissionStatus.class);
+    for (Object[] row : commissionRuleRepository.countByPartnerIdGroupByStatus(partnerId)) {
+      ruleCounts.put((CommissionRule.CommissionStatus) row[0], (Long) row[1]);
+    }
+    long totalCommissionRules = sum(ruleCounts);
+    long confirmedRules = ruleCounts.getOrDefault(CommissionRule.CommissionStatus.CONFIRMED, 0L);
+    long disabledRules = ruleCounts.getOrDefault(CommissionRule.CommissionStatus.DISABLED, 0L);
+
+    // --- 請求書統計・手数料統計（実績ベース：実際に請求した金額）---
+    Map<Invoice.InvoiceStatus, Long> invoiceCounts = new EnumMap<>(Invoice.InvoiceStatus.class);
+    Map<Invoice.InvoiceStatus, BigDecimal> commissionSums = new EnumMap<>(Invoice.InvoiceStatus.class);
+    BigDecimal totalInvoiceAmount = BigDecimal.ZERO;
+    BigDecimal totalCommission = BigDecimal.ZERO;
+    for (Object[] row : invoiceRepository.summarizeByPartnerIdGroupByStatus(partnerId)) {
+      Invoice.InvoiceStatus status = (Invoice.InvoiceStatus) row[0];
+      invoiceCounts.put(status, (Long) row[1]);
+      commissionSums.put(status, (BigDecimal) row[3]);
+      totalInvoiceAmount = totalInvoiceAmount.add((BigDecimal) row[2]);
+      totalCommission = totalCommission.add((BigDecimal) row[3]);
+    }
+    long totalInvoices = sum(invoiceCounts);
+    long draftInvoices = invoiceCounts.getOrDefault(Invoice.InvoiceStatus.DRAFT, 0L);
+    long issuedInvoices = invoiceCounts.getOrDefault(Invoice.InvoiceStatus.ISSUED, 0L);
+    long paidInvoices = invoiceCounts.getOrDefault(Invoice.InvoiceStatus.PAID, 0L);
+    BigDecimal draftCommission = commissionSums.getOrDefault(Invoice.InvoiceStatus.DRAFT, BigDecimal.ZERO);
+    BigDecimal issuedCommission = commissionSums.getOrDefault(Invoice.InvoiceStatus.ISSUED, BigDecimal.ZERO);
+    BigDecimal paidCommission = commissionSums.getOrDefault(Invoice.InvoiceStatus.PAID, BigDecimal.ZERO);
 
     // ステータス別手数料内訳（実績ベース）
     Map<String, BigDecimal> commissionByInvoiceStatus = new HashMap<>();
@@ -68,34 +119,6 @@ public class PartnerDashboardService {
     commissionByInvoiceStatus.put("発行済", issuedCommission);
     commissionByInvoiceStatus.put("支払済", paidCommission);
 
-    // --- 手数料ルール統計（契約ベース：任意）---
-    List<CommissionRule> rules = commissionRuleRepository.findAll().stream()
-        .filter(rule -> rule.getProject().getPartner().getId().equals(partnerId))
-        .toList();
-
-    long totalCommissionRules = rules.size();
-    long confirmedRules = rules.stream()
-        .filter(r -> r.getStatus() == CommissionRule.CommissionStatus.CONFIRMED)
-        .count();
-    long disabledRules = rules.stream()
-        .filter(r -> r.getStatus() == CommissionRule.CommissionStatus.DISABLED)
-        .count();
-
-    // --- 請求書統計 ---
-    List<Invoice> invoices = invoiceRepository.findByPartnerId(partnerId);
-    long totalInvoices = invoices.size();
-    long draftInvoices = invoices.stream()
-        .filter(i -> i.getStatus() == Invoice.InvoiceStatus.DRAFT)
-        .count();
-    long issuedInvoices = invoices.stream()
-        .filter(i -> i.getStatus() == Invoice.InvoiceStatus.ISSUED)
-        .count();
-    long paidInvoices = invoices.stream()
-        .filter(i -> i.getStatus() == Invoice.InvoiceStatus.PAID)
-        .count();
-
-    BigDecimal totalInvoiceAmount = invoiceRepository.sumTotalAmountByPartnerId(partnerId);
-
     // ステータス別請求書件数
     Map<String, Long> invoiceCountByStatus = new HashMap<>();
     invoiceCountByStatus.put("下書き", draftInvoices);
@@ -130,4 +153,9 @@ public class PartnerDashboardService {
         .invoiceCountByStatus(invoiceCountByStatus)
         .build();
   }
-}
\ No newline at end of file
+
+  // ステータス別件数の合計
+  private long sum(Map<?, Long> counts) {
+    return counts.values().stream().mapToLong(Long::longValue).sum();
+  }
+}
@@ -0,0 +1,26 @@
+package com.example.prmtool.service;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * パートナーに紐づくデータ（パートナー情報・案件・手数料ルール・請求書）の変更イベント
+ * 各サービスが変更時に発行し、PartnerDashboardCacheがコミット後に該当パートナーを無効化する
+ */
+public record PartnerDataChangedEvent(Set<UUID> partnerIds) {
+
+  public static PartnerDataChangedEvent of(UUID... partnerIds) {
+    return of(Stream.of(partnerIds).toList());
+  }
+
+  // nullは除外する
+  public static PartnerDataChangedEvent of(Collection<UUID> partnerIds) {
+    return new PartnerDataChangedEvent(partnerIds.stream()
+        .filter(Objects::nonNull)
+        .collect(Collectors.toUnmodifiableSet()));
+  }
+}
@@ -9,6 +9,7 @@ import com.example.prmtool.repository.PartnerRepository;
 import com.example.prmtool.validator.ContactInfoValidator;
 import com.example.prmtool.validator.DuplicatePartnerNameValidator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,6 +28,7 @@ public class PartnerService {
   private final PartnerRepository partnerRepository;
   private final DuplicatePartnerNameValidator nameValidator;
   private final ContactInfoValidator contactValidator;
+  private final ApplicationEventPublisher eventPublisher;
 
   /**
    * 全パートナーを取得
@@ -134,6 +136,7 @@ public class PartnerService {
 
     // 保存して返却
     Partner updatedPartner = partnerRepository.save(partner);
+    eventPublisher.publishEvent(PartnerDataChangedEvent.of(id));
     return PartnerResponse.from(updatedPartner);
   }
 
@@ -146,5 +149,6 @@ public class PartnerService {
       throw new RuntimeException("パートナーが見つかりません: " + id);
     }
     partnerRepository.deleteById(id);
+    eventPublisher.publishEvent(PartnerDataChangedEvent.of(id));
   }
 }
\ No newline at end of file
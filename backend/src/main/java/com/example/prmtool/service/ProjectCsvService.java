@@ -1,29 +1,52 @@
 package com.example.prmtool.service;
 
-import com.example.prmtool.entity.Partner;
 import com.example.prmtool.entity.Project;
-import com.example.prmtool.entity.User;
 import com.example.prmtool.repository.PartnerRepository;
-import com.example.prmtool.repository.ProjectRepository;
 import com.example.prmtool.repository.UserRepository;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.BufferedReader;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.*;
 
+/**
+ * 案件CSVインポートサービス
+ * CSVを先頭から順に読み、一定件数（チャンク）ごとに検証・一括登録・コミットする
+ * パートナー名とオーナーのログインIDはチャンク内の一意なキーだけをIN句でまとめて解決するため、
+ * ファイルサイズに関わらずメモリ使用量は一定に保たれる
+ */
 @Service
 public class ProjectCsvService {
 
-  private final ProjectRepository projectRepository; // ProjectRepository追加
+  private static final String INSERT_PROJECT_SQL = "INSERT INTO projects"
+      + " (id, name, status, partner_id, owner_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+  // 案件名の最大文字数（projects.name の列長）
+  private static final int MAX_NAME_LENGTH = 255;
+
   private final PartnerRepository partnerRepository; // PartnerRepository追加
   private final UserRepository userRepository; // UserRepository追加
+  private final JdbcTemplate jdbcTemplate; // 一括登録用
+  private final TransactionTemplate chunkTransaction; // チャンクごとのコミット用
+  private final ApplicationEventPublisher eventPublisher; // ダッシュボード無効化イベント
+
+  // 1回に検証・登録する行数
+  @Value("${csv.import.chunk-size:500}")
+  private int chunkSize;
 
   // ヘッダーマッピング定義
   private static final Map<String, String> HEADER_MAPPING = new HashMap<>();
@@ -48,37 +71,32 @@ public class ProjectCsvService {
     HEADER_MAPPING.put("owner", "ownerLoginId");
   }
 
-  public ProjectCsvService(ProjectRepository projectRepository,
-      PartnerRepository partnerRepository,
-      UserRepository userRepository) {
-    this.projectRepository = projectRepository;
+  public ProjectCsvService(PartnerRepository partnerRepository,
+      UserRepository userRepository,
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      ApplicationEventPublisher eventPublisher) {
     this.partnerRepository = partnerRepository;
     this.userRepository = userRepository;
+    this.jdbcTemplate = jdbcTemplate;
+    this.chunkTransaction = new TransactionTemplate(transactionManager);
+    this.eventPublisher = eventPublisher;
   }
 
-  // CSVファイルから案件をインポート
-  @Transactional
-  public Map<String, Object> importProjectsFromCsv(MultipartFile file, User currentUser) throws Exception {
-    List<String> errors = new ArrayList<>();
-    int successCount = 0;
-    int errorCount = 0;
-
-    // パートナー名→Partnerマップを事前に構築
-    Map<String, Partner> partnerMap = new HashMap<>();
-    List<Partner> allPartners = partnerRepository.findAll();
-    for (Partner partner : allPartners) {
-      partnerMap.put(partner.getName().toLowerCase(), partner);
-    }
-
-    // ログインID→Userマップを事前に構築
-    Map<String, User> userMap = new HashMap<>();
-    List<User> allUsers = userRepository.findAll();
-    for (User user : allUsers) {
-      userMap.put(user.getLoginId().toLowerCase(), user);
-    }
-
-    try (BufferedReader reader = new BufferedReader(
-        new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+  /**
+   * CSVから案件をインポート
+   * チャンクごとにコミットするため、途中で失敗・中断しても登録済みの行は残る
+   *
+   * @param in CSVの入力ストリーム
+   * @param importerId インポート実行者（オーナー未指定時の既定値）
+   * @param progress チャンクごとの進捗通知先（falseを返すと中断）
+   */
+  public CsvImportResult importProjectsFromCsv(InputStream in, UUID importerId, CsvImportProgress progress)
+      throws Exception {
+    CsvImportResult result = new CsvImportResult();
+    Set<UUID> importedPartnerIds = new HashSet<>();
+
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
 
       // Builder パターンを使用
       CSVFormat csvFormat = CSVFormat.DEFAULT.builder()
@@ -89,77 +107,155 @@ public class ProjectCsvService {
           .build();
 
       try (CSVParser csvParser = csvFormat.parse(reader)) {
-        Map<String, Integer> headerMap = csvParser.getHeaderMap();
-        Map<String, Integer> normalizedHeaders = normalizeHeaders(headerMap);
+        Map<String, Integer> normalizedHeaders = normalizeHeaders(csvParser.getHeaderMap());
 
+        List<ProjectImportData> chunk = new ArrayList<>(chunkSize);
         int rowNumber = 1;
         for (CSVRecord record : csvParser) {
           rowNumber++;
-          try {
-            ProjectImportData data = parseProjectFromRecord(record, normalizedHeaders);
-
-            // バリデーション: 案件名
-            if (data.name == null || data.name.trim().isEmpty()) {
-              errors.add("行" + rowNumber + ": 案件名は必須です");
-              errorCount++;
-              continue;
+          ProjectImportData data = parseProjectFromRecord(record, normalizedHeaders);
+          data.rowNumber = rowNumber;
+          chunk.add(data);
+          if (chunk.size() >= chunkSize) {
+            importChunk(chunk, importerId, result, importedPartnerIds);
+            chunk.clear();
+            if (!progress.onChunkCompleted(result)) {
+              result.markCancelled();
+              break;
             }
+          }
+        }
+        if (!chunk.isEmpty() && !result.isCancelled()) {
+          importChunk(chunk, importerId, result, importedPartnerIds);
+          progress.onChunkCompleted(result);
+        }
+      }
+    } finally {
+      // 途中で中断した場合もコミット済みチャンクの分は無効化する
+      if (!importedPartnerIds.isEmpty()) {
+        eventPublisher.publishEvent(PartnerDataChangedEvent.of(importedPartnerIds));
+      }
+    }
 
-            // バリデーション: パートナー名
-            if (data.partnerName == null || data.partnerName.trim().isEmpty()) {
-              errors.add("行" + rowNumber + ": パートナー名は必須です");
-              errorCount++;
-              continue;
-            }
+    return result;
+  }
 
-            // パートナーを検索
-            Partner partner = partnerMap.get(data.partnerName.toLowerCase());
-            if (partner == null) {
-              errors.add("行" + rowNumber + ": パートナー「" + data.partnerName + "」が見つかりません");
-              errorCount++;
-              continue;
-            }
+  // 1チャンク分を検証し、有効な行をまとめて登録してコミットする
+  private void importChunk(List<ProjectImportData> chunk, UUID importerId,
+      CsvImportResult result, Set<UUID> importedPartnerIds) {
+    result.addProcessedRows(chunk.size());
+
+    // チャンク内の一意なパートナー名・ログインIDだけをまとめて解決
+    Set<String> partnerKeys = new HashSet<>();
+    Set<String> ownerKeys = new HashSet<>();
+    for (ProjectImportData data : chunk) {
+      if (data.partnerName != null && !data.partnerName.trim().isEmpty()) {
+        partnerKeys.add(data.partnerName.toLowerCase());
+      }
+      if (data.ownerLoginId != null && !data.ownerLoginId.trim().isEmpty()) {
+        ownerKeys.add(data.ownerLoginId.toLowerCase());
+      }
+    }
+    Map<String, UUID> partnerIds = partnerKeys.isEmpty()
+        ? Map.of()
+        : toIdMap(partnerRepository.findIdsByLowerNameIn(partnerKeys));
+    Map<String, UUID> ownerIds = ownerKeys.isEmpty()
+        ? Map.of()
+        : toIdMap(userRepository.findIdsByLowerLoginIdIn(ownerKeys));
+
+    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+    List<Object[]> rows = new ArrayList<>(chunk.size());
+    List<Integer> rowNumbers = new ArrayList<>(chunk.size());
+    for (ProjectImportData data : chunk) {
+      int rowNumber = data.rowNumber;
+
+      // バリデーション: 案件名
+      if (data.name == null || data.name.trim().isEmpty()) {
+        result.addError("行" + rowNumber + ": 案件名は必須です");
+        continue;
+      }
+      if (data.name.trim().length() > MAX_NAME_LENGTH) {
+        result.addError("行" + rowNumber + ": 案件名は" + MAX_NAME_LENGTH + "文字以内で入力してください");
+        continue;
+      }
 
-            // オーナーを決定
-            User owner = currentUser;
-            if (data.ownerLoginId != null && !data.ownerLoginId.trim().isEmpty()) {
-              User specifiedOwner = userMap.get(data.ownerLoginId.toLowerCase());
-              if (specifiedOwner != null) {
-                owner = specifiedOwner;
-              } else {
-                errors.add("行" + rowNumber + ": 警告: オーナー「" + data.ownerLoginId
-                    + "」が見つかりません。現在のユーザーをオーナーとして登録します");
-              }
-            }
+      // バリデーション: パートナー名
+      if (data.partnerName == null || data.partnerName.trim().isEmpty()) {
+        result.addError("行" + rowNumber + ": パートナー名は必須です");
+        continue;
+      }
 
-            // ステータスをバリデーション
-            Project.ProjectStatus status = parseStatus(data.status);
+      // パートナーを検索
+      UUID partnerId = partnerIds.get(data.partnerName.toLowerCase());
+      if (partnerId == null) {
+        result.addError("行" + rowNumber + ": パートナー「" + data.partnerName + "」が見つかりません");
+        continue;
+      }
 
-            // Projectエンティティ作成
-            Project project = Project.builder()
-                .name(data.name.trim())
-                .status(status)
-                .partner(partner)
-                .owner(owner)
-                .build();
+      // オーナーを決定（未指定・未登録の場合はインポート実行者）
+      UUID ownerId = importerId;
+      if (data.ownerLoginId != null && !data.ownerLoginId.trim().isEmpty()) {
+        UUID specifiedOwnerId = ownerIds.get(data.ownerLoginId.toLowerCase());
+        if (specifiedOwnerId != null) {
+          ownerId = specifiedOwnerId;
+        } else {
+          result.addWarning("行" + rowNumber + ": 警告: オーナー「" + data.ownerLoginId
+              + "」が見つかりません。現在のユーザーをオーナーとして登録します");
+        }
+      }
 
-            // 保存
-            projectRepository.save(project);
-            successCount++;
+      // ステータスをバリデーション
+      Project.ProjectStatus status = parseStatus(data.status);
 
-          } catch (Exception e) {
-            errors.add("行" + rowNumber + ": " + e.getMessage());
-            errorCount++;
-          }
-        }
+      rows.add(new Object[] { UUID.randomUUID(), data.name.trim(), status.name(), partnerId, ownerId, now, now });
+      rowNumbers.add(rowNumber);
+    }
+
+    if (rows.isEmpty()) {
+      return;
+    }
+
+    // 有効な行をJDBCバッチで登録し、チャンク単位でコミット
+    try {
+      chunkTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_PROJECT_SQL, rows));
+      result.addSuccess(rows.size());
+      for (Object[] row : rows) {
+        importedPartnerIds.add((UUID) row[3]);
       }
+    } catch (DataAccessException | TransactionException e) {
+      // 1行の不備でチャンク全体を失敗にしないよう、1行ずつ登録し直して失敗した行だけをエラーにする
+      importRowByRow(rows, rowNumbers, result, importedPartnerIds);
     }
+  }
 
-    Map<String, Object> result = new HashMap<>();
-    result.put("successCount", successCount);
-    result.put("errorCount", errorCount);
-    result.put("errors", errors);
-    return result;
+  // 1行ずつ別トランザクションで登録（バッチ登録が失敗したチャンクのみ）
+  private void importRowByRow(List<Object[]> rows, List<Integer> rowNumbers,
+      CsvImportResult result, Set<UUID> importedPartnerIds) {
+    for (int i = 0; i < rows.size(); i++) {
+      Object[] row = rows.get(i);
+      try {
+        chunkTransaction.executeWithoutResult(status -> jdbcTemplate.update(INSERT_PROJECT_SQL, row));
+        result.addSuccess(1);
+        importedPartnerIds.add((UUID) row[3]);
+      } catch (DataAccessException | TransactionException e) {
+        result.addError("行" + rowNumbers.get(i) + ": 保存に失敗しました: " + mostSpecificMessage(e));
+      }
+    }
+  }
+
+  private static String mostSpecificMessage(RuntimeException e) {
+    return e instanceof DataAccessException dataAccessException
+        ? dataAccessException.getMostSpecificCause().getMessage()
+        : e.getMessage();
+  }
+
+  // [id, 小文字化したキー] の配列をキー→IDのマップに変換
+  private Map<String, UUID> toIdMap(List<Object[]> rows) {
+    Map<String, UUID> map = new HashMap<>();
+    for (Object[] row : rows) {
+      map.put((String) row[1], (UUID) row[0]);
+    }
+    return map;
   }
 
   // ヘッダーを正規化
@@ -222,9 +318,10 @@ public class ProjectCsvService {
 
   // CSVから読み取ったデータを保持する内部クラス
   private static class ProjectImportData {
+    int rowNumber;
     String name;
     String status;
     String partnerName;
     String ownerLoginId;
   }
-}
\ No newline at end of file
+}
@@ -1,17 +1,24 @@
 package com.example.prmtool.service;
 
+import com.example.prmtool.config.AuthenticatedUser;
+import com.example.prmtool.dto.PageResponse;
 import com.example.prmtool.dto.ProjectRequest;
 import com.example.prmtool.dto.ProjectResponse;
+import com.example.prmtool.dto.ProjectSummaryResponse;
 import com.example.prmtool.entity.*;
 import com.example.prmtool.repository.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,17 +29,31 @@ public class ProjectService {
   private final UserRepository userRepository; // UserRepository追加
   private final ProjectAssignmentRepository projectAssignmentRepository; // ProjectAssignmentRepository追加
   private final ProjectTableDataRepository projectTableDataRepository; // ProjectTableDataRepository追加
+  private final ApplicationEventPublisher eventPublisher; // ダッシュボード無効化イベント
+
+  // 案件一覧（軽量版）の並び替えキー → JPQLの列
+  private static final Map<String, String> SUMMARY_SORT_COLUMNS = Map.of(
+      "name", "p.name",
+      "status", "p.status",
+      "partnerName", "pa.name",
+      "ownerName", "o.name",
+      "createdAt", "p.createdAt",
+      "updatedAt", "p.updatedAt");
+  private static final int DEFAULT_PAGE_SIZE = 50;
+  private static final int MAX_PAGE_SIZE = 200;
 
   public ProjectService(ProjectRepository projectRepository,
       PartnerRepository partnerRepository,
       UserRepository userRepository,
       ProjectAssignmentRepository projectAssignmentRepository,
-      ProjectTableDataRepository projectTableDataRepository) {
+      ProjectTableDataRepository projectTableDataRepository,
+      ApplicationEventPublisher eventPublisher) {
     this.projectRepository = projectRepository;
     this.partnerRepository = partnerRepository;
     this.userRepository = userRepository;
     this.projectAssignmentRepository = projectAssignmentRepository;
     this.projectTableDataRepository = projectTableDataRepository;
+    this.eventPublisher = eventPublisher;
   }
 
   // 案件作成
@@ -71,17 +92,18 @@ public class ProjectService {
     }
 
     // テーブルデータを追加
+    ProjectTableData tableData = null;
     if (request.getTableDataJson() != null && !request.getTableDataJson().isBlank()) {
-      ProjectTableData tableData = ProjectTableData.builder()
+      tableData = projectTableDataRepository.save(ProjectTableData.builder()
           .project(savedProject)
           .tableDataJson(request.getTableDataJson())
-          .build();
-      savedProject.setTableData(tableData);
+          .build());
     }
 
-    // 再保存（担当者とテーブルデータを含む）
+    // 再保存（担当者を含む）
     Project finalProject = projectRepository.save(savedProject);
-    return ProjectResponse.from(finalProject);
+    eventPublisher.publishEvent(PartnerDataChangedEvent.of(partner.getId()));
+    return ProjectResponse.from(finalProject, tableData);
   }
 
   /**
@@ -91,74 +113,103 @@ public class ProjectService {
   @Transactional(readOnly = true)
   public List<ProjectResponse> getAllProjects() {
     return projectRepository.findAllByOrderByCreatedAtAsc().stream()
-        .map(ProjectResponse::from)
+        .map(ProjectResponse::withoutTableData)
         .collect(Collectors.toList());
   }
 
+  /**
+   * 案件一覧（軽量版）をページ単位で取得
+   * 管理者は全案件、それ以外は NEW・自分がオーナー・自分が担当 の案件のみ（1クエリで判定）
+   * 担当者数はサブクエリで集計し、担当者・テーブルデータはロードしない
+   * sortは name / status / partnerName / ownerName / createdAt / updatedAt（既定: createdAt）
+   * directionは asc / desc（既定: asc）
+   */
+  @Transactional(readOnly = true)
+  public PageResponse<ProjectSummaryResponse> getProjectSummaries(
+      AuthenticatedUser me, UUID ownerId, Project.ProjectStatus status,
+      int page, Integer size, String sort, String direction) {
+    String column = SUMMARY_SORT_COLUMNS.get(sort != null ? sort : "createdAt");
+    if (column == null) {
+      throw new IllegalArgumentException("並び替えに指定できない項目です: " + sort);
+    }
+    int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    // asc / desc（大文字小文字は区別しない）
+    Sort.Direction order = direction != null ? Sort.Direction.fromString(direction) : Sort.Direction.ASC;
+
+    // 同値の並び順を安定させるためIDを第2キーにする
+    PageRequest pageable = PageRequest.of(Math.max(page, 0), pageSize,
+        Sort.by(order, column, "p.id"));
+    if (me.isAdmin()) {
+      return PageResponse.from(projectRepository.findSummaries(me.getUserId(), ownerId, status, pageable));
+    }
+    return PageResponse.from(projectRepository.findVisibleSummaries(me.getUserId(), ownerId, status, pageable));
+  }
+
   /**
    * パートナーIDで案件を取得
    */
   @Transactional(readOnly = true)
   public List<ProjectResponse> getProjectsByOwner(UUID ownerId) {
     return projectRepository.findByOwnerId(Objects.requireNonNull(ownerId)).stream()
-        .map(ProjectResponse::from)
+        .map(ProjectResponse::withoutTableData)
         .collect(Collectors.toList());
   }
 
-  // 担当者として見える案件を取得（NEW または 自分が担当）
+  // 担当者として見える案件を1ページ分取得（NEW または 自分がオーナー または 自分が担当、作成日時の昇順）
+  // 一覧画面は軽量版（getProjectSummaries）を使用する
+  // IDをページ単位で絞り込んでから、担当者をフェッチ結合して読み込む
   @Transactional(readOnly = true)
-  public List<ProjectResponse> getVisibleProjectsForPartner(UUID userId) {
-    // NEWステータスの案件
-    List<Project> newProjects = projectRepository.findByStatus(Project.ProjectStatus.NEW);
-
-    // 自分が担当者として割り当てられている案件
-    List<ProjectAssignment> myAssignments = projectAssignmentRepository.findByUserId(userId);
-    List<Project> assignedProjects = myAssignments.stream()
-        .map(ProjectAssignment::getProject)
-        .collect(Collectors.toList());
-
-    // 重複を除いてマージ
-    return newProjects.stream()
-        .filter(p -> !assignedProjects.contains(p))
-        .collect(Collectors.toList())
-        .stream()
-        .map(ProjectResponse::from)
+  public List<ProjectResponse> getVisibleProjectsForPartner(UUID userId, int page, Integer size) {
+    int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    List<UUID> ids = projectRepository.findVisibleProjectIds(userId, PageRequest.of(Math.max(page, 0), pageSize));
+    Map<UUID, Project> projects = projectRepository.findByIdIn(ids).stream()
+        .collect(Collectors.toMap(Project::getId, Function.identity()));
+    return ids.stream()
+        .map(id -> ProjectResponse.withoutTableData(projects.get(id)))
         .collect(Collectors.toList());
   }
 
   // 案件詳細取得（アクセス制御付き）
   @Transactional(readOnly = true)
-  public ProjectResponse getProjectByIdWithAccessControl(UUID id, String loginId) {
-    User me = userRepository.findByLoginId(loginId)
-        .orElseThrow(() -> new RuntimeException("ユーザーが見つかりません: " + loginId));
-
+  public ProjectResponse getProjectByIdWithAccessControl(UUID id, AuthenticatedUser me) {
     Project project = projectRepository.findById(Objects.requireNonNull(id))
         .orElseThrow(() -> new RuntimeException("案件が見つかりません: " + id));
 
-    boolean isAdmin = me.getRole() == User.UserRole.ADMIN;
-    if (!isAdmin) {
+    if (!me.isAdmin()) {
       // 担当者の場合、NEWまたは自分が担当している案件のみアクセス可能
       boolean canView = project.getStatus() == Project.ProjectStatus.NEW
-          || project.getOwner().getId().equals(me.getId())
+          || project.getOwner().getId().equals(me.getUserId())
           || project.getAssignments().stream()
-              .anyMatch(a -> a.getUser().getId().equals(me.getId()));
+              .anyMatch(a -> a.getUser().getId().equals(me.getUserId()));
 
       if (!canView) {
         throw new AccessDeniedException("権限がありません");
       }
     }
-    return ProjectResponse.from(project);
+    return ProjectResponse.from(project, projectTableDataRepository.findByProjectId(id).orElse(null));
+  }
+
+  // 案件へのアクセス権限チェック（テーブルデータ系エンドポイント用）
+  // 案件本体・テーブルデータはロードせず、存在と可視性のみを判定する
+  @Transactional(readOnly = true)
+  public void checkProjectAccess(UUID id, AuthenticatedUser me) {
+    if (!projectRepository.existsById(Objects.requireNonNull(id))) {
+      throw new RuntimeException("案件が見つかりません: " + id);
+    }
+    if (!me.isAdmin() && !projectRepository.existsVisible(id, me.getUserId())) {
+      throw new AccessDeniedException("権限がありません");
+    }
   }
 
   // 案件更新
   @Transactional
-  public ProjectResponse updateProject(UUID id, ProjectRequest request, String loginId) {
-    User editor = userRepository.findByLoginId(loginId)
-        .orElseThrow(() -> new RuntimeException("ユーザーが見つかりません: " + loginId));
-
+  public ProjectResponse updateProject(UUID id, ProjectRequest request, AuthenticatedUser editor) {
     Project project = projectRepository.findById(Objects.requireNonNull(id))
         .orElseThrow(() -> new RuntimeException("案件が見つかりません: " + id));
 
+    // 変更前後のパートナーのダッシュボードを無効化
+    eventPublisher.publishEvent(PartnerDataChangedEvent.of(project.getPartner().getId(), request.getPartnerId()));
+
     // 基本情報を更新
     project.setName(request.getName());
     project.setStatus(request.getStatus());
@@ -172,7 +223,7 @@ public class ProjectService {
     }
 
     // 管理者の場合のみ担当者を更新可能
-    if (editor.getRole() == User.UserRole.ADMIN && request.getAssignedUserIds() != null) {
+    if (editor.isAdmin() && request.getAssignedUserIds() != null) {
       // 既存の担当者をクリア
       project.getAssignments().clear();
       // 新しい担当者を追加
@@ -187,81 +238,30 @@ public class ProjectService {
     }
 
     // テーブルデータを更新
+    ProjectTableData tableData = projectTableDataRepository.findByProjectId(id).orElse(null);
     if (request.getTableDataJson() != null) {
-      if (project.getTableData() != null) {
+      if (tableData != null) {
         // 既存データを更新
-        project.getTableData().setTableDataJson(request.getTableDataJson());
+        tableData.setTableDataJson(request.getTableDataJson());
       } else {
         // 新規データを作成
-        ProjectTableData tableData = ProjectTableData.builder()
+        tableData = projectTableDataRepository.save(ProjectTableData.builder()
             .project(project)
             .tableDataJson(request.getTableDataJson())
-            .build();
-        project.setTableData(tableData);
+            .build());
       }
     }
     // 担当者は常に編集者にする（オーナーは変更しない）
     Project updatedProject = projectRepository.save(project);
-    return ProjectResponse.from(updatedProject);
+    return ProjectResponse.from(updatedProject, tableData);
   }
 
   // 案件削除
   @Transactional
   public void deleteProject(UUID id) {
-    if (!projectRepository.existsById(Objects.requireNonNull(id))) {
-      throw new RuntimeException("案件が見つかりません: " + id);
-    }
-    projectRepository.deleteById(Objects.requireNonNull(id));
-  }
-
-  // プロジェクトのテーブルデータを取得
-  @Transactional(readOnly = true)
-  public String getProjectTableData(UUID projectId) {
-    // プロジェクトの存在確認（存在しない場合は早期にエラーを返す）
-    projectRepository.findById(projectId)
-        .orElseThrow(() -> new RuntimeException("案件が見つかりません"));
-    // テーブルデータを取得
-    Optional<ProjectTableData> tableData = projectTableDataRepository.findByProjectId(projectId);
-    // テーブルデータが存在しない場合はデフォルトのJSONを返す
-    if (tableData.isEmpty() || tableData.get().getTableDataJson() == null) {
-      return getDefaultTableDataJson();
-    }
-    return tableData.get().getTableDataJson();
-  }
-
-  // プロジェクトのテーブルデータを保存
-  @Transactional
-  public void saveProjectTableData(UUID projectId, String tableDataJson) {
-    // プロジェクトの存在確認
-    Project project = projectRepository.findById(projectId)
-        .orElseThrow(() -> new RuntimeException("案件が見つかりません"));
-
-    // 既存のテーブルデータを取得または新規作成
-    ProjectTableData tableData = projectTableDataRepository.findByProjectId(projectId)
-        .orElse(ProjectTableData.builder()
-            .project(project)
-            .build());
-
-    // データを更新
-    tableData.setTableDataJson(tableDataJson);
-
-    // 保存
-    projectTableDataRepository.save(tableData);
-  }
-
-  // デフォルトのテーブルデータJSON（5行×5列）
-  private String getDefaultTableDataJson() {
-    return """
-        {
-          "headers": ["列A", "列B", "列C", "列D", "列E"],
-          "rows": [
-            ["", "", "", "", ""],
-            ["", "", "", "", ""],
-            ["", "", "", "", ""],
-            ["", "", "", "", ""],
-            ["", "", "", "", ""]
-          ]
-        }
-        """;
+    Project project = projectRepository.findById(Objects.requireNonNull(id))
+        .orElseThrow(() -> new RuntimeException("案件が見つかりません: " + id));
+    projectRepository.delete(project);
+    eventPublisher.publishEvent(PartnerDataChangedEvent.of(project.getPartner().getId()));
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,445 @@
+package com.example.prmtool.service;
+
+import com.example.prmtool.dto.TableDataHeaderResponse;
+import com.example.prmtool.dto.TableDataPatchRequest;
+import com.example.prmtool.dto.TableDataRowsResponse;
+import com.example.prmtool.entity.CompressedTextConverter;
+import com.example.prmtool.entity.Project;
+import com.example.prmtool.entity.ProjectTableData;
+import com.example.prmtool.repository.ProjectRepository;
+import com.example.prmtool.repository.ProjectTableDataRepository;
+import com.example.prmtool.repository.ProjectTableDataRepository.StoredDocument;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * プロジェクトテーブルデータサービス
+ * テーブルデータ（{"headers": [...], "rows": [[...], ...]}）の取得・保存・差分更新を管理
+ * 保存のたびに版数が増加し、差分更新では編集元の版数と一致しない場合に競合として拒否する
+ * 行範囲・ヘッダーの取得は圧縮列を展開しながらストリーミングパーサーで読み、ドキュメント全体を文字列化・ツリー化しない
+ * （案件へのアクセス権限はコントローラーで確認済みのため、案件本体は読み込まない）
+ */
+@Service
+@RequiredArgsConstructor
+public class ProjectTableDataService {
+
+  private final ProjectRepository projectRepository;
+  private final ProjectTableDataRepository projectTableDataRepository;
+  private final ObjectMapper objectMapper;
+
+  // 行範囲取得の既定件数・最大件数
+  private static final int DEFAULT_ROW_LIMIT = 200;
+  private static final int MAX_ROW_LIMIT = 1000;
+
+  // デフォルトのテーブルデータJSON（5行×5列）
+  private static final String DEFAULT_TABLE_DATA_JSON = """
+      {
+        "headers": ["列A", "列B", "列C", "列D", "列E"],
+        "rows": [
+          ["", "", "", "", ""],
+          ["", "", "", "", ""],
+          ["", "", "", "", ""],
+          ["", "", "", "", ""],
+          ["", "", "", "", ""]
+        ]
+      }
+      """;
+
+  /**
+   * テーブルデータと版数を取得
+   * 未保存の場合はデフォルトのテーブルデータ（版数0）を返す
+   */
+  @Transactional(readOnly = true)
+  public Map<String, Object> getTableData(UUID projectId) {
+    // プロジェクトの存在確認（存在しない場合は早期にエラーを返す）
+    findProject(projectId);
+
+    Map<String, Object> result = new HashMap<>();
+    ProjectTableData tableData = projectTableDataRepository.findByProjectId(projectId).orElse(null);
+    if (tableData == null || tableData.getTableDataJson() == null) {
+      result.put("tableDataJson", DEFAULT_TABLE_DATA_JSON);
+    } else {
+      result.put("tableDataJson", tableData.getTableDataJson());
+    }
+    result.put("version", tableData != null ? tableData.getVersion() : 0L);
+    return result;
+  }
+
+  /**
+   * ヘッダー（列名）と行数を取得
+   * 行はスキップしながら数えるだけで、セルの値は読み込まない
+   */
+  @Transactional(readOnly = true)
+  public TableDataHeaderResponse getHeader(UUID projectId) {
+    StoredDocument stored = findStored(projectId);
+    List<String> headers = new ArrayList<>();
+    int[] rowCount = { 0 };
+
+    streamDocument(stored, parser -> readStringArray(parser, headers), parser -> {
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        parser.skipChildren();
+        rowCount[0]++;
+      }
+      return true;
+    });
+
+    return TableDataHeaderResponse.builder()
+        .version(versionOf(stored))
+        .headers(headers)
+        .rowCount(rowCount[0])
+        .build();
+  }
+
+  /**
+   * 指定範囲の行を取得
+   * offsetより前の行は読み飛ばし、limit件＋1件（後続有無の判定）を読んだ時点で解析を打ち切る
+   *
+   * @param columns 返却する列の位置（nullまたは空の場合は全列）
+   */
+  @Transactional(readOnly = true)
+  public TableDataRowsResponse getRows(UUID projectId, int offset, Integer limit, List<Integer> columns) {
+    if (offset < 0) {
+      throw new IllegalArgumentException("行位置が範囲外です: " + offset);
+    }
+    int rowLimit = limit == null ? DEFAULT_ROW_LIMIT : Math.min(Math.max(limit, 1), MAX_ROW_LIMIT);
+    List<Integer> selected = columns == null || columns.isEmpty() ? null : columns;
+    BitSet selectedColumns = null;
+    int lastColumn = Integer.MAX_VALUE;
+    if (selected != null) {
+      selectedColumns = new BitSet();
+      for (Integer column : selected) {
+        if (column == null || column < 0) {
+          throw new IllegalArgumentException("列位置が範囲外です: " + column);
+        }
+        selectedColumns.set(column);
+      }
+      lastColumn = selectedColumns.length() - 1;
+    }
+
+    StoredDocument stored = findStored(projectId);
+    List<List<String>> rows = new ArrayList<>();
+    boolean[] hasMore = { false };
+    BitSet wanted = selectedColumns;
+    int maxColumn = lastColumn;
+
+    streamDocument(stored, JsonParser::skipChildren, parser -> {
+      int index = 0;
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        if (index < offset) {
+          parser.skipChildren();
+        } else if (rows.size() < rowLimit) {
+          rows.add(readRow(parser, wanted, maxColumn));
+        } else {
+          hasMore[0] = true;
+          return false;
+        }
+        index++;
+      }
+      return true;
+    });
+
+    // 指定列の並び順に揃える
+    if (selected != null) {
+      for (int i = 0; i < rows.size(); i++) {
+        List<String> cells = rows.get(i);
+        List<String> ordered = new ArrayList<>(selected.size());
+        for (Integer column : selected) {
+          ordered.add(cellAt(cells, wanted, column));
+        }
+        rows.set(i, ordered);
+      }
+    }
+
+    return TableDataRowsResponse.builder()
+        .version(versionOf(stored))
+        .offset(offset)
+        .columns(selected)
+        .rows(rows)
+        .hasMore(hasMore[0])
+        .build();
+  }
+
+  /**
+   * テーブルデータ全体を保存
+   *
+   * @return 保存後の版数
+   */
+  @Transactional
+  public long saveTableData(UUID projectId, String tableDataJson) {
+    ProjectTableData tableData = findOrCreate(projectId);
+    tableData.setTableDataJson(tableDataJson);
+    return projectTableDataRepository.saveAndFlush(tableData).getVersion();
+  }
+
+  /**
+   * テーブルデータに操作を順に適用して保存（差分更新）
+   * いずれかの操作が不正な場合は何も保存しない
+   *
+   * @return 保存後の版数
+   */
+  @Transactional
+  public long patchTableData(UUID projectId, TableDataPatchRequest request) {
+    ProjectTableData tableData = findOrCreate(projectId);
+    long currentVersion = tableData.getVersion() != null ? tableData.getVersion() : 0L;
+    if (currentVersion != request.getBaseVersion()) {
+      throw new OptimisticLockingFailureException(
+          "テーブルデータが他のユーザーによって更新されています。現在の版数: " + currentVersion);
+    }
+
+    ObjectNode document = parseDocument(tableData.getTableDataJson());
+    ArrayNode headers = (ArrayNode) document.get("headers");
+    ArrayNode rows = (ArrayNode) document.get("rows");
+
+    List<TableDataPatchRequest.Operation> operations = request.getOperations();
+    for (int i = 0; i < operations.size(); i++) {
+      try {
+        applyOperation(headers, rows, operations.get(i));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("操作" + (i + 1) + ": " + e.getMessage(), e);
+      }
+    }
+
+    tableData.setTableDataJson(writeDocument(document));
+    return projectTableDataRepository.saveAndFlush(tableData).getVersion();
+  }
+
+  // 既存のテーブルデータを取得、未保存の場合はデフォルト内容で作成
+  private ProjectTableData findOrCreate(UUID projectId) {
+    Project project = findProject(projectId);
+    return projectTableDataRepository.findByProjectId(projectId)
+        .orElseGet(() -> projectTableDataRepository.saveAndFlush(ProjectTableData.builder()
+            .project(project)
+            .tableDataJson(DEFAULT_TABLE_DATA_JSON)
+            .build()));
+  }
+
+  // 保存済みのテーブルデータを圧縮されたまま取得（未保存の場合はnull）
+  private StoredDocument findStored(UUID projectId) {
+    return projectTableDataRepository.findStoredDocumentByProjectId(projectId).orElse(null);
+  }
+
+  private long versionOf(StoredDocument stored) {
+    return stored != null && stored.getVersion() != null ? stored.getVersion() : 0L;
+  }
+
+  // 保存済みのテーブルデータのパーサーを開く
+  // 旧TEXT列に値が残っていればそちらを優先し（ProjectTableData.getTableDataJsonと同じ）、圧縮列は展開しながら読む
+  private JsonParser openParser(StoredDocument stored) throws IOException {
+    if (stored != null && stored.getLegacyJson() != null) {
+      return objectMapper.getFactory().createParser(stored.getLegacyJson());
+    }
+    if (stored != null && stored.getCompressed() != null) {
+      return objectMapper.getFactory().createParser(CompressedTextConverter.openStream(stored.getCompressed()));
+    }
+    return objectMapper.getFactory().createParser(DEFAULT_TABLE_DATA_JSON);
+  }
+
+  /**
+   * ドキュメントをストリーミングで走査
+   * "headers"・"rows"の配列に到達したらそれぞれのハンドラーを呼び出す（パーサーは配列の開始位置）
+   * rowsハンドラーがfalseを返した場合はその時点で解析を終了する
+   */
+  private void streamDocument(StoredDocument stored, ArrayHandler headersHandler, RowsHandler rowsHandler) {
+    try (JsonParser parser = openParser(stored)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        JsonToken value = parser.nextToken();
+        if (value == JsonToken.START_ARRAY && "headers".equals(field)) {
+          headersHandler.handle(parser);
+        } else if (value == JsonToken.START_ARRAY && "rows".equals(field)) {
+          if (!rowsHandler.handle(parser)) {
+            return;
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("保存されているテーブルデータを読み込めません", e);
+    }
+  }
+
+  // 文字列配列を読み込む（パーサーは配列の開始位置）
+  private void readStringArray(JsonParser parser, List<String> values) throws IOException {
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      values.add(scalarText(parser));
+    }
+  }
+
+  // 1行を読み込む。列指定がある場合は指定列以外をnullとし、最後の指定列より後は読み飛ばす
+  private List<String> readRow(JsonParser parser, BitSet wanted, int maxColumn) throws IOException {
+    List<String> cells = new ArrayList<>();
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return cells;
+    }
+    int column = 0;
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      if (column > maxColumn) {
+        parser.skipChildren();
+      } else if (wanted == null || wanted.get(column)) {
+        cells.add(scalarText(parser));
+      } else {
+        parser.skipChildren();
+        cells.add(null);
+      }
+      column++;
+    }
+    return cells;
+  }
+
+  private String cellAt(List<String> cells, BitSet wanted, int column) {
+    String value = column < cells.size() && wanted.get(column) ? cells.get(column) : null;
+    return value != null ? value : "";
+  }
+
+  // スカラー値を文字列として取得（オブジェクト・配列は空文字として読み飛ばす）
+  private String scalarText(JsonParser parser) throws IOException {
+    if (parser.currentToken().isStructStart()) {
+      parser.skipChildren();
+      return "";
+    }
+    String text = parser.getValueAsString();
+    return text != null ? text : "";
+  }
+
+  @FunctionalInterface
+  private interface ArrayHandler {
+    void handle(JsonParser parser) throws IOException;
+  }
+
+  @FunctionalInterface
+  private interface RowsHandler {
+    boolean handle(JsonParser parser) throws IOException;
+  }
+
+  private Project findProject(UUID projectId) {
+    return projectRepository.findById(projectId)
+        .orElseThrow(() -> new RuntimeException("案件が見つかりません"));
+  }
+
+  // 1件の操作を適用
+  private void applyOperation(ArrayNode headers, ArrayNode rows, TableDataPatchRequest.Operation op) {
+    switch (op.getType()) {
+      case SET_CELL -> {
+        int row = requireIndex(op.getRow(), rows.size(), "行");
+        int column = requireIndex(op.getColumn(), headers.size(), "列");
+        ArrayNode cells = rowAt(rows, row);
+        while (cells.size() <= column) {
+          cells.add("");
+        }
+        cells.set(column, textOf(op.getValue()));
+      }
+      case SET_HEADER -> {
+        int column = requireIndex(op.getColumn(), headers.size(), "列");
+        headers.set(column, textOf(op.getValue()));
+      }
+      case INSERT_ROW -> {
+        int row = op.getRow() != null ? requireIndex(op.getRow(), rows.size() + 1, "行") : rows.size();
+        ArrayNode cells = objectMapper.createArrayNode();
+        List<String> values = op.getValues();
+        for (int column = 0; column < headers.size(); column++) {
+          cells.add(values != null && column < values.size() ? textOf(values.get(column)) : "");
+        }
+        rows.insert(row, cells);
+      }
+      case DELETE_ROW -> rows.remove(requireIndex(op.getRow(), rows.size(), "行"));
+      case INSERT_COLUMN -> {
+        int column = op.getColumn() != null
+            ? requireIndex(op.getColumn(), headers.size() + 1, "列")
+            : headers.size();
+        headers.insert(column, op.getValue() != null ? op.getValue() : "列" + (headers.size() + 1));
+        for (int row = 0; row < rows.size(); row++) {
+          ArrayNode cells = rowAt(rows, row);
+          while (cells.size() < column) {
+            cells.add("");
+          }
+          cells.insert(column, "");
+        }
+      }
+      case DELETE_COLUMN -> {
+        int column = requireIndex(op.getColumn(), headers.size(), "列");
+        headers.remove(column);
+        for (int row = 0; row < rows.size(); row++) {
+          ArrayNode cells = rowAt(rows, row);
+          if (column < cells.size()) {
+            cells.remove(column);
+          }
+        }
+      }
+      default -> throw new IllegalArgumentException("未対応の操作です: " + op.getType());
+    }
+  }
+
+  // 位置が 0 <= index < size の範囲内かチェック
+  private int requireIndex(Integer index, int size, String label) {
+    if (index == null) {
+      throw new IllegalArgumentException(label + "位置は必須です");
+    }
+    if (index < 0 || index >= size) {
+      throw new IllegalArgumentException(label + "位置が範囲外です: " + index);
+    }
+    return index;
+  }
+
+  // 行を配列として取得（配列でない場合は空の配列に置き換える）
+  private ArrayNode rowAt(ArrayNode rows, int row) {
+    JsonNode node = rows.get(row);
+    if (node instanceof ArrayNode cells) {
+      return cells;
+    }
+    ArrayNode cells = objectMapper.createArrayNode();
+    rows.set(row, cells);
+    return cells;
+  }
+
+  private String textOf(String value) {
+    return value != null ? value : "";
+  }
+
+  // 保存済みJSONを読み込み、headers・rowsが配列であることを保証する
+  private ObjectNode parseDocument(String json) {
+    ObjectNode document;
+    try {
+      JsonNode node = objectMapper.readTree(json != null ? json : DEFAULT_TABLE_DATA_JSON);
+      document = node instanceof ObjectNode object ? object : objectMapper.createObjectNode();
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("保存されているテーブルデータを読み込めません", e);
+    }
+    if (!(document.get("headers") instanceof ArrayNode)) {
+      document.putArray("headers");
+    }
+    if (!(document.get("rows") instanceof ArrayNode)) {
+      document.putArray("rows");
+    }
+    return document;
+  }
+
+  private String writeDocument(ObjectNode document) {
+    try {
+      return objectMapper.writeValueAsString(document);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("テーブルデータを保存できません", e);
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.example.prmtool.service;
+
+import java.nio.file.Path;
+
+/**
+ * ハッシュ計算済みの一時ファイル
+ * コンテンツアドレス方式で保存する前段階で、確定（promote）するまでストレージの一時領域に置かれる
+ *
+ * @param path 一時ファイルのパス
+ * @param sha256 ファイル内容のSHA-256（16進数）
+ * @param size ファイルサイズ（バイト）
+ */
+public record StagedFile(Path path, String sha256, long size) {
+}
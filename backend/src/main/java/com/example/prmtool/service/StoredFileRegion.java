@@ -0,0 +1,15 @@
+package com.example.prmtool.service;
+
+import java.nio.file.Path;
+
+/**
+ * 保存済みファイルの実体の位置
+ * 通常のファイルは全体、セグメントにまとめて格納した小さなファイルはセグメントファイル内の範囲を指す
+ *
+ * @param file 実体を含むファイルのパス
+ * @param offset ファイル内の開始位置（バイト）
+ * @param length 長さ（バイト）
+ * @param lastModified 保存日時（エポックミリ秒）
+ */
+public record StoredFileRegion(Path file, long offset, long length, long lastModified) {
+}
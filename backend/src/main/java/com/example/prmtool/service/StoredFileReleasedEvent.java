@@ -0,0 +1,11 @@
+package com.example.prmtool.service;
+
+/**
+ * コンテンツファイルの削除によりストレージ上のファイルが不要になった可能性を示すイベント
+ * ContentBlobServiceがコミット後に処理する
+ *
+ * @param storedFileName ストレージ上のファイル名（URLの末尾）
+ * @param contentHash 内容ハッシュで保存した実体の場合はそのハッシュ、以前のUUID名のファイルの場合はnull
+ */
+public record StoredFileReleasedEvent(String storedFileName, String contentHash) {
+}
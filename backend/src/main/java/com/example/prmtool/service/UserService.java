@@ -1,5 +1,6 @@
 package com.example.prmtool.service;
 
+import com.example.prmtool.config.JwtPrincipalCache;
 import com.example.prmtool.dto.UserRequest;
 import com.example.prmtool.dto.UserResponse;
 import com.example.prmtool.entity.User;
@@ -17,10 +18,13 @@ public class UserService {
 
   private final UserRepository userRepository;
   private final PasswordEncoder passwordEncoder;
+  private final JwtPrincipalCache principalCache;
 
-  public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+  public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+      JwtPrincipalCache principalCache) {
     this.userRepository = userRepository;
     this.passwordEncoder = passwordEncoder;
+    this.principalCache = principalCache;
   }
 
   /**
@@ -118,6 +122,8 @@ public class UserService {
       user.setPasswordHash(passwordEncoder.encode(request.getPassword()));
     }
     User updatedUser = userRepository.save(user);
+    // 認証キャッシュのプリンシパルを無効化（ロール・ログインIDの変更を即時反映）
+    principalCache.evictUser(id);
     return UserResponse.from(updatedUser);
   }
 
@@ -134,5 +140,7 @@ public class UserService {
       throw new RuntimeException("初回管理者アカウントは削除できません");
     }
     userRepository.deleteById(id);
+    // 削除済みユーザーのトークンを即時に無効化
+    principalCache.evictUser(id);
   }
 }
\ No newline at end of file
@@ -1,33 +1,92 @@
 package com.example.prmtool.service.impl;
 
 import com.example.prmtool.config.FileStorageProperties;
+import com.example.prmtool.dto.StorageStatusResponse;
+import com.example.prmtool.dto.StorageStatusResponse.MigrationStatus;
 import com.example.prmtool.exception.FileStorageException;
 import com.example.prmtool.service.FileStorageService;
+import com.example.prmtool.service.StagedFile;
+import com.example.prmtool.service.StoredFileRegion;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
  * ローカルファイルストレージサービス実装
  * ローカルディスクにファイルを保存・読み込み・削除
+ *
+ * 新しいファイルは内容のSHA-256をファイル名とした実体として1つだけ保存する（コンテンツアドレス方式）
+ * URL上のファイル名は「ハッシュ + 元の拡張子」で、読み込み時に実体のパスへ変換する
+ * 以前のUUID名のファイルはそのまま読み込み・削除できる
+ *
+ * 保存レイアウト（file.storage.local.layout）
+ * - flat: アップロードディレクトリ直下に置く
+ * - sharded: ファイル名の先頭4文字で2階層のディレクトリに振り分け、1ディレクトリのファイル数を抑える
+ * - 小さな実体は追記専用のセグメントファイルにまとめる（SegmentStore）
+ * 読み込み時はセグメント → shardedの位置 → flatの位置の順に探すため、移行途中やレイアウト変更後も読み込める
+ * 既存のファイルは移行ジョブ（startLayoutMigration）で稼働中に現在のレイアウトへ移動する
  */
 @Service
 @Slf4j
 public class LocalFileStorageService implements FileStorageService {
 
+  private static final String FILE_URL_PREFIX = "/api/files/";
+  private static final String STAGING_DIR = ".staging";
+  private static final String SEGMENT_DIR = "segments";
+  private static final String LAYOUT_SHARDED = "sharded";
+  private static final String LAYOUT_FLAT = "flat";
+  private static final int FILE_LOCK_STRIPES = 64;
+
+  // 内容ハッシュで保存したファイルのURL上の名前（ハッシュ + 任意の拡張子）
+  private static final Pattern CONTENT_FILE_NAME = Pattern.compile("^([0-9a-f]{64})(\\.[^./\\\\]+)?$");
+  // 内容ハッシュで保存した実体のファイル名
+  private static final Pattern CONTENT_BLOB_NAME = Pattern.compile("^[0-9a-f]{64}$");
+  // shardedレイアウトで振り分けに使うファイル名の先頭4文字
+  private static final Pattern SHARD_PREFIX = Pattern.compile("^[0-9A-Za-z]{4}");
+
   private final Path fileStorageLocation;
+  private final Path stagingLocation; // ハッシュ計算中の一時ファイル（確定時にリネームで済むよう同じディレクトリ配下に置く）
   private final FileStorageProperties fileStorageProperties;
+  private final boolean sharded; // shardedレイアウトで保存するか
+  private final boolean segmentPacking; // 小さな実体をセグメントにまとめるか
+  private final SegmentStore segmentStore; // セグメントを使わない設定で、既存のセグメントもない場合はnull
+  private final ExecutorService migrationExecutor; // 移行ジョブの実行用
+  private final MigrationProgress migration = new MigrationProgress();
+  // 同じファイル名の実体の削除と移行ジョブによる移動を直列にするロック（ファイル名のハッシュで振り分ける）
+  // 移動中に削除されると、削除済みの位置へ移動した実体や追記したセグメントのレコードが残るため
+  private final Object[] fileLocks = new Object[FILE_LOCK_STRIPES];
 
   /**
    * コンストラクタ
@@ -37,56 +96,180 @@ public class LocalFileStorageService implements FileStorageService {
     this.fileStorageProperties = fileStorageProperties;
     this.fileStorageLocation = Paths.get(fileStorageProperties.getLocal().getUploadDir())
         .toAbsolutePath().normalize();
+    this.stagingLocation = this.fileStorageLocation.resolve(STAGING_DIR);
+    for (int i = 0; i < fileLocks.length; i++) {
+      fileLocks[i] = new Object();
+    }
+
+    FileStorageProperties.Local local = fileStorageProperties.getLocal();
+    if (!LAYOUT_SHARDED.equals(local.getLayout()) && !LAYOUT_FLAT.equals(local.getLayout())) {
+      throw new IllegalArgumentException("保存レイアウトは flat または sharded を指定してください: " + local.getLayout());
+    }
+    this.sharded = LAYOUT_SHARDED.equals(local.getLayout());
+    this.segmentPacking = local.getSegment().isEnabled();
 
     try {
       Files.createDirectories(this.fileStorageLocation);
+      Files.createDirectories(this.stagingLocation);
       log.info("ファイルストレージディレクトリを作成しました: {}", this.fileStorageLocation);
     } catch (Exception ex) {
       throw new FileStorageException("ファイルを保存するディレクトリを作成できませんでした。", ex);
     }
+
+    // セグメントを使わない設定でも、既存のセグメントがあれば読み込めるよう開いておく
+    Path segmentLocation = this.fileStorageLocation.resolve(SEGMENT_DIR);
+    try {
+      this.segmentStore = segmentPacking || Files.isDirectory(segmentLocation)
+          ? new SegmentStore(segmentLocation, local.getSegment().getMaxSize())
+          : null;
+    } catch (IOException ex) {
+      throw new FileStorageException("セグメントを読み込めませんでした。", ex);
+    }
+
+    this.migrationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "storage-migration");
+      thread.setDaemon(true);
+      return thread;
+    });
   }
 
   /**
-   * ファイルを保存
-   * ファイル名を一意にするためにUUIDを使用
+   * アップロードされたファイルを一時領域に書き込み、書き込みながらSHA-256を計算
    */
   @Override
-  public String storeFile(MultipartFile file) {
+  public StagedFile stageFile(MultipartFile file) {
     // オリジナルファイル名を取得
     String originalFileName = StringUtils.cleanPath(file.getOriginalFilename());
 
-    try {
-      // ファイル名に不正な文字が含まれていないかチェック
-      if (originalFileName.contains("..")) {
-        throw new FileStorageException("ファイル名に不正な文字が含まれています: " + originalFileName);
+    // ファイル名と拡張子をチェック
+    validateFileName(originalFileName);
+
+    Path stagedPath = this.stagingLocation.resolve(UUID.randomUUID().toString());
+    MessageDigest digest = newSha256();
+    try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+      long size = Files.copy(in, stagedPath);
+      return new StagedFile(stagedPath, HexFormat.of().formatHex(digest.digest()), size);
+    } catch (IOException ex) {
+      deleteQuietly(stagedPath);
+      throw new FileStorageException("ファイル " + originalFileName + " を保存できませんでした。もう一度お試しください。", ex);
+    }
+  }
+
+  /**
+   * ハッシュ計算済みのファイルを一時領域にコピーして一時ファイルとする
+   * ハードリンクにすると確定した実体が元のファイルと同じinodeを共有し、元のファイルへの書き込みで
+   * 実体が内容ハッシュと食い違うため、必ず複製する。コピーしながらSHA-256を再計算して照合する
+   */
+  @Override
+  public StagedFile stageFile(Path source, String sha256) {
+    Path stagedPath = this.stagingLocation.resolve(UUID.randomUUID().toString());
+    MessageDigest digest = newSha256();
+    try (InputStream in = new DigestInputStream(Files.newInputStream(source), digest)) {
+      long size = Files.copy(in, stagedPath);
+      if (!HexFormat.of().formatHex(digest.digest()).equalsIgnoreCase(sha256)) {
+        deleteQuietly(stagedPath);
+        throw new FileStorageException("アップロードしたファイルの内容がハッシュ計算後に変更されました。");
       }
+      return new StagedFile(stagedPath, sha256.toLowerCase(), size);
+    } catch (IOException ex) {
+      deleteQuietly(stagedPath);
+      throw new FileStorageException("アップロードしたファイルを読み込めませんでした。", ex);
+    }
+  }
+
+  /**
+   * 一時ファイルを内容ハッシュ名の実体として確定
+   * 同じファイルシステム上であればリネームのみで完了する
+   */
+  @Override
+  public boolean promoteStagedFile(StagedFile staged) {
+    if (contentExists(staged.sha256())) {
+      // 同じ内容が保存済み（重複アップロード）
+      deleteQuietly(staged.path());
+      log.info("同じ内容のファイルが保存済みのため再利用しました: {}", staged.sha256());
+      return false;
+    }
 
-      // 拡張子を取得
-      String fileExtension = "";
-      int dotIndex = originalFileName.lastIndexOf('.');
-      if (dotIndex > 0) {
-        fileExtension = originalFileName.substring(dotIndex);
+    if (shouldPack(staged.size())) {
+      try {
+        boolean appended = segmentStore.append(staged.sha256(), staged.path());
+        deleteQuietly(staged.path());
+        log.info("ファイルをセグメントに保存しました: {}", staged.sha256());
+        return appended;
+      } catch (IOException ex) {
+        throw new FileStorageException("ファイルを保存できませんでした。もう一度お試しください。", ex);
       }
+    }
 
-      // 許可された拡張子かチェック
-      if (!isAllowedExtension(fileExtension)) {
-        throw new FileStorageException("許可されていない拡張子です: " + fileExtension);
+    Path targetLocation = layoutPath(staged.sha256());
+    try {
+      Files.createDirectories(targetLocation.getParent());
+      try {
+        Files.move(staged.path(), targetLocation, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException ex) {
+        // 別のファイルシステムの場合はコピーして削除
+        Files.move(staged.path(), targetLocation);
       }
+    } catch (FileAlreadyExistsException ex) {
+      deleteQuietly(staged.path());
+      return false;
+    } catch (IOException ex) {
+      throw new FileStorageException("ファイルを保存できませんでした。もう一度お試しください。", ex);
+    }
 
-      // 一意のファイル名を生成（UUID + 元の拡張子）
-      String storedFileName = UUID.randomUUID().toString() + fileExtension;
+    log.info("ファイルを保存しました: {}", staged.sha256());
+    return true;
+  }
 
-      // ファイルを保存
-      Path targetLocation = this.fileStorageLocation.resolve(storedFileName);
-      Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+  /**
+   * 一時ファイルを破棄
+   */
+  @Override
+  public void discardStagedFile(StagedFile staged) {
+    deleteQuietly(staged.path());
+  }
 
-      log.info("ファイルを保存しました: {}", storedFileName);
+  /**
+   * 内容ハッシュで保存したファイルのURLを取得
+   */
+  @Override
+  public String contentFileUrl(String sha256, String originalFileName) {
+    return FILE_URL_PREFIX + sha256 + extensionOf(StringUtils.cleanPath(originalFileName)).toLowerCase();
+  }
 
-      // ファイルURLを返却
-      return "/api/files/" + storedFileName;
+  /**
+   * 内容ハッシュで保存した実体を削除
+   */
+  @Override
+  public void deleteContent(String sha256) {
+    synchronized (fileLock(sha256)) {
+      try {
+        if (segmentStore != null) {
+          segmentStore.delete(sha256);
+        }
+        Files.deleteIfExists(shardedPath(sha256));
+        Files.deleteIfExists(flatPath(sha256));
+        log.info("参照されなくなったファイルを削除しました: {}", sha256);
+      } catch (IOException ex) {
+        throw new FileStorageException("ファイル " + sha256 + " を削除できませんでした。", ex);
+      }
+    }
+  }
 
-    } catch (IOException ex) {
-      throw new FileStorageException("ファイル " + originalFileName + " を保存できませんでした。もう一度お試しください。", ex);
+  /**
+   * ファイル名（不正な文字・拡張子）を検証
+   */
+  @Override
+  public void validateFileName(String originalFileName) {
+    // ファイル名に不正な文字が含まれていないかチェック
+    if (originalFileName.contains("..")) {
+      throw new FileStorageException("ファイル名に不正な文字が含まれています: " + originalFileName);
+    }
+
+    // 許可された拡張子かチェック
+    String fileExtension = extensionOf(originalFileName);
+    if (!isAllowedExtension(fileExtension)) {
+      throw new FileStorageException("許可されていない拡張子です: " + fileExtension);
     }
   }
 
@@ -95,8 +278,23 @@ public class LocalFileStorageService implements FileStorageService {
    */
   @Override
   public Resource loadFileAsResource(String fileName) {
+    Matcher matcher = CONTENT_FILE_NAME.matcher(fileName);
+    if (matcher.matches() && segmentStore != null) {
+      // セグメントに格納した小さなファイルはメモリマップしたスライスから読み込む
+      try {
+        ByteBuffer slice = segmentStore.slice(matcher.group(1));
+        if (slice != null) {
+          byte[] content = new byte[slice.remaining()];
+          slice.get(content);
+          return new ByteArrayResource(content);
+        }
+      } catch (IOException ex) {
+        throw new FileStorageException("ファイル " + fileName + " を読み込めませんでした。", ex);
+      }
+    }
+
     try {
-      Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
+      Path filePath = locate(storedNameOf(fileName));
       Resource resource = new UrlResource(filePath.toUri());
 
       if (resource.exists()) {
@@ -109,26 +307,277 @@ public class LocalFileStorageService implements FileStorageService {
     }
   }
 
+  /**
+   * 保存済みファイルの内容ハッシュを計算
+   * 内容ハッシュで保存したファイルは名前から取得する
+   */
+  @Override
+  public String computeContentHash(String fileName) {
+    Matcher matcher = CONTENT_FILE_NAME.matcher(fileName);
+    if (matcher.matches()) {
+      return matcher.group(1);
+    }
+
+    MessageDigest digest = newSha256();
+    Path filePath = locate(fileName);
+    try (InputStream in = new DigestInputStream(Files.newInputStream(filePath), digest)) {
+      in.transferTo(OutputStream.nullOutputStream());
+    } catch (NoSuchFileException ex) {
+      throw new FileStorageException("ファイルが見つかりません: " + fileName, ex);
+    } catch (IOException ex) {
+      throw new FileStorageException("ファイル " + fileName + " を読み込めませんでした。", ex);
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
   /**
    * ファイルを削除
+   * 内容ハッシュで保存したファイルは参照数で管理するため、ContentBlobService経由で削除する
    */
   @Override
   public void deleteFile(String fileName) {
+    if (CONTENT_FILE_NAME.matcher(fileName).matches()) {
+      throw new IllegalArgumentException("内容ハッシュで保存したファイルは参照数で管理しているため直接削除できません: " + fileName);
+    }
+    synchronized (fileLock(fileName)) {
+      try {
+        Files.deleteIfExists(shardedPath(fileName));
+        Files.deleteIfExists(flatPath(fileName));
+        log.info("ファイルを削除しました: {}", fileName);
+      } catch (IOException ex) {
+        throw new FileStorageException("ファイル " + fileName + " を削除できませんでした。", ex);
+      }
+    }
+  }
+
+  /**
+   * 保存済みファイルの実体の位置を取得
+   * 内容ハッシュで保存したファイルは拡張子を除いた実体を、セグメント → sharded → flat の順に探す
+   */
+  @Override
+  public StoredFileRegion resolveFile(String fileName) {
+    Matcher matcher = CONTENT_FILE_NAME.matcher(fileName);
+    if (matcher.matches() && segmentStore != null) {
+      SegmentStore.Entry entry = segmentStore.find(matcher.group(1));
+      if (entry != null) {
+        return new StoredFileRegion(segmentStore.segmentPath(entry), entry.offset(), entry.length(), entry.storedAt());
+      }
+    }
+
+    String storedName = storedNameOf(fileName);
+    // 移行ジョブが移動した直後の場合に備えて探し直す
+    for (int attempt = 0; ; attempt++) {
+      Path path = locate(storedName);
+      try {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return new StoredFileRegion(path, 0, attributes.size(), attributes.lastModifiedTime().toMillis());
+      } catch (NoSuchFileException ex) {
+        if (attempt > 0) {
+          throw new FileStorageException("ファイルが見つかりません: " + fileName, ex);
+        }
+      } catch (IOException ex) {
+        throw new FileStorageException("ファイル " + fileName + " を読み込めませんでした。", ex);
+      }
+    }
+  }
+
+  /**
+   * 不要領域の多いセグメントを定期的に詰め直す
+   */
+  @Scheduled(fixedDelayString = "${file.storage.local.segment.compaction-interval:600000}",
+      initialDelayString = "${file.storage.local.segment.compaction-interval:600000}")
+  public void compactSegments() {
+    if (segmentStore == null) {
+      return;
+    }
     try {
-      Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
-      Files.deleteIfExists(filePath);
-      log.info("ファイルを削除しました: {}", fileName);
-    } catch (IOException ex) {
-      throw new FileStorageException("ファイル " + fileName + " を削除できませんでした。", ex);
+      int compacted = segmentStore.compact(fileStorageProperties.getLocal().getSegment().getCompactionGarbageRatio());
+      if (compacted > 0) {
+        log.info("セグメントのコンパクションが完了しました: {}件", compacted);
+      }
+    } catch (Exception ex) {
+      log.error("セグメントのコンパクションに失敗しました", ex);
     }
   }
 
   /**
-   * ファイルパスを取得
+   * ストレージの状態を取得
+   */
+  @Override
+  public StorageStatusResponse getStorageStatus() {
+    return StorageStatusResponse.builder()
+        .layout(sharded ? LAYOUT_SHARDED : LAYOUT_FLAT)
+        .segmentEnabled(segmentPacking)
+        .segmentCount(segmentStore != null ? segmentStore.segmentCount() : 0)
+        .segmentEntryCount(segmentStore != null ? segmentStore.entryCount() : 0)
+        .segmentLiveBytes(segmentStore != null ? segmentStore.liveBytes() : 0)
+        .segmentTotalBytes(segmentStore != null ? segmentStore.totalBytes() : 0)
+        .migrationStatus(migration.status)
+        .migrationScanned(migration.scanned.get())
+        .migrationMoved(migration.moved.get())
+        .migrationPacked(migration.packed.get())
+        .migrationFailed(migration.failed.get())
+        .migrationFailureReason(migration.failureReason)
+        .migrationStartedAt(migration.startedAt)
+        .migrationFinishedAt(migration.finishedAt)
+        .build();
+  }
+
+  /**
+   * 保存済みファイルを現在のレイアウトへ移行するジョブを開始
    */
   @Override
-  public Path getFilePath(String fileName) {
-    return this.fileStorageLocation.resolve(fileName).normalize();
+  public synchronized StorageStatusResponse startLayoutMigration() {
+    if (migration.status == MigrationStatus.RUNNING) {
+      throw new IllegalStateException("保存レイアウトの移行は既に実行中です");
+    }
+    migration.start();
+    migrationExecutor.execute(this::migrateLayout);
+    return getStorageStatus();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    migrationExecutor.shutdownNow();
+    if (segmentStore != null) {
+      try {
+        segmentStore.close();
+      } catch (IOException ex) {
+        log.warn("セグメントを閉じられませんでした", ex);
+      }
+    }
+  }
+
+  // アップロードディレクトリ直下とshardedの位置にあるファイルを、現在のレイアウトの位置（またはセグメント）へ移す
+  private void migrateLayout() {
+    log.info("保存レイアウトの移行を開始しました: {}", sharded ? LAYOUT_SHARDED : LAYOUT_FLAT);
+    try (Stream<Path> files = Files.walk(this.fileStorageLocation, 3)) {
+      files.filter(this::isStoredFile).forEach(path -> {
+        if (Thread.currentThread().isInterrupted()) {
+          throw new IllegalStateException("アプリケーションの停止により中断しました");
+        }
+        migrateFile(path);
+      });
+      migration.finish(MigrationStatus.COMPLETED, null);
+      log.info("保存レイアウトの移行が完了しました: 移動{}件、セグメント{}件、失敗{}件",
+          migration.moved.get(), migration.packed.get(), migration.failed.get());
+    } catch (Exception ex) {
+      migration.finish(MigrationStatus.FAILED, ex.getMessage());
+      log.error("保存レイアウトの移行に失敗しました", ex);
+    }
+  }
+
+  // 1ファイルを移行（別のリクエストが先に削除した場合は何もしない）
+  // 削除と同じロックを取り、移動・追記の途中で削除されて実体が残らないようにする
+  private void migrateFile(Path path) {
+    migration.scanned.incrementAndGet();
+    String name = path.getFileName().toString();
+    synchronized (fileLock(name)) {
+      migrateFileLocked(path, name);
+    }
+  }
+
+  private void migrateFileLocked(Path path, String name) {
+    try {
+      if (CONTENT_BLOB_NAME.matcher(name).matches() && shouldPack(Files.size(path))) {
+        // セグメントへ追記してから元のファイルを削除する（同じ内容が格納済みなら削除のみ）
+        segmentStore.append(name, path);
+        Files.deleteIfExists(path);
+        migration.packed.incrementAndGet();
+        return;
+      }
+
+      Path target = layoutPath(name);
+      if (target.equals(path)) {
+        return;
+      }
+      Files.createDirectories(target.getParent());
+      // 同じディレクトリ配下のためリネームで移動でき、読み込み中のリクエストには影響しない
+      Files.move(path, target, StandardCopyOption.ATOMIC_MOVE);
+      migration.moved.incrementAndGet();
+    } catch (NoSuchFileException ex) {
+      // 移行中に削除された
+    } catch (IOException ex) {
+      migration.failed.incrementAndGet();
+      log.warn("ファイルを移行できませんでした: {}", path, ex);
+    }
+  }
+
+  // 保存済みファイルの位置か（直下のファイル、またはshardedの位置にあるファイル）
+  private boolean isStoredFile(Path path) {
+    if (!Files.isRegularFile(path)) {
+      return false;
+    }
+    int depth = this.fileStorageLocation.relativize(path).getNameCount();
+    return depth == 1 || (depth == 3 && shardedPath(path.getFileName().toString()).equals(path));
+  }
+
+  private Object fileLock(String storedName) {
+    return fileLocks[Math.floorMod(storedName.hashCode(), fileLocks.length)];
+  }
+
+  // 同じ内容の実体が保存済みか
+  private boolean contentExists(String sha256) {
+    return (segmentStore != null && segmentStore.contains(sha256))
+        || Files.exists(shardedPath(sha256))
+        || Files.exists(flatPath(sha256));
+  }
+
+  // セグメントにまとめるサイズか
+  private boolean shouldPack(long size) {
+    return segmentPacking && size <= fileStorageProperties.getLocal().getSegment().getSmallFileThreshold();
+  }
+
+  // URL上のファイル名から保存時のファイル名を取得（内容ハッシュで保存したファイルは拡張子を除く）
+  private String storedNameOf(String fileName) {
+    Matcher matcher = CONTENT_FILE_NAME.matcher(fileName);
+    return matcher.matches() ? matcher.group(1) : fileName;
+  }
+
+  // 保存済みファイルのパスを探す（sharded → flat の順）
+  private Path locate(String storedName) {
+    Path shardedPath = shardedPath(storedName);
+    if (Files.exists(shardedPath)) {
+      return shardedPath;
+    }
+    Path flatPath = flatPath(storedName);
+    if (Files.exists(flatPath)) {
+      return flatPath;
+    }
+    throw new FileStorageException("ファイルが見つかりません: " + storedName);
+  }
+
+  // 現在のレイアウトでの保存先
+  private Path layoutPath(String storedName) {
+    return sharded ? shardedPath(storedName) : flatPath(storedName);
+  }
+
+  // shardedレイアウトでの保存先（先頭4文字が英数字でない名前は直下に置く）
+  private Path shardedPath(String storedName) {
+    if (!SHARD_PREFIX.matcher(storedName).find()) {
+      return flatPath(storedName);
+    }
+    return this.fileStorageLocation
+        .resolve(storedName.substring(0, 2))
+        .resolve(storedName.substring(2, 4))
+        .resolve(storedName);
+  }
+
+  // flatレイアウトでの保存先
+  private Path flatPath(String storedName) {
+    Path path = this.fileStorageLocation.resolve(storedName).normalize();
+    if (!this.fileStorageLocation.equals(path.getParent())) {
+      throw new FileStorageException("ファイル名に不正な文字が含まれています: " + storedName);
+    }
+    return path;
+  }
+
+  /**
+   * 拡張子を取得（ドットを含む、ない場合は空文字）
+   */
+  private String extensionOf(String fileName) {
+    int dotIndex = fileName.lastIndexOf('.');
+    return dotIndex > 0 ? fileName.substring(dotIndex) : "";
   }
 
   /**
@@ -142,4 +591,51 @@ public class LocalFileStorageService implements FileStorageService {
     String ext = extension.toLowerCase().replace(".", "");
     return fileStorageProperties.getAllowedExtensions().contains(ext);
   }
-}
\ No newline at end of file
+
+  private static MessageDigest newSha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException("SHA-256が利用できません", ex);
+    }
+  }
+
+  /**
+   * 移行ジョブの進捗
+   */
+  private static final class MigrationProgress {
+    private volatile MigrationStatus status = MigrationStatus.IDLE;
+    private final AtomicInteger scanned = new AtomicInteger();
+    private final AtomicInteger moved = new AtomicInteger();
+    private final AtomicInteger packed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile String failureReason;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    private void start() {
+      scanned.set(0);
+      moved.set(0);
+      packed.set(0);
+      failed.set(0);
+      failureReason = null;
+      startedAt = LocalDateTime.now();
+      finishedAt = null;
+      status = MigrationStatus.RUNNING;
+    }
+
+    private void finish(MigrationStatus result, String reason) {
+      failureReason = reason;
+      finishedAt = LocalDateTime.now();
+      status = result;
+    }
+  }
+
+  private void deleteQuietly(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException ex) {
+      log.warn("一時ファイルを削除できませんでした: {}", path, ex);
+    }
+  }
+}
@@ -0,0 +1,546 @@
+package com.example.prmtool.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 小さなファイルをまとめて格納するセグメントストア
+ * 内容ハッシュをキーに、追記専用のセグメントファイルへレコードとして書き込み、
+ * 「ハッシュ → セグメント・位置・長さ」の索引をメモリ上に持つ（起動時にセグメントを走査して再構築する）
+ *
+ * - レコード形式: [マジック(4)][種別(1)][SHA-256(32)][長さ(8)][保存日時(8)][本体]
+ * - 追記は仮ヘッダー・本体の順に書いてから正しいヘッダーを書き、ディスクへの書き出し（force）を待ってから索引に登録する
+ *   途中で失敗した場合は書き込み位置を戻して切り詰めるため、ヘッダーだけが有効なレコードは残らない
+ * - 書き出しを待っているため、停止時に書きかけになり得るのは最後のセグメントの末尾のレコードだけで、
+ *   起動時は最後のセグメントのみ本体のSHA-256を検証し、一致しないレコード以降を切り詰める
+ * - 削除は削除レコード（本体なし）を追記し、索引から外すだけで、領域はコンパクションで回収する
+ * - 読み込みはセグメントをメモリマップし、該当範囲のスライスを返す
+ * - コンパクションは不要領域の多いセグメントの有効なレコードを末尾へ詰め直し、元のセグメントを退役させる
+ *   退役したセグメントは読み込み中のリクエストが解決済みのパスで読めるよう、ファイル名を変えずに次回のコンパクションまで残してから削除する
+ *   （削除前に停止した場合は起動時に通常のセグメントとして読み込まれるが、詰め直した先の新しいレコードで上書きされる）
+ */
+@Slf4j
+class SegmentStore implements Closeable {
+
+  static final int HEADER_SIZE = 4 + 1 + 32 + 8 + 8;
+
+  private static final int MAGIC = 0x50524D53; // "PRMS"
+  private static final byte TYPE_PUT = 1;
+  private static final byte TYPE_DELETE = 2;
+  private static final Pattern SEGMENT_NAME = Pattern.compile("^segment-(\\d{8})\\.dat$");
+  private static final String RETIRED_SUFFIX = ".retired";
+  private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * 索引のエントリ（本体の位置と長さ）
+   */
+  record Entry(int segmentId, long offset, long length, long storedAt) {
+  }
+
+  /**
+   * セグメントファイル
+   */
+  private static final class Segment {
+    private final int id;
+    private final Path path;
+    private volatile long size; // 書き込み済みのバイト数
+    private final AtomicLong liveBytes = new AtomicLong(); // 索引から参照されているレコードのバイト数
+    private volatile MappedByteBuffer mapped; // 読み込み用のメモリマップ（必要に応じて拡張）
+
+    private Segment(int id, Path path, long size) {
+      this.id = id;
+      this.path = path;
+      this.size = size;
+    }
+  }
+
+  private final Path directory;
+  private final long maxSegmentSize;
+  private final Map<String, Entry> index = new ConcurrentHashMap<>();
+  private final ConcurrentSkipListMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+  private final Map<Integer, Segment> retiredSegments = new ConcurrentHashMap<>();
+  private final Object writeLock = new Object(); // 追記・削除・詰め直しは直列に行う
+
+  private Segment active;
+  private FileChannel activeChannel;
+
+  SegmentStore(Path directory, long maxSegmentSize) throws IOException {
+    if (maxSegmentSize > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("セグメントの最大サイズは2GB未満にしてください: " + maxSegmentSize);
+    }
+    this.directory = directory;
+    this.maxSegmentSize = maxSegmentSize;
+    Files.createDirectories(directory);
+    load();
+  }
+
+  /**
+   * 指定したハッシュのレコードがあるか
+   */
+  boolean contains(String sha256) {
+    return index.containsKey(sha256);
+  }
+
+  /**
+   * 索引のエントリを取得（ない場合はnull）
+   */
+  Entry find(String sha256) {
+    return index.get(sha256);
+  }
+
+  /**
+   * エントリが格納されているセグメントファイルのパス
+   */
+  Path segmentPath(Entry entry) {
+    return segment(entry.segmentId()).path;
+  }
+
+  /**
+   * レコードの本体をメモリマップのスライスとして取得（読み取り専用、ない場合はnull）
+   */
+  ByteBuffer slice(String sha256) throws IOException {
+    Entry entry = index.get(sha256);
+    if (entry == null) {
+      return null;
+    }
+    MappedByteBuffer mapped = mapping(segment(entry.segmentId()), entry.offset() + entry.length());
+    return mapped.slice((int) entry.offset(), (int) entry.length()).asReadOnlyBuffer();
+  }
+
+  /**
+   * ファイルをレコードとして追記
+   *
+   * @return 追記した場合はtrue、同じハッシュのレコードが既にある場合はfalse
+   */
+  boolean append(String sha256, Path source) throws IOException {
+    try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+      return append(sha256, in, in.size());
+    }
+  }
+
+  /**
+   * 読み込み元から指定した長さを読み込んでレコードとして追記
+   *
+   * @return 追記した場合はtrue、同じハッシュのレコードが既にある場合はfalse
+   */
+  boolean append(String sha256, ReadableByteChannel in, long length) throws IOException {
+    synchronized (writeLock) {
+      if (index.containsKey(sha256)) {
+        return false;
+      }
+      long storedAt = System.currentTimeMillis();
+      long position = reserve(HEADER_SIZE + length);
+      try {
+        // 本体の書き込み中はマジックが0の仮ヘッダーで領域を確保しておく（読み込み時は書きかけとして扱われる）
+        writeFully(activeChannel, ByteBuffer.allocate(HEADER_SIZE), position);
+        long copied = 0;
+        while (copied < length) {
+          long transferred = activeChannel.transferFrom(in, position + HEADER_SIZE + copied, length - copied);
+          if (transferred <= 0) {
+            throw new IOException("ファイルの読み込みが途中で終了しました: " + sha256);
+          }
+          copied += transferred;
+        }
+        writeFully(activeChannel, header(TYPE_PUT, sha256, length, storedAt), position);
+        activeChannel.force(false);
+      } catch (IOException | RuntimeException ex) {
+        rollback(position, ex);
+        throw ex;
+      }
+      publish(sha256, new Entry(active.id, position + HEADER_SIZE, length, storedAt), HEADER_SIZE + length);
+      return true;
+    }
+  }
+
+  /**
+   * レコードを削除（削除レコードを追記し、索引から外す）
+   *
+   * @return 削除した場合はtrue、レコードがない場合はfalse
+   */
+  boolean delete(String sha256) throws IOException {
+    synchronized (writeLock) {
+      Entry entry = index.remove(sha256);
+      if (entry == null) {
+        return false;
+      }
+      segment(entry.segmentId()).liveBytes.addAndGet(-(HEADER_SIZE + entry.length()));
+      appendTombstone(sha256);
+      return true;
+    }
+  }
+
+  /**
+   * 不要領域の割合が閾値以上のセグメントを詰め直す
+   * 前回のコンパクションで退役したセグメントはここで削除する
+   *
+   * @return 詰め直したセグメント数
+   */
+  int compact(double minGarbageRatio) throws IOException {
+    deleteRetired();
+
+    int compacted = 0;
+    for (Segment segment : new ArrayList<>(segments.values())) {
+      if (segment == active || segment.size == 0) {
+        continue;
+      }
+      double garbageRatio = 1.0 - (double) segment.liveBytes.get() / segment.size;
+      if (garbageRatio >= minGarbageRatio) {
+        rewrite(segment);
+        compacted++;
+      }
+    }
+    return compacted;
+  }
+
+  /**
+   * セグメント数
+   */
+  int segmentCount() {
+    return segments.size();
+  }
+
+  /**
+   * 索引のエントリ数
+   */
+  int entryCount() {
+    return index.size();
+  }
+
+  /**
+   * 有効なレコードのバイト数
+   */
+  long liveBytes() {
+    return segments.values().stream().mapToLong(segment -> segment.liveBytes.get()).sum();
+  }
+
+  /**
+   * セグメントファイルの合計バイト数
+   */
+  long totalBytes() {
+    return segments.values().stream().mapToLong(segment -> segment.size).sum();
+  }
+
+  @Override
+  public void close() throws IOException {
+    synchronized (writeLock) {
+      if (activeChannel != null) {
+        activeChannel.close();
+      }
+    }
+  }
+
+  // 起動時にセグメントを走査して索引を再構築する
+  private void load() throws IOException {
+    List<Segment> found = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(RETIRED_SUFFIX)) {
+          // 以前のバージョンで退役時に名前を変えて残したセグメント
+          Files.deleteIfExists(file);
+          continue;
+        }
+        Matcher matcher = SEGMENT_NAME.matcher(name);
+        if (matcher.matches()) {
+          found.add(new Segment(Integer.parseInt(matcher.group(1)), file, Files.size(file)));
+        }
+      }
+    }
+    found.sort((a, b) -> Integer.compare(a.id, b.id));
+    for (Segment segment : found) {
+      segments.put(segment.id, segment);
+      scan(segment, segment == found.get(found.size() - 1));
+    }
+
+    // 最初のセグメントは初回の書き込み時に作成する
+    Segment last = segments.isEmpty() ? null : segments.lastEntry().getValue();
+    if (last != null && last.size < maxSegmentSize) {
+      active = last;
+      activeChannel = FileChannel.open(last.path, StandardOpenOption.WRITE);
+    } else if (last != null) {
+      openNewSegment(last.id + 1);
+    }
+    log.info("セグメントストアを読み込みました: セグメント{}件、エントリ{}件", segments.size(), index.size());
+  }
+
+  // セグメントのレコードを順に読み、索引に反映する（末尾の書きかけのレコードは切り詰める）
+  private void scan(Segment segment, boolean last) throws IOException {
+    try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      MessageDigest digest = last ? newSha256() : null;
+      long position = 0;
+      while (position < segment.size) {
+        header.clear();
+        int read = readFully(channel, header, position);
+        header.flip();
+        if (read < HEADER_SIZE || header.getInt() != MAGIC) {
+          break;
+        }
+        byte type = header.get();
+        byte[] hash = new byte[32];
+        header.get(hash);
+        long length = header.getLong();
+        long storedAt = header.getLong();
+        if (length < 0 || position + HEADER_SIZE + length > segment.size) {
+          break;
+        }
+
+        String sha256 = HexFormat.of().formatHex(hash);
+        if (type == TYPE_PUT && digest != null && !matchesDigest(channel, digest, position + HEADER_SIZE, length, hash)) {
+          break;
+        }
+        if (type == TYPE_PUT) {
+          publish(sha256, new Entry(segment.id, position + HEADER_SIZE, length, storedAt), HEADER_SIZE + length);
+        } else {
+          Entry removed = index.remove(sha256);
+          if (removed != null) {
+            segment(removed.segmentId()).liveBytes.addAndGet(-(HEADER_SIZE + removed.length()));
+          }
+        }
+        position += HEADER_SIZE + length;
+      }
+
+      if (position < segment.size) {
+        if (last) {
+          log.warn("セグメント末尾の書きかけのレコードを切り詰めます: {} ({}バイト)", segment.path, segment.size - position);
+          channel.truncate(position);
+          segment.size = position;
+        } else {
+          log.warn("セグメントに読み込めないレコードがあります: {} (位置 {})", segment.path, position);
+        }
+      }
+    }
+  }
+
+  // 有効なレコードを末尾へ詰め直し、セグメントを退役させる
+  private void rewrite(Segment segment) throws IOException {
+    // これより古いセグメントがなければ、削除レコードは打ち消す対象がないため捨てられる
+    boolean keepTombstones = !segments.headMap(segment.id).isEmpty();
+    MappedByteBuffer mapped = mapping(segment, segment.size);
+    long position = 0;
+    int moved = 0;
+    while (position + HEADER_SIZE <= segment.size) {
+      ByteBuffer header = mapped.slice((int) position, HEADER_SIZE);
+      if (header.getInt() != MAGIC) {
+        break;
+      }
+      byte type = header.get();
+      byte[] hash = new byte[32];
+      header.get(hash);
+      long length = header.getLong();
+      long storedAt = header.getLong();
+      String sha256 = HexFormat.of().formatHex(hash);
+      long bodyOffset = position + HEADER_SIZE;
+
+      synchronized (writeLock) {
+        Entry current = index.get(sha256);
+        if (type == TYPE_PUT) {
+          if (current != null && current.segmentId() == segment.id && current.offset() == bodyOffset) {
+            long target = reserve(HEADER_SIZE + length);
+            try {
+              writeFully(activeChannel, mapped.slice((int) bodyOffset, (int) length), target + HEADER_SIZE);
+              writeFully(activeChannel, header(TYPE_PUT, sha256, length, storedAt), target);
+            } catch (IOException | RuntimeException ex) {
+              rollback(target, ex);
+              throw ex;
+            }
+            segment.liveBytes.addAndGet(-(HEADER_SIZE + length));
+            publish(sha256, new Entry(active.id, target + HEADER_SIZE, length, storedAt), HEADER_SIZE + length);
+            moved++;
+          }
+        } else if (keepTombstones && current == null) {
+          writeTombstone(sha256);
+        }
+      }
+      position = bodyOffset + length;
+    }
+
+    synchronized (writeLock) {
+      // 詰め直したレコードを書き出してから元のセグメントを退役させる
+      if (activeChannel != null) {
+        activeChannel.force(false);
+      }
+      segments.remove(segment.id);
+      retiredSegments.put(segment.id, segment);
+    }
+    log.info("セグメントを詰め直しました: {} (移動したレコード{}件)", segment.id, moved);
+  }
+
+  // 退役したセグメントを削除
+  // 途中で停止しても削除レコードだけが消えて古いレコードが復活しないよう、古いセグメントから削除する
+  private void deleteRetired() throws IOException {
+    List<Segment> retired = new ArrayList<>(retiredSegments.values());
+    retired.sort((a, b) -> Integer.compare(a.id, b.id));
+    for (Segment segment : retired) {
+      Files.deleteIfExists(segment.path);
+      retiredSegments.remove(segment.id);
+    }
+  }
+
+  // 索引に登録（同じハッシュの古いエントリがあれば、そのセグメントの有効バイト数を減らす）
+  private void publish(String sha256, Entry entry, long recordSize) {
+    Entry previous = index.put(sha256, entry);
+    if (previous != null) {
+      segment(previous.segmentId()).liveBytes.addAndGet(-(HEADER_SIZE + previous.length()));
+    }
+    segment(entry.segmentId()).liveBytes.addAndGet(recordSize);
+  }
+
+  // 削除レコードを追記して書き出す（writeLock内で呼ぶ）
+  private void appendTombstone(String sha256) throws IOException {
+    writeTombstone(sha256);
+    activeChannel.force(false);
+  }
+
+  // 削除レコードを書き込む（書き出しは呼び出し元で行う、writeLock内で呼ぶ）
+  private void writeTombstone(String sha256) throws IOException {
+    long position = reserve(HEADER_SIZE);
+    try {
+      writeFully(activeChannel, header(TYPE_DELETE, sha256, 0, System.currentTimeMillis()), position);
+    } catch (IOException | RuntimeException ex) {
+      rollback(position, ex);
+      throw ex;
+    }
+  }
+
+  // 書き込みに失敗したレコードを取り消す（書き込み位置を戻して切り詰める、writeLock内で呼ぶ）
+  // 切り詰めにも失敗した場合は、以降のレコードが読めなくならないよう新しいセグメントに切り替える
+  private void rollback(long position, Exception cause) {
+    active.size = position;
+    try {
+      activeChannel.truncate(position);
+    } catch (IOException ex) {
+      cause.addSuppressed(ex);
+      try {
+        activeChannel.close();
+        openNewSegment(active.id + 1);
+      } catch (IOException openEx) {
+        cause.addSuppressed(openEx);
+      }
+    }
+  }
+
+  // 書き込み先の位置を確保（入りきらない場合は新しいセグメントに切り替える、writeLock内で呼ぶ）
+  private long reserve(long recordSize) throws IOException {
+    if (active == null) {
+      openNewSegment(1);
+    } else if (active.size > 0 && active.size + recordSize > maxSegmentSize) {
+      // 書きかけになり得るのは最後のセグメントだけにするため、書き出してから切り替える
+      activeChannel.force(false);
+      activeChannel.close();
+      openNewSegment(active.id + 1);
+    }
+    long position = active.size;
+    active.size = position + recordSize;
+    return position;
+  }
+
+  private void openNewSegment(int id) throws IOException {
+    Path path = directory.resolve(String.format("segment-%08d.dat", id));
+    activeChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    active = new Segment(id, path, 0);
+    segments.put(id, active);
+  }
+
+  private Segment segment(int id) {
+    Segment segment = segments.get(id);
+    return segment != null ? segment : retiredSegments.get(id);
+  }
+
+  // 必要な範囲までメモリマップする（追記中のセグメントは範囲が足りなくなった時点でマップし直す）
+  private MappedByteBuffer mapping(Segment segment, long requiredSize) throws IOException {
+    MappedByteBuffer mapped = segment.mapped;
+    if (mapped != null && mapped.capacity() >= requiredSize) {
+      return mapped;
+    }
+    synchronized (segment) {
+      mapped = segment.mapped;
+      if (mapped == null || mapped.capacity() < requiredSize) {
+        try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.READ)) {
+          mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        segment.mapped = mapped;
+      }
+      return mapped;
+    }
+  }
+
+  // 本体のSHA-256がヘッダーのハッシュと一致するか
+  private static boolean matchesDigest(FileChannel channel, MessageDigest digest, long offset, long length,
+      byte[] expected) throws IOException {
+    digest.reset();
+    ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(Math.max(length, 1), DIGEST_BUFFER_SIZE));
+    long position = offset;
+    long end = offset + length;
+    while (position < end) {
+      buffer.clear();
+      buffer.limit((int) Math.min(buffer.capacity(), end - position));
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        return false;
+      }
+      buffer.flip();
+      digest.update(buffer);
+      position += read;
+    }
+    return MessageDigest.isEqual(digest.digest(), expected);
+  }
+
+  private static MessageDigest newSha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException("SHA-256が利用できません", ex);
+    }
+  }
+
+  private static ByteBuffer header(byte type, String sha256, long length, long storedAt) {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC);
+    header.put(type);
+    header.put(HexFormat.of().parseHex(sha256));
+    header.putLong(length);
+    header.putLong(storedAt);
+    header.flip();
+    return header;
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+  }
+
+  private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    int total = 0;
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + total);
+      if (read < 0) {
+        break;
+      }
+      total += read;
+    }
+    return total;
+  }
+}
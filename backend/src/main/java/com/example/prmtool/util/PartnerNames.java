@@ -0,0 +1,28 @@
+package com.example.prmtool.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * 企業名のユーティリティ
+ */
+public final class PartnerNames {
+
+  private PartnerNames() {
+  }
+
+  /**
+   * 重複判定用に企業名を正規化
+   * NFKCによる全角・半角の統一（全角英数字・全角空白→半角、半角カナ→全角）、連続する空白の1文字化、
+   * 前後の空白除去、英字の小文字化をこの順に行う
+   * （全角空白はNFKCの後で半角空白になるため、空白の除去はNFKCの後に行う）
+   * V25のマイグレーションも同じ規則で既存行を埋める
+   */
+  public static String normalize(String name) {
+    if (name == null) {
+      return null;
+    }
+    String normalized = Normalizer.normalize(name, Normalizer.Form.NFKC);
+    return normalized.replaceAll("\\s+", " ").trim().toLowerCase(Locale.ROOT);
+  }
+}
@@ -1,11 +1,13 @@
 package com.example.prmtool.validator;
 
-import com.example.prmtool.entity.Partner;
 import com.example.prmtool.repository.PartnerRepository;
+import com.example.prmtool.util.PartnerNames;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -18,6 +20,28 @@ public class DuplicatePartnerNameValidator {
 
   private final PartnerRepository partnerRepository;
 
+  /**
+   * 登録済みの企業名を一括で検索し、正規化した名前の集合を返す
+   * CSVインポートでチャンク内の名前をまとめて検証するために使用（クエリは1回）
+   * 正規化した企業名の列（インデックス付き）で検索するため、表記ゆれのある登録済みの名前も検出できる
+   *
+   * @param names 検証する企業名
+   * @return 登録済みの企業名（正規化済み）
+   */
+  public Set<String> findRegisteredNormalizedNames(Collection<String> names) {
+    Set<String> candidates = new HashSet<>();
+    for (String name : names) {
+      if (name == null || name.isBlank()) {
+        continue;
+      }
+      candidates.add(PartnerNames.normalize(name));
+    }
+    if (candidates.isEmpty()) {
+      return new HashSet<>();
+    }
+    return new HashSet<>(partnerRepository.findNormalizedNamesIn(candidates));
+  }
+
   /**
    * 企業名の重複をチェック（新規登録時）
    * 同じ企業名が存在する場合は例外をスロー
@@ -28,7 +52,7 @@ public class DuplicatePartnerNameValidator {
 
   /**
    * 企業名の重複をチェック（更新時）
-   * 自分自身は除外して重複をチェック
+   * 自分自身は除外して重複をチェック（正規化した企業名で比較）
    * 
    * @param name      企業名
    * @param excludeId 除外するパートナーID（更新時は自分自身のIDを指定）
@@ -38,14 +62,12 @@ public class DuplicatePartnerNameValidator {
       throw new IllegalArgumentException("企業名は必須です");
     }
 
-    Optional<Partner> existing = partnerRepository.findByName(name);
-
-    if (existing.isPresent()) {
-      // 更新時は自分自身を除外
-      if (excludeId == null || !existing.get().getId().equals(excludeId)) {
-        throw new IllegalArgumentException(
-            "企業名「" + name + "」は既に登録されています");
-      }
+    // 更新時は自分自身を除外
+    boolean duplicated = partnerRepository.findIdsByNormalizedName(PartnerNames.normalize(name)).stream()
+        .anyMatch(id -> !id.equals(excludeId));
+    if (duplicated) {
+      throw new IllegalArgumentException(
+          "企業名「" + name + "」は既に登録されています");
     }
   }
 }
\ No newline at end of file
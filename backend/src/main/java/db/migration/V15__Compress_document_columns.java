@@ -0,0 +1,77 @@
+package db.migration;
+
+import com.example.prmtool.entity.CompressedTextConverter;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * V15: 既存のテーブルデータとキャンバスレイアウトを圧縮列へ移す
+ * 大きな文書を一度に読み込まないよう、一定件数ずつ変換して旧TEXT列をnullにする
+ * 大きなテーブルで1つのトランザクションが長時間ロックを持ち続けないよう、Flywayのトランザクション外で実行し、
+ * チャンクごとにコミットする（途中で停止しても、旧列に値が残っている行から再開できる。
+ * 未変換の行はアプリケーションが旧列から読む）
+ */
+public class V15__Compress_document_columns extends BaseJavaMigration {
+
+  // 1回に変換する行数
+  private static final int CHUNK_SIZE = 200;
+
+  @Override
+  public boolean canExecuteInTransaction() {
+    return false;
+  }
+
+  @Override
+  public void migrate(Context context) throws Exception {
+    Connection connection = context.getConnection();
+    boolean autoCommit = connection.getAutoCommit();
+    connection.setAutoCommit(false);
+    try {
+      compressColumn(connection, "project_table_data", "table_data_json", "table_data_compressed");
+      compressColumn(connection, "invoice_templates", "canvas_layout", "canvas_layout_compressed");
+    } catch (SQLException e) {
+      connection.rollback();
+      throw e;
+    } finally {
+      connection.setAutoCommit(autoCommit);
+    }
+  }
+
+  // 旧列に値が残っている行がなくなるまでチャンク単位で変換する
+  private void compressColumn(Connection connection, String table, String sourceColumn, String targetColumn)
+      throws SQLException {
+    String select = "SELECT id, " + sourceColumn + " FROM " + table
+        + " WHERE " + sourceColumn + " IS NOT NULL LIMIT " + CHUNK_SIZE;
+    String update = "UPDATE " + table + " SET " + targetColumn + " = ?, " + sourceColumn + " = NULL WHERE id = ?";
+
+    while (true) {
+      List<Object[]> chunk = new ArrayList<>(CHUNK_SIZE);
+      try (PreparedStatement statement = connection.prepareStatement(select);
+          ResultSet rs = statement.executeQuery()) {
+        while (rs.next()) {
+          chunk.add(new Object[] { rs.getObject(1), rs.getString(2) });
+        }
+      }
+      if (chunk.isEmpty()) {
+        return;
+      }
+
+      try (PreparedStatement statement = connection.prepareStatement(update)) {
+        for (Object[] row : chunk) {
+          statement.setBytes(1, CompressedTextConverter.encode((String) row[1]));
+          statement.setObject(2, row[0]);
+          statement.addBatch();
+        }
+        statement.executeBatch();
+      }
+      connection.commit();
+    }
+  }
+}
@@ -0,0 +1,29 @@
+-- ========================================
+-- V10: 請求書番号カウンターテーブル
+-- 年ごとの次の連番を保持し、アプリケーションはブロック単位で番号を予約する
+-- （ORDER BY created_at による最新番号検索を廃止）
+-- ========================================
+
+CREATE TABLE invoice_number_counters (
+    invoice_year INTEGER PRIMARY KEY,
+    next_value BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT chk_invoice_number_counters_next_value CHECK (next_value >= 1)
+);
+
+-- 既存の請求書番号（INV-yyyy-nnnn）から年ごとの次の連番を初期化
+INSERT INTO invoice_number_counters (invoice_year, next_value, updated_at)
+SELECT
+    CAST(SUBSTRING(invoice_number FROM 5 FOR 4) AS INTEGER),
+    MAX(CAST(SUBSTRING(invoice_number FROM 10) AS BIGINT)) + 1,
+    CURRENT_TIMESTAMP
+FROM invoices
+WHERE invoice_number ~ '^INV-[0-9]{4}-[0-9]+$'
+GROUP BY CAST(SUBSTRING(invoice_number FROM 5 FOR 4) AS INTEGER);
+
+-- コメント追加
+COMMENT ON TABLE invoice_number_counters IS '請求書番号カウンター（年ごと）';
+COMMENT ON COLUMN invoice_number_counters.invoice_year IS '採番対象の年';
+COMMENT ON COLUMN invoice_number_counters.next_value IS '次に予約される連番（予約済みブロックの次の値）';
+COMMENT ON COLUMN invoice_number_counters.updated_at IS '更新日時';
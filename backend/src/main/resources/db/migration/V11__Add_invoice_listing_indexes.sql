@@ -0,0 +1,7 @@
+-- ========================================
+-- V11: 請求書一覧（キーセットページング）用インデックス
+-- ORDER BY created_at, id のカーソル検索をインデックス走査で処理する
+-- ========================================
+
+CREATE INDEX idx_invoices_created_at_id ON invoices(created_at, id);
+CREATE INDEX idx_invoices_partner_id_created_at_id ON invoices(partner_id, created_at, id);
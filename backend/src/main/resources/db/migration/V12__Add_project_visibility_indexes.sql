@@ -0,0 +1,9 @@
+-- ========================================
+-- V12: 担当者向け案件一覧（表示可能な案件の判定）用インデックス
+-- EXISTS (担当者 = ログインユーザー AND 案件 = 対象案件) をインデックスのみで判定する
+-- （user_id 単独のインデックスは複合インデックスの先頭列で代替できるため削除）
+-- ========================================
+
+CREATE INDEX idx_project_assignments_user_id_project_id ON project_assignments(user_id, project_id);
+
+DROP INDEX IF EXISTS idx_project_assignments_user_id;
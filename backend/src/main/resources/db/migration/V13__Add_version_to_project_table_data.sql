@@ -0,0 +1,8 @@
+-- ========================================
+-- V13: プロジェクトテーブルデータのバージョン
+-- セル単位の差分更新（PATCH）で競合を検出するため、更新ごとに増加する版数を保持する
+-- ========================================
+
+ALTER TABLE project_table_data ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN project_table_data.version IS 'テーブルデータの版数（更新ごとに増加）';
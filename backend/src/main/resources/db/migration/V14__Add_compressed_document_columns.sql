@@ -0,0 +1,14 @@
+-- ========================================
+-- V14: テーブルデータとキャンバスレイアウトの圧縮保存列
+-- JSON文書をヘッダー付きの圧縮バイト列（CompressedTextConverter形式）で保存する
+-- 既存行の変換はV15で行う。旧TEXT列は移行期間中の読み取り用に残し、
+-- 全インスタンスの切り替え後に別のマイグレーションで削除する
+-- ========================================
+
+ALTER TABLE project_table_data ADD COLUMN table_data_compressed BYTEA;
+ALTER TABLE invoice_templates ADD COLUMN canvas_layout_compressed BYTEA;
+
+COMMENT ON COLUMN project_table_data.table_data_compressed IS 'テーブルデータ（JSON）の圧縮バイト列';
+COMMENT ON COLUMN project_table_data.table_data_json IS '旧形式のテーブルデータ（移行期間中のみ使用）';
+COMMENT ON COLUMN invoice_templates.canvas_layout_compressed IS 'キャンバスレイアウト（JSON）の圧縮バイト列';
+COMMENT ON COLUMN invoice_templates.canvas_layout IS '旧形式のキャンバスレイアウト（移行期間中のみ使用）';
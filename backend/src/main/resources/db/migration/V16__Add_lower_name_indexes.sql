@@ -0,0 +1,7 @@
+-- ========================================
+-- V16: 大文字小文字を区別しない名前検索用インデックス
+-- CSVインポートでパートナー名・ログインIDを LOWER(...) IN (...) でまとめて解決する
+-- ========================================
+
+CREATE INDEX idx_partners_lower_name ON partners(LOWER(name));
+CREATE INDEX idx_users_lower_login_id ON users(LOWER(login_id));
@@ -0,0 +1,45 @@
+-- ========================================
+-- V17: CSVインポートジョブテーブル
+-- アップロード直後にジョブIDを返し、ワーカーで実行したインポートの進捗・結果を保持する
+-- ========================================
+
+CREATE TABLE import_jobs (
+    id UUID PRIMARY KEY,
+    job_type VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    file_name VARCHAR(255),
+    created_by UUID NOT NULL,
+    processed_rows INTEGER NOT NULL DEFAULT 0,
+    success_count INTEGER NOT NULL DEFAULT 0,
+    error_count INTEGER NOT NULL DEFAULT 0,
+    errors_json TEXT,
+    failure_reason TEXT,
+    cancel_requested BOOLEAN NOT NULL DEFAULT FALSE,
+    started_at TIMESTAMP,
+    finished_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+
+    CONSTRAINT fk_import_jobs_created_by FOREIGN KEY (created_by)
+        REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT chk_import_jobs_type CHECK (job_type IN ('PARTNER_CSV', 'PROJECT_CSV')),
+    CONSTRAINT chk_import_jobs_status CHECK (status IN ('QUEUED', 'RUNNING', 'COMPLETED', 'FAILED', 'CANCELLED'))
+);
+
+CREATE INDEX idx_import_jobs_created_by ON import_jobs(created_by);
+CREATE INDEX idx_import_jobs_status ON import_jobs(status);
+
+-- コメント追加
+COMMENT ON TABLE import_jobs IS 'CSVインポートジョブ';
+COMMENT ON COLUMN import_jobs.job_type IS 'インポート種別（PARTNER_CSV / PROJECT_CSV）';
+COMMENT ON COLUMN import_jobs.status IS '状態（QUEUED / RUNNING / COMPLETED / FAILED / CANCELLED）';
+COMMENT ON COLUMN import_jobs.file_name IS 'アップロードされたファイル名';
+COMMENT ON COLUMN import_jobs.created_by IS 'ジョブを登録したユーザーID';
+COMMENT ON COLUMN import_jobs.processed_rows IS '処理済みのデータ行数';
+COMMENT ON COLUMN import_jobs.success_count IS '登録に成功した行数';
+COMMENT ON COLUMN import_jobs.error_count IS 'エラーになった行数';
+COMMENT ON COLUMN import_jobs.errors_json IS 'エラー・警告メッセージ（JSON配列、上限件数まで）';
+COMMENT ON COLUMN import_jobs.failure_reason IS 'ジョブ全体が失敗した場合の理由';
+COMMENT ON COLUMN import_jobs.cancel_requested IS 'キャンセル要求の有無（チャンクの区切りで確認される）';
+COMMENT ON COLUMN import_jobs.started_at IS '実行開始日時';
+COMMENT ON COLUMN import_jobs.finished_at IS '終了日時';
@@ -0,0 +1,33 @@
+-- ========================================
+-- V18: コンテンツフォルダのマテリアライズドパス
+-- 祖先フォルダIDを "/" 区切りで連ねた値（自身は含まない、ルートは "/"）を保持し、
+-- フォルダツリーやパンくずリストを再帰なしで組み立てる
+-- 例: ルート直下の子フォルダ → "/{ルートID}/"
+-- ========================================
+
+ALTER TABLE content_folders ADD COLUMN path VARCHAR(2000);
+ALTER TABLE content_folders ADD COLUMN depth INTEGER;
+
+-- 既存フォルダのパスを親から順に設定
+WITH RECURSIVE folder_paths AS (
+    SELECT id, CAST('/' AS VARCHAR(2000)) AS path, 0 AS depth
+    FROM content_folders
+    WHERE parent_folder_id IS NULL
+    UNION ALL
+    SELECT c.id, CAST(p.path || p.id || '/' AS VARCHAR(2000)), p.depth + 1
+    FROM content_folders c
+    JOIN folder_paths p ON c.parent_folder_id = p.id
+)
+UPDATE content_folders f
+SET path = fp.path, depth = fp.depth
+FROM folder_paths fp
+WHERE f.id = fp.id;
+
+ALTER TABLE content_folders ALTER COLUMN path SET NOT NULL;
+ALTER TABLE content_folders ALTER COLUMN depth SET NOT NULL;
+
+-- 配下のフォルダを前方一致（LIKE 'prefix%'）で検索するためのインデックス
+CREATE INDEX idx_content_folders_path ON content_folders(path varchar_pattern_ops);
+
+COMMENT ON COLUMN content_folders.path IS '祖先フォルダIDを/区切りで連ねたパス（自身は含まない、ルートは/）';
+COMMENT ON COLUMN content_folders.depth IS '階層の深さ（ルートは0）';
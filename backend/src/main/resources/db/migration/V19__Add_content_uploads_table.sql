@@ -0,0 +1,41 @@
+-- ========================================
+-- V19: 再開可能なチャンクアップロード
+-- 大きなファイルを固定サイズのチャンクに分けて送信し、途中で切断されても未受信のチャンクから再開できるようにする
+-- 完了したアップロードはcontent_filesに登録した時点で削除される
+-- ========================================
+
+CREATE TABLE content_uploads (
+    id UUID PRIMARY KEY,
+    folder_id UUID NOT NULL,
+    file_name VARCHAR(200) NOT NULL,
+    title VARCHAR(200),
+    description TEXT,
+    tags VARCHAR(500),
+    file_type VARCHAR(50) NOT NULL,
+    file_size BIGINT NOT NULL,
+    chunk_size INTEGER NOT NULL,
+    sha256 VARCHAR(64),
+    received_chunks BYTEA,
+    created_by UUID NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+
+    CONSTRAINT fk_content_uploads_folder FOREIGN KEY (folder_id)
+        REFERENCES content_folders(id) ON DELETE CASCADE,
+    CONSTRAINT fk_content_uploads_created_by FOREIGN KEY (created_by)
+        REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_content_uploads_expires_at ON content_uploads(expires_at);
+
+-- コメント追加
+COMMENT ON TABLE content_uploads IS '進行中のチャンクアップロード';
+COMMENT ON COLUMN content_uploads.folder_id IS '登録先のフォルダID';
+COMMENT ON COLUMN content_uploads.file_name IS '元のファイル名';
+COMMENT ON COLUMN content_uploads.file_size IS 'ファイル全体のサイズ（バイト）';
+COMMENT ON COLUMN content_uploads.chunk_size IS 'チャンクサイズ（バイト、最後のチャンクのみ短くなる）';
+COMMENT ON COLUMN content_uploads.sha256 IS 'クライアントが申告したファイル全体のSHA-256（任意、完了時に照合）';
+COMMENT ON COLUMN content_uploads.received_chunks IS '受信済みチャンクのビットマップ';
+COMMENT ON COLUMN content_uploads.created_by IS 'アップロードを開始したユーザーID';
+COMMENT ON COLUMN content_uploads.expires_at IS '有効期限（チャンク受信ごとに延長、期限切れは一時ファイルごと削除）';
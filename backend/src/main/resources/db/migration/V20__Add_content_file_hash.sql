@@ -0,0 +1,12 @@
+-- ========================================
+-- V20: コンテンツファイルの内容ハッシュ
+-- ダウンロード応答の強いETag（条件付きGET・Rangeリクエストの判定）に使用する
+-- 既存ファイルは初回ダウンロード時に計算して保存する
+-- ========================================
+
+ALTER TABLE content_files ADD COLUMN content_hash VARCHAR(64);
+
+-- 保存ファイル名（/api/files/{ファイル名}）からファイル情報を引くためのインデックス
+CREATE INDEX idx_content_files_file_url ON content_files(file_url);
+
+COMMENT ON COLUMN content_files.content_hash IS 'ファイル内容のSHA-256（16進数）';
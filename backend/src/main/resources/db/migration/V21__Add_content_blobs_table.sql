@@ -0,0 +1,22 @@
+-- ========================================
+-- V21: コンテンツアドレス方式のファイル実体
+-- ファイルの実体をSHA-256のハッシュ名で1つだけ保存し、参照しているcontent_filesの件数を数える
+-- 参照数が0になった実体はコミット後（取りこぼしは定期掃除）にストレージから削除する
+-- ========================================
+
+CREATE TABLE content_blobs (
+    content_hash VARCHAR(64) PRIMARY KEY,
+    file_size BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT chk_content_blobs_ref_count CHECK (ref_count >= 0)
+);
+
+-- 参照されなくなった実体の定期掃除用
+CREATE INDEX idx_content_blobs_unreferenced ON content_blobs(updated_at) WHERE ref_count = 0;
+
+COMMENT ON TABLE content_blobs IS 'コンテンツファイルの実体（内容ハッシュ単位）';
+COMMENT ON COLUMN content_blobs.content_hash IS 'ファイル内容のSHA-256（16進数、ストレージ上のファイル名）';
+COMMENT ON COLUMN content_blobs.file_size IS 'ファイルサイズ（バイト）';
+COMMENT ON COLUMN content_blobs.ref_count IS 'この実体を参照しているcontent_filesの件数';
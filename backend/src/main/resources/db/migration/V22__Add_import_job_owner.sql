@@ -0,0 +1,16 @@
+-- ========================================
+-- V22: CSVインポートジョブの実行インスタンス・生存確認
+-- ワーカーはプロセス内にしか存在しないため、ジョブを実行しているインスタンスと最終生存確認日時を記録する
+-- 起動時は自インスタンスのジョブのみを失敗扱いにし、他インスタンスのジョブは生存確認が途絶えた場合のみ失敗扱いにする
+-- ========================================
+
+ALTER TABLE import_jobs ADD COLUMN owner_instance VARCHAR(100);
+ALTER TABLE import_jobs ADD COLUMN heartbeat_at TIMESTAMP;
+
+-- 既存の未終了ジョブは更新日時を生存確認日時とみなす
+UPDATE import_jobs SET heartbeat_at = updated_at WHERE status IN ('QUEUED', 'RUNNING');
+
+CREATE INDEX idx_import_jobs_owner_instance ON import_jobs(owner_instance, status);
+
+COMMENT ON COLUMN import_jobs.owner_instance IS 'ジョブを実行するアプリケーションインスタンスのID';
+COMMENT ON COLUMN import_jobs.heartbeat_at IS '実行インスタンスの最終生存確認日時（未終了のジョブのみ更新）';
@@ -0,0 +1,16 @@
+-- ========================================
+-- V23: 企業名の正規化キー
+-- 企業名の重複判定を、全角・半角や大文字・小文字、空白の違いを吸収した正規化キーで行う
+-- 正規化はアプリケーション（DuplicatePartnerNameValidator.normalize）が登録・更新時に設定する
+-- 既存行はPostgreSQLのNFKC正規化で同じ規則（前後の空白除去・NFKC・連続空白の1文字化・小文字化）を適用して埋める
+-- ========================================
+
+ALTER TABLE partners ADD COLUMN normalized_name VARCHAR(255);
+
+UPDATE partners
+SET normalized_name = LOWER(REGEXP_REPLACE(NORMALIZE(BTRIM(name), NFKC), '\s+', ' ', 'g'));
+
+-- 既存データに正規化後の重複があり得るため一意制約にはしない
+CREATE INDEX idx_partners_normalized_name ON partners(normalized_name);
+
+COMMENT ON COLUMN partners.normalized_name IS '重複判定用に正規化した企業名（NFKC・空白の統一・小文字化）';
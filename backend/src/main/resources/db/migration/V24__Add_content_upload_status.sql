@@ -0,0 +1,11 @@
+-- ========================================
+-- V24: チャンクアップロードの状態
+-- 完了処理（ファイル全体のハッシュ計算と登録）の間はチャンクの書き込みを拒否するため、状態を記録する
+-- ========================================
+
+ALTER TABLE content_uploads ADD COLUMN status VARCHAR(20) NOT NULL DEFAULT 'UPLOADING';
+
+ALTER TABLE content_uploads ADD CONSTRAINT chk_content_uploads_status
+    CHECK (status IN ('UPLOADING', 'COMPLETING'));
+
+COMMENT ON COLUMN content_uploads.status IS '状態（UPLOADING: チャンク受信中 / COMPLETING: 完了処理中）';
@@ -0,0 +1,9 @@
+-- ========================================
+-- V25: 企業名の正規化キーの再計算
+-- V23は前後の空白をNFKC正規化の前に除去していたため、全角空白（NFKCで半角空白になる）が前後に残っていた
+-- アプリケーション（PartnerNames.normalize）と同じく NFKC → 連続空白の1文字化 → 前後の空白除去 → 小文字化 の順で埋め直す
+-- （適用済みのV23はチェックサムが変わるため書き換えない）
+-- ========================================
+
+UPDATE partners
+SET normalized_name = LOWER(BTRIM(REGEXP_REPLACE(NORMALIZE(name, NFKC), '\s+', ' ', 'g')));
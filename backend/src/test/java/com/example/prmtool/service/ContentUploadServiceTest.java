@@ -0,0 +1,186 @@
+package com.example.prmtool.service;
+
+import com.example.prmtool.dto.ContentFileResponse;
+import com.example.prmtool.entity.ContentUpload;
+import com.example.prmtool.repository.ContentFolderRepository;
+import com.example.prmtool.repository.ContentUploadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ContentUploadServiceTest {
+
+  private static final int CHUNK_SIZE = 4;
+
+  @TempDir
+  Path tempDir;
+
+  private final Map<UUID, ContentUpload> rows = new HashMap<>();
+  private final UUID userId = UUID.randomUUID();
+  private ContentUploadRepository uploadRepository;
+  private ContentManagementService contentManagementService;
+  private FileStorageService fileStorageService;
+  private ContentUploadService service;
+
+  @BeforeEach
+  void setUp() {
+    uploadRepository = mock(ContentUploadRepository.class);
+    contentManagementService = mock(ContentManagementService.class);
+    fileStorageService = mock(FileStorageService.class);
+    when(uploadRepository.findById(any())).thenAnswer(inv -> Optional.ofNullable(rows.get(inv.getArgument(0))));
+    when(uploadRepository.findByIdForUpdate(any()))
+        .thenAnswer(inv -> Optional.ofNullable(rows.get(inv.getArgument(0))));
+    doAnswer(inv -> rows.remove(inv.<ContentUpload>getArgument(0).getId()))
+        .when(uploadRepository).delete(any());
+
+    service = new ContentUploadService(uploadRepository, mock(ContentFolderRepository.class),
+        contentManagementService, fileStorageService, mock(PlatformTransactionManager.class),
+        tempDir.toString(), CHUNK_SIZE, 1024, 60_000);
+  }
+
+  @Test
+  void completeRegistersAssembledFileAndRemovesUpload() throws Exception {
+    UUID uploadId = newUpload("abcdefgh");
+    writeChunk(uploadId, 0, "abcd");
+    writeChunk(uploadId, 4, "efgh");
+    when(fileStorageService.stageFile(any(Path.class), anyString()))
+        .thenAnswer(inv -> new StagedFile(inv.getArgument(0), inv.getArgument(1), 8));
+    ContentFileResponse registered = ContentFileResponse.builder().build();
+    when(contentManagementService.uploadFile(any(), eq(userId), any())).thenReturn(registered);
+
+    assertThat(service.complete(uploadId, userId)).isSameAs(registered);
+    assertThat(rows).doesNotContainKey(uploadId);
+    assertThat(Files.exists(part(uploadId))).isFalse();
+  }
+
+  @Test
+  void completeIsRejectedWhileChunksAreMissing() throws Exception {
+    UUID uploadId = newUpload("abcdefgh");
+    writeChunk(uploadId, 0, "abcd");
+
+    assertThatThrownBy(() -> service.complete(uploadId, userId))
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(rows.get(uploadId).isCompleting()).isFalse();
+  }
+
+  @Test
+  void chunkWritesAndSecondCompleteAreRejectedWhileCompleting() throws Exception {
+    UUID uploadId = newUpload("abcdefgh");
+    writeChunk(uploadId, 0, "abcd");
+    writeChunk(uploadId, 4, "efgh");
+    when(fileStorageService.stageFile(any(Path.class), anyString())).thenAnswer(inv -> {
+      // 完了処理中（ハッシュ計算の後、確定の前）に届いた再送と二重の完了要求
+      assertThatThrownBy(() -> writeChunk(uploadId, 0, "XXXX"))
+          .isInstanceOf(IllegalStateException.class);
+      assertThatThrownBy(() -> service.complete(uploadId, userId))
+          .isInstanceOf(IllegalStateException.class);
+      return new StagedFile(inv.getArgument(0), inv.getArgument(1), 8);
+    });
+    when(contentManagementService.uploadFile(any(), eq(userId), any()))
+        .thenAnswer(inv -> {
+          // 確定する時点でも組み立てたファイルは書き換わっていない
+          assertThat(Files.readString(part(uploadId))).isEqualTo("abcdefgh");
+          return ContentFileResponse.builder().build();
+        });
+
+    service.complete(uploadId, userId);
+    verify(contentManagementService).uploadFile(any(), eq(userId), any());
+  }
+
+  @Test
+  void bitmapCannotChangeOnceCompletionHasStarted() {
+    ContentUpload upload = ContentUpload.builder().fileSize(8L).chunkSize(CHUNK_SIZE).build();
+    upload.markChunkReceived(0);
+    upload.markChunkReceived(1);
+    upload.beginCompletion();
+
+    assertThatThrownBy(() -> upload.clearChunkReceived(0)).isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(upload::beginCompletion).isInstanceOf(IllegalStateException.class);
+    assertThat(upload.isAllChunksReceived()).isTrue();
+  }
+
+  @Test
+  void failedRegistrationReturnsUploadToUploading() throws Exception {
+    UUID uploadId = newUpload("abcdefgh");
+    writeChunk(uploadId, 0, "abcd");
+    writeChunk(uploadId, 4, "efgh");
+    StagedFile staged = new StagedFile(tempDir.resolve("staged"), sha256("abcdefgh"), 8);
+    when(fileStorageService.stageFile(any(Path.class), anyString())).thenReturn(staged);
+    when(contentManagementService.uploadFile(any(), eq(userId), any()))
+        .thenThrow(new RuntimeException("登録に失敗"));
+
+    assertThatThrownBy(() -> service.complete(uploadId, userId)).hasMessage("登録に失敗");
+    verify(fileStorageService).discardStagedFile(staged);
+    assertThat(rows.get(uploadId).isCompleting()).isFalse();
+    assertThat(Files.readString(part(uploadId))).isEqualTo("abcdefgh");
+
+    // 受信中に戻るため、チャンクの再送を受け付ける
+    writeChunk(uploadId, 4, "efgh");
+    assertThat(rows.get(uploadId).isAllChunksReceived()).isTrue();
+  }
+
+  @Test
+  void declaredHashMismatchReturnsUploadToUploading() throws Exception {
+    UUID uploadId = newUpload("abcdefgh");
+    rows.get(uploadId).setSha256(sha256("something else"));
+    writeChunk(uploadId, 0, "abcd");
+    writeChunk(uploadId, 4, "efgh");
+
+    assertThatThrownBy(() -> service.complete(uploadId, userId))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(rows.get(uploadId).isCompleting()).isFalse();
+  }
+
+  private UUID newUpload(String content) throws Exception {
+    UUID uploadId = UUID.randomUUID();
+    rows.put(uploadId, ContentUpload.builder()
+        .id(uploadId)
+        .folderId(UUID.randomUUID())
+        .fileName("file.txt")
+        .fileType("text/plain")
+        .fileSize((long) content.length())
+        .chunkSize(CHUNK_SIZE)
+        .createdBy(userId)
+        .expiresAt(LocalDateTime.now().plusHours(1))
+        .build());
+    Files.createFile(part(uploadId));
+    return uploadId;
+  }
+
+  private void writeChunk(UUID uploadId, long offset, String content) throws Exception {
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    service.writeChunk(uploadId, offset, sha256(content), new ByteArrayInputStream(bytes), userId);
+  }
+
+  private Path part(UUID uploadId) {
+    return tempDir.resolve(uploadId + ".part");
+  }
+
+  private static String sha256(String content) throws Exception {
+    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+  }
+}
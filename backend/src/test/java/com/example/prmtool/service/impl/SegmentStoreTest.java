@@ -0,0 +1,236 @@
+package com.example.prmtool.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SegmentStoreTest {
+
+  private static final long MAX_SEGMENT_SIZE = 1024 * 1024;
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void appendedRecordsAreReloadedOnRestart() throws Exception {
+    Path directory = tempDir.resolve("segments");
+    String first = sha256("first");
+    String second = sha256("second");
+    try (SegmentStore store = new SegmentStore(directory, MAX_SEGMENT_SIZE)) {
+      assertThat(store.append(first, source("first"))).isTrue();
+      assertThat(store.append(second, source("second"))).isTrue();
+      assertThat(store.append(first, source("first"))).isFalse();
+    }
+
+    try (SegmentStore store = new SegmentStore(directory, MAX_SEGMENT_SIZE)) {
+      assertThat(store.entryCount()).isEqualTo(2);
+      assertThat(read(store, first)).isEqualTo("first");
+      assertThat(read(store, second)).isEqualTo("second");
+    }
+  }
+
+  @Test
+  void failedAppendLeavesNoRecord() throws Exception {
+    Path directory = tempDir.resolve("segments");
+    String kept = sha256("kept");
+    String failed = sha256("failed-body");
+    try (SegmentStore store = new SegmentStore(directory, MAX_SEGMENT_SIZE)) {
+      store.append(kept, source("kept"));
+      long sizeBeforeFailure = store.totalBytes();
+
+      assertThatThrownBy(() -> store.append(failed, new FailingChannel(4), 11))
+          .isInstanceOf(IOException.class);
+      assertThat(store.contains(failed)).isFalse();
+      assertThat(store.totalBytes()).isEqualTo(sizeBeforeFailure);
+      assertThat(Files.size(segmentFile(directory, 1))).isEqualTo(sizeBeforeFailure);
+
+      // 失敗した位置から続けて追記できる
+      assertThat(store.append(failed, source("failed-body"))).isTrue();
+    }
+
+    try (SegmentStore store = new SegmentStore(directory, MAX_SEGMENT_SIZE)) {
+      assertThat(read(store, kept)).isEqualTo("kept");
+      assertThat(read(store, failed)).isEqualTo("failed-body");
+    }
+  }
+
+  @Test
+  void tornRecordAtTailIsTruncatedOnRestart() throws Exception {
+    Path directory = tempDir.resolve("segments");
+    String kept = sha256("kept");
+    try (SegmentStore store = new SegmentStore(directory, MAX_SEGMENT_SIZE)) {
+      store.append(kept, source("kept"));
+    }
+    Path segment = segmentFile(directory, 1);
+    long validSize = Files.size(segment);
+
+    // ヘッダーは書き出されたが本体が書き出されないまま停止した状態（本体がゼロ埋め）
+    String torn = sha256("torn-body");
+    appendRaw(segment, recordHeader(torn, 9), new byte[9]);
+
+    try (SegmentStore store = new SegmentStore(directory, MAX_SEGMENT_SIZE)) {
+      assertThat(store.contains(torn)).isFalse();
+      assertThat(read(store, kept)).isEqualTo("kept");
+      assertThat(Files.size(segment)).isEqualTo(validSize);
+      assertThat(store.append(torn, source("torn-body"))).isTrue();
+    }
+
+    // ヘッダーの途中で停止した状態
+    appendRaw(segment, Arrays.copyOf(recordHeader(sha256("partial"), 7), 10), new byte[0]);
+    try (SegmentStore store = new SegmentStore(directory, MAX_SEGMENT_SIZE)) {
+      assertThat(store.entryCount()).isEqualTo(2);
+      assertThat(read(store, torn)).isEqualTo("torn-body");
+    }
+  }
+
+  @Test
+  void deletedRecordStaysDeletedAfterRestart() throws Exception {
+    Path directory = tempDir.resolve("segments");
+    String deleted = sha256("deleted");
+    try (SegmentStore store = new SegmentStore(directory, MAX_SEGMENT_SIZE)) {
+      store.append(deleted, source("deleted"));
+      assertThat(store.delete(deleted)).isTrue();
+      assertThat(store.delete(deleted)).isFalse();
+    }
+
+    try (SegmentStore store = new SegmentStore(directory, MAX_SEGMENT_SIZE)) {
+      assertThat(store.contains(deleted)).isFalse();
+      assertThat(store.liveBytes()).isZero();
+    }
+  }
+
+  @Test
+  void compactionMovesLiveRecordsAndSurvivesRestart() throws Exception {
+    Path directory = tempDir.resolve("segments");
+    String body = "x".repeat(100);
+    String removed = sha256(body + "a");
+    String moved = sha256(body + "b");
+    String other = sha256(body + "c");
+    long recordSize = SegmentStore.HEADER_SIZE + 101;
+    // 1つ目のセグメントに2件、2つ目に1件と削除レコードが入る大きさ
+    long maxSegmentSize = recordSize * 2 + SegmentStore.HEADER_SIZE + 10;
+
+    try (SegmentStore store = new SegmentStore(directory, maxSegmentSize)) {
+      store.append(removed, source(body + "a"));
+      store.append(moved, source(body + "b"));
+      store.append(other, source(body + "c"));
+      store.delete(removed);
+      assertThat(store.segmentCount()).isEqualTo(2);
+
+      assertThat(store.compact(0.5)).isEqualTo(1);
+      assertThat(store.segmentCount()).isEqualTo(1);
+      assertThat(store.find(moved).segmentId()).isEqualTo(2);
+      assertThat(read(store, moved)).isEqualTo(body + "b");
+      assertThat(read(store, other)).isEqualTo(body + "c");
+      assertThat(store.liveBytes()).isEqualTo(recordSize * 2);
+      // 読み込み中のリクエストのため、退役したセグメントは次回のコンパクションまで同じ名前で残る
+      assertThat(Files.exists(segmentFile(directory, 1))).isTrue();
+    }
+
+    // 退役したセグメントを削除する前に停止しても、詰め直した先のレコードが使われる
+    try (SegmentStore store = new SegmentStore(directory, maxSegmentSize)) {
+      assertThat(store.contains(removed)).isFalse();
+      assertThat(store.find(moved).segmentId()).isEqualTo(2);
+      assertThat(read(store, moved)).isEqualTo(body + "b");
+      assertThat(read(store, other)).isEqualTo(body + "c");
+
+      store.compact(0.5);
+      store.compact(0.5);
+      assertThat(Files.exists(segmentFile(directory, 1))).isFalse();
+    }
+
+    try (SegmentStore store = new SegmentStore(directory, maxSegmentSize)) {
+      assertThat(store.contains(removed)).isFalse();
+      assertThat(read(store, moved)).isEqualTo(body + "b");
+      assertThat(read(store, other)).isEqualTo(body + "c");
+      try (var files = Files.list(directory)) {
+        assertThat(files.map(file -> file.getFileName().toString()))
+            .containsExactly("segment-00000002.dat");
+      }
+    }
+  }
+
+  private Path source(String content) throws IOException {
+    return Files.writeString(Files.createTempFile(tempDir, "source", ".dat"), content);
+  }
+
+  private static String read(SegmentStore store, String sha256) throws IOException {
+    ByteBuffer slice = store.slice(sha256);
+    byte[] bytes = new byte[slice.remaining()];
+    slice.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static Path segmentFile(Path directory, int id) {
+    return directory.resolve(String.format("segment-%08d.dat", id));
+  }
+
+  private static byte[] recordHeader(String sha256, long length) {
+    ByteBuffer header = ByteBuffer.allocate(SegmentStore.HEADER_SIZE);
+    header.putInt(0x50524D53);
+    header.put((byte) 1);
+    header.put(HexFormat.of().parseHex(sha256));
+    header.putLong(length);
+    header.putLong(System.currentTimeMillis());
+    return header.array();
+  }
+
+  private static void appendRaw(Path segment, byte[] header, byte[] body) throws IOException {
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+      channel.write(ByteBuffer.wrap(header));
+      channel.write(ByteBuffer.wrap(body));
+    }
+  }
+
+  private static String sha256(String content) throws Exception {
+    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * 指定したバイト数を返したあとで読み込みに失敗する読み込み元
+   */
+  private static final class FailingChannel implements ReadableByteChannel {
+    private int remaining;
+
+    private FailingChannel(int failAfter) {
+      this.remaining = failAfter;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      if (remaining == 0) {
+        throw new IOException("読み込みに失敗しました");
+      }
+      int count = Math.min(remaining, dst.remaining());
+      for (int i = 0; i < count; i++) {
+        dst.put((byte) 'x');
+      }
+      remaining -= count;
+      return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return true;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
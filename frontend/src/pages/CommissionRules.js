@@ -57,7 +57,7 @@ const CommissionRules = () => {
       setLoading(true);
       const [rulesData, projectsData] = await Promise.all([
         commissionRuleService.getAll(),
-        projectService.getAll(),
+        projectService.getAllForSelect(),
       ]);
       setRules(rulesData);
       setFilteredRules(rulesData);
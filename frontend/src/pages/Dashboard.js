@@ -16,7 +16,8 @@ const Dashboard = () => {
   const navigate = useNavigate();
 
   // 状態管理
-  const [projects, setProjects] = useState([]);
+  const [recentProjects, setRecentProjects] = useState([]); // 最近の案件（先頭5件）
+  const [projectCounts, setProjectCounts] = useState({ total: 0, NEW: 0, IN_PROGRESS: 0, DONE: 0 }); // 案件数
   const [partners, setPartners] = useState([]);
   const [commissionRules, setCommissionRules] = useState([]);
   const [invoices, setInvoices] = useState([]);
@@ -33,14 +34,25 @@ const Dashboard = () => {
       setError('');
 
       // 並列で全データを取得
-      const [projectsData, partnersData, rulesData, invoicesData] = await Promise.all([
-        projectService.getAll(user?.id),
-        partnerService.getAll(),
-        commissionRuleService.getAll(),
-        invoiceService.getAll(),
-      ]);
+      // 案件は全件を読み込まず、先頭5件とステータス別の件数（totalElements）のみ取得する
+      const [projectsPage, newPage, inProgressPage, donePage, partnersData, rulesData, invoicesData] =
+        await Promise.all([
+          projectService.getAll({ size: 5 }),
+          projectService.getAll({ status: 'NEW', size: 1 }),
+          projectService.getAll({ status: 'IN_PROGRESS', size: 1 }),
+          projectService.getAll({ status: 'DONE', size: 1 }),
+          partnerService.getAll(),
+          commissionRuleService.getAll(),
+          invoiceService.getAll(),
+        ]);
 
-      setProjects(projectsData);
+      setRecentProjects(projectsPage.items);
+      setProjectCounts({
+        total: projectsPage.totalElements,
+        NEW: newPage.totalElements,
+        IN_PROGRESS: inProgressPage.totalElements,
+        DONE: donePage.totalElements
+      });
       setPartners(partnersData);
       setCommissionRules(rulesData);
       setInvoices(invoicesData);
@@ -86,13 +98,6 @@ const Dashboard = () => {
     navigate(`/projects/${projectId}`);
   };
 
-  // ステータス別に案件を分類
-  const projectsByStatus = {
-    NEW: projects.filter(p => p.status === 'NEW'),
-    IN_PROGRESS: projects.filter(p => p.status === 'IN_PROGRESS'),
-    DONE: projects.filter(p => p.status === 'DONE')
-  };
-
   // ステータス別に請求書を分類
   const invoicesByStatus = {
     DRAFT: invoices.filter(i => i.status === 'DRAFT'),
@@ -129,7 +134,7 @@ const Dashboard = () => {
 
         <div className="stat-card stat-projects" onClick={() => setActiveTab('projects')}>
           <h3>総案件数</h3>
-          <p className="stat-number">{projects.length}</p>
+          <p className="stat-number">{projectCounts.total}</p>
           <p className="stat-detail">全ステータス</p>
         </div>
 
@@ -180,15 +185,15 @@ const Dashboard = () => {
                 <div className="overview-stats">
                   <div className="overview-item">
                     <span>新規</span>
-                    <strong>{projectsByStatus.NEW.length}件</strong>
+                    <strong>{projectCounts.NEW}件</strong>
                   </div>
                   <div className="overview-item">
                     <span>進行中</span>
-                    <strong>{projectsByStatus.IN_PROGRESS.length}件</strong>
+                    <strong>{projectCounts.IN_PROGRESS}件</strong>
                   </div>
                   <div className="overview-item">
                     <span>完了</span>
-                    <strong>{projectsByStatus.DONE.length}件</strong>
+                    <strong>{projectCounts.DONE}件</strong>
                   </div>
                 </div>
               </div>
@@ -221,17 +226,17 @@ const Dashboard = () => {
             <div className="stats-cards">
               <div className="stat-card stat-new">
                 <h3>新規</h3>
-                <p className="stat-number">{projectsByStatus.NEW.length}件</p>
+                <p className="stat-number">{projectCounts.NEW}件</p>
                 <p className="stat-detail">未着手</p>
               </div>
               <div className="stat-card stat-progress">
                 <h3>進行中</h3>
-                <p className="stat-number">{projectsByStatus.IN_PROGRESS.length}件</p>
+                <p className="stat-number">{projectCounts.IN_PROGRESS}件</p>
                 <p className="stat-detail">作業中</p>
               </div>
               <div className="stat-card stat-done">
                 <h3>完了</h3>
-                <p className="stat-number">{projectsByStatus.DONE.length}件</p>
+                <p className="stat-number">{projectCounts.DONE}件</p>
                 <p className="stat-detail">終了</p>
               </div>
             </div>
@@ -239,12 +244,12 @@ const Dashboard = () => {
             {/* 最近の案件 */}
             <div className="recent-projects">
               <h2>📋 最近の案件</h2>
-              {projects.length === 0 ? (
+              {recentProjects.length === 0 ? (
                 <p className="no-data">案件がまだありません</p>
               ) : (
                 <>
                   <div className="projects-list">
-                    {projects.slice(0, 5).map(project => (
+                    {recentProjects.map(project => (
                       <div
                         key={project.id}
                         className="project-item"
@@ -356,6 +356,7 @@ const Invoices = () => {
         notes: invoice.notes || '',
         templateId: invoice.templateId || '',
         items: invoice.items.map(item => ({
+          id: item.id,
           commissionRuleId: item.commissionRuleId || '',
           description: item.description,
           quantity: item.quantity,
@@ -418,75 +418,21 @@ const Partners = () => {
         await fetchPartners();
       }
     } catch (err) {
-      setError(err.response?.data?.error || 'インポートに失敗しました');
+      setError(err.response?.data?.error || err.message || 'インポートに失敗しました');
       console.error('Import error:', err);
     } finally {
       setImporting(false);
     }
   };
 
-  // CSVエクスポート実行
-  const handleExportCsv = () => {
-    // ヘッダー行を作成
-    const headers = ['パートナー名', '業種', '代表電話', '住所', '担当者名', '担当者連絡先'];
-
-    // データ行を作成（1行に全ての担当者をカンマ区切りで）
-    const rows = partners.map(partner => {
-      // 担当者名をカンマ区切りで結合
-      const contactNames = partner.contacts && partner.contacts.length > 0
-        ? partner.contacts.map(c => c.contactName).join(',')
-        : '';
-
-      // 担当者連絡先をカンマ区切りで結合
-      const contactInfos = partner.contacts && partner.contacts.length > 0
-        ? partner.contacts.map(c => c.contactInfo).join(',')
-        : '';
-
-      return [
-        partner.name,
-        partner.industry || '',
-        partner.phone || '',
-        partner.address || '',
-        contactNames,
-        contactInfos
-      ];
-    });
-
-    // CSV文字列を作成
-    const csvContent = [
-      headers.join(','),
-      ...rows.map(row =>
-        row.map(cell => {
-          // セル内にカンマや改行がある場合はダブルクォートで囲む
-          const cellStr = String(cell);
-          if (cellStr.includes(',') || cellStr.includes('\n') || cellStr.includes('"')) {
-            return `"${cellStr.replace(/"/g, '""')}"`;
-          }
-          return cellStr;
-        }).join(',')
-      )
-    ].join('\n');
-
-    // UTF-8 BOMを追加（Excel対応）
-    const bom = '\uFEFF';
-    const blob = new Blob([bom + csvContent], { type: 'text/csv;charset=utf-8;' });
-
-    // ダウンロード用のリンクを作成
-    const link = document.createElement('a');
-    const url = URL.createObjectURL(blob);
-
-    // ファイル名を生成（日付付き）
-    const date = new Date().toISOString().split('T')[0];
-    link.setAttribute('href', url);
-    link.setAttribute('download', `partners_${date}.csv`);
-
-    // ダウンロードを実行
-    document.body.appendChild(link);
-    link.click();
-    document.body.removeChild(link);
-
-    // URLを解放
-    URL.revokeObjectURL(url);
+  // CSVエクスポート実行（サーバーで全件をインポートと同じ列構成で出力）
+  const handleExportCsv = async () => {
+    try {
+      await partnerService.exportCsv({ bom: true });
+    } catch (err) {
+      setError('エクスポートに失敗しました');
+      console.error('Export error:', err);
+    }
   };
 
   return (
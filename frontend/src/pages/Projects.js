@@ -15,6 +15,8 @@ const Projects = () => {
   const [partners, setPartners] = useState([]); // パートナー一覧のstate
   const [allUsers, setAllUsers] = useState([]); // ユーザー一覧のstate
   const [loading, setLoading] = useState(true); // ローディング状態のstate
+  const [loadingMore, setLoadingMore] = useState(false); // 次ページ読み込み中のstate
+  const [pageInfo, setPageInfo] = useState({ page: 0, hasNext: false, totalElements: 0 }); // 読み込み済みのページ情報
   const [error, setError] = useState(''); // エラーメッセージのstate
   const [showModal, setShowModal] = useState(false); // 案件作成・編集モーダルの表示状態のstate
   const [editingProject, setEditingProject] = useState(null); // 編集中の案件情報のstate
@@ -36,14 +38,49 @@ const Projects = () => {
 
   const isAdmin = user?.role === 'ADMIN';
 
-  // データ取得関数
-  const fetchData = useCallback(async () => {
+  // 案件一覧の1ページを取得（ステータスはサーバー側で絞り込む）
+  const fetchProjectPage = useCallback(async (page) => {
+    const params = { page };
+    if (statusFilter !== 'ALL') {
+      params.status = statusFilter;
+    }
+    return projectService.getAll(params);
+  }, [statusFilter]);
+
+  // 案件一覧を先頭ページから取得し直す
+  const fetchProjects = useCallback(async () => {
     try {
       setLoading(true);
-      const projectsData = await projectService.getAll(isAdmin ? null : user?.id);
-      setProjects(projectsData);
-      setFilteredProjects(projectsData);
+      const data = await fetchProjectPage(0);
+      setProjects(data.items);
+      setPageInfo({ page: data.page, hasNext: data.hasNext, totalElements: data.totalElements });
+      setError('');
+    } catch (err) {
+      setError('データの取得に失敗しました');
+      console.error('Fetch projects error:', err);
+    } finally {
+      setLoading(false);
+    }
+  }, [fetchProjectPage]);
+
+  // 次のページを読み込んで一覧に追加
+  const handleLoadMore = async () => {
+    try {
+      setLoadingMore(true);
+      const data = await fetchProjectPage(pageInfo.page + 1);
+      setProjects(prev => [...prev, ...data.items]);
+      setPageInfo({ page: data.page, hasNext: data.hasNext, totalElements: data.totalElements });
+    } catch (err) {
+      setError('データの取得に失敗しました');
+      console.error('Load more projects error:', err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
 
+  // パートナー・ユーザー一覧の取得関数
+  const fetchData = useCallback(async () => {
+    try {
       const partnersData = await partnerService.getAll(isAdmin ? null : user?.id);
       setPartners(partnersData);
 
@@ -53,12 +90,9 @@ const Projects = () => {
         setAllUsers(usersData);
       }
 
-      setError('');
     } catch (err) {
       setError('データの取得に失敗しました');
       console.error('Fetch data error:', err);
-    } finally {
-      setLoading(false);
     }
   }, [user, isAdmin]);
 
@@ -67,7 +101,12 @@ const Projects = () => {
     fetchData();
   }, [fetchData]);
 
-  // 検索・フィルター処理
+  // ステータスフィルターの変更時は先頭ページから取得し直す
+  useEffect(() => {
+    fetchProjects();
+  }, [fetchProjects]);
+
+  // 検索・フィルター処理（読み込み済みの案件が対象。ステータスはサーバー側で絞り込み済み）
   useEffect(() => {
     let filtered = [...projects];
 
@@ -81,11 +120,6 @@ const Projects = () => {
       );
     }
 
-    // ステータスでフィルター
-    if (statusFilter !== 'ALL') {
-      filtered = filtered.filter(project => project.status === statusFilter);
-    }
-
     // パートナーでフィルター
     if (partnerFilter !== 'ALL') {
       filtered = filtered.filter(project => project.partnerId === partnerFilter);
@@ -93,13 +127,11 @@ const Projects = () => {
 
     // 自分が担当している案件でフィルター
     if (assignedToMe) {
-      filtered = filtered.filter(project =>
-        project.assignments && project.assignments.some(a => a.userId === user?.id)
-      );
+      filtered = filtered.filter(project => project.assignedToMe);
     }
 
     setFilteredProjects(filtered);
-  }, [searchTerm, statusFilter, partnerFilter, assignedToMe, projects, user]);
+  }, [searchTerm, partnerFilter, assignedToMe, projects]);
 
   // 案件クリック時の処理
   const handleProjectClick = (projectId) => {
@@ -166,7 +198,7 @@ const Projects = () => {
       } else {
         await projectService.create(payload);
       }
-      fetchData();
+      fetchProjects();
       handleCloseModal();
     } catch (err) {
       setError(err.response?.data?.message || '案件の保存に失敗しました');
@@ -303,7 +335,7 @@ const Projects = () => {
                     <strong>オーナー:</strong> {project.ownerName}
                   </p>
                   <p className="project-assignments">
-                    <strong>担当者:</strong> {project.assignments ? project.assignments.length : 0}名
+                    <strong>担当者:</strong> {project.assigneeCount}名
                   </p>
                   <button
                     onClick={() => handleProjectClick(project.id)}
@@ -317,6 +349,20 @@ const Projects = () => {
           </div>
         )}
 
+        {/* 続きのページ（全件は一度に読み込まない） */}
+        {!loading && (
+          <div className="load-more">
+            <span className="load-more-info">
+              全{pageInfo.totalElements}件中 {projects.length}件を表示
+            </span>
+            {pageInfo.hasNext && (
+              <button onClick={handleLoadMore} className="btn-load-more" disabled={loadingMore}>
+                {loadingMore ? '読み込み中...' : 'さらに読み込む'}
+              </button>
+            )}
+          </div>
+        )}
+
         {showModal && (
           <div className="modal-overlay">
             <div className="modal-content">
@@ -1,4 +1,5 @@
 import api from './api';
+import { downloadCsv } from '../utils/csvDownload';
 
 /**
  * 手数料ルール管理のAPIサービス
@@ -11,6 +12,11 @@ const commissionRuleService = {
     return response.data;
   },
 
+  // CSVエクスポート（bom: trueでExcel向け）
+  exportCsv: async ({ bom = true } = {}) => {
+    await downloadCsv('/api/commission-rules/export.csv', { bom }, 'commission_rules');
+  },
+
   // 手数料ルールIDで取得
   getById: async (id) => {
     const response = await api.get(`/api/commission-rules/${id}`);
@@ -33,6 +33,15 @@ export const getSubFolders = async (parentFolderId) => {
   return response.data;
 };
 
+/**
+ * フォルダツリー全体を取得
+ * 各ノードは children に子フォルダ、fileCount に直下のファイル数を持つ
+ */
+export const getFolderTree = async () => {
+  const response = await api.get('/api/contents/folders/tree');
+  return response.data;
+};
+
 /**
  * フォルダをIDで取得
  */
@@ -57,6 +66,16 @@ export const updateFolder = async (folderId, folderData) => {
   return response.data;
 };
 
+/**
+ * フォルダを移動（parentFolderIdがnullの場合はルートへ移動）
+ */
+export const moveFolder = async (folderId, parentFolderId) => {
+  const response = await api.put(`/api/contents/folders/${folderId}/move`, null, {
+    params: parentFolderId ? { parentFolderId } : {}
+  });
+  return response.data;
+};
+
 /**
  * フォルダを削除
  */
@@ -92,11 +111,21 @@ export const getFileById = async (fileId) => {
   return response.data;
 };
 
+// このサイズを超えるファイルはチャンクアップロードで送信（単発アップロードの上限は10MB）
+const RESUMABLE_UPLOAD_THRESHOLD = 8 * 1024 * 1024;
+
+// 1チャンクあたりの送信試行回数
+const CHUNK_RETRY_LIMIT = 3;
+
 /**
  * ファイルをアップロード
- * multipart/form-data形式で送信
+ * multipart/form-data形式で送信（大きなファイルはチャンクアップロード）
  */
 export const uploadFile = async (fileData) => {
+  if (fileData.file.size > RESUMABLE_UPLOAD_THRESHOLD) {
+    return uploadFileResumable(fileData);
+  }
+
   const formData = new FormData();
 
   // ファイルを追加
@@ -124,6 +153,93 @@ export const uploadFile = async (fileData) => {
   return response.data;
 };
 
+// BlobのSHA-256を16進数で取得
+const sha256Hex = async (blob) => {
+  const digest = await crypto.subtle.digest('SHA-256', await blob.arrayBuffer());
+  return Array.from(new Uint8Array(digest))
+    .map((b) => b.toString(16).padStart(2, '0'))
+    .join('');
+};
+
+// 再開用にアップロードIDを保存するキー（同じフォルダへの同じファイルなら再開する）
+const resumeKey = (file, folderId) =>
+  `contentUpload:${folderId}:${file.name}:${file.size}:${file.lastModified}`;
+
+/**
+ * ファイルをチャンクに分けてアップロード（再開可能）
+ * 通信が切れた場合も、同じファイルを再度アップロードすると未送信のチャンクから再開する
+ *
+ * onProgress: ({ loaded, total }) => void
+ */
+export const uploadFileResumable = async (fileData, onProgress) => {
+  const { file, folderId } = fileData;
+  const key = resumeKey(file, folderId);
+
+  // 前回の未完了アップロードがあれば受信済みチャンクを確認
+  let upload = null;
+  const savedUploadId = localStorage.getItem(key);
+  if (savedUploadId) {
+    try {
+      const response = await api.get(`/api/contents/uploads/${savedUploadId}`);
+      upload = response.data;
+    } catch (err) {
+      localStorage.removeItem(key);
+    }
+  }
+  if (!upload) {
+    const response = await api.post('/api/contents/uploads', {
+      folderId,
+      fileName: file.name,
+      title: fileData.title,
+      description: fileData.description,
+      tags: fileData.tags,
+      fileType: file.type || undefined,
+      fileSize: file.size,
+    });
+    upload = response.data;
+    localStorage.setItem(key, upload.uploadId);
+  }
+
+  const received = new Set(upload.receivedChunks);
+  let loaded = upload.receivedBytes;
+  for (let index = 0; index < upload.totalChunks; index++) {
+    if (received.has(index)) {
+      continue;
+    }
+    const offset = index * upload.chunkSize;
+    const chunk = file.slice(offset, Math.min(offset + upload.chunkSize, file.size));
+    const checksum = await sha256Hex(chunk);
+
+    for (let attempt = 1; ; attempt++) {
+      try {
+        await api.put(`/api/contents/uploads/${upload.uploadId}/chunks`, chunk, {
+          params: { offset },
+          headers: {
+            'Content-Type': 'application/octet-stream',
+            'X-Chunk-Sha256': checksum,
+          },
+        });
+        break;
+      } catch (err) {
+        // 通信エラー・チェックサム不一致・サーバーエラーは再送、それ以外（期限切れなど）は中断
+        const status = err.response?.status;
+        if (attempt >= CHUNK_RETRY_LIMIT || (status && status !== 400 && status < 500)) {
+          throw err;
+        }
+      }
+    }
+
+    loaded += chunk.size;
+    if (onProgress) {
+      onProgress({ loaded, total: file.size });
+    }
+  }
+
+  const response = await api.post(`/api/contents/uploads/${upload.uploadId}/complete`);
+  localStorage.removeItem(key);
+  return response.data;
+};
+
 /**
  * 複数ファイルをアップロード
  */
@@ -248,15 +364,18 @@ const contentService = {
   getAllFolders,
   getRootFolders,
   getSubFolders,
+  getFolderTree,
   getFolderById,
   createFolder,
   updateFolder,
+  moveFolder,
   deleteFolder,
   // ファイル管理
   getAllFiles,
   getFilesByFolder,
   getFileById,
   uploadFile,
+  uploadFileResumable,
   uploadMultipleFiles,
   updateFile,
   deleteFile,
@@ -0,0 +1,52 @@
+import api from './api';
+
+// ポーリング間隔（ミリ秒）
+const POLL_INTERVAL_MS = 1000;
+
+/**
+ * ImportJobサービス
+ * CSVインポートジョブの進捗確認・キャンセルを管理
+ */
+const importJobService = {
+  /**
+   * ジョブの進捗を取得
+   * 戻り値: { id, status, finished, processedRows, successCount, errorCount, errors, failureReason, ... }
+   */
+  get: async (id) => {
+    const response = await api.get(`/api/import-jobs/${id}`);
+    return response.data;
+  },
+
+  /**
+   * ジョブのキャンセルを要求（コミット済みの行は取り消されない）
+   */
+  cancel: async (id) => {
+    const response = await api.post(`/api/import-jobs/${id}/cancel`);
+    return response.data;
+  },
+
+  /**
+   * ジョブが終了するまでポーリング
+   * onProgress: 取得のたびに呼ばれるコールバック（任意）
+   * 失敗（FAILED）の場合はfailureReasonをメッセージとするエラーを投げる
+   */
+  waitForCompletion: async (id, onProgress) => {
+    let job = await importJobService.get(id);
+    while (!job.finished) {
+      if (onProgress) {
+        onProgress(job);
+      }
+      await new Promise((resolve) => setTimeout(resolve, POLL_INTERVAL_MS));
+      job = await importJobService.get(id);
+    }
+    if (onProgress) {
+      onProgress(job);
+    }
+    if (job.status === 'FAILED') {
+      throw new Error(job.failureReason || 'インポートに失敗しました');
+    }
+    return job;
+  }
+};
+
+export default importJobService;
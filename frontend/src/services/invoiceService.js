@@ -1,4 +1,5 @@
 import api from './api';
+import { downloadCsv } from '../utils/csvDownload';
 
 /**
  * Invoiceサービス
@@ -13,6 +14,24 @@ const invoiceService = {
     return response.data;
   },
 
+  /**
+   * 請求書一覧をカーソル方式で取得（明細を含まない）
+   * params: partnerId, status, issueDateFrom, issueDateTo, dueDateFrom, dueDateTo, cursor, limit
+   * 戻り値: { items, nextCursor, hasNext }
+   */
+  getPage: async (params = {}) => {
+    const response = await api.get('/api/invoices/page', { params });
+    return response.data;
+  },
+
+  /**
+   * 請求書をCSVでエクスポート
+   * params: partnerId, status, bom（trueでExcel向けにBOMを付与）
+   */
+  exportCsv: async ({ partnerId, status, bom = true } = {}) => {
+    await downloadCsv('/api/invoices/export.csv', { partnerId, status, bom }, 'invoices');
+  },
+
   /**
    * IDで請求書を取得
    */
@@ -37,6 +56,15 @@ const invoiceService = {
     return response.data;
   },
 
+  /**
+   * 請求書を一括作成
+   * 戻り値: 1件ごとの成否（results）と成功・失敗件数
+   */
+  createBatch: async (invoices) => {
+    const response = await api.post('/api/invoices/batch', { invoices });
+    return response.data;
+  },
+
   /**
    * 請求書を更新
    */
@@ -70,6 +98,16 @@ const invoiceService = {
     return response.data;
   },
 
+  /**
+   * ステータスを一括変更
+   * action: 'ISSUE' | 'MARK_PAID' | 'REVERT_TO_DRAFT'
+   * 戻り値: 1件ごとの成否（results）と成功・失敗件数
+   */
+  bulkUpdateStatus: async (action, invoiceIds) => {
+    const response = await api.patch('/api/invoices/bulk-status', { action, invoiceIds });
+    return response.data;
+  },
+
   /**
    * 請求書PDFを生成してダウンロード
    * 
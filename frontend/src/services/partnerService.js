@@ -1,4 +1,6 @@
 import api from './api';
+import importJobService from './importJobService';
+import { downloadCsv } from '../utils/csvDownload';
 
 const partnerService = {
   getAll: async () => {
@@ -36,7 +38,8 @@ const partnerService = {
     }
   },
 
-  importCsv: async (file) => {
+  // CSVインポート（ジョブを登録し、終了までポーリングして結果を返す）
+  importCsv: async (file, onProgress) => {
     const formData = new FormData();
     formData.append('file', file);
 
@@ -45,7 +48,12 @@ const partnerService = {
         'Content-Type': 'multipart/form-data',
       },
     });
-    return response.data;
+    return importJobService.waitForCompletion(response.data.id, onProgress);
+  },
+
+  // CSVエクスポート（インポートと同じ列構成、bom: trueでExcel向け）
+  exportCsv: async ({ bom = true } = {}) => {
+    await downloadCsv('/api/partners/export.csv', { bom }, 'partners');
   },
 };
 
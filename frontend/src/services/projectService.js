@@ -1,13 +1,22 @@
 import api from './api';
+import importJobService from './importJobService';
+import { downloadCsv } from '../utils/csvDownload';
+
+// 軽量版の一覧の1ページあたりの件数（既定）
+const SUMMARY_PAGE_SIZE = 50;
+// 選択肢用に全件を取得する場合の1ページあたりの件数（サーバーの上限）
+const SUMMARY_MAX_PAGE_SIZE = 200;
 
 const projectService = {
-  // 全案件取得（管理者も担当者も全件表示）
-  getAll: async (ownerId = null) => {
+  // 案件一覧の1ページを取得（管理者は全件、担当者は閲覧可能な案件が対象）
+  // 各案件は軽量版（assigneeCount・assignedToMeを含み、担当者リストは含まない）
+  // params: ownerId, status, page（既定0）, size（既定50）, sort, direction
+  // 戻り値: { items, page, size, totalElements, totalPages, hasNext }
+  getAll: async (params = {}) => {
     try {
-      // ownerIdが明示的に指定された場合のみフィルター
-      // 現在の要件では常に全件取得
-      const url = '/api/projects';
-      const response = await api.get(url);
+      const response = await api.get('/api/projects/summary', {
+        params: { page: 0, size: SUMMARY_PAGE_SIZE, ...params }
+      });
       return response.data;
     } catch (error) {
       console.error('Get all projects error:', error);
@@ -15,17 +24,34 @@ const projectService = {
     }
   },
 
-  // 担当者別案件取得（将来の機能拡張用）
-  getByOwner: async (ownerId) => {
+  // 担当者別案件の1ページを取得（将来の機能拡張用）
+  getByOwner: async (ownerId, params = {}) => {
     try {
-      const response = await api.get(`/api/projects?ownerId=${ownerId}`);
-      return response.data;
+      return await projectService.getAll({ ...params, ownerId });
     } catch (error) {
       console.error('Get projects by owner error:', error);
       throw error;
     }
   },
 
+  // 選択肢用に軽量版の案件を全件取得（手数料ルールの案件選択など、全件が必要な画面のみで使う）
+  // 一覧画面では getAll でページ単位に取得すること
+  getAllForSelect: async () => {
+    try {
+      const items = [];
+      for (let page = 0; ; page++) {
+        const data = await projectService.getAll({ page, size: SUMMARY_MAX_PAGE_SIZE });
+        items.push(...data.items);
+        if (!data.hasNext) {
+          return items;
+        }
+      }
+    } catch (error) {
+      console.error('Get projects for select error:', error);
+      throw error;
+    }
+  },
+
   // 案件詳細取得
   getById: async (id) => {
     try {
@@ -69,8 +95,8 @@ const projectService = {
     }
   },
 
-  // CSVインポート
-  importCsv: async (file) => {
+  // CSVインポート（ジョブを登録し、終了までポーリングして結果を返す）
+  importCsv: async (file, onProgress) => {
     const formData = new FormData();
     formData.append('file', file);
 
@@ -79,7 +105,12 @@ const projectService = {
         'Content-Type': 'multipart/form-data'
       }
     });
-    return response.data;
+    return importJobService.waitForCompletion(response.data.id, onProgress);
+  },
+
+  // CSVエクスポート（インポートと同じ列構成、bom: trueでExcel向け）
+  exportCsv: async ({ bom = true } = {}) => {
+    await downloadCsv('/api/projects/export.csv', { bom }, 'projects');
   },
 
   // テーブルデータ取得
@@ -88,12 +119,40 @@ const projectService = {
     return response.data;
   },
 
+  // テーブルデータのヘッダー（列名・行数）取得
+  getTableDataHeader: async (projectId) => {
+    const response = await api.get(`/api/projects/${projectId}/table-data/header`);
+    return response.data;
+  },
+
+  // テーブルデータの行範囲取得
+  // columns: 取得する列の位置の配列（省略時は全列）
+  getTableDataRows: async (projectId, offset = 0, limit = 200, columns = null) => {
+    const params = { offset, limit };
+    if (columns && columns.length > 0) {
+      params.columns = columns.join(',');
+    }
+    const response = await api.get(`/api/projects/${projectId}/table-data/rows`, { params });
+    return response.data;
+  },
+
   // テーブルデータ保存
   saveTableData: async (projectId, tableDataJson) => {
     const response = await api.put(`/api/projects/${projectId}/table-data`, {
       tableDataJson
     });
     return response.data;
+  },
+
+  // テーブルデータ差分更新
+  // operations: [{ type: 'SET_CELL', row, column, value }, ...]
+  // 戻り値: { version }（版数が一致しない場合は409）
+  patchTableData: async (projectId, baseVersion, operations) => {
+    const response = await api.patch(`/api/projects/${projectId}/table-data`, {
+      baseVersion,
+      operations
+    });
+    return response.data;
   }
 };
 
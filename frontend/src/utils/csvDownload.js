@@ -0,0 +1,32 @@
+import api from '../services/api';
+
+/**
+ * CSVダウンロードユーティリティ
+ * サーバーがストリーミングで出力したCSVを取得し、ファイル保存ダイアログを表示する
+ */
+
+/**
+ * CSVをダウンロードして保存
+ *
+ * @param {string} url - エクスポートAPIのURL（例: /api/partners/export.csv）
+ * @param {Object} params - クエリパラメータ（bom: trueでExcel向けにBOMを付与）
+ * @param {string} prefix - 保存するファイル名の接頭辞（例: partners → partners_2026-01-01.csv）
+ */
+export const downloadCsv = async (url, params, prefix) => {
+  const response = await api.get(url, { params, responseType: 'blob' });
+
+  // BlobからダウンロードURLを作成
+  const objectUrl = window.URL.createObjectURL(response.data);
+  const date = new Date().toISOString().split('T')[0];
+
+  // ダウンロードリンクを作成してクリック
+  const link = document.createElement('a');
+  link.href = objectUrl;
+  link.download = `${prefix}_${date}.csv`;
+  document.body.appendChild(link);
+  link.click();
+
+  // クリーンアップ
+  document.body.removeChild(link);
+  window.URL.revokeObjectURL(objectUrl);
+};